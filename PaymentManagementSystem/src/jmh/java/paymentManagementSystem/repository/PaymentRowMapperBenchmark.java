@@ -0,0 +1,162 @@
+package paymentManagementSystem.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.DatabaseConnectionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps payment rows with the index-based {@link PaymentRowMapper} against the name-based
+ * mapping it replaced. The rows are fetched once into a scrollable result set, so only the
+ * mapping is measured, on the PostgreSQL driver's own {@link ResultSet}. Needs the database
+ * from {@code application.properties} with at least one payment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentRowMapperBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet rs;
+
+    @Setup
+    public void setUp() throws SQLException {
+        PaymentCategoryCache.getInstance().reload();
+        connection = DatabaseConnectionManager.getConnection();
+        statement = connection.prepareStatement("""
+                SELECT p.*, u.username as user_name, u.email as user_email
+                FROM payments p
+                LEFT JOIN users u ON p.created_by = u.id
+                ORDER BY p.id
+                LIMIT ?
+                """, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        statement.setInt(1, rows);
+        rs = statement.executeQuery();
+        if (!rs.next()) {
+            throw new IllegalStateException("PaymentRowMapperBenchmark needs payments in the database");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        rs.close();
+        statement.close();
+        connection.close();
+        DatabaseConnectionManager.closeConnection();
+    }
+
+    @Benchmark
+    public void indexBased(Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        PaymentRowMapper mapper = PaymentRowMapper.forResultSet(rs);
+        while (rs.next()) {
+            blackhole.consume(mapper.map(rs));
+        }
+    }
+
+    @Benchmark
+    public void nameBased(Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        while (rs.next()) {
+            blackhole.consume(mapByName(rs));
+        }
+    }
+
+    /**
+     * The former PaymentRepositoryImpl.mapResultSetToPayment, kept as the baseline.
+     */
+    private static Payment mapByName(ResultSet rs) throws SQLException {
+        Payment payment = new Payment();
+
+        Object idObj = rs.getObject("id");
+        if (idObj instanceof Integer) {
+            payment.setId(((Integer) idObj).longValue());
+        } else if (idObj instanceof Long) {
+            payment.setId((Long) idObj);
+        } else if (idObj != null) {
+            payment.setId(Long.valueOf(idObj.toString()));
+        }
+
+        payment.setAmount(rs.getBigDecimal("amount"));
+        payment.setCurrency(rs.getString("currency"));
+        payment.setDescription(rs.getString("description"));
+        payment.setReferenceNumber(rs.getString("reference_number"));
+        payment.setClientVendorName(rs.getString("client_vendor_name"));
+        payment.setAccountDetails(rs.getString("account_details"));
+
+        payment.setPaymentType(PaymentType.valueOf(rs.getString("payment_type")));
+        payment.setStatus(PaymentStatus.valueOf(rs.getString("status")));
+
+        payment.setPaymentDate(rs.getTimestamp("payment_date").toLocalDateTime());
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            payment.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            payment.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+
+        Long categoryId = rs.getObject("category_id") != null ?
+                ((Number) rs.getObject("category_id")).longValue() : null;
+        if (categoryId != null) {
+            PaymentCategory category = new PaymentCategory();
+            category.setId(categoryId);
+            try {
+                category.setName(rs.getString("category_name"));
+                category.setDescription(rs.getString("category_description"));
+            } catch (SQLException e) {
+                category.setName(null);
+                category.setDescription(null);
+            }
+            payment.setCategory(category);
+        }
+
+        Object createdById = rs.getObject("created_by");
+        if (createdById != null) {
+            User user = new User();
+            try {
+                user.setId(UUID.fromString(createdById.toString()));
+                user.setUsername(rs.getString("user_name"));
+                user.setEmail(rs.getString("user_email"));
+            } catch (SQLException | IllegalArgumentException e) {
+                // Missing columns or an invalid UUID
+            }
+            payment.setCreatedBy(user);
+        }
+
+        return payment;
+    }
+}
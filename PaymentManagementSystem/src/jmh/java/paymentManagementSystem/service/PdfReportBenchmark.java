@@ -0,0 +1,106 @@
+package paymentManagementSystem.service;
+
+import com.itextpdf.text.pdf.PdfReader;
+import paymentManagementSystem.dto.response.ReportDTO;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.enums.ReportType;
+import paymentManagementSystem.repository.InMemoryPaymentRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures PDF rendering throughput in pages per second. A PDF is mostly one long table,
+ * and the page count only shows up after layout, so this is a plain timed loop rather than
+ * a JMH benchmark. The payments live in an {@link InMemoryPaymentRepository}, so no
+ * database is needed and the time is spent in layout and writing.
+ * <p>
+ * Arguments: payment count (default 50000) and measured runs (default 5), after one
+ * warm-up run:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.main=paymentManagementSystem.service.PdfReportBenchmark
+ * -Djmh.args="50000 5"}
+ */
+public class PdfReportBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 365;
+
+    public static void main(String[] args) throws IOException {
+        int paymentCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        InMemoryPaymentRepository repository = new InMemoryPaymentRepository();
+        repository.saveAll(payments(paymentCount));
+        ReportGenerationServiceImpl service = new ReportGenerationServiceImpl(repository);
+        ReportDTO report = ReportDTO.builder()
+                .reportType(ReportType.DETAILED)
+                .startDate(START)
+                .endDate(START.plusDays(DAYS - 1))
+                .totalIncoming(BigDecimal.ZERO)
+                .totalOutgoing(BigDecimal.ZERO)
+                .netAmount(BigDecimal.ZERO)
+                .paymentCount(paymentCount)
+                .build();
+
+        render(service, report, "warm-up");
+        long pages = 0;
+        long nanos = 0;
+        for (int i = 1; i <= runs; i++) {
+            long[] result = render(service, report, "run " + i);
+            pages += result[0];
+            nanos += result[1];
+        }
+        System.out.printf("%d payments, %d runs: %.1f pages/s, %.0f rows/s%n", paymentCount, runs,
+                pages / (nanos / 1e9), (double) paymentCount * runs / (nanos / 1e9));
+    }
+
+    private static long[] render(ReportGenerationServiceImpl service, ReportDTO report, String label) throws IOException {
+        long start = System.nanoTime();
+        String fileName = service.generatePdfReport(report);
+        long elapsed = System.nanoTime() - start;
+        try {
+            PdfReader reader = new PdfReader(fileName);
+            int pages = reader.getNumberOfPages();
+            reader.close();
+            System.out.printf("%-8s %5d pages in %6d ms: %.1f pages/s%n", label, pages, elapsed / 1_000_000,
+                    pages / (elapsed / 1e9));
+            return new long[]{pages, elapsed};
+        } finally {
+            Files.deleteIfExists(Paths.get(fileName));
+        }
+    }
+
+    private static List<Payment> payments(int count) {
+        Random random = new Random(42);
+        PaymentCategory[] categories = {
+                PaymentCategory.builder().id(1L).name("Salaries").build(),
+                PaymentCategory.builder().id(2L).name("Office Supplies").build(),
+                PaymentCategory.builder().id(3L).name("Utilities").build()
+        };
+        PaymentStatus[] statuses = PaymentStatus.values();
+        List<Payment> payments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payments.add(Payment.builder()
+                    .paymentType(random.nextBoolean() ? PaymentType.INCOMING : PaymentType.OUTGOING)
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .amount(BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2))
+                    .currency("USD")
+                    .description("Benchmark payment " + i)
+                    .referenceNumber("PAY-" + i)
+                    .category(categories[random.nextInt(categories.length)])
+                    .paymentDate(START.plusDays(random.nextInt(DAYS)).atTime(random.nextInt(24), random.nextInt(60)))
+                    .clientVendorName("Vendor " + random.nextInt(500))
+                    .build());
+        }
+        return payments;
+    }
+}
@@ -0,0 +1,75 @@
+package paymentManagementSystem.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing payment amounts with {@link CentsAccumulator} against the {@link BigDecimal}
+ * reduce it replaced. {@code addCents} is the columnar path, where amounts are already
+ * stored as cents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CentsAccumulatorBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<BigDecimal> amounts;
+    private long[] cents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new ArrayList<>(size);
+        cents = new long[size];
+        for (int i = 0; i < size; i++) {
+            // DECIMAL(15,2) amounts between 0.01 and 100000.00
+            long amountCents = 1 + random.nextInt(10_000_000);
+            amounts.add(BigDecimal.valueOf(amountCents, 2));
+            cents[i] = amountCents;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalReduce() {
+        return amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal centsAccumulatorAdd() {
+        CentsAccumulator total = new CentsAccumulator();
+        for (BigDecimal amount : amounts) {
+            total.add(amount);
+        }
+        return total.toBigDecimal();
+    }
+
+    @Benchmark
+    public BigDecimal centsAccumulatorAddCents() {
+        CentsAccumulator total = new CentsAccumulator();
+        for (long amountCents : cents) {
+            total.addCents(amountCents);
+        }
+        return total.toBigDecimal();
+    }
+}
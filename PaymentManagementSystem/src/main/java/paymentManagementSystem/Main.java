@@ -1,11 +1,18 @@
 package paymentManagementSystem;
 
+import paymentManagementSystem.dao.CachingUserDAO;
 import paymentManagementSystem.dao.UserDAO;
 import paymentManagementSystem.dao.UserDAOImplementation;
+import paymentManagementSystem.dao.InMemoryUserDAO;
 import paymentManagementSystem.dto.UserDTO;
 import paymentManagementSystem.dto.request.CreatePaymentRequest;
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
 import paymentManagementSystem.dto.request.UpdatePaymentStatusRequest;
 import paymentManagementSystem.dto.request.GenerateReportRequest;
+import paymentManagementSystem.dto.response.BreakdownEntry;
+import paymentManagementSystem.dto.response.ImportResult;
+import paymentManagementSystem.dto.response.PageResponse;
 import paymentManagementSystem.dto.response.PaymentResponse;
 import paymentManagementSystem.dto.response.ReportDTO;
 import paymentManagementSystem.entity.*;
@@ -14,52 +21,166 @@ import paymentManagementSystem.enums.PaymentType;
 import paymentManagementSystem.enums.PeriodType;
 import paymentManagementSystem.enums.ReportType;
 import paymentManagementSystem.enums.UserRole;
+import paymentManagementSystem.repository.DailyRollupRepository;
+import paymentManagementSystem.repository.DailySketchRepositoryImpl;
+import paymentManagementSystem.repository.InMemoryPaymentRepository;
+import paymentManagementSystem.repository.JournalingPaymentRepository;
+import paymentManagementSystem.repository.PaymentCategoryCache;
+import paymentManagementSystem.repository.PaymentColumnarSnapshot;
+import paymentManagementSystem.repository.PaymentCopyImportRepository;
+import paymentManagementSystem.repository.PaymentJournal;
+import paymentManagementSystem.repository.PaymentJournalReplayer;
+import paymentManagementSystem.repository.PaymentRepository;
+import paymentManagementSystem.repository.PaymentRepositoryImpl;
+import paymentManagementSystem.repository.ReferenceNumberFilter;
 import paymentManagementSystem.service.OnboardUserService;
+import paymentManagementSystem.service.PaymentImportService;
 import paymentManagementSystem.service.PaymentService;
 import paymentManagementSystem.service.ReportGenerationService;
 import paymentManagementSystem.service.OnboardUserServiceImpl;
+import paymentManagementSystem.service.PaymentImportServiceImpl;
+import paymentManagementSystem.service.PaymentServiceImpl;
+import paymentManagementSystem.service.ReportGenerationServiceImpl;
 import paymentManagementSystem.util.AuditLogger;
 import paymentManagementSystem.util.DatabaseConnectionManager;
 import paymentManagementSystem.util.DatabaseInitializer;
+import paymentManagementSystem.util.PropertiesUtil;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class Main {
     private static Scanner scanner;
     private static OnboardUserService userService;
     private static PaymentService paymentService;
     private static ReportGenerationService reportService;
+    private static PaymentImportService importService;
+    private static PaymentJournal journal;
+    private static AuditLogger auditLogger;
     private static User currentUser = null;
+    private static final int PAGE_SIZE = PropertiesUtil.getIntProperty("app.pageSize", PageRequest.DEFAULT_LIMIT);
+    // app.storage=memory runs everything without PostgreSQL, for demos and load tests
+    private static final boolean IN_MEMORY = "memory".equalsIgnoreCase(PropertiesUtil.getProperty("app.storage", "postgres").trim());
 
     public static void main(String[] args) {
 //        DatabaseInitializer.dropAllTables();
-        DatabaseInitializer.createTables();
+        if (!IN_MEMORY) {
+            DatabaseInitializer.createTables();
+        }
         initialize();
         showLoginMenu();
     }
 
     private static void initialize() {
         scanner = new Scanner(System.in);
+        // Ctrl-C and SIGTERM skip the exit menu; the audit writer and journal flusher are daemons
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::flushOnExit, "payment-system-shutdown"));
+
+        if (IN_MEMORY) {
+            initializeInMemory();
+            System.out.println("Payment Management System initialized successfully (in-memory storage).");
+            return;
+        }
 
         // Initialize services
-        AuditLogger auditLogger = new AuditLogger();
-        UserDAO userDAO = new UserDAOImplementation();
+        auditLogger = new AuditLogger();
+        UserDAO userDAO = CachingUserDAO.wrapIfEnabled(new UserDAOImplementation());
         userService = new OnboardUserServiceImpl(userDAO, auditLogger);
 
-        paymentManagementSystem.repository.PaymentRepositoryImpl paymentRepository = new paymentManagementSystem.repository.PaymentRepositoryImpl();
-        paymentService = new paymentManagementSystem.service.PaymentServiceImpl(paymentRepository, auditLogger);
+        ReferenceNumberFilter referenceFilter = null;
+        if (PropertiesUtil.getBooleanProperty("reference.bloom.enabled", true)) {
+            referenceFilter = new ReferenceNumberFilter();
+            // Warm before any repository can insert, so no reference is missed
+            referenceFilter.warm();
+        }
+
+        PaymentRepositoryImpl paymentRepository = new PaymentRepositoryImpl(new DailyRollupRepository(), referenceFilter);
+        PaymentColumnarSnapshot snapshot = null;
+        if (PropertiesUtil.getBooleanProperty("report.snapshot.enabled", true)) {
+            snapshot = new PaymentColumnarSnapshot();
+        }
+        paymentService = new PaymentServiceImpl(journaled(paymentRepository), auditLogger,
+                PaymentCategoryCache.getInstance(), snapshot, new DailySketchRepositoryImpl());
 
-        reportService = new paymentManagementSystem.service.ReportGenerationServiceImpl();
+        reportService = new ReportGenerationServiceImpl(paymentRepository);
+
+        importService = new PaymentImportServiceImpl(new PaymentCopyImportRepository(referenceFilter), auditLogger, paymentService);
 
         System.out.println("Payment Management System initialized successfully.");
     }
 
+    private static void initializeInMemory() {
+        List<PaymentCategory> categories = new ArrayList<>();
+        for (int i = 0; i < DatabaseInitializer.DEFAULT_CATEGORIES.length; i++) {
+            categories.add(PaymentCategory.builder()
+                    .id(i + 1L)
+                    .name(DatabaseInitializer.DEFAULT_CATEGORIES[i][0])
+                    .description(DatabaseInitializer.DEFAULT_CATEGORIES[i][1])
+                    .active(true)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        PaymentCategoryCache.getInstance().loadFixed(categories);
+
+        auditLogger = AuditLogger.disabled();
+        userService = new OnboardUserServiceImpl(new InMemoryUserDAO(), auditLogger);
+        InMemoryPaymentRepository paymentRepository = new InMemoryPaymentRepository();
+        if (PropertiesUtil.getBooleanProperty("journal.enabled", false)) {
+            if (PaymentJournal.isCheckpointNeeded(PaymentJournal.directoryFromProperties())) {
+                System.out.println("Warning: the payment journal missed writes before the last shutdown; they are not restored.");
+            }
+            // Bootstrap the store from the journal before new writes are appended to it
+            PaymentJournalReplayer.Result replayed =
+                    PaymentJournalReplayer.replay(PaymentJournal.directoryFromProperties(), paymentRepository);
+            // Replace the replayed history with the restored state, so the next start reads one file
+            int compacted = PaymentJournal.checkpoint(
+                    PaymentJournal.directoryFromProperties(), paymentRepository.findAll());
+            System.out.println("Restored " + paymentRepository.size() + " payments from the journal ("
+                    + replayed.getRecordsRead() + " records, " + compacted + " segments checkpointed).");
+        }
+        paymentService = new PaymentServiceImpl(journaled(paymentRepository), auditLogger);
+        reportService = new ReportGenerationServiceImpl(paymentRepository);
+        // COPY-based import needs PostgreSQL
+        importService = null;
+    }
+
+    private static PaymentRepository journaled(PaymentRepository paymentRepository) {
+        if (!PropertiesUtil.getBooleanProperty("journal.enabled", false)) {
+            return paymentRepository;
+        }
+        if (!IN_MEMORY && PaymentJournal.isCheckpointNeeded(PaymentJournal.directoryFromProperties())) {
+            // The database holds the writes the journal missed, so rebuild the journal from it
+            int replaced = PaymentJournal.checkpoint(
+                    PaymentJournal.directoryFromProperties(), paymentRepository.findAll());
+            System.out.println("Payment journal checkpointed from the database after missed writes (" + replaced + " segments replaced).");
+        }
+        journal = PaymentJournal.fromProperties();
+        return new JournalingPaymentRepository(paymentRepository, journal);
+    }
+
+    /**
+     * Drains queued audit entries and closes the journal. Runs from the exit menu and again
+     * from the shutdown hook, where it finds both already closed.
+     */
+    private static void flushOnExit() {
+        if (auditLogger != null) {
+            auditLogger.shutdown();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
     private static void showLoginMenu() {
         while (true) {
             System.out.println("\n===== Payment Management System =====");
@@ -80,6 +201,8 @@ public class Main {
                     break;
                 case 3:
                     System.out.println("Exiting system. Goodbye!");
+                    flushOnExit();
+                    PaymentCategoryCache.getInstance().stopListening();
                     DatabaseConnectionManager.closeConnection();
                     return;
                 default:
@@ -195,11 +318,13 @@ public class Main {
         while (true) {
             System.out.println("\n=== Payments Management ===");
             System.out.println("1. Add New Payment");
-//            System.out.println("2. Update Payment Status");
-            System.out.println("2. View All Payments");
-            System.out.println("3. View Payments by Type");
-            System.out.println("4. View Payments by Status");
-            System.out.println("5. Return to Main Menu");
+            System.out.println("2. Update Payment Status");
+            System.out.println("3. View All Payments");
+            System.out.println("4. View Payments by Type");
+            System.out.println("5. View Payments by Status");
+            System.out.println("6. Search Payments");
+            System.out.println("7. Import Payments from CSV");
+            System.out.println("8. Return to Main Menu");
             System.out.print("Select an option: ");
 
             int choice = getIntInput();
@@ -209,19 +334,25 @@ public class Main {
                 case 1:
                     addNewPayment();
                     break;
-//                case 2:
-//                    updatePaymentStatus();
-//                    break;
                 case 2:
-                    viewAllPayments();
+                    updatePaymentStatus();
                     break;
                 case 3:
-                    viewPaymentsByType();
+                    viewAllPayments();
                     break;
                 case 4:
-                    viewPaymentsByStatus();
+                    viewPaymentsByType();
                     break;
                 case 5:
+                    viewPaymentsByStatus();
+                    break;
+                case 6:
+                    searchPayments();
+                    break;
+                case 7:
+                    importPaymentsFromCsv();
+                    break;
+                case 8:
                     return;
                 default:
                     System.out.println("Invalid option. Please try again.");
@@ -282,6 +413,35 @@ public class Main {
         }
     }
 
+    private static void importPaymentsFromCsv() {
+        System.out.println("\n=== Import Payments from CSV ===");
+        System.out.println("Expected header: payment_type,amount,currency,description,reference_number,"
+                + "category,payment_date,client_vendor_name,account_details,created_by");
+        if (importService == null) {
+            System.out.println("CSV import requires PostgreSQL storage (app.storage=postgres).");
+            return;
+        }
+        System.out.print("Enter CSV file path: ");
+        String path = scanner.nextLine().trim();
+
+        try {
+            ImportResult result = importService.importPaymentsFromCsv(
+                    java.nio.file.Paths.get(path), currentUser.getId().toString(),
+                    lines -> System.out.println("  ... " + lines + " lines loaded"));
+
+            System.out.println("Rows read: " + result.getRowsRead());
+            System.out.println("Imported: " + result.getRowsImported());
+            System.out.println("Duplicates skipped: " + result.getDuplicatesSkipped());
+            System.out.println("Rejected: " + result.getRowsRejected());
+            if (result.getRejectsFile() != null) {
+                System.out.println("Rejected rows written to: " + result.getRejectsFile());
+            }
+            System.out.printf("Completed in %d ms (%.0f rows/s)%n", result.getElapsedMillis(), result.getRowsPerSecond());
+        } catch (Exception e) {
+            System.out.println("Error importing payments: " + e.getMessage());
+        }
+    }
+
     private static void updatePaymentStatus() {
         System.out.println("\n=== Update Payment Status ===");
 
@@ -330,8 +490,7 @@ public class Main {
 
     private static void viewAllPayments() {
         System.out.println("\n=== All Payments ===");
-        List<PaymentResponse> payments = paymentService.getAllPayments();
-        displayPayments(payments);
+        browsePayments(paymentService::getPaymentsPage);
     }
 
     private static void viewPaymentsByType() {
@@ -343,8 +502,7 @@ public class Main {
         int typeChoice = getIntInput();
         PaymentType paymentType = (typeChoice == 1) ? PaymentType.INCOMING : PaymentType.OUTGOING;
 
-        List<PaymentResponse> payments = paymentService.getPaymentsByType(paymentType);
-        displayPayments(payments);
+        browsePayments(pageRequest -> paymentService.getPaymentsPageByType(paymentType, pageRequest));
     }
 
     private static void viewPaymentsByStatus() {
@@ -367,8 +525,69 @@ public class Main {
             default: status = PaymentStatus.CANCELLED;
         }
 
-        List<PaymentResponse> payments = paymentService.getPaymentsByStatus(status);
-        displayPayments(payments);
+        PaymentStatus selectedStatus = status;
+        browsePayments(pageRequest -> paymentService.getPaymentsPageByStatus(selectedStatus, pageRequest));
+    }
+
+    private static void searchPayments() {
+        System.out.println("\n=== Search Payments ===");
+        System.out.println("Leave any field blank to skip it.");
+        PaymentQuery.PaymentQueryBuilder query = PaymentQuery.builder();
+
+        try {
+            String type = prompt("Payment type (INCOMING/OUTGOING): ");
+            if (!type.isEmpty()) {
+                query.paymentType(PaymentType.valueOf(type.toUpperCase()));
+            }
+
+            String statuses = prompt("Statuses, comma separated (e.g. PENDING,COMPLETED): ");
+            if (!statuses.isEmpty()) {
+                query.statuses(Arrays.stream(statuses.split(","))
+                        .map(status -> PaymentStatus.valueOf(status.trim().toUpperCase()))
+                        .collect(Collectors.toSet()));
+            }
+
+            String categories = prompt("Category IDs, comma separated: ");
+            if (!categories.isEmpty()) {
+                query.categoryIds(Arrays.stream(categories.split(","))
+                        .map(id -> Long.parseLong(id.trim()))
+                        .collect(Collectors.toSet()));
+            }
+
+            String minAmount = prompt("Minimum amount: ");
+            if (!minAmount.isEmpty()) {
+                query.minAmount(new BigDecimal(minAmount));
+            }
+            String maxAmount = prompt("Maximum amount: ");
+            if (!maxAmount.isEmpty()) {
+                query.maxAmount(new BigDecimal(maxAmount));
+            }
+
+            String fromDate = prompt("Payment date from (YYYY-MM-DD): ");
+            if (!fromDate.isEmpty()) {
+                query.paymentDateFrom(LocalDate.parse(fromDate).atStartOfDay());
+            }
+            String toDate = prompt("Payment date to (YYYY-MM-DD): ");
+            if (!toDate.isEmpty()) {
+                query.paymentDateTo(LocalDate.parse(toDate).atTime(23, 59, 59, 999_999_999));
+            }
+
+            String vendorPrefix = prompt("Client/vendor name starts with: ");
+            if (!vendorPrefix.isEmpty()) {
+                query.vendorNamePrefix(vendorPrefix);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.out.println("Invalid search criteria: " + e.getMessage());
+            return;
+        }
+
+        PaymentQuery criteria = query.build();
+        browsePayments(pageRequest -> paymentService.findPaymentsPage(criteria, pageRequest));
+    }
+
+    private static String prompt(String label) {
+        System.out.print(label);
+        return scanner.nextLine().trim();
     }
 
     private static void showReportsMenu() {
@@ -376,7 +595,13 @@ public class Main {
             System.out.println("\n=== Reports ===");
             System.out.println("1. Generate Monthly Report");
             System.out.println("2. Generate Quarterly Report");
-            System.out.println("3. Return to Main Menu");
+            System.out.println("3. Generate Yearly Report");
+            System.out.println("4. Generate All Reports for a Year");
+            System.out.println("5. Explore Report Cube");
+            System.out.println("6. Top Clients/Vendors");
+            System.out.println("7. Rebuild Daily Rollups");
+            System.out.println("8. Check Daily Rollups");
+            System.out.println("9. Return to Main Menu");
             System.out.print("Select an option: ");
 
             int choice = getIntInput();
@@ -390,6 +615,24 @@ public class Main {
                     generateQuarterlyReport();
                     break;
                 case 3:
+                    generateYearlyReport();
+                    break;
+                case 4:
+                    generateAllReportsForYear();
+                    break;
+                case 5:
+                    exploreReportCube();
+                    break;
+                case 6:
+                    showTopCounterparties();
+                    break;
+                case 7:
+                    rebuildDailyRollups();
+                    break;
+                case 8:
+                    checkDailyRollups();
+                    break;
+                case 9:
                     return;
                 default:
                     System.out.println("Invalid option. Please try again.");
@@ -406,27 +649,26 @@ public class Main {
         System.out.print("Enter month (1-12): ");
         int month = getIntInput();
 
+        ReportType reportType = selectReportType();
+        boolean includeSketches = selectIncludeSketches();
+
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
 
         GenerateReportRequest request = GenerateReportRequest.builder()
-                .reportType(ReportType.FINANCIAL)
+                .reportType(reportType)
                 .periodType(PeriodType.MONTHLY)
                 .startDate(startDate)
                 .endDate(endDate)
+                .includePayments(reportType == ReportType.DETAILED)
+                .includeSketches(includeSketches)
                 .build();
 
         try {
             ReportDTO report = paymentService.generateReport(request);
             displayReport(report);
 
-            System.out.println("\nDo you want to save this report as PDF? (y/n): ");
-            String choice = scanner.next();
-
-            if (choice.equalsIgnoreCase("y")) {
-                String fileName = reportService.generatePdfReport(report);
-                System.out.println("Report saved as: " + fileName);
-            }
+            saveReport(report);
         } catch (Exception e) {
             System.out.println("Error generating report: " + e.getMessage());
         }
@@ -441,33 +683,283 @@ public class Main {
         System.out.print("Enter quarter (1-4): ");
         int quarter = getIntInput();
 
+        ReportType reportType = selectReportType();
+        boolean includeSketches = selectIncludeSketches();
+
         // Calculate quarter dates
         LocalDate startDate = LocalDate.of(year, (quarter - 1) * 3 + 1, 1);
         LocalDate endDate = startDate.plusMonths(3).minusDays(1);
 
         GenerateReportRequest request = GenerateReportRequest.builder()
-                .reportType(ReportType.FINANCIAL)
+                .reportType(reportType)
                 .periodType(PeriodType.QUARTERLY)
                 .startDate(startDate)
                 .endDate(endDate)
+                .includePayments(reportType == ReportType.DETAILED)
+                .includeSketches(includeSketches)
                 .build();
 
         try {
             ReportDTO report = paymentService.generateReport(request);
             displayReport(report);
 
-            System.out.println("\nDo you want to save this report as PDF? (y/n): ");
-            String choice = scanner.next();
+            saveReport(report);
+        } catch (Exception e) {
+            System.out.println("Error generating report: " + e.getMessage());
+        }
+    }
+
+    private static void generateYearlyReport() {
+        System.out.println("\n=== Generate Yearly Report ===");
+
+        System.out.print("Enter year (e.g., 2023): ");
+        int year = getIntInput();
+
+        ReportType reportType = selectReportType();
+        boolean includeSketches = selectIncludeSketches();
+
+        LocalDate startDate = LocalDate.of(year, 1, 1);
+        LocalDate endDate = LocalDate.of(year, 12, 31);
+
+        GenerateReportRequest request = GenerateReportRequest.builder()
+                .reportType(reportType)
+                .periodType(PeriodType.YEARLY)
+                .startDate(startDate)
+                .endDate(endDate)
+                .includePayments(reportType == ReportType.DETAILED)
+                .includeSketches(includeSketches)
+                .build();
+
+        try {
+            ReportDTO report = paymentService.generateReport(request);
+            displayReport(report);
+
+            saveReport(report);
+        } catch (Exception e) {
+            System.out.println("Error generating report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Summary and detailed reports are built from the report cube and also show the status and
+     * month breakdowns.
+     */
+    private static ReportType selectReportType() {
+        System.out.println("Report type:");
+        System.out.println("1. Financial");
+        System.out.println("2. Summary (cube, no payment table in the PDF)");
+        System.out.println("3. Detailed (cube)");
+        System.out.print("Select report type: ");
+        switch (getIntInput()) {
+            case 2:
+                return ReportType.SUMMARY;
+            case 3:
+                return ReportType.DETAILED;
+            default:
+                return ReportType.FINANCIAL;
+        }
+    }
+
+    /**
+     * Sketches are built for any day that has none yet and stored, so they are off unless asked for.
+     */
+    private static boolean selectIncludeSketches() {
+        System.out.print("Include distinct counts and amount percentiles? 1. Yes  0. No: ");
+        return getIntInput() == 1;
+    }
+
+    private static void saveReport(ReportDTO report) {
+        System.out.println("\nSave this report? 1. PDF  2. CSV  3. CSV (gzip)  4. Excel  0. No: ");
+        int choice = getIntInput();
+
+        String fileName = null;
+        long start = System.currentTimeMillis();
+        switch (choice) {
+            case 1:
+                fileName = reportService.generatePdfReport(report);
+                break;
+            case 2:
+                fileName = reportService.generateCsvReport(report, false);
+                break;
+            case 3:
+                fileName = reportService.generateCsvReport(report, true);
+                break;
+            case 4:
+                fileName = reportService.generateExcelReport(report);
+                break;
+            default:
+                return;
+        }
+        System.out.println("Report saved as: " + fileName + " (" + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    private static void generateAllReportsForYear() {
+        System.out.println("\n=== Generate All Reports for a Year ===");
 
-            if (choice.equalsIgnoreCase("y")) {
-                String fileName = reportService.generatePdfReport(report);
-                System.out.println("Report saved as: " + fileName);
+        System.out.print("Enter year (e.g., 2023): ");
+        int year = getIntInput();
+
+        List<GenerateReportRequest> requests = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            LocalDate startDate = LocalDate.of(year, month, 1);
+            requests.add(GenerateReportRequest.builder()
+                    .reportType(ReportType.FINANCIAL)
+                    .periodType(PeriodType.MONTHLY)
+                    .startDate(startDate)
+                    .endDate(startDate.withDayOfMonth(startDate.lengthOfMonth()))
+                    .build());
+        }
+        for (int quarter = 1; quarter <= 4; quarter++) {
+            LocalDate startDate = LocalDate.of(year, (quarter - 1) * 3 + 1, 1);
+            requests.add(GenerateReportRequest.builder()
+                    .reportType(ReportType.FINANCIAL)
+                    .periodType(PeriodType.QUARTERLY)
+                    .startDate(startDate)
+                    .endDate(startDate.plusMonths(3).minusDays(1))
+                    .build());
+        }
+        requests.add(GenerateReportRequest.builder()
+                .reportType(ReportType.FINANCIAL)
+                .periodType(PeriodType.YEARLY)
+                .startDate(LocalDate.of(year, 1, 1))
+                .endDate(LocalDate.of(year, 12, 31))
+                .build());
+
+        try {
+            long start = System.currentTimeMillis();
+            List<ReportDTO> reports = paymentService.generateReports(requests);
+            System.out.printf("%-10s %-12s %-12s %15s %15s %15s %8s%n",
+                    "Period", "From", "To", "Incoming", "Outgoing", "Net", "Count");
+            for (ReportDTO report : reports) {
+                System.out.printf("%-10s %-12s %-12s %15.2f %15.2f %15.2f %8d%n",
+                        report.getPeriodType().getDescription(), report.getStartDate(), report.getEndDate(),
+                        report.getTotalIncoming(), report.getTotalOutgoing(), report.getNetAmount(), report.getPaymentCount());
             }
+            System.out.println(reports.size() + " reports generated in " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (Exception e) {
+            System.out.println("Error generating reports: " + e.getMessage());
+        }
+    }
+
+    private static void exploreReportCube() {
+        System.out.println("\n=== Explore Report Cube ===");
+
+        System.out.print("Enter year (e.g., 2023): ");
+        int year = getIntInput();
+        scanner.nextLine(); // Consume newline
+
+        paymentManagementSystem.dto.response.ReportCube cube;
+        try {
+            long start = System.currentTimeMillis();
+            cube = paymentService.buildReportCube(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+            System.out.println("Built " + cube.getCellCount() + " cells in " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (Exception e) {
+            System.out.println("Error building report cube: " + e.getMessage());
+            return;
+        }
+
+        // Every query below is answered from the cube without reading payments again
+        while (true) {
+            String groupBy = prompt("\nGroup by (any of type,status,category,currency,month; blank to return): ");
+            if (groupBy.isEmpty()) {
+                return;
+            }
+            String filter = prompt("Filter (dimension=value[,value...], blank for none): ");
+            try {
+                List<paymentManagementSystem.dto.response.ReportCube.Dimension> dimensions = new ArrayList<>();
+                for (String name : groupBy.split(",")) {
+                    dimensions.add(paymentManagementSystem.dto.response.ReportCube.Dimension.valueOf(name.trim().toUpperCase()));
+                }
+                paymentManagementSystem.dto.response.ReportCube slice = cube;
+                if (!filter.isEmpty()) {
+                    String[] parts = filter.split("=", 2);
+                    slice = cube.where(paymentManagementSystem.dto.response.ReportCube.Dimension.valueOf(parts[0].trim().toUpperCase()),
+                            Arrays.stream(parts[1].split(",")).map(String::trim).toArray(String[]::new));
+                }
+                displayCubeRows(slice.groupBy(dimensions.toArray(new paymentManagementSystem.dto.response.ReportCube.Dimension[0])));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                System.out.println("Invalid dimension or filter. Please try again.");
+            }
+        }
+    }
+
+    private static void showTopCounterparties() {
+        System.out.println("\n=== Top Clients/Vendors ===");
+
+        System.out.print("Enter year (e.g., 2023): ");
+        int year = getIntInput();
+
+        System.out.print("Enter month (1-12, or 0 for the whole year): ");
+        int month = getIntInput();
+
+        System.out.print("How many to show: ");
+        int limit = getIntInput();
+
+        try {
+            LocalDate startDate = month == 0 ? LocalDate.of(year, 1, 1) : LocalDate.of(year, month, 1);
+            LocalDate endDate = month == 0 ? LocalDate.of(year, 12, 31) : startDate.withDayOfMonth(startDate.lengthOfMonth());
+
+            long start = System.currentTimeMillis();
+            paymentManagementSystem.dto.response.CounterpartyReportDTO report =
+                    paymentService.getTopCounterparties(startDate, endDate, limit);
+            System.out.println("\nPeriod: " + startDate + " to " + endDate + " (" + report.getCounterpartyCount()
+                    + " clients/vendors, " + (System.currentTimeMillis() - start) + " ms)");
+
+            System.out.println("\nBy incoming volume:");
+            displayBreakdown(report.getTopByIncoming());
+            System.out.println("\nBy outgoing volume:");
+            displayBreakdown(report.getTopByOutgoing());
+            System.out.println("\nBy number of payments:");
+            displayBreakdown(report.getTopByCount());
         } catch (Exception e) {
             System.out.println("Error generating report: " + e.getMessage());
         }
     }
 
+    private static void displayCubeRows(List<paymentManagementSystem.dto.response.ReportCube.Row> rows) {
+        System.out.printf("%-40s %8s %15s %12s %12s%n", "Group", "Count", "Total", "Min", "Max");
+        for (paymentManagementSystem.dto.response.ReportCube.Row row : rows) {
+            String label = String.join(" / ", row.getLabels());
+            System.out.printf("%-40s %8d %15.2f %12.2f %12.2f%n",
+                    label.length() > 40 ? label.substring(0, 37) + "..." : label,
+                    row.getCount(), row.getTotal(), row.getMin(), row.getMax());
+        }
+    }
+
+    private static void rebuildDailyRollups() {
+        System.out.println("\n=== Rebuild Daily Rollups ===");
+
+        System.out.print("Enter year (e.g., 2023): ");
+        int year = getIntInput();
+
+        try {
+            long start = System.currentTimeMillis();
+            long rows = paymentService.rebuildDailyRollups(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+            System.out.println("Rebuilt " + rows + " rollup rows in " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (Exception e) {
+            System.out.println("Error rebuilding rollups: " + e.getMessage());
+        }
+    }
+
+    private static void checkDailyRollups() {
+        System.out.println("\n=== Check Daily Rollups ===");
+
+        System.out.print("Enter year (e.g., 2023): ");
+        int year = getIntInput();
+
+        try {
+            List<String> mismatches = paymentService.checkDailyRollups(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+            if (mismatches.isEmpty()) {
+                System.out.println("Daily rollups are consistent with payments.");
+            } else {
+                System.out.println(mismatches.size() + " rollup mismatches found:");
+                mismatches.forEach(System.out::println);
+            }
+        } catch (Exception e) {
+            System.out.println("Error checking rollups: " + e.getMessage());
+        }
+    }
+
     private static void showUserManagementMenu() {
         while (true) {
             System.out.println("\n=== User Management ===");
@@ -569,6 +1061,29 @@ public class Main {
         }
     }
 
+    private static void browsePayments(Function<PageRequest, PageResponse<PaymentResponse>> pageFetcher) {
+        PageRequest pageRequest = PageRequest.firstPage(PAGE_SIZE);
+        int pageNumber = 1;
+
+        while (true) {
+            PageResponse<PaymentResponse> page = pageFetcher.apply(pageRequest);
+            System.out.println("\n--- Page " + pageNumber + " ---");
+            displayPayments(page.getItems());
+
+            if (!page.isHasMore()) {
+                return;
+            }
+
+            System.out.print("\nPress 'n' for the next page or any other key to return: ");
+            String choice = scanner.next();
+            if (!choice.equalsIgnoreCase("n")) {
+                return;
+            }
+            pageRequest = page.nextPage(PAGE_SIZE);
+            pageNumber++;
+        }
+    }
+
     private static void displayPayments(List<PaymentResponse> payments) {
         if (payments.isEmpty()) {
             System.out.println("No payments found.");
@@ -618,9 +1133,62 @@ public class Main {
         System.out.println("Total Incoming: $" + String.format("%.2f", report.getTotalIncoming()));
         System.out.println("Total Outgoing: $" + String.format("%.2f", report.getTotalOutgoing()));
         System.out.println("Net Amount: $" + String.format("%.2f", report.getNetAmount()));
+        System.out.println("Payments: " + report.getPaymentCount());
+
+        if (report.getCategoryBreakdown() != null && !report.getCategoryBreakdown().isEmpty()) {
+            System.out.println("\nBy category:");
+            displayBreakdown(report.getCategoryBreakdown());
+        }
+        if (report.getVendorBreakdown() != null && !report.getVendorBreakdown().isEmpty()) {
+            System.out.println("\nTop clients/vendors:");
+            displayBreakdown(report.getVendorBreakdown());
+        }
+        if (report.getCurrencyBreakdown() != null && report.getCurrencyBreakdown().size() > 1) {
+            System.out.println("\nBy currency:");
+            displayBreakdown(report.getCurrencyBreakdown());
+        }
 
-        System.out.println("\nPayments in this period:");
-        displayPayments(report.getPayments());
+        if (report.getCube() != null) {
+            System.out.println("\nBy status:");
+            displayBreakdown(report.getCube().breakdown(paymentManagementSystem.dto.response.ReportCube.Dimension.STATUS));
+            if (report.getCube().getLabels(paymentManagementSystem.dto.response.ReportCube.Dimension.MONTH).size() > 1) {
+                System.out.println("\nBy month:");
+                displayBreakdown(report.getCube().breakdown(paymentManagementSystem.dto.response.ReportCube.Dimension.MONTH));
+            }
+        }
+
+        if (report.getSketches() != null) {
+            displaySketches(report.getSketches());
+        }
+
+        if (report.getPayments() != null && !report.getPayments().isEmpty()) {
+            System.out.println("\nPayments in this period:");
+            displayPayments(report.getPayments());
+        }
+    }
+
+    private static void displaySketches(paymentManagementSystem.dto.response.SketchSummary sketches) {
+        System.out.println("\nApproximate analytics (" + sketches.getDaysReused() + " stored days, "
+                + sketches.getDaysScanned() + " days scanned):");
+        System.out.println("Distinct vendors: ~" + sketches.getDistinctVendors()
+                + ", clients: ~" + sketches.getDistinctClients()
+                + ", creators: ~" + sketches.getDistinctCreators());
+        System.out.printf("%-10s %-25s %8s %12s %12s %12s %12s%n", "Type", "Category", "Count", "p50", "p90", "p99", "Max");
+        for (paymentManagementSystem.dto.response.SketchSummary.AmountPercentiles row : sketches.getAmountPercentiles()) {
+            System.out.printf("%-10s %-25s %8d %12.2f %12.2f %12.2f %12.2f%n",
+                    row.getPaymentType(),
+                    row.getCategory().length() > 25 ? row.getCategory().substring(0, 22) + "..." : row.getCategory(),
+                    row.getCount(), row.getP50(), row.getP90(), row.getP99(), row.getMax());
+        }
+    }
+
+    private static void displayBreakdown(List<BreakdownEntry> entries) {
+        System.out.printf("%-30s %8s %15s %15s %15s%n", "Name", "Count", "Incoming", "Outgoing", "Net");
+        for (BreakdownEntry entry : entries) {
+            System.out.printf("%-30s %8d %15.2f %15.2f %15.2f%n",
+                    entry.getName().length() > 30 ? entry.getName().substring(0, 27) + "..." : entry.getName(),
+                    entry.getPaymentCount(), entry.getTotalIncoming(), entry.getTotalOutgoing(), entry.getNetAmount());
+        }
     }
 
     private static int getIntInput() {
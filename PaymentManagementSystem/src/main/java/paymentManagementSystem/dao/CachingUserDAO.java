@@ -0,0 +1,255 @@
+package paymentManagementSystem.dao;
+
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.util.LruTtlCache;
+import paymentManagementSystem.util.PropertiesUtil;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link UserDAO} decorator that caches users by id and by email.
+ * <p>
+ * Users are stored once by id; the email cache only maps an email to an id, and a hit is
+ * accepted only if the cached user still has that email, so a stale email mapping left
+ * behind by an update or delete simply misses. Emails known not to exist are cached for
+ * {@code user.cache.negativeTtlSeconds}, and cleared when a user with that email is saved
+ * or updated. Every write bumps an invalidation counter before and after it runs, and a
+ * database read is only cached if no write happened while it was in flight; the counter
+ * is checked again after the put and the entry taken back if a write started meanwhile,
+ * so a slow read cannot put back a user that was just changed. Callers get copies, never
+ * the cached instances.
+ */
+public class CachingUserDAO implements UserDAO {
+
+    private final UserDAO delegate;
+    private final LruTtlCache<UUID, User> usersById;
+    private final LruTtlCache<String, UUID> idsByEmail;
+    private final LruTtlCache<String, Boolean> absentEmails;
+    private final long negativeTtlMillis;
+
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingUserDAO(UserDAO delegate, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.delegate = delegate;
+        this.usersById = new LruTtlCache<>(maxSize, ttlMillis);
+        this.idsByEmail = new LruTtlCache<>(maxSize, ttlMillis);
+        this.absentEmails = new LruTtlCache<>(maxSize, negativeTtlMillis);
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    /**
+     * Wraps the DAO in a cache configured from {@code user.cache.*}, or returns it
+     * unchanged when {@code user.cache.enabled} is false.
+     */
+    public static UserDAO wrapIfEnabled(UserDAO delegate) {
+        if (!PropertiesUtil.getBooleanProperty("user.cache.enabled", true)) {
+            return delegate;
+        }
+        return new CachingUserDAO(delegate,
+                PropertiesUtil.getIntProperty("user.cache.maxSize", 10000),
+                PropertiesUtil.getLongProperty("user.cache.ttlSeconds", 300) * 1000,
+                PropertiesUtil.getLongProperty("user.cache.negativeTtlSeconds", 30) * 1000);
+    }
+
+    @Override
+    public User save(User user) {
+        invalidations.incrementAndGet();
+        try {
+            return delegate.save(user);
+        } finally {
+            forgetEmail(user.getEmail());
+            invalidations.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        User cached = usersById.get(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copy(cached));
+        }
+        misses.increment();
+
+        long version = invalidations.get();
+        Optional<User> user = delegate.findById(id);
+        user.ifPresent(found -> cache(found, version));
+        return user;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            // The caches cannot hold null keys
+            return delegate.findByEmail(null);
+        }
+        if (absentEmails.get(email) != null) {
+            hits.increment();
+            return Optional.empty();
+        }
+        User cached = cachedByEmail(email);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copy(cached));
+        }
+        misses.increment();
+
+        long version = invalidations.get();
+        Optional<User> user = delegate.findByEmail(email);
+        if (user.isPresent()) {
+            cache(user.get(), version);
+        } else {
+            cacheAbsent(email, version);
+        }
+        return user;
+    }
+
+    @Override
+    public void update(User user) {
+        invalidations.incrementAndGet();
+        try {
+            delegate.update(user);
+        } finally {
+            usersById.invalidate(user.getId());
+            forgetEmail(user.getEmail());
+            invalidations.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void delete(UUID id) {
+        invalidations.incrementAndGet();
+        try {
+            delegate.delete(id);
+        } finally {
+            usersById.invalidate(id);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null) {
+            return delegate.existsByEmail(null);
+        }
+        if (absentEmails.get(email) != null) {
+            hits.increment();
+            return false;
+        }
+        if (cachedByEmail(email) != null) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+
+        long version = invalidations.get();
+        boolean exists = delegate.existsByEmail(email);
+        if (!exists) {
+            cacheAbsent(email, version);
+        }
+        return exists;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        long version = invalidations.get();
+        Optional<User> user = delegate.findByUsername(username);
+        user.ifPresent(found -> cache(found, version));
+        return user;
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        usersById.invalidateAll();
+        idsByEmail.invalidateAll();
+        absentEmails.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long total = getHitCount() + getMissCount();
+        return total == 0 ? 0.0 : (double) getHitCount() / total;
+    }
+
+    public double getMissRatio() {
+        long total = getHitCount() + getMissCount();
+        return total == 0 ? 0.0 : (double) getMissCount() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UserCache[users=%d, emails=%d, absentEmails=%d, hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, expirations=%d]",
+                usersById.size(), idsByEmail.size(), absentEmails.size(), getHitCount(), getMissCount(), getHitRatio(),
+                usersById.getEvictionCount() + idsByEmail.getEvictionCount() + absentEmails.getEvictionCount(),
+                usersById.getExpirationCount() + idsByEmail.getExpirationCount() + absentEmails.getExpirationCount());
+    }
+
+    private User cachedByEmail(String email) {
+        UUID id = idsByEmail.get(email);
+        if (id == null) {
+            return null;
+        }
+        User user = usersById.get(id);
+        return user != null && email.equals(user.getEmail()) ? user : null;
+    }
+
+    private void cache(User user, long version) {
+        User cached = copy(user);
+        // Skip if a write ran while this value was being read from the database
+        if (invalidations.get() != version) {
+            return;
+        }
+        UUID id = cached.getId();
+        usersById.put(id, cached);
+        if (cached.getEmail() != null) {
+            idsByEmail.put(cached.getEmail(), id);
+        }
+        // A write that started between the check and the put may already have invalidated
+        if (invalidations.get() != version) {
+            usersById.invalidate(id, cached);
+            if (cached.getEmail() != null) {
+                idsByEmail.invalidate(cached.getEmail(), id);
+            }
+        }
+    }
+
+    private void cacheAbsent(String email, long version) {
+        if (invalidations.get() != version) {
+            return;
+        }
+        absentEmails.put(email, Boolean.TRUE, negativeTtlMillis);
+        if (invalidations.get() != version) {
+            absentEmails.invalidate(email, Boolean.TRUE);
+        }
+    }
+
+    private void forgetEmail(String email) {
+        if (email != null) {
+            absentEmails.invalidate(email);
+            idsByEmail.invalidate(email);
+        }
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPasswordHash(), user.getEmail(),
+                user.getRole(), user.getAddress(), user.getPhoneNumber(), user.getCity());
+    }
+}
@@ -0,0 +1,96 @@
+package paymentManagementSystem.dao;
+
+import paymentManagementSystem.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link UserDAO} backed by a map, used together with the in-memory payment repository
+ * when running without PostgreSQL. Enforces the same unique username and email rules as
+ * the users table. Users are copied in and out so callers cannot change stored state.
+ */
+public class InMemoryUserDAO implements UserDAO {
+
+    private final Map<UUID, User> users = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized User save(User user) {
+        requireNotNullColumns(user, "saving");
+        if (user.getId() == null) {
+            user.setId(UUID.randomUUID());
+        }
+        for (User existing : users.values()) {
+            if (existing.getEmail().equals(user.getEmail()) || existing.getUsername().equals(user.getUsername())) {
+                throw new RuntimeException("Error saving user: username or email already exists");
+            }
+        }
+        users.put(user.getId(), copy(user));
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        User user = users.get(id);
+        return user != null ? Optional.of(copy(user)) : Optional.empty();
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> result = new ArrayList<>();
+        users.values().forEach(user -> result.add(copy(user)));
+        return result;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return users.values().stream().filter(user -> Objects.equals(user.getEmail(), email)).findFirst().map(InMemoryUserDAO::copy);
+    }
+
+    @Override
+    public synchronized void update(User user) {
+        requireNotNullColumns(user, "updating");
+        User existing = users.get(user.getId());
+        if (existing == null) {
+            throw new RuntimeException("Error updating user: no rows affected");
+        }
+        User updated = copy(user);
+        // The users UPDATE statement leaves the password hash untouched
+        updated.setPasswordHash(existing.getPasswordHash());
+        users.put(user.getId(), updated);
+    }
+
+    @Override
+    public synchronized void delete(UUID id) {
+        if (users.remove(id) == null) {
+            throw new RuntimeException("Error deleting user: no rows affected");
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return users.values().stream().anyMatch(user -> Objects.equals(user.getEmail(), email));
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return users.values().stream().filter(user -> Objects.equals(user.getUsername(), username)).findFirst().map(InMemoryUserDAO::copy);
+    }
+
+    // Username and email are NOT NULL in the users table
+    private static void requireNotNullColumns(User user, String action) {
+        if (user.getUsername() == null || user.getEmail() == null) {
+            throw new RuntimeException("Error " + action + " user: username and email are required");
+        }
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPasswordHash(), user.getEmail(),
+                user.getRole(), user.getAddress(), user.getPhoneNumber(), user.getCity());
+    }
+}
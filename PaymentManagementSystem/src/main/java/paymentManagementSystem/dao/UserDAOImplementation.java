@@ -1,7 +1,6 @@
 package paymentManagementSystem.dao;
 
 import paymentManagementSystem.entity.User;
-import paymentManagementSystem.enums.UserRole;
 import paymentManagementSystem.util.DatabaseConnectionManager;
 
 import java.sql.*;
@@ -129,7 +128,7 @@ public class UserDAOImplementation implements UserDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
+                return Optional.of(UserRowMapper.forResultSet(rs).map(rs));
             }
             return Optional.empty();
 
@@ -147,8 +146,9 @@ public class UserDAOImplementation implements UserDAO {
             setParameters(stmt, params);
             ResultSet rs = stmt.executeQuery();
 
+            UserRowMapper mapper = UserRowMapper.forResultSet(rs);
             while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
+                users.add(mapper.map(rs));
             }
             return users;
 
@@ -179,17 +179,4 @@ public class UserDAOImplementation implements UserDAO {
             stmt.setObject(i + 1, params[i]);
         }
     }
-
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        return User.builder()
-                .id(UUID.fromString(rs.getString("id")))
-                .username(rs.getString("username"))
-                .passwordHash(rs.getString("password_hash"))
-                .email(rs.getString("email"))
-                .phoneNumber(rs.getString("phone_number"))
-                .address(rs.getString("address"))
-                .city(rs.getString("city"))
-                .role(UserRole.valueOf(rs.getString("role")))
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package paymentManagementSystem.dao;
+
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.enums.UserRole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Maps user rows by column index, resolved once per result set with
+ * {@link ResultSet#findColumn(String)} instead of by name on every row.
+ */
+final class UserRowMapper {
+
+    private final int id;
+    private final int username;
+    private final int passwordHash;
+    private final int email;
+    private final int phoneNumber;
+    private final int address;
+    private final int city;
+    private final int role;
+
+    private UserRowMapper(ResultSet rs) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.username = rs.findColumn("username");
+        this.passwordHash = rs.findColumn("password_hash");
+        this.email = rs.findColumn("email");
+        this.phoneNumber = rs.findColumn("phone_number");
+        this.address = rs.findColumn("address");
+        this.city = rs.findColumn("city");
+        this.role = rs.findColumn("role");
+    }
+
+    static UserRowMapper forResultSet(ResultSet rs) throws SQLException {
+        return new UserRowMapper(rs);
+    }
+
+    User map(ResultSet rs) throws SQLException {
+        return User.builder()
+                .id(rs.getObject(id, UUID.class))
+                .username(rs.getString(username))
+                .passwordHash(rs.getString(passwordHash))
+                .email(rs.getString(email))
+                .phoneNumber(rs.getString(phoneNumber))
+                .address(rs.getString(address))
+                .city(rs.getString(city))
+                .role(UserRole.valueOf(rs.getString(role)))
+                .build();
+    }
+}
@@ -19,4 +19,8 @@ public class GenerateReportRequest {
     private PeriodType periodType;
     private LocalDate startDate;
     private LocalDate endDate;
+    // Only detailed console reports list payments; totals come from the cube, snapshot or rollups
+    private boolean includePayments;
+    // Approximate distinct counts and amount percentiles, see SketchSummary
+    private boolean includeSketches;
 }
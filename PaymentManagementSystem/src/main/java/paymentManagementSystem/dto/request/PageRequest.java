@@ -0,0 +1,41 @@
+package paymentManagementSystem.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset page request over payments ordered by {@code (created_at, id)} descending.
+ * A request without a cursor starts at the newest payment; otherwise the page begins
+ * strictly after the {@code (afterCreatedAt, afterId)} row of the previous page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageRequest {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 1000;
+
+    private LocalDateTime afterCreatedAt;
+    private Long afterId;
+    private int limit;
+
+    public static PageRequest firstPage(int limit) {
+        return PageRequest.builder().limit(limit).build();
+    }
+
+    public boolean hasCursor() {
+        return afterCreatedAt != null && afterId != null;
+    }
+
+    public int effectiveLimit() {
+        if (limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,61 @@
+package paymentManagementSystem.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Criteria for searching payments. Every field is optional and unset fields do not
+ * filter; the set criteria match any of their values. Amount and payment date bounds
+ * are inclusive, and the vendor prefix is matched case-insensitively.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentQuery {
+
+    public enum Sort {
+        NEWEST_FIRST("p.created_at DESC, p.id DESC"),
+        OLDEST_FIRST("p.created_at ASC, p.id ASC"),
+        PAYMENT_DATE_DESC("p.payment_date DESC, p.id DESC"),
+        PAYMENT_DATE_ASC("p.payment_date ASC, p.id ASC"),
+        AMOUNT_DESC("p.amount DESC, p.id DESC"),
+        AMOUNT_ASC("p.amount ASC, p.id ASC");
+
+        private final String orderBy;
+
+        Sort(String orderBy) {
+            this.orderBy = orderBy;
+        }
+
+        public String getOrderBy() {
+            return orderBy;
+        }
+    }
+
+    private PaymentType paymentType;
+    private Set<PaymentStatus> statuses;
+    private Set<Long> categoryIds;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private LocalDateTime paymentDateFrom;
+    private LocalDateTime paymentDateTo;
+    private UUID createdBy;
+    private String vendorNamePrefix;
+    @Builder.Default
+    private Sort sort = Sort.NEWEST_FIRST;
+    private Integer limit;
+
+    public static PaymentQuery all() {
+        return PaymentQuery.builder().build();
+    }
+}
@@ -0,0 +1,28 @@
+package paymentManagementSystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BreakdownEntry {
+    private String name;
+    private long incomingCount;
+    private long outgoingCount;
+    private BigDecimal totalIncoming;
+    private BigDecimal totalOutgoing;
+
+    public BigDecimal getNetAmount() {
+        return totalIncoming.subtract(totalOutgoing);
+    }
+
+    public long getPaymentCount() {
+        return incomingCount + outgoingCount;
+    }
+}
@@ -0,0 +1,24 @@
+package paymentManagementSystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CounterpartyReportDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int limit;
+    private long counterpartyCount;
+    private List<BreakdownEntry> topByIncoming;
+    private List<BreakdownEntry> topByOutgoing;
+    private List<BreakdownEntry> topByCount;
+    private String generatedAt;
+}
@@ -0,0 +1,23 @@
+package paymentManagementSystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    private long rowsRead;
+    private long rowsImported;
+    private long duplicatesSkipped;
+    private long rowsRejected;
+    private String rejectsFile;
+    private long elapsedMillis;
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : rowsRead * 1000.0 / elapsedMillis;
+    }
+}
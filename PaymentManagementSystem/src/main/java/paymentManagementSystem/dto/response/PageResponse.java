@@ -0,0 +1,43 @@
+package paymentManagementSystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import paymentManagementSystem.dto.request.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items;
+    private LocalDateTime nextCreatedAt;
+    private Long nextId;
+    private boolean hasMore;
+
+    public PageRequest nextPage(int limit) {
+        if (!hasMore) {
+            throw new IllegalStateException("There is no next page");
+        }
+        return PageRequest.builder()
+                .afterCreatedAt(nextCreatedAt)
+                .afterId(nextId)
+                .limit(limit)
+                .build();
+    }
+
+    public <R> PageResponse<R> map(Function<T, R> mapper) {
+        return PageResponse.<R>builder()
+                .items(items.stream().map(mapper).collect(Collectors.toList()))
+                .nextCreatedAt(nextCreatedAt)
+                .nextId(nextId)
+                .hasMore(hasMore)
+                .build();
+    }
+}
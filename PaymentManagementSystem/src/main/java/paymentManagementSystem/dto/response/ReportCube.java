@@ -0,0 +1,341 @@
+package paymentManagementSystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.CentsAccumulator;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment count, exact sum, minimum and maximum amount for every combination of type,
+ * status, category, currency and month in a date range, filled in one pass over the
+ * payments (or one {@code GROUP BY} in SQL).
+ * <p>
+ * Only non-empty cells are kept, each with its coordinates as codes into a per-dimension
+ * list of labels, so a year of payments is usually a few thousand cells however many
+ * payments it holds. {@link #where} and {@link #groupBy} answer any breakdown or
+ * cross-tab from those cells without going back to the data. Immutable once built.
+ */
+public class ReportCube {
+
+    public enum Dimension {
+        TYPE, STATUS, CATEGORY, CURRENCY, MONTH
+    }
+
+    private static final int DIMENSIONS = Dimension.values().length;
+    private static final int CODE_BITS = 12;
+    private static final int MAX_CODES = 1 << CODE_BITS;
+
+    /**
+     * One group of a {@link #groupBy}: its labels, in the order the dimensions were given,
+     * and the measures of the payments in it.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Row {
+        private final List<String> labels;
+        private final long count;
+        private final BigDecimal total;
+        private final BigDecimal min;
+        private final BigDecimal max;
+
+        public String getLabel(int index) {
+            return labels.get(index);
+        }
+    }
+
+    private final List<String>[] labels;
+    private final int[] coordinates;
+    private final CentsAccumulator[] sums;
+    private final BigDecimal[] mins;
+    private final BigDecimal[] maxs;
+
+    private ReportCube(List<String>[] labels, int[] coordinates, CentsAccumulator[] sums, BigDecimal[] mins, BigDecimal[] maxs) {
+        this.labels = labels;
+        this.coordinates = coordinates;
+        this.sums = sums;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getCellCount() {
+        return sums.length;
+    }
+
+    /**
+     * Labels seen for a dimension, in the order they were first added.
+     */
+    public List<String> getLabels(Dimension dimension) {
+        return labels[dimension.ordinal()];
+    }
+
+    public boolean isEmpty() {
+        return sums.length == 0;
+    }
+
+    /**
+     * The cube restricted to cells whose {@code dimension} is one of {@code values}.
+     */
+    public ReportCube where(Dimension dimension, String... values) {
+        List<String> dimensionLabels = labels[dimension.ordinal()];
+        boolean[] wanted = new boolean[dimensionLabels.size()];
+        for (String value : values) {
+            int code = dimensionLabels.indexOf(value);
+            if (code >= 0) {
+                wanted[code] = true;
+            }
+        }
+        int kept = 0;
+        int[] selected = new int[sums.length];
+        for (int cell = 0; cell < sums.length; cell++) {
+            if (wanted[coordinates[cell * DIMENSIONS + dimension.ordinal()]]) {
+                selected[kept++] = cell;
+            }
+        }
+        int[] keptCoordinates = new int[kept * DIMENSIONS];
+        CentsAccumulator[] keptSums = new CentsAccumulator[kept];
+        BigDecimal[] keptMins = new BigDecimal[kept];
+        BigDecimal[] keptMaxs = new BigDecimal[kept];
+        for (int i = 0; i < kept; i++) {
+            int cell = selected[i];
+            System.arraycopy(coordinates, cell * DIMENSIONS, keptCoordinates, i * DIMENSIONS, DIMENSIONS);
+            keptSums[i] = sums[cell];
+            keptMins[i] = mins[cell];
+            keptMaxs[i] = maxs[cell];
+        }
+        return new ReportCube(labels, keptCoordinates, keptSums, keptMins, keptMaxs);
+    }
+
+    /**
+     * Rolls the cube up to the given dimensions. Rows are ordered by the dimensions' label
+     * order, except that months are in calendar order; with no dimensions the result is a
+     * single grand-total row.
+     */
+    public List<Row> groupBy(Dimension... dimensions) {
+        Map<Long, Integer> groups = new HashMap<>();
+        List<int[]> groupKeys = new ArrayList<>();
+        List<CentsAccumulator> groupSums = new ArrayList<>();
+        List<BigDecimal[]> groupRanges = new ArrayList<>();
+
+        for (int cell = 0; cell < sums.length; cell++) {
+            int[] key = new int[dimensions.length];
+            long packed = 0;
+            for (int d = 0; d < dimensions.length; d++) {
+                key[d] = coordinates[cell * DIMENSIONS + dimensions[d].ordinal()];
+                packed = (packed << CODE_BITS) | key[d];
+            }
+            Integer group = groups.get(packed);
+            if (group == null) {
+                group = groupKeys.size();
+                groups.put(packed, group);
+                groupKeys.add(key);
+                groupSums.add(new CentsAccumulator());
+                groupRanges.add(new BigDecimal[]{mins[cell], maxs[cell]});
+            }
+            groupSums.get(group).merge(sums[cell]);
+            BigDecimal[] range = groupRanges.get(group);
+            range[0] = range[0].min(mins[cell]);
+            range[1] = range[1].max(maxs[cell]);
+        }
+
+        List<Integer> order = new ArrayList<>(groupKeys.size());
+        for (int group = 0; group < groupKeys.size(); group++) {
+            order.add(group);
+        }
+        order.sort(rowOrder(dimensions, groupKeys));
+
+        List<Row> rows = new ArrayList<>(order.size());
+        for (int group : order) {
+            int[] key = groupKeys.get(group);
+            List<String> rowLabels = new ArrayList<>(dimensions.length);
+            for (int d = 0; d < dimensions.length; d++) {
+                rowLabels.add(labels[dimensions[d].ordinal()].get(key[d]));
+            }
+            CentsAccumulator sum = groupSums.get(group);
+            BigDecimal[] range = groupRanges.get(group);
+            rows.add(new Row(rowLabels, sum.getCount(), sum.toBigDecimal(), range[0], range[1]));
+        }
+        return rows;
+    }
+
+    /**
+     * Measures of the whole cube, or {@code null} when it is empty.
+     */
+    public Row total() {
+        List<Row> rows = groupBy();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Totals per value of {@code dimension}, split into incoming and outgoing, in the form
+     * the other report breakdowns use: largest gross amount first, or calendar order for
+     * {@link Dimension#MONTH}.
+     */
+    public List<BreakdownEntry> breakdown(Dimension dimension) {
+        Map<String, BreakdownEntry> entries = new LinkedHashMap<>();
+        for (Row row : groupBy(dimension, Dimension.TYPE)) {
+            BreakdownEntry entry = entries.computeIfAbsent(row.getLabel(0), name -> BreakdownEntry.builder()
+                    .name(name)
+                    .totalIncoming(BigDecimal.ZERO)
+                    .totalOutgoing(BigDecimal.ZERO)
+                    .build());
+            if (PaymentType.INCOMING.name().equals(row.getLabel(1))) {
+                entry.setIncomingCount(row.getCount());
+                entry.setTotalIncoming(row.getTotal());
+            } else {
+                entry.setOutgoingCount(row.getCount());
+                entry.setTotalOutgoing(row.getTotal());
+            }
+        }
+        List<BreakdownEntry> breakdown = new ArrayList<>(entries.values());
+        if (dimension != Dimension.MONTH) {
+            breakdown.sort(Comparator.comparing((BreakdownEntry entry) -> entry.getTotalIncoming().add(entry.getTotalOutgoing())).reversed());
+        }
+        return breakdown;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportCube{cells=" + sums.length + "}";
+    }
+
+    private Comparator<Integer> rowOrder(Dimension[] dimensions, List<int[]> groupKeys) {
+        Comparator<Integer> order = (a, b) -> 0;
+        for (int d = 0; d < dimensions.length; d++) {
+            int index = d;
+            if (dimensions[d] == Dimension.MONTH) {
+                List<String> months = labels[Dimension.MONTH.ordinal()];
+                // YYYY-MM labels sort chronologically as text
+                order = order.thenComparing(group -> months.get(groupKeys.get(group)[index]));
+            } else {
+                order = order.thenComparingInt(group -> groupKeys.get(group)[index]);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Collects cells one payment, or one pre-aggregated group, at a time. Not thread-safe.
+     */
+    public static class Builder {
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private final List<String>[] labels = new List[DIMENSIONS];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private final Map<String, Integer>[] codes = new Map[DIMENSIONS];
+        private final Map<YearMonth, Integer> monthCodes = new HashMap<>();
+        private final Map<Long, Integer> cells = new HashMap<>();
+        private final List<Long> cellKeys = new ArrayList<>();
+        private final List<CentsAccumulator> cellSums = new ArrayList<>();
+        private final List<BigDecimal> cellMins = new ArrayList<>();
+        private final List<BigDecimal> cellMaxs = new ArrayList<>();
+
+        private Builder() {
+            for (int d = 0; d < DIMENSIONS; d++) {
+                labels[d] = new ArrayList<>();
+                codes[d] = new HashMap<>();
+            }
+        }
+
+        public Builder add(String type, String status, String category, String currency, YearMonth month, BigDecimal amount) {
+            int cell = cell(type, status, category, currency, month);
+            cellSums.get(cell).add(amount);
+            widen(cell, amount, amount);
+            return this;
+        }
+
+        /**
+         * Adds {@code count} payments already summed elsewhere, e.g. one SQL group.
+         */
+        public Builder add(String type, String status, String category, String currency, YearMonth month,
+                           long count, BigDecimal total, BigDecimal min, BigDecimal max) {
+            int cell = cell(type, status, category, currency, month);
+            cellSums.get(cell).add(total, count);
+            widen(cell, min, max);
+            return this;
+        }
+
+        public ReportCube build() {
+            int size = cellSums.size();
+            int[] coordinates = new int[size * DIMENSIONS];
+            for (int cell = 0; cell < size; cell++) {
+                long key = cellKeys.get(cell);
+                for (int d = DIMENSIONS - 1; d >= 0; d--) {
+                    coordinates[cell * DIMENSIONS + d] = (int) (key & (MAX_CODES - 1));
+                    key >>>= CODE_BITS;
+                }
+            }
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            List<String>[] frozen = new List[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                frozen[d] = List.copyOf(labels[d]);
+            }
+            return new ReportCube(frozen, coordinates, cellSums.toArray(new CentsAccumulator[0]),
+                    cellMins.toArray(new BigDecimal[0]), cellMaxs.toArray(new BigDecimal[0]));
+        }
+
+        private int cell(String type, String status, String category, String currency, YearMonth month) {
+            long key = 0;
+            key = (key << CODE_BITS) | code(Dimension.TYPE, type);
+            key = (key << CODE_BITS) | code(Dimension.STATUS, status);
+            key = (key << CODE_BITS) | code(Dimension.CATEGORY, category);
+            key = (key << CODE_BITS) | code(Dimension.CURRENCY, currency);
+            key = (key << CODE_BITS) | monthCode(month);
+            Integer cell = cells.get(key);
+            if (cell == null) {
+                cell = cellSums.size();
+                cells.put(key, cell);
+                cellKeys.add(key);
+                cellSums.add(new CentsAccumulator());
+                cellMins.add(null);
+                cellMaxs.add(null);
+            }
+            return cell;
+        }
+
+        private int code(Dimension dimension, String label) {
+            String value = label != null ? label : "(none)";
+            Map<String, Integer> dimensionCodes = codes[dimension.ordinal()];
+            Integer code = dimensionCodes.get(value);
+            if (code == null) {
+                code = dimensionCodes.size();
+                if (code == MAX_CODES) {
+                    throw new IllegalStateException("Too many distinct " + dimension + " values for a report cube");
+                }
+                dimensionCodes.put(value, code);
+                labels[dimension.ordinal()].add(value);
+            }
+            return code;
+        }
+
+        private int monthCode(YearMonth month) {
+            Integer code = monthCodes.get(month);
+            if (code == null) {
+                code = code(Dimension.MONTH, month.toString());
+                monthCodes.put(month, code);
+            }
+            return code;
+        }
+
+        private void widen(int cell, BigDecimal min, BigDecimal max) {
+            BigDecimal currentMin = cellMins.get(cell);
+            BigDecimal currentMax = cellMaxs.get(cell);
+            cellMins.set(cell, currentMin == null || min.compareTo(currentMin) < 0 ? min : currentMin);
+            cellMaxs.set(cell, currentMax == null || max.compareTo(currentMax) > 0 ? max : currentMax);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import paymentManagementSystem.enums.PeriodType;
 import paymentManagementSystem.enums.ReportType;
 
 import java.math.BigDecimal;
@@ -16,12 +17,19 @@ import java.util.List;
 @AllArgsConstructor
 public class ReportDTO {
     private ReportType reportType;
+    private PeriodType periodType;
     private LocalDate startDate;
     private LocalDate endDate;
     private BigDecimal totalIncoming;
     private BigDecimal totalOutgoing;
     private BigDecimal netAmount;
+    private long paymentCount;
     private List<PaymentResponse> payments;
+    private List<BreakdownEntry> categoryBreakdown;
+    private List<BreakdownEntry> vendorBreakdown;
+    private List<BreakdownEntry> currencyBreakdown;
+    private ReportCube cube;
+    private SketchSummary sketches;
     private String generatedBy;
     private String generatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package paymentManagementSystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Approximate analytics for a report period. Distinct counts are within about 1% (exact
+ * for small counts) and percentiles within 1% of the true amount; the maximum is exact.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SketchSummary {
+    private long distinctVendors;
+    private long distinctClients;
+    private long distinctCreators;
+    private List<AmountPercentiles> amountPercentiles;
+    private int daysReused;
+    private int daysScanned;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AmountPercentiles {
+        private PaymentType paymentType;
+        private String category;
+        private long count;
+        private BigDecimal p50;
+        private BigDecimal p90;
+        private BigDecimal p99;
+        private BigDecimal max;
+    }
+}
@@ -0,0 +1,67 @@
+package paymentManagementSystem.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import paymentManagementSystem.dto.response.BreakdownEntry;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.CentsAccumulator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * The clients/vendors ({@code client_vendor_name}) with the largest incoming volume, the
+ * largest outgoing volume and the most payments in a date range, largest first, plus the
+ * number of distinct counterparties seen. Ties are broken by name.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CounterpartyRanking {
+    private final List<BreakdownEntry> topByIncoming;
+    private final List<BreakdownEntry> topByOutgoing;
+    private final List<BreakdownEntry> topByCount;
+    private final long counterpartyCount;
+
+    /**
+     * Ranks per-counterparty sums (indexed by {@link PaymentType} ordinal) keeping only a
+     * min-heap of {@code limit} candidates per ranking, so the cost beyond the sums
+     * themselves does not grow with the number of counterparties.
+     */
+    static CounterpartyRanking rank(Map<String, CentsAccumulator[]> sums, int limit) {
+        List<BreakdownEntry> entries = new ArrayList<>(sums.size());
+        sums.forEach((name, typeSums) -> entries.add(ReportAccumulator.toEntry(name, typeSums)));
+        return new CounterpartyRanking(
+                top(entries, limit, entry -> entry.getIncomingCount() > 0 ? entry.getTotalIncoming() : null),
+                top(entries, limit, entry -> entry.getOutgoingCount() > 0 ? entry.getTotalOutgoing() : null),
+                top(entries, limit, entry -> BigDecimal.valueOf(entry.getPaymentCount())),
+                sums.size());
+    }
+
+    private static List<BreakdownEntry> top(List<BreakdownEntry> entries, int limit, Function<BreakdownEntry, BigDecimal> metric) {
+        // Heap head is the weakest candidate kept so far: smallest metric, then last name
+        Comparator<BreakdownEntry> strength = Comparator.comparing(metric)
+                .thenComparing(BreakdownEntry::getName, Comparator.reverseOrder());
+        PriorityQueue<BreakdownEntry> heap = new PriorityQueue<>(limit + 1, strength);
+        for (BreakdownEntry entry : entries) {
+            if (limit <= 0 || metric.apply(entry) == null) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (strength.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<BreakdownEntry> top = new ArrayList<>(heap);
+        top.sort(strength.reversed());
+        return top;
+    }
+}
@@ -0,0 +1,310 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.DatabaseConnectionManager;
+import paymentManagementSystem.util.PropertiesUtil;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Maintains {@code payment_daily_rollups}: one row of count and amount per
+ * (day, payment_type, status, category, currency). Payments without a category
+ * are stored under category 0 so the key can stay a primary key.
+ * <p>
+ * {@link PaymentRepositoryImpl} applies deltas on the caller's connection, inside the
+ * same transaction as the payment write, so rollups never drift from committed data.
+ */
+public class DailyRollupRepository {
+
+    public static final long NO_CATEGORY = 0L;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO payment_daily_rollups AS r (day, payment_type, status, category_id, currency, payment_count, total_amount)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (day, payment_type, status, category_id, currency)
+        DO UPDATE SET payment_count = r.payment_count + EXCLUDED.payment_count,
+                      total_amount = r.total_amount + EXCLUDED.total_amount
+        """;
+
+    private static final int REBUILD_PARALLELISM = PropertiesUtil.getIntProperty("rollup.rebuild.parallelism", 4);
+
+    void applyDelta(Connection conn, LocalDate day, PaymentType paymentType, PaymentStatus status,
+                    Long categoryId, String currency, long countDelta, BigDecimal amountDelta) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+            stmt.setDate(1, Date.valueOf(day));
+            stmt.setString(2, paymentType.toString());
+            stmt.setString(3, status.toString());
+            stmt.setLong(4, categoryId != null ? categoryId : NO_CATEGORY);
+            stmt.setString(5, currency);
+            stmt.setLong(6, countDelta);
+            stmt.setBigDecimal(7, amountDelta);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Collapses the payments into one delta per rollup key and upserts them as a single
+     * JDBC batch, so a bulk insert touches each (day, type, status, category, currency)
+     * row once instead of once per payment.
+     */
+    void applyDeltas(Connection conn, List<Payment> payments, int sign) throws SQLException {
+        Map<List<Object>, Long> counts = new LinkedHashMap<>();
+        Map<List<Object>, BigDecimal> amounts = new LinkedHashMap<>();
+        for (Payment payment : payments) {
+            List<Object> key = List.of(
+                    payment.getPaymentDate().toLocalDate(),
+                    payment.getPaymentType(),
+                    payment.getStatus(),
+                    payment.getCategory() != null ? payment.getCategory().getId() : NO_CATEGORY,
+                    payment.getCurrency());
+            counts.merge(key, (long) sign, Long::sum);
+            amounts.merge(key, sign < 0 ? payment.getAmount().negate() : payment.getAmount(), BigDecimal::add);
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+            for (Map.Entry<List<Object>, Long> entry : counts.entrySet()) {
+                List<Object> key = entry.getKey();
+                stmt.setDate(1, Date.valueOf((LocalDate) key.get(0)));
+                stmt.setString(2, key.get(1).toString());
+                stmt.setString(3, key.get(2).toString());
+                stmt.setLong(4, (Long) key.get(3));
+                stmt.setString(5, (String) key.get(4));
+                stmt.setLong(6, entry.getValue());
+                stmt.setBigDecimal(7, amounts.get(key));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    public PaymentTotals sumByType(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+        SELECT payment_type, SUM(payment_count) as payment_count, SUM(total_amount) as total_amount
+        FROM payment_daily_rollups
+        WHERE day BETWEEN ? AND ?
+        GROUP BY payment_type
+        """;
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate));
+
+            BigDecimal totalIncoming = BigDecimal.ZERO;
+            BigDecimal totalOutgoing = BigDecimal.ZERO;
+            long incomingCount = 0;
+            long outgoingCount = 0;
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (PaymentType.valueOf(rs.getString("payment_type")) == PaymentType.INCOMING) {
+                        totalIncoming = rs.getBigDecimal("total_amount");
+                        incomingCount = rs.getLong("payment_count");
+                    } else {
+                        totalOutgoing = rs.getBigDecimal("total_amount");
+                        outgoingCount = rs.getLong("payment_count");
+                    }
+                }
+            }
+            return new PaymentTotals(totalIncoming, totalOutgoing, incomingCount, outgoingCount);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error summing daily rollups", e);
+        }
+    }
+
+    /**
+     * Per-day totals for the range, ordered by day; days without rollup rows are absent.
+     */
+    public Map<LocalDate, PaymentTotals> sumByDay(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+        SELECT day, payment_type, SUM(payment_count) as payment_count, SUM(total_amount) as total_amount
+        FROM payment_daily_rollups
+        WHERE day BETWEEN ? AND ?
+        GROUP BY day, payment_type
+        ORDER BY day
+        """;
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate));
+
+            Map<LocalDate, PaymentTotals> totals = new LinkedHashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate day = rs.getDate("day").toLocalDate();
+                    PaymentTotals dayTotals = totals.getOrDefault(day, PaymentTotals.empty());
+                    if (PaymentType.valueOf(rs.getString("payment_type")) == PaymentType.INCOMING) {
+                        dayTotals = new PaymentTotals(rs.getBigDecimal("total_amount"), dayTotals.getTotalOutgoing(),
+                                rs.getLong("payment_count"), dayTotals.getOutgoingCount());
+                    } else {
+                        dayTotals = new PaymentTotals(dayTotals.getTotalIncoming(), rs.getBigDecimal("total_amount"),
+                                dayTotals.getIncomingCount(), rs.getLong("payment_count"));
+                    }
+                    totals.put(day, dayTotals);
+                }
+            }
+            return totals;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error summing daily rollups by day", e);
+        }
+    }
+
+    /**
+     * Recomputes rollups for the range from raw payments, one month per task, with the
+     * months processed in parallel on separate pooled connections. Each month holds a
+     * SHARE lock on {@code payments} while it is rebuilt so concurrent writes wait
+     * rather than being double counted or lost.
+     *
+     * @return the number of rollup rows written
+     */
+    public long rebuild(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> shards = monthShards(startDate, endDate);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(REBUILD_PARALLELISM, shards.size())));
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (LocalDate[] shard : shards) {
+                results.add(executor.submit(() -> rebuildShard(shard[0], shard[1])));
+            }
+
+            long rowsWritten = 0;
+            for (Future<Integer> result : results) {
+                rowsWritten += result.get();
+            }
+            return rowsWritten;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while rebuilding daily rollups", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error rebuilding daily rollups", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Compares stored rollups against a live aggregate of {@code payments} and returns
+     * one line per key whose count or amount disagrees. An empty list means consistent.
+     */
+    public List<String> checkConsistency(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+        WITH live AS (
+            SELECT CAST(payment_date AS DATE) as day, payment_type, status,
+                   COALESCE(category_id, 0) as category_id, currency,
+                   COUNT(*) as payment_count, SUM(amount) as total_amount
+            FROM payments
+            WHERE payment_date >= ? AND payment_date < ?
+            GROUP BY 1, 2, 3, 4, 5
+        ), stored AS (
+            SELECT day, payment_type, status, category_id, currency, payment_count, total_amount
+            FROM payment_daily_rollups
+            WHERE day BETWEEN ? AND ? AND payment_count <> 0
+        )
+        SELECT COALESCE(l.day, s.day) as day, COALESCE(l.payment_type, s.payment_type) as payment_type,
+               COALESCE(l.status, s.status) as status, COALESCE(l.category_id, s.category_id) as category_id,
+               COALESCE(l.currency, s.currency) as currency,
+               COALESCE(l.payment_count, 0) as live_count, COALESCE(s.payment_count, 0) as stored_count,
+               COALESCE(l.total_amount, 0) as live_amount, COALESCE(s.total_amount, 0) as stored_amount
+        FROM live l
+        FULL OUTER JOIN stored s
+          ON l.day = s.day AND l.payment_type = s.payment_type AND l.status = s.status
+         AND l.category_id = s.category_id AND l.currency = s.currency
+        WHERE COALESCE(l.payment_count, 0) <> COALESCE(s.payment_count, 0)
+           OR COALESCE(l.total_amount, 0) <> COALESCE(s.total_amount, 0)
+        ORDER BY 1, 2, 3, 4, 5
+        """;
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate.plusDays(1)));
+            stmt.setDate(3, Date.valueOf(startDate));
+            stmt.setDate(4, Date.valueOf(endDate));
+
+            List<String> mismatches = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    mismatches.add(String.format("%s %s %s category=%d %s: payments=%d/%s, rollup=%d/%s",
+                            rs.getDate("day"), rs.getString("payment_type"), rs.getString("status"),
+                            rs.getLong("category_id"), rs.getString("currency"),
+                            rs.getLong("live_count"), rs.getBigDecimal("live_amount"),
+                            rs.getLong("stored_count"), rs.getBigDecimal("stored_amount")));
+                }
+            }
+            return mismatches;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking daily rollups", e);
+        }
+    }
+
+    private int rebuildShard(LocalDate startDate, LocalDate endDate) throws SQLException {
+        String deleteSql = "DELETE FROM payment_daily_rollups WHERE day BETWEEN ? AND ?";
+        String insertSql = """
+        INSERT INTO payment_daily_rollups (day, payment_type, status, category_id, currency, payment_count, total_amount)
+        SELECT CAST(payment_date AS DATE), payment_type, status, COALESCE(category_id, 0), currency,
+               COUNT(*), SUM(amount)
+        FROM payments
+        WHERE payment_date >= ? AND payment_date < ?
+        GROUP BY 1, 2, 3, 4, 5
+        """;
+
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement lock = conn.createStatement();
+                 PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+
+                lock.execute("LOCK TABLE payments IN SHARE MODE");
+
+                delete.setDate(1, Date.valueOf(startDate));
+                delete.setDate(2, Date.valueOf(endDate));
+                delete.executeUpdate();
+
+                insert.setDate(1, Date.valueOf(startDate));
+                insert.setDate(2, Date.valueOf(endDate.plusDays(1)));
+                int rows = insert.executeUpdate();
+
+                conn.commit();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static List<LocalDate[]> monthShards(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> shards = new ArrayList<>();
+        LocalDate shardStart = startDate;
+        while (!shardStart.isAfter(endDate)) {
+            LocalDate monthEnd = shardStart.withDayOfMonth(shardStart.lengthOfMonth());
+            LocalDate shardEnd = monthEnd.isBefore(endDate) ? monthEnd : endDate;
+            shards.add(new LocalDate[]{shardStart, shardEnd});
+            shardStart = shardEnd.plusDays(1);
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,15 @@
+package paymentManagementSystem.repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Stores one {@link PaymentSketch} per day so report sketches are merged from stored days
+ * instead of rescanning payments. Stored days are only a cache: callers check them
+ * against the daily rollups with {@link PaymentSketch#matches} and rebuild the ones that
+ * no longer agree.
+ */
+public interface DailySketchRepository {
+    Map<LocalDate, PaymentSketch> findByDayRange(LocalDate startDate, LocalDate endDate);
+    void saveAll(Map<LocalDate, PaymentSketch> sketches);
+}
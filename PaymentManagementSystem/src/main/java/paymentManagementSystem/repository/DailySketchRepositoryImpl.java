@@ -0,0 +1,68 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.util.DatabaseConnectionManager;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link DailySketchRepository} backed by {@code payment_daily_sketches}, one serialized
+ * sketch per day.
+ */
+public class DailySketchRepositoryImpl implements DailySketchRepository {
+
+    @Override
+    public Map<LocalDate, PaymentSketch> findByDayRange(LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT day, sketch FROM payment_daily_sketches WHERE day BETWEEN ? AND ?";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate));
+
+            Map<LocalDate, PaymentSketch> sketches = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    PaymentSketch sketch = PaymentSketch.fromBytes(rs.getBytes("sketch"));
+                    if (sketch != null) {
+                        sketches.put(rs.getDate("day").toLocalDate(), sketch);
+                    }
+                }
+            }
+            return sketches;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading daily sketches", e);
+        }
+    }
+
+    @Override
+    public void saveAll(Map<LocalDate, PaymentSketch> sketches) {
+        String sql = """
+        INSERT INTO payment_daily_sketches (day, payment_count, sketch, built_at)
+        VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+        ON CONFLICT (day)
+        DO UPDATE SET payment_count = EXCLUDED.payment_count, sketch = EXCLUDED.sketch, built_at = EXCLUDED.built_at
+        """;
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (Map.Entry<LocalDate, PaymentSketch> entry : sketches.entrySet()) {
+                stmt.setDate(1, Date.valueOf(entry.getKey()));
+                stmt.setLong(2, entry.getValue().getPaymentCount());
+                stmt.setBytes(3, entry.getValue().toBytes());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving daily sketches", e);
+        }
+    }
+}
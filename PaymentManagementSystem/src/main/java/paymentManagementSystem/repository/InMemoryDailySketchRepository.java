@@ -0,0 +1,33 @@
+package paymentManagementSystem.repository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * {@link DailySketchRepository} kept in memory, for running without PostgreSQL. Sketches
+ * are held serialized, as the database holds them, so merging a loaded sketch never
+ * changes the stored one.
+ */
+public class InMemoryDailySketchRepository implements DailySketchRepository {
+
+    private final ConcurrentSkipListMap<LocalDate, byte[]> sketches = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Map<LocalDate, PaymentSketch> findByDayRange(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, PaymentSketch> found = new HashMap<>();
+        sketches.subMap(startDate, true, endDate, true).forEach((day, data) -> {
+            PaymentSketch sketch = PaymentSketch.fromBytes(data);
+            if (sketch != null) {
+                found.put(day, sketch);
+            }
+        });
+        return found;
+    }
+
+    @Override
+    public void saveAll(Map<LocalDate, PaymentSketch> daySketches) {
+        daySketches.forEach((day, sketch) -> sketches.put(day, sketch.toBytes()));
+    }
+}
@@ -0,0 +1,752 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
+import paymentManagementSystem.dto.response.PageResponse;
+import paymentManagementSystem.dto.response.ReportCube;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.CentsAccumulator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link PaymentRepository} that keeps every payment in memory, for demos, load tests
+ * and running the service layer without PostgreSQL.
+ * <p>
+ * Payments live in a slot list indexed by id, with secondary indexes kept next to it:
+ * one {@link BitSet} of ids per status, type and category, an ascending id list per
+ * creator (there can be many creators, and a bitmap each would grow to the highest id), a
+ * {@link ConcurrentSkipListMap} on {@code (payment_date, id)} and a hash map on
+ * reference number. Criteria are answered by intersecting bitmaps and then walking
+ * the candidates in the requested order, stopping at the limit. Daily rollups are
+ * maintained alongside, exactly as the database version keeps them.
+ * <p>
+ * Writers take a write lock; readers share a read lock, except date-range streaming and
+ * reference lookups, which go straight to their concurrent maps. Stored payments are
+ * never modified in place (a status change stores a new copy) and callers only ever
+ * receive copies, so lock-free readers always see a consistent payment.
+ * <p>
+ * Ids are assigned in insertion order and {@code created_at} is kept non-decreasing, so
+ * id order is also {@code (created_at, id)} order and keyset pages walk the bitmaps
+ * backwards from the cursor id.
+ */
+public class InMemoryPaymentRepository implements PaymentRepository {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Payment> slots = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<PaymentStatus, BitSet> statusIndex = new EnumMap<>(PaymentStatus.class);
+    private final Map<PaymentType, BitSet> typeIndex = new EnumMap<>(PaymentType.class);
+    private final Map<Long, BitSet> categoryIndex = new HashMap<>();
+    private final Map<UUID, IdList> creatorIndex = new HashMap<>();
+    private final ConcurrentHashMap<String, Long> referenceIndex = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<DateKey, Payment> dateIndex = new ConcurrentSkipListMap<>();
+    private final NavigableMap<LocalDate, Map<List<Object>, RollupCell>> rollups = new TreeMap<>();
+
+    private LocalDateTime lastCreatedAt = LocalDateTime.MIN;
+
+    public InMemoryPaymentRepository() {
+        for (PaymentStatus status : PaymentStatus.values()) {
+            statusIndex.put(status, new BitSet());
+        }
+        for (PaymentType type : PaymentType.values()) {
+            typeIndex.put(type, new BitSet());
+        }
+    }
+
+    @Override
+    public Payment save(Payment payment) {
+        lock.writeLock().lock();
+        try {
+            String reference = payment.getReferenceNumber();
+            if (reference != null && referenceIndex.containsKey(reference)) {
+                throw new RuntimeException("Error saving payment: duplicate reference number " + reference);
+            }
+            insert(payment, LocalDateTime.now());
+            return payment;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        return insertAll(payments, false);
+    }
+
+    @Override
+    public List<Payment> restoreAll(List<Payment> payments) {
+        return insertAll(payments, true);
+    }
+
+    private List<Payment> insertAll(List<Payment> payments, boolean keepCreatedAt) {
+        lock.writeLock().lock();
+        try {
+            // Validate the whole batch first so it is applied all-or-nothing
+            Set<String> batchReferences = new HashSet<>();
+            for (Payment payment : payments) {
+                String reference = payment.getReferenceNumber();
+                if (reference != null && (referenceIndex.containsKey(reference) || !batchReferences.add(reference))) {
+                    throw new RuntimeException("Error saving payments: duplicate reference number " + reference);
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (Payment payment : payments) {
+                insert(payment, keepCreatedAt && payment.getCreatedAt() != null ? payment.getCreatedAt() : now);
+            }
+            return payments;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Payment> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            Payment payment = slot(id);
+            return payment != null ? Optional.of(copy(payment)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Payment> findAll() {
+        return find(PaymentQuery.all());
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return find(PaymentQuery.builder().statuses(Set.of(status)).build());
+    }
+
+    @Override
+    public List<Payment> findByCategory(PaymentCategory category) {
+        return find(PaymentQuery.builder().categoryIds(Set.of(category.getId())).build());
+    }
+
+    @Override
+    public List<Payment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return find(PaymentQuery.builder()
+                .paymentDateFrom(startDate)
+                .paymentDateTo(endDate)
+                .sort(PaymentQuery.Sort.PAYMENT_DATE_DESC)
+                .build());
+    }
+
+    @Override
+    public List<Payment> findByCreatedBy(Long userId) {
+        // created_by holds user UUIDs, so a numeric id never matches
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Payment> find(PaymentQuery query) {
+        int limit = query.getLimit() != null && query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        lock.readLock().lock();
+        try {
+            return collect(query, Integer.MAX_VALUE, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public PageResponse<Payment> findPage(PaymentQuery query, PageRequest pageRequest) {
+        if (query.getSort() != PaymentQuery.Sort.NEWEST_FIRST) {
+            throw new IllegalArgumentException("Keyset paging requires sort " + PaymentQuery.Sort.NEWEST_FIRST);
+        }
+        int limit = pageRequest.effectiveLimit();
+        int beforeId = pageRequest.hasCursor() ? (int) (long) pageRequest.getAfterId() : Integer.MAX_VALUE;
+
+        List<Payment> payments;
+        lock.readLock().lock();
+        try {
+            payments = collect(query, beforeId, limit + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        boolean hasMore = payments.size() > limit;
+        if (hasMore) {
+            payments = payments.subList(0, limit);
+        }
+        Payment last = payments.isEmpty() ? null : payments.get(payments.size() - 1);
+        return PageResponse.<Payment>builder()
+                .items(payments)
+                .hasMore(hasMore)
+                .nextCreatedAt(hasMore ? last.getCreatedAt() : null)
+                .nextId(hasMore ? last.getId() : null)
+                .build();
+    }
+
+    @Override
+    public PageResponse<Payment> findPage(PageRequest pageRequest) {
+        return findPage(PaymentQuery.all(), pageRequest);
+    }
+
+    @Override
+    public PageResponse<Payment> findPageByStatus(PaymentStatus status, PageRequest pageRequest) {
+        return findPage(PaymentQuery.builder().statuses(Set.of(status)).build(), pageRequest);
+    }
+
+    @Override
+    public PageResponse<Payment> findPageByType(PaymentType paymentType, PageRequest pageRequest) {
+        return findPage(PaymentQuery.builder().paymentType(paymentType).build(), pageRequest);
+    }
+
+    @Override
+    public PaymentTotals sumByTypeFromDailyRollups(LocalDate startDate, LocalDate endDate) {
+        BigDecimal totalIncoming = BigDecimal.ZERO;
+        BigDecimal totalOutgoing = BigDecimal.ZERO;
+        long incomingCount = 0;
+        long outgoingCount = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Map<List<Object>, RollupCell> day : rollups.subMap(startDate, true, endDate, true).values()) {
+                for (Map.Entry<List<Object>, RollupCell> entry : day.entrySet()) {
+                    if (entry.getKey().get(1) == PaymentType.INCOMING) {
+                        totalIncoming = totalIncoming.add(entry.getValue().amount);
+                        incomingCount += entry.getValue().count;
+                    } else {
+                        totalOutgoing = totalOutgoing.add(entry.getValue().amount);
+                        outgoingCount += entry.getValue().count;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new PaymentTotals(totalIncoming, totalOutgoing, incomingCount, outgoingCount);
+    }
+
+    @Override
+    public Map<LocalDate, PaymentTotals> sumByDayFromDailyRollups(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, PaymentTotals> totals = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            rollups.subMap(startDate, true, endDate, true).forEach((day, cells) -> {
+                BigDecimal totalIncoming = BigDecimal.ZERO;
+                BigDecimal totalOutgoing = BigDecimal.ZERO;
+                long incomingCount = 0;
+                long outgoingCount = 0;
+                for (Map.Entry<List<Object>, RollupCell> entry : cells.entrySet()) {
+                    if (entry.getKey().get(1) == PaymentType.INCOMING) {
+                        totalIncoming = totalIncoming.add(entry.getValue().amount);
+                        incomingCount += entry.getValue().count;
+                    } else {
+                        totalOutgoing = totalOutgoing.add(entry.getValue().amount);
+                        outgoingCount += entry.getValue().count;
+                    }
+                }
+                totals.put(day, new PaymentTotals(totalIncoming, totalOutgoing, incomingCount, outgoingCount));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return totals;
+    }
+
+    @Override
+    public long rebuildDailyRollups(LocalDate startDate, LocalDate endDate) {
+        lock.writeLock().lock();
+        try {
+            rollups.subMap(startDate, true, endDate, true).clear();
+            for (Payment payment : paymentsInRange(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+                applyRollup(payment, payment.getStatus(), 1);
+            }
+            long rows = 0;
+            for (Map<List<Object>, RollupCell> day : rollups.subMap(startDate, true, endDate, true).values()) {
+                rows += day.size();
+            }
+            return rows;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> checkDailyRollups(LocalDate startDate, LocalDate endDate) {
+        Map<List<Object>, RollupCell> liveCells = new HashMap<>();
+        Map<List<Object>, RollupCell> storedCells = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (Payment payment : paymentsInRange(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+                liveCells.computeIfAbsent(rollupKey(payment, payment.getStatus()), key -> new RollupCell())
+                        .add(1, payment.getAmount());
+            }
+            for (Map<List<Object>, RollupCell> day : rollups.subMap(startDate, true, endDate, true).values()) {
+                day.forEach((key, cell) -> {
+                    if (cell.count != 0) {
+                        storedCells.put(key, cell);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Set<List<Object>> keys = new TreeSet<>(InMemoryPaymentRepository::compareKeys);
+        keys.addAll(liveCells.keySet());
+        keys.addAll(storedCells.keySet());
+
+        List<String> mismatches = new ArrayList<>();
+        RollupCell none = new RollupCell();
+        for (List<Object> key : keys) {
+            RollupCell liveCell = liveCells.getOrDefault(key, none);
+            RollupCell storedCell = storedCells.getOrDefault(key, none);
+            if (liveCell.count != storedCell.count || liveCell.amount.compareTo(storedCell.amount) != 0) {
+                mismatches.add(String.format("%s %s %s category=%d %s: payments=%d/%s, rollup=%d/%s",
+                        key.get(0), key.get(1), key.get(2), (Long) key.get(3), key.get(4),
+                        liveCell.count, liveCell.amount, storedCell.count, storedCell.amount));
+            }
+        }
+        return mismatches;
+    }
+
+    @Override
+    public PaymentTotals sumByTypeInDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        BigDecimal totalIncoming = BigDecimal.ZERO;
+        BigDecimal totalOutgoing = BigDecimal.ZERO;
+        long incomingCount = 0;
+        long outgoingCount = 0;
+
+        for (Payment payment : paymentsInRange(startDate, endDate)) {
+            if (payment.getPaymentType() == PaymentType.INCOMING) {
+                totalIncoming = totalIncoming.add(payment.getAmount());
+                incomingCount++;
+            } else {
+                totalOutgoing = totalOutgoing.add(payment.getAmount());
+                outgoingCount++;
+            }
+        }
+        return new PaymentTotals(totalIncoming, totalOutgoing, incomingCount, outgoingCount);
+    }
+
+    /**
+     * Walks the payment date index without taking the lock; the skip list iterator is
+     * weakly consistent, so payments written during the scan may or may not be seen.
+     */
+    @Override
+    public ScanStats forEachInDateRange(LocalDateTime startDate, LocalDateTime endDate, PaymentRowHandler handler) {
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean stoppedEarly = false;
+
+        for (Payment payment : paymentsInRange(startDate, endDate)) {
+            rows++;
+            if (!handler.handle(copy(payment))) {
+                stoppedEarly = true;
+                break;
+            }
+        }
+        return new ScanStats(rows, System.nanoTime() - start, stoppedEarly);
+    }
+
+    @Override
+    public ReportCube buildReportCube(LocalDateTime startDate, LocalDateTime endDate) {
+        ReportCube.Builder cube = ReportCube.builder();
+        for (Payment payment : paymentsInRange(startDate, endDate)) {
+            long categoryId = payment.getCategory() != null ? payment.getCategory().getId() : DailyRollupRepository.NO_CATEGORY;
+            cube.add(payment.getPaymentType().name(), payment.getStatus().name(), ReportAccumulator.categoryName(categoryId),
+                    payment.getCurrency(), YearMonth.from(payment.getPaymentDate()), payment.getAmount());
+        }
+        return cube.build();
+    }
+
+    @Override
+    public CounterpartyRanking rankCounterparties(LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        Map<String, CentsAccumulator[]> sums = new HashMap<>();
+        for (Payment payment : paymentsInRange(startDate, endDate)) {
+            if (payment.getClientVendorName() == null) {
+                continue;
+            }
+            CentsAccumulator[] typeSums = sums.get(payment.getClientVendorName());
+            if (typeSums == null) {
+                typeSums = new CentsAccumulator[PaymentType.values().length];
+                for (int type = 0; type < typeSums.length; type++) {
+                    typeSums[type] = new CentsAccumulator();
+                }
+                sums.put(payment.getClientVendorName(), typeSums);
+            }
+            typeSums[payment.getPaymentType().ordinal()].add(payment.getAmount());
+        }
+        return CounterpartyRanking.rank(sums, limit);
+    }
+
+    @Override
+    public boolean existsByReferenceNumber(String referenceNumber) {
+        return referenceIndex.containsKey(referenceNumber);
+    }
+
+    @Override
+    public Optional<Payment> findByReferenceNumber(String referenceNumber) {
+        Long id = referenceNumber != null ? referenceIndex.get(referenceNumber) : null;
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    @Override
+    public Payment updateStatus(Long id, PaymentStatus newStatus) {
+        lock.writeLock().lock();
+        try {
+            Payment current = slot(id);
+            if (current == null) {
+                throw new RuntimeException("Error updating payment status: payment " + id + " not found");
+            }
+            if (current.getStatus() == newStatus) {
+                return copy(current);
+            }
+
+            Payment updated = copy(current);
+            updated.setStatus(newStatus);
+            updated.setUpdatedAt(LocalDateTime.now());
+
+            int bit = bit(id);
+            statusIndex.get(current.getStatus()).clear(bit);
+            statusIndex.get(newStatus).set(bit);
+            slots.set(bit - 1, updated);
+            dateIndex.put(new DateKey(updated.getPaymentDate(), id), updated);
+            applyRollup(current, current.getStatus(), -1);
+            applyRollup(current, newStatus, 1);
+            return copy(updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        lock.writeLock().lock();
+        try {
+            Payment current = slot(id);
+            if (current == null) {
+                throw new RuntimeException("Error deleting payment: payment " + id + " not found");
+            }
+
+            int bit = bit(id);
+            slots.set(bit - 1, null);
+            live.clear(bit);
+            statusIndex.get(current.getStatus()).clear(bit);
+            typeIndex.get(current.getPaymentType()).clear(bit);
+            clearIndexed(categoryIndex, categoryId(current), bit);
+            if (current.getReferenceNumber() != null) {
+                referenceIndex.remove(current.getReferenceNumber());
+            }
+            dateIndex.remove(new DateKey(current.getPaymentDate(), id));
+            applyRollup(current, current.getStatus(), -1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(Payment payment, LocalDateTime timestamp) {
+        long id = slots.size() + 1L;
+        if (id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("In-memory payment repository is full");
+        }
+        // Keep created_at non-decreasing so id order matches (created_at, id) order; a restored
+        // journal is already in creation order, so this only moves timestamps the clock set back
+        LocalDateTime createdAt = timestamp.isAfter(lastCreatedAt) ? timestamp : lastCreatedAt;
+        lastCreatedAt = createdAt;
+
+        payment.setId(id);
+        payment.setCreatedAt(createdAt);
+        payment.setUpdatedAt(createdAt);
+        Payment stored = copy(payment);
+
+        int bit = bit(id);
+        slots.add(stored);
+        live.set(bit);
+        statusIndex.get(stored.getStatus()).set(bit);
+        typeIndex.get(stored.getPaymentType()).set(bit);
+        categoryIndex.computeIfAbsent(categoryId(stored), key -> new BitSet()).set(bit);
+        if (stored.getCreatedBy() != null && stored.getCreatedBy().getId() != null) {
+            creatorIndex.computeIfAbsent(stored.getCreatedBy().getId(), key -> new IdList()).add(bit);
+        }
+        if (stored.getReferenceNumber() != null) {
+            referenceIndex.put(stored.getReferenceNumber(), id);
+        }
+        dateIndex.put(new DateKey(stored.getPaymentDate(), id), stored);
+        applyRollup(stored, stored.getStatus(), 1);
+    }
+
+    /**
+     * Intersects the bitmap indexes for the query's set criteria, then walks the
+     * candidates in the query's order, applying the remaining criteria row by row and
+     * stopping after {@code limit} matches. Only ids below {@code beforeId} are considered.
+     */
+    private List<Payment> collect(PaymentQuery query, int beforeId, int limit) {
+        BitSet candidates = candidates(query);
+        List<Payment> result = new ArrayList<>();
+        PaymentQuery.Sort sort = query.getSort() != null ? query.getSort() : PaymentQuery.Sort.NEWEST_FIRST;
+
+        switch (sort) {
+            case NEWEST_FIRST:
+                for (int bit = candidates.previousSetBit(Math.min(beforeId - 1, candidates.length()));
+                     bit > 0 && result.size() < limit; bit = candidates.previousSetBit(bit - 1)) {
+                    addIfMatches(result, slots.get(bit - 1), query);
+                }
+                return result;
+            case OLDEST_FIRST:
+                for (int bit = candidates.nextSetBit(1); bit > 0 && bit < beforeId && result.size() < limit;
+                     bit = candidates.nextSetBit(bit + 1)) {
+                    addIfMatches(result, slots.get(bit - 1), query);
+                }
+                return result;
+            case PAYMENT_DATE_ASC:
+            case PAYMENT_DATE_DESC:
+                NavigableMap<DateKey, Payment> range = dateRange(query);
+                if (sort == PaymentQuery.Sort.PAYMENT_DATE_DESC) {
+                    range = range.descendingMap();
+                }
+                for (Payment payment : range.values()) {
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                    int bit = bit(payment.getId());
+                    if (bit < beforeId && candidates.get(bit)) {
+                        addIfMatches(result, payment, query);
+                    }
+                }
+                return result;
+            default:
+                for (int bit = candidates.nextSetBit(1); bit > 0 && bit < beforeId; bit = candidates.nextSetBit(bit + 1)) {
+                    addIfMatches(result, slots.get(bit - 1), query);
+                }
+                Comparator<Payment> byAmount = Comparator.comparing(Payment::getAmount).thenComparing(Payment::getId);
+                result.sort(sort == PaymentQuery.Sort.AMOUNT_ASC ? byAmount : byAmount.reversed());
+                return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+        }
+    }
+
+    private BitSet candidates(PaymentQuery query) {
+        BitSet candidates = (BitSet) live.clone();
+        if (query.getPaymentType() != null) {
+            candidates.and(typeIndex.get(query.getPaymentType()));
+        }
+        if (query.getStatuses() != null && !query.getStatuses().isEmpty()) {
+            BitSet any = new BitSet();
+            query.getStatuses().forEach(status -> any.or(statusIndex.get(status)));
+            candidates.and(any);
+        }
+        if (query.getCategoryIds() != null && !query.getCategoryIds().isEmpty()) {
+            BitSet any = new BitSet();
+            query.getCategoryIds().forEach(categoryId -> {
+                BitSet bits = categoryIndex.get(categoryId);
+                if (bits != null) {
+                    any.or(bits);
+                }
+            });
+            candidates.and(any);
+        }
+        if (query.getCreatedBy() != null) {
+            // Deleted ids stay in the creator lists; the live bitmap already excludes them
+            IdList ids = creatorIndex.get(query.getCreatedBy());
+            if (ids == null) {
+                candidates.clear();
+            } else {
+                candidates.and(ids.toBitSet());
+            }
+        }
+        if (query.getPaymentDateFrom() != null || query.getPaymentDateTo() != null) {
+            BitSet inRange = new BitSet();
+            for (DateKey key : dateRange(query).keySet()) {
+                inRange.set(bit(key.id()));
+            }
+            candidates.and(inRange);
+        }
+        return candidates;
+    }
+
+    private NavigableMap<DateKey, Payment> dateRange(PaymentQuery query) {
+        DateKey from = query.getPaymentDateFrom() != null ? new DateKey(query.getPaymentDateFrom(), Long.MIN_VALUE) : null;
+        DateKey to = query.getPaymentDateTo() != null ? new DateKey(query.getPaymentDateTo(), Long.MAX_VALUE) : null;
+        if (from != null && to != null) {
+            return from.compareTo(to) > 0 ? new TreeMap<>() : dateIndex.subMap(from, true, to, true);
+        }
+        if (from != null) {
+            return dateIndex.tailMap(from, true);
+        }
+        if (to != null) {
+            return dateIndex.headMap(to, true);
+        }
+        return dateIndex;
+    }
+
+    private Iterable<Payment> paymentsInRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (!startDate.isBefore(endDate)) {
+            return List.of();
+        }
+        return dateIndex.subMap(new DateKey(startDate, Long.MIN_VALUE), true,
+                new DateKey(endDate, Long.MIN_VALUE), false).values();
+    }
+
+    private static void addIfMatches(List<Payment> result, Payment payment, PaymentQuery query) {
+        if (payment != null && matches(payment, query)) {
+            result.add(copy(payment));
+        }
+    }
+
+    private static boolean matches(Payment payment, PaymentQuery query) {
+        if (query.getMinAmount() != null && payment.getAmount().compareTo(query.getMinAmount()) < 0) {
+            return false;
+        }
+        if (query.getMaxAmount() != null && payment.getAmount().compareTo(query.getMaxAmount()) > 0) {
+            return false;
+        }
+        if (query.getPaymentDateFrom() != null && payment.getPaymentDate().isBefore(query.getPaymentDateFrom())) {
+            return false;
+        }
+        if (query.getPaymentDateTo() != null && payment.getPaymentDate().isAfter(query.getPaymentDateTo())) {
+            return false;
+        }
+        if (query.getVendorNamePrefix() != null && !query.getVendorNamePrefix().isEmpty()) {
+            String vendor = payment.getClientVendorName();
+            return vendor != null && vendor.toLowerCase(Locale.ROOT)
+                    .startsWith(query.getVendorNamePrefix().toLowerCase(Locale.ROOT));
+        }
+        return true;
+    }
+
+    private void applyRollup(Payment payment, PaymentStatus status, int sign) {
+        rollups.computeIfAbsent(payment.getPaymentDate().toLocalDate(), day -> new LinkedHashMap<>())
+                .computeIfAbsent(rollupKey(payment, status), key -> new RollupCell())
+                .add(sign, sign < 0 ? payment.getAmount().negate() : payment.getAmount());
+    }
+
+    private static List<Object> rollupKey(Payment payment, PaymentStatus status) {
+        return List.of(payment.getPaymentDate().toLocalDate(), payment.getPaymentType(), status,
+                categoryId(payment), payment.getCurrency());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(List<Object> left, List<Object> right) {
+        for (int i = 0; i < left.size(); i++) {
+            int compared = ((Comparable) left.get(i)).compareTo(right.get(i));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return 0;
+    }
+
+    private static long categoryId(Payment payment) {
+        return payment.getCategory() != null && payment.getCategory().getId() != null
+                ? payment.getCategory().getId() : DailyRollupRepository.NO_CATEGORY;
+    }
+
+    private static <K> void clearIndexed(Map<K, BitSet> index, K key, int bit) {
+        BitSet bits = index.get(key);
+        if (bits != null) {
+            bits.clear(bit);
+        }
+    }
+
+    private Payment slot(Long id) {
+        if (id == null || id < 1 || id > slots.size()) {
+            return null;
+        }
+        return slots.get((int) (id - 1));
+    }
+
+    private static int bit(long id) {
+        return (int) id;
+    }
+
+    private static Payment copy(Payment payment) {
+        return Payment.builder()
+                .id(payment.getId())
+                .paymentType(payment.getPaymentType())
+                .amount(payment.getAmount())
+                .currency(payment.getCurrency())
+                .description(payment.getDescription())
+                .referenceNumber(payment.getReferenceNumber())
+                .status(payment.getStatus())
+                .categoryName(payment.getCategoryName())
+                .category(payment.getCategory())
+                .createdBy(payment.getCreatedBy())
+                .paymentDate(payment.getPaymentDate())
+                .createdAt(payment.getCreatedAt())
+                .updatedAt(payment.getUpdatedAt())
+                .clientVendorName(payment.getClientVendorName())
+                .accountDetails(payment.getAccountDetails())
+                .build();
+    }
+
+    private record DateKey(LocalDateTime paymentDate, long id) implements Comparable<DateKey> {
+        @Override
+        public int compareTo(DateKey other) {
+            int compared = paymentDate.compareTo(other.paymentDate);
+            return compared != 0 ? compared : Long.compare(id, other.id);
+        }
+    }
+
+    private static final class IdList {
+        private int[] bits = new int[4];
+        private int size;
+
+        private void add(int bit) {
+            if (size == bits.length) {
+                bits = Arrays.copyOf(bits, size * 2);
+            }
+            bits[size++] = bit;
+        }
+
+        private BitSet toBitSet() {
+            BitSet set = new BitSet(size > 0 ? bits[size - 1] + 1 : 0);
+            for (int i = 0; i < size; i++) {
+                set.set(bits[i]);
+            }
+            return set;
+        }
+    }
+
+    private static final class RollupCell {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        private void add(long countDelta, BigDecimal amountDelta) {
+            count += countDelta;
+            amount = amount.add(amountDelta);
+        }
+    }
+}
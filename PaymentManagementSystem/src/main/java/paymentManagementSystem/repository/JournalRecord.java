@@ -0,0 +1,30 @@
+package paymentManagementSystem.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.enums.PaymentStatus;
+
+/**
+ * One entry of the {@link PaymentJournal}. {@code payment} is only set for
+ * {@link Operation#CREATE} and {@code newStatus} only for {@link Operation#STATUS_CHANGE}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class JournalRecord {
+
+    public enum Operation {
+        CREATE,
+        STATUS_CHANGE,
+        DELETE
+    }
+
+    private final long sequence;
+    private final Operation operation;
+    private final long timestampMillis;
+    private final long paymentId;
+    private final Payment payment;
+    private final PaymentStatus newStatus;
+}
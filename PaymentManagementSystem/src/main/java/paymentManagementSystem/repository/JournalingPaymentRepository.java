@@ -0,0 +1,183 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
+import paymentManagementSystem.dto.response.PageResponse;
+import paymentManagementSystem.dto.response.ReportCube;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decorator that records every successful payment write in a {@link PaymentJournal}.
+ * <p>
+ * Records are appended once the delegate has committed, so they carry the assigned id and
+ * never describe a write that was rolled back. A failed append does not fail the write, which
+ * has already committed and would be duplicated by a retry: it is logged and the journal is
+ * marked as needing a checkpoint. Reads go straight to the delegate.
+ */
+public class JournalingPaymentRepository implements PaymentRepository {
+
+    private final PaymentRepository delegate;
+    private final PaymentJournal journal;
+
+    public JournalingPaymentRepository(PaymentRepository delegate, PaymentJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    @Override
+    public Payment save(Payment payment) {
+        Payment saved = delegate.save(payment);
+        append("payment " + saved.getId(), () -> journal.appendCreate(saved));
+        return saved;
+    }
+
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        List<Payment> saved = delegate.saveAll(payments);
+        append(saved.size() + " payments", () -> journal.appendCreates(saved));
+        return saved;
+    }
+
+    @Override
+    public List<Payment> restoreAll(List<Payment> payments) {
+        List<Payment> restored = delegate.restoreAll(payments);
+        append(restored.size() + " payments", () -> journal.appendCreates(restored));
+        return restored;
+    }
+
+    @Override
+    public Payment updateStatus(Long id, PaymentStatus newStatus) {
+        Payment updated = delegate.updateStatus(id, newStatus);
+        append("status change of payment " + id, () -> journal.appendStatusChange(id, newStatus));
+        return updated;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        append("deletion of payment " + id, () -> journal.appendDelete(id));
+    }
+
+    private void append(String description, Runnable append) {
+        try {
+            append.run();
+        } catch (RuntimeException e) {
+            System.err.println("Payment journal: could not record " + description + ", checkpoint needed: " + e.getMessage());
+            journal.markCheckpointNeeded();
+        }
+    }
+
+    @Override
+    public Optional<Payment> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Payment> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public List<Payment> findByCategory(PaymentCategory category) {
+        return delegate.findByCategory(category);
+    }
+
+    @Override
+    public List<Payment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return delegate.findByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public List<Payment> findByCreatedBy(Long userId) {
+        return delegate.findByCreatedBy(userId);
+    }
+
+    @Override
+    public List<Payment> find(PaymentQuery query) {
+        return delegate.find(query);
+    }
+
+    @Override
+    public PageResponse<Payment> findPage(PaymentQuery query, PageRequest pageRequest) {
+        return delegate.findPage(query, pageRequest);
+    }
+
+    @Override
+    public PageResponse<Payment> findPage(PageRequest pageRequest) {
+        return delegate.findPage(pageRequest);
+    }
+
+    @Override
+    public PageResponse<Payment> findPageByStatus(PaymentStatus status, PageRequest pageRequest) {
+        return delegate.findPageByStatus(status, pageRequest);
+    }
+
+    @Override
+    public PageResponse<Payment> findPageByType(PaymentType paymentType, PageRequest pageRequest) {
+        return delegate.findPageByType(paymentType, pageRequest);
+    }
+
+    @Override
+    public PaymentTotals sumByTypeFromDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return delegate.sumByTypeFromDailyRollups(startDate, endDate);
+    }
+
+    @Override
+    public Map<LocalDate, PaymentTotals> sumByDayFromDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return delegate.sumByDayFromDailyRollups(startDate, endDate);
+    }
+
+    @Override
+    public long rebuildDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return delegate.rebuildDailyRollups(startDate, endDate);
+    }
+
+    @Override
+    public List<String> checkDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return delegate.checkDailyRollups(startDate, endDate);
+    }
+
+    @Override
+    public PaymentTotals sumByTypeInDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return delegate.sumByTypeInDateRange(startDate, endDate);
+    }
+
+    @Override
+    public ScanStats forEachInDateRange(LocalDateTime startDate, LocalDateTime endDate, PaymentRowHandler handler) {
+        return delegate.forEachInDateRange(startDate, endDate, handler);
+    }
+
+    @Override
+    public ReportCube buildReportCube(LocalDateTime startDate, LocalDateTime endDate) {
+        return delegate.buildReportCube(startDate, endDate);
+    }
+
+    @Override
+    public CounterpartyRanking rankCounterparties(LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        return delegate.rankCounterparties(startDate, endDate, limit);
+    }
+
+    @Override
+    public boolean existsByReferenceNumber(String referenceNumber) {
+        return delegate.existsByReferenceNumber(referenceNumber);
+    }
+
+    @Override
+    public Optional<Payment> findByReferenceNumber(String referenceNumber) {
+        return delegate.findByReferenceNumber(referenceNumber);
+    }
+}
@@ -0,0 +1,24 @@
+package paymentManagementSystem.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import paymentManagementSystem.dto.response.BreakdownEntry;
+
+import java.util.List;
+
+/**
+ * Totals plus per-category, per-vendor and per-currency breakdowns for one date range, as
+ * produced by a single pass over {@link PaymentColumnarSnapshot}. Breakdowns are ordered by
+ * gross amount (incoming plus outgoing), largest first.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PaymentAggregate {
+    private final PaymentTotals totals;
+    private final List<BreakdownEntry> categoryBreakdown;
+    private final List<BreakdownEntry> vendorBreakdown;
+    private final List<BreakdownEntry> currencyBreakdown;
+    private final ScanStats scanStats;
+}
@@ -0,0 +1,190 @@
+package paymentManagementSystem.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.util.DatabaseConnectionManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory copy of {@code payment_categories}, a table of a handful of rows that every
+ * payment row refers to. Payment queries return only {@code category_id} and resolve it
+ * here, so they need no join and all payments share one category instance per id.
+ * <p>
+ * The map is replaced wholesale on {@link #reload()}, so readers never lock. A reload
+ * happens at startup, on an unknown id (at most once per {@link #MISS_RELOAD_INTERVAL_MILLIS}),
+ * and, when {@link #startListening()} is running, whenever the
+ * {@code payment_categories_changed} notification fired by the table's trigger arrives.
+ */
+public class PaymentCategoryCache {
+
+    public static final String CHANGE_CHANNEL = "payment_categories_changed";
+
+    private static final long MISS_RELOAD_INTERVAL_MILLIS = 1000;
+    private static final int LISTEN_POLL_MILLIS = 5000;
+
+    private static final PaymentCategoryCache INSTANCE = new PaymentCategoryCache();
+
+    private volatile Map<Long, PaymentCategory> categories = Map.of();
+    private volatile long lastReloadMillis = 0;
+    private volatile boolean databaseBacked = true;
+    private volatile Thread listener;
+
+    public static PaymentCategoryCache getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void reload() {
+        String sql = "SELECT id, name, description, is_active, created_at FROM payment_categories";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            Map<Long, PaymentCategory> loaded = new HashMap<>();
+            while (rs.next()) {
+                long id = rs.getLong(1);
+                loaded.put(id, new SharedCategory(id, rs.getString(2), rs.getString(3),
+                        rs.getBoolean(4), rs.getObject(5, LocalDateTime.class)));
+            }
+            categories = Map.copyOf(loaded);
+            lastReloadMillis = System.currentTimeMillis();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading payment categories", e);
+        }
+    }
+
+    /**
+     * Replaces the cache contents with the given categories and stops it from reloading
+     * from the database, for running without PostgreSQL.
+     */
+    public synchronized void loadFixed(Collection<PaymentCategory> fixedCategories) {
+        Map<Long, PaymentCategory> loaded = new HashMap<>();
+        for (PaymentCategory category : fixedCategories) {
+            loaded.put(category.getId(), new SharedCategory(category.getId(), category.getName(),
+                    category.getDescription(), category.getActive(), category.getCreatedAt()));
+        }
+        categories = Map.copyOf(loaded);
+        databaseBacked = false;
+    }
+
+    /**
+     * Returns the shared category for the id. An unknown id triggers a reload (rate
+     * limited) in case the category was added since the last load.
+     */
+    public Optional<PaymentCategory> get(long id) {
+        PaymentCategory category = categories.get(id);
+        if (category == null && databaseBacked
+                && System.currentTimeMillis() - lastReloadMillis >= MISS_RELOAD_INTERVAL_MILLIS) {
+            reload();
+            category = categories.get(id);
+        }
+        return Optional.ofNullable(category);
+    }
+
+    /**
+     * Like {@link #get(long)}, but never queries: an unknown id maps to a bare category
+     * carrying only the id. Used on the row-mapping path.
+     */
+    PaymentCategory resolve(long id) {
+        PaymentCategory category = categories.get(id);
+        return category != null ? category : PaymentCategory.builder().id(id).build();
+    }
+
+    public Collection<PaymentCategory> getAll() {
+        return categories.values();
+    }
+
+    /**
+     * Holds one pooled connection on a daemon thread that LISTENs on {@link #CHANGE_CHANNEL}
+     * and reloads the cache whenever a notification arrives.
+     */
+    public synchronized void startListening() {
+        if (listener != null) {
+            return;
+        }
+        listener = new Thread(this::listen, "payment-category-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    public synchronized void stopListening() {
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    private void listen() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = DatabaseConnectionManager.getConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANGE_CHANNEL);
+                }
+                // Anything changed while not listening is picked up here
+                reload();
+
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pgConnection.getNotifications(LISTEN_POLL_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        reload();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Payment category listener failed, retrying: " + e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(LISTEN_POLL_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Category instance shared by every payment that refers to it; setters throw so one
+     * caller cannot change the category seen by all others.
+     */
+    private static final class SharedCategory extends PaymentCategory {
+
+        private SharedCategory(Long id, String name, String description, Boolean active, LocalDateTime createdAt) {
+            super(id, name, description, active, createdAt);
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw new UnsupportedOperationException("Cached payment categories are immutable");
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException("Cached payment categories are immutable");
+        }
+
+        @Override
+        public void setDescription(String description) {
+            throw new UnsupportedOperationException("Cached payment categories are immutable");
+        }
+
+        @Override
+        public void setActive(Boolean active) {
+            throw new UnsupportedOperationException("Cached payment categories are immutable");
+        }
+
+        @Override
+        public void setCreatedAt(LocalDateTime createdAt) {
+            throw new UnsupportedOperationException("Cached payment categories are immutable");
+        }
+    }
+}
@@ -0,0 +1,648 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.dto.response.BreakdownEntry;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.CentsAccumulator;
+import paymentManagementSystem.util.DatabaseConnectionManager;
+import paymentManagementSystem.util.PropertiesUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented copy of the {@code payments} columns that reports aggregate over, held in
+ * direct (off-heap) buffers: amount in cents as a long, payment day as an epoch day, type and
+ * status as ordinal bytes, and category, vendor and currency as dictionary codes. Report
+ * totals and breakdowns run as primitive loops over these columns without creating
+ * {@code Payment} objects.
+ * <p>
+ * The first refresh loads every row. Later refreshes read only rows whose {@code updated_at}
+ * is at or after the last watermark, less {@code report.snapshot.overlapSeconds} so rows
+ * committed late with an earlier timestamp are still picked up, and overwrite them in place.
+ * Deletions are read the same way from {@code payment_deletions}, which a trigger on
+ * {@code payments} fills; a deleted row is left in place with a day no range matches until
+ * the next full reload, every {@code report.snapshot.fullReloadMinutes}, compacts it away.
+ */
+public class PaymentColumnarSnapshot {
+
+    private static final int FETCH_SIZE = PropertiesUtil.getIntProperty("db.stream.fetchSize", 1000);
+    private static final long REFRESH_INTERVAL_MILLIS = PropertiesUtil.getLongProperty("report.snapshot.refreshIntervalMillis", 0);
+    private static final long FULL_RELOAD_MILLIS =
+            TimeUnit.MINUTES.toMillis(PropertiesUtil.getLongProperty("report.snapshot.fullReloadMinutes", 60));
+    private static final long OVERLAP_MILLIS =
+            TimeUnit.SECONDS.toMillis(PropertiesUtil.getLongProperty("report.snapshot.overlapSeconds", 300));
+    private static final int INITIAL_CAPACITY = PropertiesUtil.getIntProperty("report.snapshot.initialCapacity", 1 << 16);
+
+    private static final String SELECT_DELETIONS_SQL = "SELECT payment_id FROM payment_deletions WHERE deleted_at >= ?";
+
+    private static final String SELECT_SQL = """
+        SELECT id, payment_type, status, category_id, currency, client_vendor_name,
+               CAST(amount * 100 AS BIGINT) as amount_cents,
+               CAST(payment_date AS DATE) - DATE '1970-01-01' as epoch_day,
+               updated_at
+        FROM payments
+        """;
+
+    private static final int TYPE_COUNT = PaymentType.values().length;
+    // Epoch day of deleted rows: below every range, and day - firstDay in BucketTask is either
+    // negative or overflows past the last bucket
+    private static final int DELETED_DAY = Integer.MIN_VALUE;
+    private static final int MIN_ROWS_PER_TASK = 1 << 16;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object refreshLock = new Object();
+
+    private volatile Columns columns;
+
+    /**
+     * Reloads everything when the snapshot is empty or older than the full-reload interval,
+     * otherwise applies an incremental refresh if {@code report.snapshot.refreshIntervalMillis}
+     * has passed since the last one.
+     */
+    public void refreshIfStale() {
+        synchronized (refreshLock) {
+            Columns current = columns;
+            long now = System.currentTimeMillis();
+            if (current == null || now - current.loadedAtMillis >= FULL_RELOAD_MILLIS) {
+                reload();
+            } else if (now - current.refreshedAtMillis >= REFRESH_INTERVAL_MILLIS) {
+                refresh();
+            }
+        }
+    }
+
+    /**
+     * Builds a complete new set of columns from a server-side cursor while readers keep
+     * using the old one, then swaps it in.
+     */
+    public void reload() {
+        synchronized (refreshLock) {
+            Columns loaded = new Columns(INITIAL_CAPACITY);
+            loaded.refreshedAtMillis = load(null, loaded::apply);
+            loaded.loadedAtMillis = loaded.refreshedAtMillis;
+            // A snapshot older than two full-reload intervals reloads rather than reading these
+            pruneDeletions(new Timestamp(loaded.loadedAtMillis - 2 * FULL_RELOAD_MILLIS - OVERLAP_MILLIS));
+
+            lock.writeLock().lock();
+            try {
+                columns = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies rows changed since the watermark to the current columns. The changed rows are
+     * fetched before the write lock is taken, so readers only wait while they are applied.
+     * Falls back to {@link #reload()} when nothing has been loaded yet.
+     */
+    public void refresh() {
+        synchronized (refreshLock) {
+            Columns current = columns;
+            if (current == null) {
+                reload();
+                return;
+            }
+            Timestamp since = current.watermark != null
+                    ? new Timestamp(current.watermark.getTime() - OVERLAP_MILLIS)
+                    : new Timestamp(0);
+
+            List<ChangedRow> changed = new ArrayList<>();
+            long refreshedAt = load(since, changed::add);
+            // Read after the changed rows, so a row changed and then deleted ends up deleted
+            List<Long> deleted = loadDeletions(since);
+
+            lock.writeLock().lock();
+            try {
+                changed.forEach(current::apply);
+                deleted.forEach(current::delete);
+                current.refreshedAtMillis = refreshedAt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * One pass over the rows whose payment day falls in the range (inclusive), summing cents
+     * per type, per (category, type), per (vendor, type) and per (currency, type).
+     *
+     * @param vendorLimit maximum number of vendor entries returned, largest first
+     */
+    public PaymentAggregate aggregate(LocalDate startDate, LocalDate endDate, int vendorLimit) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            if (c == null) {
+                throw new IllegalStateException("Payment snapshot has not been loaded");
+            }
+
+            long start = System.nanoTime();
+            int fromDay = (int) startDate.toEpochDay();
+            int toDay = (int) endDate.toEpochDay();
+            int rows = c.rowCount;
+
+            SlotSums typeSums = new SlotSums(TYPE_COUNT);
+            SlotSums categorySums = new SlotSums(c.categories.size() * TYPE_COUNT);
+            SlotSums vendorSums = new SlotSums(c.vendors.size() * TYPE_COUNT);
+            SlotSums currencySums = new SlotSums(c.currencies.size() * TYPE_COUNT);
+
+            IntBuffer epochDays = c.epochDays;
+            ByteBuffer types = c.types;
+            LongBuffer amountCents = c.amountCents;
+            IntBuffer categoryCodes = c.categoryCodes;
+            IntBuffer vendorCodes = c.vendorCodes;
+            IntBuffer currencyCodes = c.currencyCodes;
+            long matched = 0;
+
+            for (int row = 0; row < rows; row++) {
+                int day = epochDays.get(row);
+                if (day < fromDay || day > toDay) {
+                    continue;
+                }
+                int type = types.get(row);
+                long cents = amountCents.get(row);
+
+                typeSums.add(type, cents);
+                categorySums.add(categoryCodes.get(row) * TYPE_COUNT + type, cents);
+                vendorSums.add(vendorCodes.get(row) * TYPE_COUNT + type, cents);
+                currencySums.add(currencyCodes.get(row) * TYPE_COUNT + type, cents);
+                matched++;
+            }
+
+            CentsAccumulator[] totals = typeSums.typeSums(0);
+            CentsAccumulator incoming = totals[PaymentType.INCOMING.ordinal()];
+            CentsAccumulator outgoing = totals[PaymentType.OUTGOING.ordinal()];
+
+            return new PaymentAggregate(
+                    new PaymentTotals(incoming.toBigDecimal(), outgoing.toBigDecimal(), incoming.getCount(), outgoing.getCount()),
+                    breakdown(categorySums, Integer.MAX_VALUE, code -> ReportAccumulator.categoryName(c.categories.decode(code))),
+                    breakdown(vendorSums, vendorLimit, code -> {
+                        String vendor = c.vendors.decode(code);
+                        return vendor != null ? vendor : "(none)";
+                    }),
+                    breakdown(currencySums, Integer.MAX_VALUE, code -> {
+                        String currency = c.currencies.decode(code);
+                        return currency != null ? currency : "(none)";
+                    }),
+                    new ScanStats(matched, System.nanoTime() - start, false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aggregates many report buckets in one pass. {@code dayBuckets[d]} is the bucket of
+     * epoch day {@code firstDay + d}, or -1 for days outside every bucket. The rows are split
+     * into ranges that are summed in parallel on the common fork/join pool and the partial
+     * sums merged as the tasks join.
+     */
+    public ReportAccumulator[] aggregateBuckets(int firstDay, int[] dayBuckets, int bucketCount) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            if (c == null) {
+                throw new IllegalStateException("Payment snapshot has not been loaded");
+            }
+
+            int categoryCount = c.categories.size();
+            int currencyCount = c.currencies.size();
+            int threshold = Math.max(MIN_ROWS_PER_TASK, c.rowCount / (ForkJoinPool.getCommonPoolParallelism() * 4));
+            SlotSums sums = ForkJoinPool.commonPool().invoke(new BucketTask(c, 0, c.rowCount, threshold, firstDay,
+                    dayBuckets, bucketCount * categoryCount * currencyCount * TYPE_COUNT));
+
+            ReportAccumulator[] buckets = new ReportAccumulator[bucketCount];
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                buckets[bucket] = new ReportAccumulator();
+                for (int category = 0; category < categoryCount; category++) {
+                    for (int currency = 0; currency < currencyCount; currency++) {
+                        int base = ((bucket * categoryCount + category) * currencyCount + currency) * TYPE_COUNT;
+                        for (int type = 0; type < TYPE_COUNT; type++) {
+                            int slot = base + type;
+                            if (sums.counts[slot] != 0) {
+                                buckets[bucket].add(type, c.categories.decode(category), c.currencies.decode(currency),
+                                        sums.cents[slot], sums.carries[slot], sums.counts[slot]);
+                            }
+                        }
+                    }
+                }
+            }
+            return buckets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return columns != null;
+    }
+
+    public int getRowCount() {
+        Columns c = columns;
+        return c != null ? c.rowCount : 0;
+    }
+
+    /**
+     * Off-heap bytes held by the column buffers, excluding the dictionaries.
+     */
+    public long getOffHeapBytes() {
+        Columns c = columns;
+        return c != null ? c.offHeapBytes() : 0;
+    }
+
+    @Override
+    public String toString() {
+        Columns c = columns;
+        if (c == null) {
+            return "PaymentColumnarSnapshot[not loaded]";
+        }
+        return String.format("PaymentColumnarSnapshot[rows=%d, categories=%d, vendors=%d, currencies=%d, offHeap=%dKB, watermark=%s]",
+                c.rowCount, c.categories.size(), c.vendors.size(), c.currencies.size(),
+                c.offHeapBytes() / 1024, c.watermark);
+    }
+
+    /**
+     * Streams the rows changed since {@code since} (all rows when null) to {@code sink}.
+     *
+     * @return the time the query started, for {@code refreshedAtMillis}
+     */
+    private long load(Timestamp since, Consumer<ChangedRow> sink) {
+        String sql = since != null ? SELECT_SQL + " WHERE updated_at >= ?" : SELECT_SQL;
+
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                if (since != null) {
+                    stmt.setTimestamp(1, since);
+                }
+                long refreshedAt = System.currentTimeMillis();
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long categoryId = rs.getLong("category_id");
+                        if (rs.wasNull()) {
+                            categoryId = DailyRollupRepository.NO_CATEGORY;
+                        }
+                        sink.accept(new ChangedRow(
+                                rs.getLong("id"),
+                                PaymentType.valueOf(rs.getString("payment_type")),
+                                PaymentStatus.valueOf(rs.getString("status")),
+                                categoryId,
+                                rs.getString("currency"),
+                                rs.getString("client_vendor_name"),
+                                rs.getLong("amount_cents"),
+                                rs.getInt("epoch_day"),
+                                rs.getTimestamp("updated_at")));
+                    }
+                }
+                conn.commit();
+                return refreshedAt;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading payment snapshot", e);
+        }
+    }
+
+    private List<Long> loadDeletions(Timestamp since) {
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_DELETIONS_SQL)) {
+            stmt.setTimestamp(1, since);
+            List<Long> ids = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading payment deletions", e);
+        }
+    }
+
+    private void pruneDeletions(Timestamp before) {
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM payment_deletions WHERE deleted_at < ?")) {
+            stmt.setTimestamp(1, before);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error pruning payment deletions", e);
+        }
+    }
+
+    private static List<BreakdownEntry> breakdown(SlotSums sums, int limit, CodeNamer namer) {
+        int codes = sums.counts.length / TYPE_COUNT;
+        List<Integer> used = new ArrayList<>();
+        for (int code = 0; code < codes; code++) {
+            if (sums.isUsed(code)) {
+                used.add(code);
+            }
+        }
+        used.sort(Comparator.comparingDouble(sums::gross).reversed());
+
+        List<BreakdownEntry> entries = new ArrayList<>(Math.min(limit, used.size()));
+        for (int i = 0; i < used.size() && i < limit; i++) {
+            int code = used.get(i);
+            entries.add(ReportAccumulator.toEntry(namer.name(code), sums.typeSums(code)));
+        }
+        return entries;
+    }
+
+    /**
+     * Sums cents and counts per (bucket, category code, currency code, type) over a range of
+     * rows.
+     */
+    private static final class BucketTask extends RecursiveTask<SlotSums> {
+        private static final long serialVersionUID = 1L;
+
+        private final Columns columns;
+        private final int fromRow;
+        private final int toRow;
+        private final int threshold;
+        private final int firstDay;
+        private final int[] dayBuckets;
+        private final int slots;
+
+        private BucketTask(Columns columns, int fromRow, int toRow, int threshold,
+                           int firstDay, int[] dayBuckets, int slots) {
+            this.columns = columns;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.threshold = threshold;
+            this.firstDay = firstDay;
+            this.dayBuckets = dayBuckets;
+            this.slots = slots;
+        }
+
+        @Override
+        protected SlotSums compute() {
+            if (toRow - fromRow > threshold) {
+                int middle = (fromRow + toRow) >>> 1;
+                BucketTask left = new BucketTask(columns, fromRow, middle, threshold, firstDay, dayBuckets, slots);
+                BucketTask right = new BucketTask(columns, middle, toRow, threshold, firstDay, dayBuckets, slots);
+                left.fork();
+                SlotSums sums = right.compute();
+                sums.merge(left.join());
+                return sums;
+            }
+
+            SlotSums sums = new SlotSums(slots);
+            int categoryCount = columns.categories.size();
+            int currencyCount = columns.currencies.size();
+            IntBuffer epochDays = columns.epochDays;
+            ByteBuffer types = columns.types;
+            LongBuffer amountCents = columns.amountCents;
+            IntBuffer categoryCodes = columns.categoryCodes;
+            IntBuffer currencyCodes = columns.currencyCodes;
+
+            for (int row = fromRow; row < toRow; row++) {
+                int day = epochDays.get(row) - firstDay;
+                if (day < 0 || day >= dayBuckets.length) {
+                    continue;
+                }
+                int bucket = dayBuckets[day];
+                if (bucket < 0) {
+                    continue;
+                }
+                int slot = ((bucket * categoryCount + categoryCodes.get(row)) * currencyCount + currencyCodes.get(row))
+                        * TYPE_COUNT + types.get(row);
+                sums.add(slot, amountCents.get(row));
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Cents, wrap carries and counts per slot, summed with {@link CentsAccumulator#addCents}.
+     * A code's slots are {@code code * TYPE_COUNT + type}.
+     */
+    private static final class SlotSums {
+        private final long[] cents;
+        private final long[] carries;
+        private final long[] counts;
+
+        private SlotSums(int slots) {
+            this.cents = new long[slots];
+            this.carries = new long[slots];
+            this.counts = new long[slots];
+        }
+
+        private void add(int slot, long amountCents) {
+            CentsAccumulator.addCents(cents, carries, slot, amountCents);
+            counts[slot]++;
+        }
+
+        private void merge(SlotSums other) {
+            for (int slot = 0; slot < cents.length; slot++) {
+                CentsAccumulator.addCents(cents, carries, slot, other.cents[slot]);
+                carries[slot] += other.carries[slot];
+                counts[slot] += other.counts[slot];
+            }
+        }
+
+        private boolean isUsed(int code) {
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                if (counts[code * TYPE_COUNT + type] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Ordering key only; exact amounts come from typeSums
+        private double gross(int code) {
+            double gross = 0;
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                int slot = code * TYPE_COUNT + type;
+                gross += cents[slot] + carries[slot] * 0x1p64;
+            }
+            return gross;
+        }
+
+        private CentsAccumulator[] typeSums(int code) {
+            CentsAccumulator[] sums = new CentsAccumulator[TYPE_COUNT];
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                int slot = code * TYPE_COUNT + type;
+                sums[type] = new CentsAccumulator();
+                sums[type].merge(cents[slot], carries[slot], counts[slot]);
+            }
+            return sums;
+        }
+    }
+
+    private record ChangedRow(long id, PaymentType type, PaymentStatus status, long categoryId, String currency,
+                              String vendor, long cents, int epochDay, Timestamp updatedAt) {
+    }
+
+    @FunctionalInterface
+    private interface CodeNamer {
+        String name(int code);
+    }
+
+    /**
+     * Assigns dense int codes to distinct values in first-seen order.
+     */
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> codes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        private int encode(T value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        private T decode(int code) {
+            return values.get(code);
+        }
+
+        private int size() {
+            return values.size();
+        }
+    }
+
+    private static final class Columns {
+        private int capacity;
+        private int rowCount;
+
+        private LongBuffer amountCents;
+        private IntBuffer epochDays;
+        private ByteBuffer types;
+        private ByteBuffer statuses;
+        private IntBuffer categoryCodes;
+        private IntBuffer vendorCodes;
+        private IntBuffer currencyCodes;
+
+        // Row number + 1 per payment id; 0 means the id is not loaded
+        private IntBuffer rowsById = IntBuffer.allocate(0);
+
+        private final Dictionary<Long> categories = new Dictionary<>();
+        private final Dictionary<String> vendors = new Dictionary<>();
+        private final Dictionary<String> currencies = new Dictionary<>();
+
+        private Timestamp watermark;
+        private long loadedAtMillis;
+        private long refreshedAtMillis;
+
+        private Columns(int capacity) {
+            this.capacity = Math.max(capacity, 16);
+            this.amountCents = allocate(this.capacity * 8L).asLongBuffer();
+            this.epochDays = allocate(this.capacity * 4L).asIntBuffer();
+            this.types = allocate(this.capacity);
+            this.statuses = allocate(this.capacity);
+            this.categoryCodes = allocate(this.capacity * 4L).asIntBuffer();
+            this.vendorCodes = allocate(this.capacity * 4L).asIntBuffer();
+            this.currencyCodes = allocate(this.capacity * 4L).asIntBuffer();
+        }
+
+        private void apply(ChangedRow row) {
+            upsert(row.id(), row.type(), row.status(), row.categoryId(), row.currency(), row.vendor(), row.cents(), row.epochDay());
+            if (row.updatedAt() != null && (watermark == null || row.updatedAt().after(watermark))) {
+                watermark = row.updatedAt();
+            }
+        }
+
+        private void upsert(long id, PaymentType type, PaymentStatus status, long categoryId, String currency,
+                            String vendor, long cents, int epochDay) {
+            int row = rowOf(id);
+            if (row < 0) {
+                if (rowCount == capacity) {
+                    grow();
+                }
+                row = rowCount++;
+                setRowOf(id, row);
+            }
+            amountCents.put(row, cents);
+            epochDays.put(row, epochDay);
+            types.put(row, (byte) type.ordinal());
+            statuses.put(row, (byte) status.ordinal());
+            categoryCodes.put(row, categories.encode(categoryId));
+            vendorCodes.put(row, vendors.encode(vendor));
+            currencyCodes.put(row, currencies.encode(currency));
+        }
+
+        private void delete(long id) {
+            int row = rowOf(id);
+            if (row >= 0) {
+                epochDays.put(row, DELETED_DAY);
+            }
+        }
+
+        private int rowOf(long id) {
+            return id >= 0 && id < rowsById.capacity() ? rowsById.get((int) id) - 1 : -1;
+        }
+
+        private void setRowOf(long id, int row) {
+            if (id < 0 || id >= Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Payment id out of range for snapshot index: " + id);
+            }
+            if (id >= rowsById.capacity()) {
+                long newCapacity = Math.min(Integer.MAX_VALUE - 8L, Math.max(id + 1, rowsById.capacity() * 2L));
+                IntBuffer grown = allocate(newCapacity * 4).asIntBuffer();
+                grown.put(0, rowsById, 0, rowsById.capacity());
+                rowsById = grown;
+            }
+            rowsById.put((int) id, row + 1);
+        }
+
+        private void grow() {
+            int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8L, capacity * 2L);
+            if (newCapacity == capacity) {
+                throw new IllegalStateException("Payment snapshot is full at " + capacity + " rows");
+            }
+            amountCents = copy(amountCents, allocate(newCapacity * 8L).asLongBuffer());
+            epochDays = copy(epochDays, allocate(newCapacity * 4L).asIntBuffer());
+            types = allocate(newCapacity).put(0, types, 0, rowCount);
+            statuses = allocate(newCapacity).put(0, statuses, 0, rowCount);
+            categoryCodes = copy(categoryCodes, allocate(newCapacity * 4L).asIntBuffer());
+            vendorCodes = copy(vendorCodes, allocate(newCapacity * 4L).asIntBuffer());
+            currencyCodes = copy(currencyCodes, allocate(newCapacity * 4L).asIntBuffer());
+            capacity = newCapacity;
+        }
+
+        private LongBuffer copy(LongBuffer from, LongBuffer to) {
+            return to.put(0, from, 0, rowCount);
+        }
+
+        private IntBuffer copy(IntBuffer from, IntBuffer to) {
+            return to.put(0, from, 0, rowCount);
+        }
+
+        private long offHeapBytes() {
+            return capacity * (8L + 4 + 1 + 1 + 4 + 4 + 4) + (long) rowsById.capacity() * 4;
+        }
+
+        private static ByteBuffer allocate(long bytes) {
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Payment snapshot column exceeds 2 GB");
+            }
+            return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package paymentManagementSystem.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import paymentManagementSystem.dto.response.ImportResult;
+import paymentManagementSystem.util.DatabaseConnectionManager;
+import paymentManagementSystem.util.PropertiesUtil;
+import paymentManagementSystem.util.ReferenceNumberGenerator;
+
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Bulk CSV import through PostgreSQL {@code COPY}.
+ * <p>
+ * The file is streamed into a session-local staging table with {@link CopyManager}, then
+ * validated, resolved against {@code payment_categories} and {@code users}, and merged
+ * into {@code payments} with set-based SQL inside one transaction. Nothing is held in the
+ * JVM beyond the copy buffer, so memory stays flat regardless of file size.
+ * <p>
+ * Expected columns, in order, with a header row:
+ * {@code payment_type,amount,currency,description,reference_number,category,payment_date,client_vendor_name,account_details,created_by}.
+ * {@code category} may be a category id or name; {@code created_by} may be a user id or
+ * email and defaults to the importing user. Rows without a reference number get one
+ * generated; rows whose reference number already exists are skipped.
+ */
+public class PaymentCopyImportRepository {
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final long PROGRESS_INTERVAL = PropertiesUtil.getLongProperty("import.progressInterval", 100000);
+    private static final int FETCH_SIZE = PropertiesUtil.getIntProperty("db.stream.fetchSize", 1000);
+
+    private static final String[] SETUP_SQL = {
+            """
+            CREATE TEMP TABLE payment_import_staging (
+                line_no BIGSERIAL,
+                payment_type TEXT,
+                amount TEXT,
+                currency TEXT,
+                description TEXT,
+                reference_number TEXT,
+                category TEXT,
+                payment_date TEXT,
+                client_vendor_name TEXT,
+                account_details TEXT,
+                created_by TEXT
+            ) ON COMMIT DROP
+            """,
+            """
+            CREATE TEMP TABLE payment_import_resolved (
+                line_no BIGINT,
+                payment_type TEXT,
+                amount DECIMAL(15, 2),
+                currency TEXT,
+                description TEXT,
+                reference_number TEXT,
+                category_id INTEGER,
+                payment_date TIMESTAMP,
+                client_vendor_name TEXT,
+                account_details TEXT,
+                created_by UUID,
+                reject_reason TEXT
+            ) ON COMMIT DROP
+            """,
+            // Strict timestamp parser that returns NULL instead of raising, so one bad
+            // row cannot abort the whole set-based statement.
+            """
+            CREATE OR REPLACE FUNCTION pg_temp.import_parse_timestamp(value TEXT) RETURNS TIMESTAMP AS $$
+            DECLARE
+                parts TEXT[];
+                y INT; m INT; d INT; hh INT; mi INT; ss INT;
+            BEGIN
+                parts := regexp_match(value, '^(\\d{4})-(\\d{2})-(\\d{2})(?:[ T](\\d{2}):(\\d{2})(?::(\\d{2}))?)?$');
+                IF parts IS NULL THEN
+                    RETURN NULL;
+                END IF;
+                y := parts[1]::INT; m := parts[2]::INT; d := parts[3]::INT;
+                hh := COALESCE(parts[4]::INT, 0); mi := COALESCE(parts[5]::INT, 0); ss := COALESCE(parts[6]::INT, 0);
+                IF y < 1 OR m < 1 OR m > 12 OR d < 1 OR hh > 23 OR mi > 59 OR ss > 59 THEN
+                    RETURN NULL;
+                END IF;
+                IF d > EXTRACT(DAY FROM make_date(y, m, 1) + INTERVAL '1 month - 1 day') THEN
+                    RETURN NULL;
+                END IF;
+                RETURN make_timestamp(y, m, d, hh, mi, ss);
+            END;
+            $$ LANGUAGE plpgsql IMMUTABLE
+            """
+    };
+
+    private static final String COPY_SQL = """
+            COPY payment_import_staging (payment_type, amount, currency, description, reference_number,
+                                         category, payment_date, client_vendor_name, account_details, created_by)
+            FROM STDIN WITH (FORMAT csv, HEADER true)
+            """;
+
+    private static final String[] LOOKUP_SQL = {
+            """
+            CREATE TEMP TABLE payment_import_categories ON COMMIT DROP AS
+            SELECT DISTINCT ON (v.category) v.category, pc.id
+            FROM (SELECT DISTINCT TRIM(category) AS category FROM payment_import_staging) v
+            JOIN payment_categories pc
+              ON COALESCE(pc.is_active, TRUE)
+             AND (CAST(pc.id AS TEXT) = v.category OR LOWER(pc.name) = LOWER(v.category))
+            ORDER BY v.category, pc.id
+            """,
+            """
+            CREATE TEMP TABLE payment_import_users ON COMMIT DROP AS
+            SELECT DISTINCT ON (v.created_by) v.created_by, u.id
+            FROM (SELECT DISTINCT LOWER(TRIM(created_by)) AS created_by FROM payment_import_staging
+                  WHERE NULLIF(TRIM(created_by), '') IS NOT NULL) v
+            JOIN users u ON CAST(u.id AS TEXT) = v.created_by OR LOWER(u.email) = v.created_by
+            ORDER BY v.created_by, u.id
+            """
+    };
+
+    private static final String RESOLVE_SQL = """
+            INSERT INTO payment_import_resolved
+            SELECT r.*,
+                   CASE
+                       WHEN r.payment_type IS NULL OR r.payment_type NOT IN ('INCOMING', 'OUTGOING') THEN 'invalid payment_type'
+                       WHEN r.amount IS NULL OR r.amount <= 0 THEN 'invalid amount'
+                       WHEN LENGTH(r.currency) > 10 THEN 'invalid currency'
+                       WHEN r.payment_date IS NULL THEN 'invalid payment_date'
+                       WHEN r.category_id IS NULL THEN 'unknown category'
+                       WHEN r.created_by IS NULL THEN 'unknown user'
+                       WHEN LENGTH(r.reference_number) > 100 THEN 'reference_number too long'
+                       WHEN LENGTH(r.client_vendor_name) > 255 THEN 'client_vendor_name too long'
+                   END
+            FROM (
+                SELECT s.line_no,
+                       UPPER(TRIM(s.payment_type)),
+                       CASE WHEN TRIM(s.amount) ~ '^[0-9]{1,13}(\\.[0-9]{1,2})?$' THEN CAST(TRIM(s.amount) AS DECIMAL(15, 2)) END,
+                       COALESCE(NULLIF(UPPER(TRIM(s.currency)), ''), 'USD'),
+                       s.description,
+                       COALESCE(NULLIF(TRIM(s.reference_number), ''), CAST(? AS TEXT) || s.line_no),
+                       c.id,
+                       pg_temp.import_parse_timestamp(TRIM(s.payment_date)),
+                       s.client_vendor_name,
+                       s.account_details,
+                       CASE WHEN NULLIF(TRIM(s.created_by), '') IS NULL THEN CAST(? AS UUID) ELSE u.id END
+                FROM payment_import_staging s
+                LEFT JOIN payment_import_categories c ON c.category = TRIM(s.category)
+                LEFT JOIN payment_import_users u ON u.created_by = LOWER(TRIM(s.created_by))
+            ) r (line_no, payment_type, amount, currency, description, reference_number, category_id,
+                 payment_date, client_vendor_name, account_details, created_by)
+            """;
+
+    // Keeps the first row per reference number, skips references that already exist and
+    // folds the inserted rows into the daily rollups in the same statement. The NOT EXISTS
+    // check (rather than ON CONFLICT (reference_number)) also works when payments is
+    // partitioned and has no single-column unique index on reference_number.
+    private static final String MERGE_SQL = """
+            WITH inserted AS (
+                INSERT INTO payments (payment_type, amount, currency, description, reference_number,
+                                      status, category_id, created_by, payment_date, created_at, updated_at,
+                                      client_vendor_name, account_details)
+                SELECT DISTINCT ON (reference_number)
+                       payment_type, amount, currency, description, reference_number,
+                       'PENDING', category_id, created_by, payment_date, ?, ?,
+                       client_vendor_name, account_details
+                FROM payment_import_resolved r
+                WHERE reject_reason IS NULL
+                  AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.reference_number = r.reference_number)
+                ORDER BY reference_number, line_no
+                ON CONFLICT DO NOTHING
+                RETURNING reference_number, payment_date, payment_type, status, category_id, currency, amount
+            ), rolled_up AS (
+                INSERT INTO payment_daily_rollups AS r (day, payment_type, status, category_id, currency, payment_count, total_amount)
+                SELECT CAST(payment_date AS DATE), payment_type, status, COALESCE(category_id, 0), currency, COUNT(*), SUM(amount)
+                FROM inserted
+                GROUP BY 1, 2, 3, 4, 5
+                ON CONFLICT (day, payment_type, status, category_id, currency)
+                DO UPDATE SET payment_count = r.payment_count + EXCLUDED.payment_count,
+                              total_amount = r.total_amount + EXCLUDED.total_amount
+            )
+            SELECT reference_number FROM inserted
+            """;
+
+    private static final String REJECTS_COPY_SQL = """
+            COPY (
+                SELECT r.line_no + 1 AS line_number, r.reject_reason, s.payment_type, s.amount, s.currency,
+                       s.description, s.reference_number, s.category, s.payment_date,
+                       s.client_vendor_name, s.account_details, s.created_by
+                FROM payment_import_resolved r
+                JOIN payment_import_staging s ON s.line_no = r.line_no
+                WHERE r.reject_reason IS NOT NULL
+                ORDER BY r.line_no
+            ) TO STDOUT WITH (FORMAT csv, HEADER true)
+            """;
+
+    private final ReferenceNumberFilter referenceFilter;
+
+    public PaymentCopyImportRepository() {
+        this(null);
+    }
+
+    public PaymentCopyImportRepository(ReferenceNumberFilter referenceFilter) {
+        this.referenceFilter = referenceFilter;
+    }
+
+    public ImportResult importCsv(Path csvFile, UUID importedBy, LongConsumer progressListener) {
+        long start = System.currentTimeMillis();
+
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : SETUP_SQL) {
+                    stmt.execute(sql);
+                }
+
+                CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+                long rowsRead;
+                try (Reader reader = new LineCountingReader(
+                        Files.newBufferedReader(csvFile, StandardCharsets.UTF_8), progressListener)) {
+                    rowsRead = copyManager.copyIn(COPY_SQL, reader, COPY_BUFFER_SIZE);
+                }
+
+                for (String sql : LOOKUP_SQL) {
+                    stmt.execute(sql);
+                }
+
+                try (PreparedStatement resolve = conn.prepareStatement(RESOLVE_SQL)) {
+                    resolve.setString(1, ReferenceNumberGenerator.getInstance().nextReference("IMP-") + "-");
+                    resolve.setString(2, importedBy.toString());
+                    resolve.executeUpdate();
+                }
+
+                long rowsRejected;
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT COUNT(*) FROM payment_import_resolved WHERE reject_reason IS NOT NULL")) {
+                    rs.next();
+                    rowsRejected = rs.getLong(1);
+                }
+
+                // The inserted references are streamed back so the reference filter learns them.
+                // Adding them before commit is safe: a rollback only leaves false positives.
+                long rowsImported = 0;
+                try (PreparedStatement merge = conn.prepareStatement(MERGE_SQL)) {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    merge.setTimestamp(1, now);
+                    merge.setTimestamp(2, now);
+                    merge.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = merge.executeQuery()) {
+                        while (rs.next()) {
+                            rowsImported++;
+                            if (referenceFilter != null) {
+                                referenceFilter.add(rs.getString(1));
+                            }
+                        }
+                    }
+                }
+
+                String rejectsFile = null;
+                if (rowsRejected > 0) {
+                    Path rejectsPath = csvFile.resolveSibling(csvFile.getFileName() + ".rejects.csv");
+                    try (Writer writer = Files.newBufferedWriter(rejectsPath, StandardCharsets.UTF_8)) {
+                        copyManager.copyOut(REJECTS_COPY_SQL, writer);
+                    }
+                    rejectsFile = rejectsPath.toString();
+                }
+
+                conn.commit();
+
+                return ImportResult.builder()
+                        .rowsRead(rowsRead)
+                        .rowsImported(rowsImported)
+                        .rowsRejected(rowsRejected)
+                        .duplicatesSkipped(rowsRead - rowsRejected - rowsImported)
+                        .rejectsFile(rejectsFile)
+                        .elapsedMillis(System.currentTimeMillis() - start)
+                        .build();
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Error importing payments from " + csvFile, e);
+        }
+    }
+
+    /**
+     * Passes characters through unchanged while counting newlines, reporting progress
+     * to the listener every {@code import.progressInterval} lines as COPY consumes them.
+     */
+    private static final class LineCountingReader extends FilterReader {
+        private final LongConsumer progressListener;
+        private long lines = 0;
+        private long nextReport = PROGRESS_INTERVAL;
+
+        private LineCountingReader(BufferedReader in, LongConsumer progressListener) {
+            super(in);
+            this.progressListener = progressListener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c == '\n') {
+                countLine();
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            for (int i = offset; i < offset + read; i++) {
+                if (buffer[i] == '\n') {
+                    countLine();
+                }
+            }
+            return read;
+        }
+
+        private void countLine() {
+            lines++;
+            if (progressListener != null && lines >= nextReport) {
+                progressListener.accept(lines);
+                nextReport += PROGRESS_INTERVAL;
+            }
+        }
+    }
+}
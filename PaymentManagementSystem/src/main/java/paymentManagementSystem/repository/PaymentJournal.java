@@ -0,0 +1,678 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.PropertiesUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of payment writes, stored as memory-mapped segment files
+ * ({@code payments-00000001.journal}, ...) in one directory.
+ * <p>
+ * Each record is {@code [int length][int crc32c][payload]}; a zero length marks the end of
+ * the written part of a segment, and a record whose length or checksum does not match is
+ * treated as a torn write and ends the segment. A new segment is started when the next
+ * record does not fit. The {@link FsyncPolicy} decides when mapped pages are forced to disk:
+ * after every append (concurrent appenders share one force, so this is group commit), on a
+ * fixed interval from a daemon thread, or never (left to the OS).
+ * <p>
+ * {@link #checkpoint} bounds the history: it writes the live payments to
+ * {@code checkpoint-<n>.journal}, in the same record format, and deletes the segments up to
+ * {@code n} that it replaces. Readers start from the newest checkpoint and skip the
+ * segments it covers, so a crash between writing the checkpoint and deleting the segments
+ * does not replay anything twice. A write that committed but could not be appended leaves a
+ * {@code needs-checkpoint} marker instead ({@link #markCheckpointNeeded}); the next
+ * checkpoint, taken from the store that holds the write, removes it.
+ */
+public class PaymentJournal implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        PER_OP,
+        INTERVAL,
+        NONE
+    }
+
+    private static final String SEGMENT_PREFIX = "payments-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    // Left by markCheckpointNeeded when a committed write could not be journaled
+    private static final String CHECKPOINT_NEEDED = "needs-checkpoint";
+    private static final int HEADER_BYTES = 8;
+    // Logical positions are segment number << 31 plus the offset in the segment
+    private static final int POSITION_SHIFT = 31;
+
+    private static final PaymentType[] TYPES = PaymentType.values();
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final JournalRecord.Operation[] OPERATIONS = JournalRecord.Operation.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final ScheduledExecutorService flusher;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final CRC32C checksum = new CRC32C();
+
+    private Segment segment;
+    private long nextSequence;
+    private long syncedPosition;
+    private boolean closed = false;
+
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+
+    public PaymentJournal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Journal segment size must be at least 4096 bytes: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening payment journal in " + directory, e);
+        }
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "payment-journal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::sync, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    public static PaymentJournal fromProperties() {
+        return new PaymentJournal(
+                directoryFromProperties(),
+                (int) Math.min(Integer.MAX_VALUE, PropertiesUtil.getLongProperty("journal.segmentSizeMB", 64) * 1024 * 1024),
+                FsyncPolicy.valueOf(PropertiesUtil.getProperty("journal.fsyncPolicy", "INTERVAL").trim().toUpperCase()),
+                PropertiesUtil.getLongProperty("journal.fsyncIntervalMillis", 50));
+    }
+
+    public static Path directoryFromProperties() {
+        return Paths.get(PropertiesUtil.getProperty("journal.dir", "journal"));
+    }
+
+    public void appendCreate(Payment payment) {
+        appendCreates(List.of(payment));
+    }
+
+    public void appendCreates(List<Payment> payments) {
+        long end;
+        synchronized (appendLock) {
+            end = 0;
+            for (Payment payment : payments) {
+                end = append(JournalRecord.Operation.CREATE, payment.getId(), payment, null);
+            }
+        }
+        afterAppend(end);
+    }
+
+    public void appendStatusChange(long paymentId, PaymentStatus newStatus) {
+        long end;
+        synchronized (appendLock) {
+            end = append(JournalRecord.Operation.STATUS_CHANGE, paymentId, null, newStatus);
+        }
+        afterAppend(end);
+    }
+
+    public void appendDelete(long paymentId) {
+        long end;
+        synchronized (appendLock) {
+            end = append(JournalRecord.Operation.DELETE, paymentId, null, null);
+        }
+        afterAppend(end);
+    }
+
+    /**
+     * Forces everything appended so far to disk. Callers that arrive while another force
+     * is in progress find their records already covered and return without forcing again.
+     */
+    public void sync() {
+        long target;
+        synchronized (appendLock) {
+            target = segment.position();
+        }
+        syncTo(target);
+    }
+
+    /**
+     * Reads every intact record in the directory, starting with the newest checkpoint and
+     * then the segments after it, stopping each file at its end marker or at the first
+     * torn record.
+     *
+     * @return the number of records read
+     */
+    public static long read(Path directory, Consumer<JournalRecord> consumer) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try {
+            long records = 0;
+            Path checkpoint = newestCheckpoint(directory);
+            long covered = 0;
+            if (checkpoint != null) {
+                records += readFile(checkpoint, consumer);
+                covered = fileNumber(checkpoint, CHECKPOINT_PREFIX);
+            }
+            for (Path file : listSegments(directory)) {
+                if (fileNumber(file, SEGMENT_PREFIX) > covered) {
+                    records += readFile(file, consumer);
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading payment journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Replaces the journal history with a CREATE record per payment, carrying its current
+     * status. Must be called with the journal closed and {@code payments} equal to the state
+     * the journal replays to, as at in-memory bootstrap; later segments are numbered after
+     * the checkpoint, so a journal opened afterwards appends after it. Records are written in
+     * id order, which is creation order, so a replay restores the payments as they were created.
+     *
+     * @return the number of segments deleted
+     */
+    public static int checkpoint(Path directory, Collection<Payment> payments) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = listSegments(directory);
+            Path previous = newestCheckpoint(directory);
+            long number = Math.max(previous != null ? fileNumber(previous, CHECKPOINT_PREFIX) : 0,
+                    segments.isEmpty() ? 0 : fileNumber(segments.get(segments.size() - 1), SEGMENT_PREFIX));
+            long[] sequence = {0};
+            if (previous != null) {
+                readFile(previous, record -> sequence[0] = record.getSequence() + 1);
+            }
+            for (Path segment : segments) {
+                readFile(segment, record -> sequence[0] = record.getSequence() + 1);
+            }
+
+            Path file = directory.resolve(String.format("%s%08d%s", CHECKPOINT_PREFIX, number, SEGMENT_SUFFIX));
+            Path temp = directory.resolve(file.getFileName() + ".tmp");
+            CRC32C crc = new CRC32C();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 65536))) {
+                long timestamp = System.currentTimeMillis();
+                List<Payment> ordered = new ArrayList<>(payments);
+                ordered.sort(Comparator.comparing(Payment::getId));
+                for (Payment payment : ordered) {
+                    byte[] payload = encode(new JournalRecord(sequence[0]++, JournalRecord.Operation.CREATE,
+                            timestamp, payment.getId(), payment, null));
+                    crc.reset();
+                    crc.update(payload);
+                    out.writeInt(payload.length);
+                    out.writeInt((int) crc.getValue());
+                    out.write(payload);
+                }
+                out.writeInt(0);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+
+            int deleted = 0;
+            for (Path segment : segments) {
+                if (fileNumber(segment, SEGMENT_PREFIX) <= number) {
+                    Files.delete(segment);
+                    deleted++;
+                }
+            }
+            if (previous != null && !previous.equals(file)) {
+                Files.delete(previous);
+            }
+            Files.deleteIfExists(directory.resolve(CHECKPOINT_NEEDED));
+            return deleted;
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing payment journal checkpoint in " + directory, e);
+        }
+    }
+
+    /**
+     * Records that the journal misses a committed write, so replaying it no longer rebuilds
+     * the store and a {@link #checkpoint} of the store's payments is needed.
+     */
+    public void markCheckpointNeeded() {
+        try {
+            Path marker = directory.resolve(CHECKPOINT_NEEDED);
+            if (!Files.exists(marker)) {
+                Files.createFile(marker);
+            }
+        } catch (IOException e) {
+            System.err.println("Payment journal: could not mark " + directory + " as needing a checkpoint: " + e.getMessage());
+        }
+    }
+
+    public static boolean isCheckpointNeeded(Path directory) {
+        return Files.exists(directory.resolve(CHECKPOINT_NEEDED));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getAppendedRecords() {
+        return appendedRecords.get();
+    }
+
+    public long getSyncCount() {
+        return syncs.get();
+    }
+
+    /**
+     * Stops the fsync thread and forces what was appended. Calls after the first do nothing.
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+        }
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            sync();
+        }
+        synchronized (appendLock) {
+            closed = true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (appendLock) {
+            return String.format("PaymentJournal[dir=%s, segment=%d, offset=%d/%d, nextSequence=%d, appended=%d, syncs=%d, policy=%s]",
+                    directory, segment.number, segment.offset, segment.capacity, nextSequence,
+                    getAppendedRecords(), getSyncCount(), fsyncPolicy);
+        }
+    }
+
+    private long append(JournalRecord.Operation operation, long paymentId, Payment payment, PaymentStatus newStatus) {
+        if (closed) {
+            throw new IllegalStateException("Payment journal has been closed");
+        }
+        byte[] payload;
+        try {
+            payload = encode(new JournalRecord(nextSequence, operation, System.currentTimeMillis(), paymentId, payment, newStatus));
+        } catch (IOException e) {
+            throw new RuntimeException("Error encoding payment journal record", e);
+        }
+
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + size + " bytes exceeds the segment size");
+        }
+        if (segment.offset + size > segment.capacity) {
+            roll();
+        }
+
+        checksum.reset();
+        checksum.update(payload);
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.offset;
+        buffer.put(offset + HEADER_BYTES, payload);
+        buffer.putInt(offset + 4, (int) checksum.getValue());
+        // Length last, so a record is only visible once its payload is in place
+        buffer.putInt(offset, payload.length);
+
+        segment.offset += size;
+        nextSequence++;
+        appendedRecords.incrementAndGet();
+        return segment.position();
+    }
+
+    private void afterAppend(long endPosition) {
+        if (fsyncPolicy == FsyncPolicy.PER_OP) {
+            syncTo(endPosition);
+        }
+    }
+
+    private void syncTo(long position) {
+        synchronized (syncLock) {
+            if (syncedPosition >= position) {
+                return;
+            }
+            Segment current;
+            long written;
+            synchronized (appendLock) {
+                current = segment;
+                written = current.position();
+            }
+            // Earlier segments were forced completely when they were rolled
+            long from = Math.max(syncedPosition, current.base());
+            if (written > from) {
+                current.buffer.force((int) (from - current.base()), (int) (written - from));
+                syncs.incrementAndGet();
+            }
+            syncedPosition = written;
+        }
+    }
+
+    private void roll() {
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            segment.buffer.force();
+            syncs.incrementAndGet();
+        }
+        try {
+            segment = openSegment(segment.number + 1);
+        } catch (IOException e) {
+            throw new RuntimeException("Error rolling payment journal segment", e);
+        }
+    }
+
+    /**
+     * Opens the newest segment for appending, positioned after its last intact record, and
+     * continues the sequence from the newest record in the directory. Anything after a torn
+     * record is zeroed so it cannot be mistaken for a record once appends resume.
+     */
+    private void recover() throws IOException {
+        List<Path> segments = listSegments(directory);
+        Path checkpoint = newestCheckpoint(directory);
+        long covered = checkpoint != null ? fileNumber(checkpoint, CHECKPOINT_PREFIX) : 0;
+        segments.removeIf(file -> fileNumber(file, SEGMENT_PREFIX) <= covered);
+
+        for (int i = segments.size() - 1; i >= 0 && nextSequence == 0; i--) {
+            readFile(segments.get(i), record -> nextSequence = record.getSequence() + 1);
+        }
+        if (nextSequence == 0 && checkpoint != null) {
+            readFile(checkpoint, record -> nextSequence = record.getSequence() + 1);
+        }
+        if (segments.isEmpty()) {
+            segment = openSegment(covered + 1);
+            return;
+        }
+
+        long number = fileNumber(segments.get(segments.size() - 1), SEGMENT_PREFIX);
+        segment = openSegment(number);
+        int length;
+        while ((length = recordLength(segment.buffer, segment.offset)) > 0) {
+            segment.offset += HEADER_BYTES + length;
+        }
+        if (length < 0) {
+            System.err.println("Payment journal: discarding torn record at offset " + segment.offset
+                    + " of segment " + number);
+            for (int i = segment.offset; i < segment.capacity; i++) {
+                segment.buffer.put(i, (byte) 0);
+            }
+            segment.buffer.force();
+        }
+        syncedPosition = segment.position();
+    }
+
+    private Segment openSegment(long number) throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Keep the size of segments written under a different journal.segmentSizeMB
+            int capacity = channel.size() > 0 ? (int) Math.min(channel.size(), Integer.MAX_VALUE) : segmentSize;
+            return new Segment(number, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+        }
+    }
+
+    /**
+     * Returns the payload length of the record at {@code offset}, 0 at the end of the
+     * written data, or -1 if the record is torn or fails its checksum.
+     */
+    private static int recordLength(ByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > buffer.limit()) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < 0 || length > buffer.limit() - offset - HEADER_BYTES) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? length : -1;
+    }
+
+    private static byte[] payload(ByteBuffer buffer, int offset, int length) {
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_BYTES, payload);
+        return payload;
+    }
+
+    private static long readFile(Path file, Consumer<JournalRecord> consumer) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        long records = 0;
+        int offset = 0;
+        while (true) {
+            int length = recordLength(buffer, offset);
+            if (length <= 0) {
+                if (length < 0) {
+                    System.err.println("Payment journal " + file.getFileName() + ": torn record at offset " + offset + ", skipping rest of file");
+                }
+                return records;
+            }
+            consumer.accept(decode(payload(buffer, offset, length)));
+            offset += HEADER_BYTES + length;
+            records++;
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        return listFiles(directory, SEGMENT_PREFIX);
+    }
+
+    private static Path newestCheckpoint(Path directory) throws IOException {
+        List<Path> checkpoints = listFiles(directory, CHECKPOINT_PREFIX);
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    private static List<Path> listFiles(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> matching = new ArrayList<>();
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(SEGMENT_SUFFIX);
+            }).forEach(matching::add);
+            matching.sort((a, b) -> Long.compare(fileNumber(a, prefix), fileNumber(b, prefix)));
+            return matching;
+        }
+    }
+
+    private static long fileNumber(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(JournalRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(record.getSequence());
+        out.writeByte(record.getOperation().ordinal());
+        out.writeLong(record.getTimestampMillis());
+        out.writeLong(record.getPaymentId());
+
+        switch (record.getOperation()) {
+            case CREATE:
+                Payment payment = record.getPayment();
+                out.writeByte(payment.getPaymentType().ordinal());
+                out.writeByte(payment.getStatus().ordinal());
+                out.writeByte(payment.getAmount().scale());
+                out.writeLong(payment.getAmount().unscaledValue().longValueExact());
+                writeString(out, payment.getCurrency());
+                writeString(out, payment.getDescription());
+                writeString(out, payment.getReferenceNumber());
+                out.writeLong(payment.getCategory() != null ? payment.getCategory().getId() : DailyRollupRepository.NO_CATEGORY);
+                UUID createdBy = payment.getCreatedBy() != null ? payment.getCreatedBy().getId() : null;
+                out.writeBoolean(createdBy != null);
+                if (createdBy != null) {
+                    out.writeLong(createdBy.getMostSignificantBits());
+                    out.writeLong(createdBy.getLeastSignificantBits());
+                }
+                writeDateTime(out, payment.getPaymentDate());
+                writeDateTime(out, payment.getCreatedAt());
+                writeString(out, payment.getClientVendorName());
+                writeString(out, payment.getAccountDetails());
+                break;
+            case STATUS_CHANGE:
+                out.writeByte(record.getNewStatus().ordinal());
+                break;
+            case DELETE:
+                break;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static JournalRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long sequence = in.readLong();
+            JournalRecord.Operation operation = OPERATIONS[in.readByte()];
+            long timestamp = in.readLong();
+            long paymentId = in.readLong();
+
+            Payment payment = null;
+            PaymentStatus newStatus = null;
+            switch (operation) {
+                case CREATE:
+                    PaymentType type = TYPES[in.readByte()];
+                    PaymentStatus status = STATUSES[in.readByte()];
+                    int scale = in.readByte();
+                    BigDecimal amount = BigDecimal.valueOf(in.readLong(), scale);
+                    String currency = readString(in);
+                    String description = readString(in);
+                    String reference = readString(in);
+                    long categoryId = in.readLong();
+                    User createdBy = null;
+                    if (in.readBoolean()) {
+                        createdBy = new User();
+                        createdBy.setId(new UUID(in.readLong(), in.readLong()));
+                    }
+                    payment = Payment.builder()
+                            .id(paymentId)
+                            .paymentType(type)
+                            .status(status)
+                            .amount(amount)
+                            .currency(currency)
+                            .description(description)
+                            .referenceNumber(reference)
+                            .category(categoryId != DailyRollupRepository.NO_CATEGORY
+                                    ? PaymentCategory.builder().id(categoryId).build() : null)
+                            .createdBy(createdBy)
+                            .paymentDate(readDateTime(in))
+                            .createdAt(readDateTime(in))
+                            .clientVendorName(readString(in))
+                            .accountDetails(readString(in))
+                            .build();
+                    break;
+                case STATUS_CHANGE:
+                    newStatus = STATUSES[in.readByte()];
+                    break;
+                case DELETE:
+                    break;
+            }
+            return new JournalRecord(sequence, operation, timestamp, paymentId, payment, newStatus);
+        } catch (IOException e) {
+            throw new RuntimeException("Error decoding payment journal record", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static final class Segment {
+        private final long number;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int offset;
+
+        private Segment(long number, MappedByteBuffer buffer, int capacity) {
+            this.number = number;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        private long base() {
+            return number << POSITION_SHIFT;
+        }
+
+        private long position() {
+            return base() + offset;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package paymentManagementSystem.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.util.DatabaseConnectionManager;
+import paymentManagementSystem.util.DatabaseInitializer;
+import paymentManagementSystem.util.PropertiesUtil;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Applies a {@link PaymentJournal} to a {@link PaymentRepository}, either to rebuild the
+ * database after a crash or to bootstrap the in-memory store.
+ * <p>
+ * Payments are matched on reference number, so replaying into a database that already
+ * holds some of them only adds the missing ones. Journal ids are translated to the ids the
+ * target assigns, and consecutive creates are restored in batches of {@code db.batch.size},
+ * keeping their journaled creation timestamps. Run {@link #main} to replay into PostgreSQL:
+ * the optional argument is the journal directory (default {@code journal.dir}).
+ */
+public class PaymentJournalReplayer {
+
+    private static final int BATCH_SIZE = PropertiesUtil.getIntProperty("db.batch.size", 1000);
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Result {
+        private final long recordsRead;
+        private final long created;
+        private final long alreadyPresent;
+        private final long statusChanges;
+        private final long deletes;
+        private final long missing;
+    }
+
+    private final PaymentRepository target;
+    private final Map<Long, Long> idMapping = new HashMap<>();
+    private final List<Payment> pendingCreates = new ArrayList<>();
+    private final List<Long> pendingJournalIds = new ArrayList<>();
+
+    private long recordsRead;
+    private long created;
+    private long alreadyPresent;
+    private long statusChanges;
+    private long deletes;
+    private long missing;
+
+    private PaymentJournalReplayer(PaymentRepository target) {
+        this.target = target;
+    }
+
+    public static Result replay(Path directory, PaymentRepository target) {
+        PaymentJournalReplayer replayer = new PaymentJournalReplayer(target);
+        PaymentJournal.read(directory, replayer::apply);
+        replayer.flushCreates();
+        return new Result(replayer.recordsRead, replayer.created, replayer.alreadyPresent,
+                replayer.statusChanges, replayer.deletes, replayer.missing);
+    }
+
+    public static void main(String[] args) {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : PaymentJournal.directoryFromProperties();
+        if (PaymentJournal.isCheckpointNeeded(directory)) {
+            System.out.println("Warning: " + directory + " missed committed writes; the replay will not include them.");
+        }
+        try {
+            DatabaseInitializer.createTables();
+            long start = System.currentTimeMillis();
+            Result result = replay(directory, new PaymentRepositoryImpl());
+            System.out.println("Replayed " + directory + " in " + (System.currentTimeMillis() - start) + " ms: " + result);
+        } finally {
+            DatabaseConnectionManager.closeConnection();
+        }
+    }
+
+    private void apply(JournalRecord record) {
+        recordsRead++;
+        switch (record.getOperation()) {
+            case CREATE:
+                Payment payment = record.getPayment();
+                Optional<Payment> existing = payment.getReferenceNumber() != null
+                        ? target.findByReferenceNumber(payment.getReferenceNumber())
+                        : Optional.empty();
+                if (existing.isPresent()) {
+                    idMapping.put(record.getPaymentId(), existing.get().getId());
+                    alreadyPresent++;
+                    break;
+                }
+                payment.setId(null);
+                pendingCreates.add(payment);
+                pendingJournalIds.add(record.getPaymentId());
+                if (pendingCreates.size() >= BATCH_SIZE) {
+                    flushCreates();
+                }
+                break;
+            case STATUS_CHANGE:
+                flushCreates();
+                Long statusId = idMapping.getOrDefault(record.getPaymentId(), record.getPaymentId());
+                Optional<Payment> current = target.findById(statusId);
+                if (current.isEmpty()) {
+                    missing++;
+                } else if (current.get().getStatus() != record.getNewStatus()) {
+                    target.updateStatus(statusId, record.getNewStatus());
+                    statusChanges++;
+                }
+                break;
+            case DELETE:
+                flushCreates();
+                Long deleteId = idMapping.getOrDefault(record.getPaymentId(), record.getPaymentId());
+                if (target.findById(deleteId).isPresent()) {
+                    target.deleteById(deleteId);
+                    deletes++;
+                } else {
+                    missing++;
+                }
+                break;
+        }
+    }
+
+    private void flushCreates() {
+        if (pendingCreates.isEmpty()) {
+            return;
+        }
+        List<Payment> saved = target.restoreAll(pendingCreates);
+        for (int i = 0; i < saved.size(); i++) {
+            idMapping.put(pendingJournalIds.get(i), saved.get(i).getId());
+        }
+        created += saved.size();
+        pendingCreates.clear();
+        pendingJournalIds.clear();
+    }
+}
@@ -0,0 +1,148 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
+import paymentManagementSystem.enums.PaymentStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Turns a {@link PaymentQuery} into one parameterized SELECT.
+ * <p>
+ * The SQL depends only on the query's shape: which criteria are set, the sort, and
+ * whether there is a keyset cursor and a limit. Set criteria bind a single array
+ * parameter ({@code = ANY(?)}) so their size does not change the shape. Compiled SQL
+ * is cached per shape, and the server sees a small, stable set of statements.
+ */
+final class PaymentQueryCompiler {
+
+    private static final String SELECT = """
+        SELECT p.*, u.username as user_name, u.email as user_email
+        FROM payments p
+        LEFT JOIN users u ON p.created_by = u.id
+        WHERE TRUE
+        """;
+
+    private enum Criterion {
+        TYPE(" AND p.payment_type = ?", q -> q.getPaymentType() != null),
+        STATUSES(" AND p.status = ANY(?)", q -> q.getStatuses() != null && !q.getStatuses().isEmpty()),
+        CATEGORIES(" AND p.category_id = ANY(?)", q -> q.getCategoryIds() != null && !q.getCategoryIds().isEmpty()),
+        MIN_AMOUNT(" AND p.amount >= ?", q -> q.getMinAmount() != null),
+        MAX_AMOUNT(" AND p.amount <= ?", q -> q.getMaxAmount() != null),
+        DATE_FROM(" AND p.payment_date >= ?", q -> q.getPaymentDateFrom() != null),
+        DATE_TO(" AND p.payment_date <= ?", q -> q.getPaymentDateTo() != null),
+        CREATED_BY(" AND p.created_by = ?", q -> q.getCreatedBy() != null),
+        VENDOR_PREFIX(" AND LOWER(p.client_vendor_name) LIKE ? ESCAPE '\\'",
+                q -> q.getVendorNamePrefix() != null && !q.getVendorNamePrefix().isEmpty());
+
+        private final String clause;
+        private final Predicate<PaymentQuery> present;
+
+        Criterion(String clause, Predicate<PaymentQuery> present) {
+            this.clause = clause;
+            this.present = present;
+        }
+    }
+
+    private static final Criterion[] CRITERIA = Criterion.values();
+    private static final int CURSOR_BIT = CRITERIA.length;
+    private static final int LIMIT_BIT = CRITERIA.length + 1;
+    private static final int SORT_SHIFT = CRITERIA.length + 2;
+
+    private final ConcurrentHashMap<Integer, String> sqlByShape = new ConcurrentHashMap<>();
+
+    /**
+     * Prepares the statement for the query with all parameters bound. A page request
+     * adds a keyset cursor on {@code (created_at, id)} and requires the default sort;
+     * {@code limitOverride}, when positive, replaces the query's own limit.
+     */
+    PreparedStatement prepare(Connection conn, PaymentQuery query, PageRequest pageRequest, int limitOverride) throws SQLException {
+        boolean hasCursor = pageRequest != null && pageRequest.hasCursor();
+        if (pageRequest != null && query.getSort() != PaymentQuery.Sort.NEWEST_FIRST) {
+            throw new IllegalArgumentException("Keyset paging requires sort " + PaymentQuery.Sort.NEWEST_FIRST);
+        }
+        int limit = limitOverride > 0 ? limitOverride : (query.getLimit() != null ? query.getLimit() : 0);
+
+        int shape = query.getSort().ordinal() << SORT_SHIFT;
+        for (Criterion criterion : CRITERIA) {
+            if (criterion.present.test(query)) {
+                shape |= 1 << criterion.ordinal();
+            }
+        }
+        if (hasCursor) {
+            shape |= 1 << CURSOR_BIT;
+        }
+        if (limit > 0) {
+            shape |= 1 << LIMIT_BIT;
+        }
+
+        PreparedStatement stmt = conn.prepareStatement(sqlByShape.computeIfAbsent(shape, PaymentQueryCompiler::compile));
+        try {
+            bind(conn, stmt, query, shape, pageRequest, limit);
+            return stmt;
+        } catch (SQLException | RuntimeException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    int getCachedShapeCount() {
+        return sqlByShape.size();
+    }
+
+    private static String compile(int shape) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        for (Criterion criterion : CRITERIA) {
+            if ((shape & (1 << criterion.ordinal())) != 0) {
+                sql.append(criterion.clause);
+            }
+        }
+        if ((shape & (1 << CURSOR_BIT)) != 0) {
+            sql.append(" AND (p.created_at, p.id) < (?, ?)");
+        }
+        sql.append(" ORDER BY ").append(PaymentQuery.Sort.values()[shape >>> SORT_SHIFT].getOrderBy());
+        if ((shape & (1 << LIMIT_BIT)) != 0) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    private static void bind(Connection conn, PreparedStatement stmt, PaymentQuery query, int shape,
+                             PageRequest pageRequest, int limit) throws SQLException {
+        int index = 1;
+        for (Criterion criterion : CRITERIA) {
+            if ((shape & (1 << criterion.ordinal())) == 0) {
+                continue;
+            }
+            switch (criterion) {
+                case TYPE -> stmt.setString(index++, query.getPaymentType().toString());
+                case STATUSES -> stmt.setArray(index++, conn.createArrayOf("varchar",
+                        query.getStatuses().stream().map(PaymentStatus::toString).toArray()));
+                case CATEGORIES -> stmt.setArray(index++, conn.createArrayOf("int8", query.getCategoryIds().toArray()));
+                case MIN_AMOUNT -> stmt.setBigDecimal(index++, query.getMinAmount());
+                case MAX_AMOUNT -> stmt.setBigDecimal(index++, query.getMaxAmount());
+                case DATE_FROM -> stmt.setTimestamp(index++, Timestamp.valueOf(query.getPaymentDateFrom()));
+                case DATE_TO -> stmt.setTimestamp(index++, Timestamp.valueOf(query.getPaymentDateTo()));
+                case CREATED_BY -> stmt.setObject(index++, query.getCreatedBy());
+                case VENDOR_PREFIX -> stmt.setString(index++, escapeLike(query.getVendorNamePrefix().toLowerCase(Locale.ROOT)) + "%");
+            }
+        }
+        if ((shape & (1 << CURSOR_BIT)) != 0) {
+            stmt.setTimestamp(index++, Timestamp.valueOf(pageRequest.getAfterCreatedAt()));
+            stmt.setLong(index++, pageRequest.getAfterId());
+        }
+        if ((shape & (1 << LIMIT_BIT)) != 0) {
+            stmt.setInt(index, limit);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
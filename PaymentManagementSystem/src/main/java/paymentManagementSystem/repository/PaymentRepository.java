@@ -1,22 +1,55 @@
 package paymentManagementSystem.repository;
 
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
+import paymentManagementSystem.dto.response.PageResponse;
+import paymentManagementSystem.dto.response.ReportCube;
 import paymentManagementSystem.entity.Payment;
 import paymentManagementSystem.entity.PaymentCategory;
 import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Date-time ranges of the report methods ({@link #sumByTypeInDateRange}, {@link #forEachInDateRange},
+ * {@link #buildReportCube}, {@link #rankCounterparties}) include the start and exclude the end, so a
+ * run of whole days is passed as the start of the first day and the start of the day after the last.
+ */
 public interface PaymentRepository {
     Payment save(Payment payment);
+    List<Payment> saveAll(List<Payment> payments);
+    /**
+     * Like {@link #saveAll}, but keeps each payment's {@code createdAt} instead of stamping the
+     * current time. Used to replay a {@link PaymentJournal}.
+     */
+    List<Payment> restoreAll(List<Payment> payments);
     Optional<Payment> findById(Long id);
     List<Payment> findAll();
     List<Payment> findByStatus(PaymentStatus status);
     List<Payment> findByCategory(PaymentCategory category);
     List<Payment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate);
     List<Payment> findByCreatedBy(Long userId);
+    List<Payment> find(PaymentQuery query);
+    PageResponse<Payment> findPage(PaymentQuery query, PageRequest pageRequest);
+    PageResponse<Payment> findPage(PageRequest pageRequest);
+    PageResponse<Payment> findPageByStatus(PaymentStatus status, PageRequest pageRequest);
+    PageResponse<Payment> findPageByType(PaymentType paymentType, PageRequest pageRequest);
+    PaymentTotals sumByTypeFromDailyRollups(LocalDate startDate, LocalDate endDate);
+    Map<LocalDate, PaymentTotals> sumByDayFromDailyRollups(LocalDate startDate, LocalDate endDate);
+    long rebuildDailyRollups(LocalDate startDate, LocalDate endDate);
+    List<String> checkDailyRollups(LocalDate startDate, LocalDate endDate);
+    PaymentTotals sumByTypeInDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    ScanStats forEachInDateRange(LocalDateTime startDate, LocalDateTime endDate, PaymentRowHandler handler);
+    ReportCube buildReportCube(LocalDateTime startDate, LocalDateTime endDate);
+    CounterpartyRanking rankCounterparties(LocalDateTime startDate, LocalDateTime endDate, int limit);
     boolean existsByReferenceNumber(String referenceNumber);
+    Optional<Payment> findByReferenceNumber(String referenceNumber);
+    Payment updateStatus(Long id, PaymentStatus newStatus);
     void deleteById(Long id);
 }
\ No newline at end of file
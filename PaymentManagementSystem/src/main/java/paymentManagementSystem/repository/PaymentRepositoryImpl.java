@@ -1,72 +1,167 @@
 package paymentManagementSystem.repository;
 
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
+import paymentManagementSystem.dto.response.BreakdownEntry;
+import paymentManagementSystem.dto.response.PageResponse;
+import paymentManagementSystem.dto.response.ReportCube;
 import paymentManagementSystem.entity.Payment;
 import paymentManagementSystem.entity.PaymentCategory;
-import paymentManagementSystem.entity.User;
 import paymentManagementSystem.enums.PaymentStatus;
 import paymentManagementSystem.enums.PaymentType;
 import paymentManagementSystem.util.DatabaseConnectionManager;
+import paymentManagementSystem.util.PropertiesUtil;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 
 public class PaymentRepositoryImpl implements PaymentRepository {
 
-    @Override
-    public Payment save(Payment payment) {
-        String sql = """
+    private static final String INSERT_SQL = """
     INSERT INTO payments (payment_type, amount, currency, description, reference_number,
                         status, category_id, created_by, payment_date, created_at, updated_at,
                         client_vendor_name, account_details)
     VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-    RETURNING id
     """;
 
-        try (Connection conn = DatabaseConnectionManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    private static final int BATCH_SIZE = PropertiesUtil.getIntProperty("db.batch.size", 1000);
+    private static final int STREAM_FETCH_SIZE = PropertiesUtil.getIntProperty("db.stream.fetchSize", 1000);
 
-            stmt.setString(1, payment.getPaymentType().toString());
-            stmt.setBigDecimal(2, payment.getAmount());
-            stmt.setString(3, payment.getCurrency());
-            stmt.setString(4, payment.getDescription());
-            stmt.setString(5, payment.getReferenceNumber());
-            stmt.setString(6, payment.getStatus().toString());
-
-            if (payment.getCategory() != null) {
-                stmt.setLong(7, payment.getCategory().getId());
-            } else {
-                stmt.setNull(7, Types.INTEGER);
-            }
+    private final DailyRollupRepository rollupRepository;
+    private final ReferenceNumberFilter referenceFilter;
+    private final PaymentQueryCompiler queryCompiler = new PaymentQueryCompiler();
 
-            stmt.setObject(8, payment.getCreatedBy().getId());
-            stmt.setTimestamp(9, Timestamp.valueOf(payment.getPaymentDate()));
-            stmt.setTimestamp(10, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setTimestamp(11, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setString(12, payment.getClientVendorName());
-            stmt.setString(13, payment.getAccountDetails());
+    public PaymentRepositoryImpl() {
+        this(new DailyRollupRepository());
+    }
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                payment.setId(rs.getLong(1));
-            }
+    public PaymentRepositoryImpl(DailyRollupRepository rollupRepository) {
+        this(rollupRepository, null);
+    }
 
-            return payment;
+    public PaymentRepositoryImpl(DailyRollupRepository rollupRepository, ReferenceNumberFilter referenceFilter) {
+        this.rollupRepository = rollupRepository;
+        this.referenceFilter = referenceFilter;
+    }
+
+    @Override
+    public Payment save(Payment payment) {
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL + " RETURNING id")) {
+
+                LocalDateTime createdAt = LocalDateTime.now();
+                bindInsertParameters(stmt, payment, createdAt);
+
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    payment.setId(rs.getLong(1));
+                    payment.setCreatedAt(createdAt);
+                    payment.setUpdatedAt(createdAt);
+                }
+
+                rollupRepository.applyDelta(conn, payment.getPaymentDate().toLocalDate(),
+                        payment.getPaymentType(), payment.getStatus(),
+                        payment.getCategory() != null ? payment.getCategory().getId() : null,
+                        payment.getCurrency(), 1, payment.getAmount());
+
+                conn.commit();
+                if (referenceFilter != null) {
+                    referenceFilter.add(payment.getReferenceNumber());
+                }
+                return payment;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Error saving payment", e);
         }
     }
 
+    /**
+     * Inserts all payments in one transaction, sending them to the server in JDBC batches
+     * of {@code db.batch.size} rows and copying the generated ids back onto the entities.
+     * {@code reWriteBatchedInserts=true} on the JDBC URL lets the driver rewrite each batch
+     * into multi-row INSERT statements where it can. Rollup deltas are aggregated per key and
+     * written once at the end of the transaction.
+     */
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        return insertAll(payments, false);
+    }
+
+    @Override
+    public List<Payment> restoreAll(List<Payment> payments) {
+        return insertAll(payments, true);
+    }
+
+    private List<Payment> insertAll(List<Payment> payments, boolean keepCreatedAt) {
+        if (payments.isEmpty()) {
+            return payments;
+        }
+
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+
+                LocalDateTime now = LocalDateTime.now();
+                for (int chunkStart = 0; chunkStart < payments.size(); chunkStart += BATCH_SIZE) {
+                    List<Payment> chunk = payments.subList(chunkStart, Math.min(chunkStart + BATCH_SIZE, payments.size()));
+
+                    for (Payment payment : chunk) {
+                        LocalDateTime createdAt = keepCreatedAt && payment.getCreatedAt() != null ? payment.getCreatedAt() : now;
+                        bindInsertParameters(stmt, payment, createdAt);
+                        stmt.addBatch();
+                        // The journal records what was stored
+                        payment.setCreatedAt(createdAt);
+                        payment.setUpdatedAt(createdAt);
+                    }
+                    stmt.executeBatch();
+
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        for (Payment payment : chunk) {
+                            if (!keys.next()) {
+                                throw new SQLException("Batch insert returned fewer ids than payments");
+                            }
+                            payment.setId(keys.getLong(1));
+                        }
+                    }
+                }
+
+                rollupRepository.applyDeltas(conn, payments, 1);
+                conn.commit();
+                if (referenceFilter != null) {
+                    payments.forEach(payment -> referenceFilter.add(payment.getReferenceNumber()));
+                }
+                return payments;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving payments", e);
+        }
+    }
+
     @Override
     public Optional<Payment> findById(Long id) {
         String sql = """
-        SELECT p.*, pc.name as category_name, pc.description as category_description,
-               u.username as user_name, u.email as user_email
+        SELECT p.*, u.username as user_name, u.email as user_email
         FROM payments p
-        LEFT JOIN payment_categories pc ON p.category_id = pc.id
         LEFT JOIN users u ON p.created_by = u.id
         WHERE p.id = ?
         """;
@@ -78,7 +173,7 @@ public class PaymentRepositoryImpl implements PaymentRepository {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToPayment(rs));
+                return Optional.of(PaymentRowMapper.forResultSet(rs).map(rs));
             }
             return Optional.empty();
         } catch (SQLException e) {
@@ -88,72 +183,156 @@ public class PaymentRepositoryImpl implements PaymentRepository {
 
     @Override
     public List<Payment> findAll() {
-        String sql = """
-    SELECT p.*, pc.name as category_name, pc.description as category_description,
-           u.username as user_name, u.email as user_email
-    FROM payments p
-    LEFT JOIN payment_categories pc ON p.category_id = pc.id
-    LEFT JOIN users u ON p.created_by = u.id
-    ORDER BY p.created_at DESC
-    """;
-
-        return executeQuery(sql);
+        return find(PaymentQuery.all());
     }
 
     @Override
     public List<Payment> findByStatus(PaymentStatus status) {
+        return find(PaymentQuery.builder().statuses(Set.of(status)).build());
+    }
+
+    @Override
+    public List<Payment> findByCategory(PaymentCategory category) {
+        return find(PaymentQuery.builder().categoryIds(Set.of(category.getId())).build());
+    }
+
+    @Override
+    public List<Payment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return find(PaymentQuery.builder()
+                .paymentDateFrom(startDate)
+                .paymentDateTo(endDate)
+                .sort(PaymentQuery.Sort.PAYMENT_DATE_DESC)
+                .build());
+    }
+
+    @Override
+    public List<Payment> findByCreatedBy(Long userId) {
         String sql = """
-        SELECT p.*, pc.name as category_name, pc.description as category_description,
-               u.username as user_name, u.email as user_email
+        SELECT p.*, u.username as user_name, u.email as user_email
         FROM payments p
-        LEFT JOIN payment_categories pc ON p.category_id = pc.id
         LEFT JOIN users u ON p.created_by = u.id
-        WHERE p.status = ?
+        WHERE p.created_by = ?
         ORDER BY p.created_at DESC
         """;
 
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, status.toString());
+            stmt.setObject(1, userId);
             return executeQuery(stmt);
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding payments by status", e);
+            throw new RuntimeException("Error finding payments by created by", e);
         }
     }
 
     @Override
-    public List<Payment> findByCategory(PaymentCategory category) {
+    public List<Payment> find(PaymentQuery query) {
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = queryCompiler.prepare(conn, query, null, 0)) {
+            return executeQuery(stmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding payments", e);
+        }
+    }
+
+    @Override
+    public PageResponse<Payment> findPage(PageRequest pageRequest) {
+        return findPage(PaymentQuery.all(), pageRequest);
+    }
+
+    @Override
+    public PageResponse<Payment> findPageByStatus(PaymentStatus status, PageRequest pageRequest) {
+        return findPage(PaymentQuery.builder().statuses(Set.of(status)).build(), pageRequest);
+    }
+
+    @Override
+    public PageResponse<Payment> findPageByType(PaymentType paymentType, PageRequest pageRequest) {
+        return findPage(PaymentQuery.builder().paymentType(paymentType).build(), pageRequest);
+    }
+
+    /**
+     * Keyset-paged variant of {@link #find}. Seeks past the previous page's last
+     * {@code (created_at, id)} instead of using OFFSET, so every page is a bounded index
+     * range scan regardless of how deep it is. One extra row is fetched to tell whether
+     * another page follows.
+     */
+    @Override
+    public PageResponse<Payment> findPage(PaymentQuery query, PageRequest pageRequest) {
+        int limit = pageRequest.effectiveLimit();
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = queryCompiler.prepare(conn, query, pageRequest, limit + 1)) {
+
+            List<Payment> payments = executeQuery(stmt);
+            boolean hasMore = payments.size() > limit;
+            if (hasMore) {
+                payments = payments.subList(0, limit);
+            }
+
+            Payment last = payments.isEmpty() ? null : payments.get(payments.size() - 1);
+            return PageResponse.<Payment>builder()
+                    .items(payments)
+                    .hasMore(hasMore)
+                    .nextCreatedAt(hasMore ? last.getCreatedAt() : null)
+                    .nextId(hasMore ? last.getId() : null)
+                    .build();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding payment page", e);
+        }
+    }
+
+    @Override
+    public PaymentTotals sumByTypeInDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         String sql = """
-        SELECT p.*, pc.name as category_name, pc.description as category_description,
-               u.username as user_name, u.email as user_email
-        FROM payments p
-        LEFT JOIN payment_categories pc ON p.category_id = pc.id
-        LEFT JOIN users u ON p.created_by = u.id
-        WHERE p.category_id = ?
-        ORDER BY p.created_at DESC
+        SELECT payment_type, COUNT(*) as payment_count, COALESCE(SUM(amount), 0) as total_amount
+        FROM payments
+        WHERE payment_date >= ? AND payment_date < ?
+        GROUP BY payment_type
         """;
 
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setObject(1, category.getId());
-            return executeQuery(stmt);
+            stmt.setTimestamp(1, Timestamp.valueOf(startDate));
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+
+            BigDecimal totalIncoming = BigDecimal.ZERO;
+            BigDecimal totalOutgoing = BigDecimal.ZERO;
+            long incomingCount = 0;
+            long outgoingCount = 0;
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (PaymentType.valueOf(rs.getString("payment_type")) == PaymentType.INCOMING) {
+                        totalIncoming = rs.getBigDecimal("total_amount");
+                        incomingCount = rs.getLong("payment_count");
+                    } else {
+                        totalOutgoing = rs.getBigDecimal("total_amount");
+                        outgoingCount = rs.getLong("payment_count");
+                    }
+                }
+            }
+            return new PaymentTotals(totalIncoming, totalOutgoing, incomingCount, outgoingCount);
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding payments by category", e);
+            throw new RuntimeException("Error summing payments by type", e);
         }
     }
 
+    /**
+     * Builds the report cube from one grouped scan at the finest grain (type, status,
+     * category, currency, month); coarser breakdowns are rolled up from those groups in
+     * memory, which returns far fewer rows than {@code GROUPING SETS} over every combination.
+     */
     @Override
-    public List<Payment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+    public ReportCube buildReportCube(LocalDateTime startDate, LocalDateTime endDate) {
         String sql = """
-        SELECT p.*, pc.name as category_name, pc.description as category_description,
-               u.username as user_name, u.email as user_email
-        FROM payments p
-        LEFT JOIN payment_categories pc ON p.category_id = pc.id
-        LEFT JOIN users u ON p.created_by = u.id
-        WHERE p.payment_date BETWEEN ? AND ?
-        ORDER BY p.payment_date DESC
+        SELECT payment_type, status, COALESCE(category_id, 0) AS category_id, currency,
+               CAST(date_trunc('month', payment_date) AS DATE) AS month,
+               COUNT(*) AS payment_count, SUM(amount) AS total_amount,
+               MIN(amount) AS min_amount, MAX(amount) AS max_amount
+        FROM payments
+        WHERE payment_date >= ? AND payment_date < ?
+        GROUP BY 1, 2, 3, 4, 5
         """;
 
         try (Connection conn = DatabaseConnectionManager.getConnection();
@@ -161,36 +340,160 @@ public class PaymentRepositoryImpl implements PaymentRepository {
 
             stmt.setTimestamp(1, Timestamp.valueOf(startDate));
             stmt.setTimestamp(2, Timestamp.valueOf(endDate));
-            return executeQuery(stmt);
+
+            ReportCube.Builder cube = ReportCube.builder();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    cube.add(rs.getString("payment_type"), rs.getString("status"),
+                            ReportAccumulator.categoryName(rs.getLong("category_id")), rs.getString("currency"),
+                            YearMonth.from(rs.getDate("month").toLocalDate()), rs.getLong("payment_count"),
+                            rs.getBigDecimal("total_amount"), rs.getBigDecimal("min_amount"), rs.getBigDecimal("max_amount"));
+                }
+            }
+            return cube.build();
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding payments by date range", e);
+            throw new RuntimeException("Error building report cube", e);
         }
     }
 
+    /**
+     * Aggregates per counterparty once and lets PostgreSQL pick each ranking with
+     * {@code ORDER BY ... LIMIT}, a bounded top-N sort, over that aggregate. The CTE is
+     * referenced several times, so it is materialized rather than recomputed, and only
+     * the ranked rows and the counterparty count leave the server.
+     */
     @Override
-    public List<Payment> findByCreatedBy(Long userId) {
+    public CounterpartyRanking rankCounterparties(LocalDateTime startDate, LocalDateTime endDate, int limit) {
         String sql = """
-        SELECT p.*, pc.name as category_name, pc.description as category_description,
-               u.username as user_name, u.email as user_email
-        FROM payments p
-        LEFT JOIN payment_categories pc ON p.category_id = pc.id
-        LEFT JOIN users u ON p.created_by = u.id
-        WHERE p.created_by = ?
-        ORDER BY p.created_at DESC
+        WITH totals AS (
+            SELECT client_vendor_name AS name,
+                   COUNT(*) FILTER (WHERE payment_type = 'INCOMING') AS incoming_count,
+                   COUNT(*) FILTER (WHERE payment_type = 'OUTGOING') AS outgoing_count,
+                   COALESCE(SUM(amount) FILTER (WHERE payment_type = 'INCOMING'), 0) AS total_incoming,
+                   COALESCE(SUM(amount) FILTER (WHERE payment_type = 'OUTGOING'), 0) AS total_outgoing
+            FROM payments
+            WHERE payment_date >= ? AND payment_date < ? AND client_vendor_name IS NOT NULL
+            GROUP BY client_vendor_name
+        )
+        (SELECT 'INCOMING' AS ranking, t.* FROM totals t WHERE incoming_count > 0
+         ORDER BY total_incoming DESC, name LIMIT ?)
+        UNION ALL
+        (SELECT 'OUTGOING', t.* FROM totals t WHERE outgoing_count > 0
+         ORDER BY total_outgoing DESC, name LIMIT ?)
+        UNION ALL
+        (SELECT 'COUNT', t.* FROM totals t
+         ORDER BY incoming_count + outgoing_count DESC, name LIMIT ?)
+        UNION ALL
+        SELECT 'ALL', NULL, COUNT(*), 0, 0, 0 FROM totals
         """;
 
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setObject(1, userId);
-            return executeQuery(stmt);
+            stmt.setTimestamp(1, Timestamp.valueOf(startDate));
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+            stmt.setInt(3, limit);
+            stmt.setInt(4, limit);
+            stmt.setInt(5, limit);
+
+            List<BreakdownEntry> byIncoming = new ArrayList<>();
+            List<BreakdownEntry> byOutgoing = new ArrayList<>();
+            List<BreakdownEntry> byCount = new ArrayList<>();
+            long counterpartyCount = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String ranking = rs.getString("ranking");
+                    if ("ALL".equals(ranking)) {
+                        counterpartyCount = rs.getLong("incoming_count");
+                        continue;
+                    }
+                    BreakdownEntry entry = BreakdownEntry.builder()
+                            .name(rs.getString("name"))
+                            .incomingCount(rs.getLong("incoming_count"))
+                            .outgoingCount(rs.getLong("outgoing_count"))
+                            .totalIncoming(rs.getBigDecimal("total_incoming"))
+                            .totalOutgoing(rs.getBigDecimal("total_outgoing"))
+                            .build();
+                    switch (ranking) {
+                        case "INCOMING":
+                            byIncoming.add(entry);
+                            break;
+                        case "OUTGOING":
+                            byOutgoing.add(entry);
+                            break;
+                        default:
+                            byCount.add(entry);
+                    }
+                }
+            }
+            // UNION ALL does not promise to keep each branch's order
+            byIncoming.sort(Comparator.comparing(BreakdownEntry::getTotalIncoming).reversed().thenComparing(BreakdownEntry::getName));
+            byOutgoing.sort(Comparator.comparing(BreakdownEntry::getTotalOutgoing).reversed().thenComparing(BreakdownEntry::getName));
+            byCount.sort(Comparator.comparingLong(BreakdownEntry::getPaymentCount).reversed().thenComparing(BreakdownEntry::getName));
+            return new CounterpartyRanking(byIncoming, byOutgoing, byCount, counterpartyCount);
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding payments by created by", e);
+            throw new RuntimeException("Error ranking clients/vendors", e);
         }
     }
 
+    /**
+     * Walks every payment in the date range through a server-side cursor. The PostgreSQL
+     * driver only uses a cursor when autocommit is off and a fetch size is set, so the
+     * scan runs in its own read transaction and holds at most one fetch batch in memory.
+     */
+    @Override
+    public ScanStats forEachInDateRange(LocalDateTime startDate, LocalDateTime endDate, PaymentRowHandler handler) {
+        String sql = """
+        SELECT p.*, u.username as user_name, u.email as user_email
+        FROM payments p
+        LEFT JOIN users u ON p.created_by = u.id
+        WHERE p.payment_date >= ? AND p.payment_date < ?
+        ORDER BY p.payment_date, p.id
+        """;
+
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean stoppedEarly = false;
+
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                stmt.setFetchSize(STREAM_FETCH_SIZE);
+                stmt.setTimestamp(1, Timestamp.valueOf(startDate));
+                stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    PaymentRowMapper mapper = PaymentRowMapper.forResultSet(rs);
+                    while (rs.next()) {
+                        rows++;
+                        if (!handler.handle(mapper.map(rs))) {
+                            stoppedEarly = true;
+                            break;
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming payments by date range", e);
+        }
+
+        return new ScanStats(rows, System.nanoTime() - start, stoppedEarly);
+    }
+
     @Override
     public boolean existsByReferenceNumber(String referenceNumber) {
+        if (referenceFilter != null && !referenceFilter.mightExist(referenceNumber)) {
+            return false;
+        }
+
         String sql = "SELECT COUNT(*) FROM payments WHERE reference_number = ?";
 
         try (Connection conn = DatabaseConnectionManager.getConnection();
@@ -207,142 +510,175 @@ public class PaymentRepositoryImpl implements PaymentRepository {
             throw new RuntimeException("Error checking reference number", e);
         }
     }
-//    @Override
-//    public List<Payment> findByType(PaymentType paymentType) {
-//        String sql = """
-//        SELECT p.*, pc.name as category_name, pc.description as category_description,
-//               u.username as user_name, u.email as user_email
-//        FROM payments p
-//        LEFT JOIN payment_categories pc ON p.category_id = pc.id
-//        LEFT JOIN users u ON p.created_by = u.id
-//        WHERE p.payment_type = ?
-//        ORDER BY p.created_at DESC
-//        """;
-//
-//        try (Connection conn = DatabaseConnectionManager.getConnection();
-//             PreparedStatement stmt = conn.prepareStatement(sql)) {
-//
-//            stmt.setString(1, paymentType.toString());
-//            return executeQuery(stmt);
-//        } catch (SQLException e) {
-//            throw new RuntimeException("Error finding payments by type", e);
-//        }
-//    }
 
     @Override
-    public void deleteById(Long id) {
-        String sql = "DELETE FROM payments WHERE id = ?";
+    public Optional<Payment> findByReferenceNumber(String referenceNumber) {
+        if (referenceFilter != null && !referenceFilter.mightExist(referenceNumber)) {
+            return Optional.empty();
+        }
+
+        String sql = """
+        SELECT p.*, u.username as user_name, u.email as user_email
+        FROM payments p
+        LEFT JOIN users u ON p.created_by = u.id
+        WHERE p.reference_number = ?
+        """;
 
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setObject(1, id);
-            int affectedRows = stmt.executeUpdate();
+            stmt.setString(1, referenceNumber);
+            ResultSet rs = stmt.executeQuery();
 
-            if (affectedRows == 0) {
-                throw new SQLException("Deleting payment failed, no rows affected.");
+            if (rs.next()) {
+                return Optional.of(PaymentRowMapper.forResultSet(rs).map(rs));
             }
-
+            return Optional.empty();
         } catch (SQLException e) {
-            throw new RuntimeException("Error deleting payment", e);
+            throw new RuntimeException("Error finding payment by reference number", e);
         }
     }
 
-    private List<Payment> executeQuery(String sql) {
-        List<Payment> payments = new ArrayList<>();
-        try (Connection conn = DatabaseConnectionManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                payments.add(mapResultSetToPayment(rs));
+    @Override
+    public Payment updateStatus(Long id, PaymentStatus newStatus) {
+        String lockSql = """
+        SELECT payment_date, payment_type, status, category_id, currency, amount
+        FROM payments
+        WHERE id = ?
+        FOR UPDATE
+        """;
+        String updateSql = "UPDATE payments SET status = ?, updated_at = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement(lockSql);
+                 PreparedStatement update = conn.prepareStatement(updateSql)) {
+
+                lock.setLong(1, id);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Updating payment status failed, no rows affected.");
+                    }
+
+                    PaymentStatus oldStatus = PaymentStatus.valueOf(rs.getString("status"));
+                    update.setString(1, newStatus.toString());
+                    update.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    update.setLong(3, id);
+                    update.executeUpdate();
+
+                    if (oldStatus != newStatus) {
+                        applyRollupDelta(conn, rs, oldStatus, -1);
+                        applyRollupDelta(conn, rs, newStatus, 1);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            return payments;
         } catch (SQLException e) {
-            throw new RuntimeException("Error executing query", e);
+            throw new RuntimeException("Error updating payment status", e);
         }
-    }
 
-    private List<Payment> executeQuery(PreparedStatement stmt) throws SQLException {
-        List<Payment> payments = new ArrayList<>();
-        try (ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                payments.add(mapResultSetToPayment(rs));
-            }
-        }
-        return payments;
+        return findById(id).orElseThrow(() -> new RuntimeException("Payment not found after status update: " + id));
     }
 
-    private Payment mapResultSetToPayment(ResultSet rs) throws SQLException {
-        Payment payment = new Payment();
+    @Override
+    public void deleteById(Long id) {
+        String sql = """
+        DELETE FROM payments WHERE id = ?
+        RETURNING payment_date, payment_type, status, category_id, currency, amount
+        """;
 
-        // Handle ID properly - check type and convert if needed
-        Object idObj = rs.getObject("id");
-        if (idObj instanceof Integer) {
-            payment.setId(((Integer) idObj).longValue());
-        } else if (idObj instanceof Long) {
-            payment.setId((Long) idObj);
-        } else if (idObj != null) {
-            // Try to parse as Long if not null
-            payment.setId(Long.valueOf(idObj.toString()));
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setObject(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Deleting payment failed, no rows affected.");
+                    }
+                    applyRollupDelta(conn, rs, PaymentStatus.valueOf(rs.getString("status")), -1);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error deleting payment", e);
         }
+    }
 
-        payment.setAmount(rs.getBigDecimal("amount"));
-        payment.setCurrency(rs.getString("currency"));
-        payment.setDescription(rs.getString("description"));
-        payment.setReferenceNumber(rs.getString("reference_number"));
-        payment.setClientVendorName(rs.getString("client_vendor_name"));
-        payment.setAccountDetails(rs.getString("account_details"));
+    @Override
+    public PaymentTotals sumByTypeFromDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return rollupRepository.sumByType(startDate, endDate);
+    }
 
-        payment.setPaymentType(PaymentType.valueOf(rs.getString("payment_type")));
-        payment.setStatus(PaymentStatus.valueOf(rs.getString("status")));
+    @Override
+    public Map<LocalDate, PaymentTotals> sumByDayFromDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return rollupRepository.sumByDay(startDate, endDate);
+    }
 
-        payment.setPaymentDate(rs.getTimestamp("payment_date").toLocalDateTime());
+    @Override
+    public long rebuildDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return rollupRepository.rebuild(startDate, endDate);
+    }
 
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            payment.setCreatedAt(createdAt.toLocalDateTime());
-        }
+    @Override
+    public List<String> checkDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return rollupRepository.checkConsistency(startDate, endDate);
+    }
 
-        Timestamp updatedAt = rs.getTimestamp("updated_at");
-        if (updatedAt != null) {
-            payment.setUpdatedAt(updatedAt.toLocalDateTime());
+    private void bindInsertParameters(PreparedStatement stmt, Payment payment, LocalDateTime createdAt) throws SQLException {
+        stmt.setString(1, payment.getPaymentType().toString());
+        stmt.setBigDecimal(2, payment.getAmount());
+        stmt.setString(3, payment.getCurrency());
+        stmt.setString(4, payment.getDescription());
+        stmt.setString(5, payment.getReferenceNumber());
+        stmt.setString(6, payment.getStatus().toString());
+
+        if (payment.getCategory() != null) {
+            stmt.setLong(7, payment.getCategory().getId());
+        } else {
+            stmt.setNull(7, Types.INTEGER);
         }
 
-        // Safely handle category - may be null
-        Long categoryId = rs.getObject("category_id") != null ?
-                ((Number)rs.getObject("category_id")).longValue() : null;
-        if (categoryId != null) {
-            PaymentCategory category = new PaymentCategory();
-            category.setId(categoryId);
-
-            // Safely get category_name and description if they exist
-            try {
-                category.setName(rs.getString("category_name"));
-                category.setDescription(rs.getString("category_description"));
-            } catch (SQLException e) {
-                // Column not found, set to null
-                category.setName(null);
-                category.setDescription(null);
-            }
+        stmt.setObject(8, payment.getCreatedBy().getId());
+        stmt.setTimestamp(9, Timestamp.valueOf(payment.getPaymentDate()));
+        stmt.setTimestamp(10, Timestamp.valueOf(createdAt));
+        stmt.setTimestamp(11, Timestamp.valueOf(createdAt));
+        stmt.setString(12, payment.getClientVendorName());
+        stmt.setString(13, payment.getAccountDetails());
+    }
 
-            payment.setCategory(category);
-        }
+    private void applyRollupDelta(Connection conn, ResultSet rs, PaymentStatus status, int sign) throws SQLException {
+        BigDecimal amount = rs.getBigDecimal("amount");
+        long categoryId = rs.getLong("category_id");
+        Long category = rs.wasNull() ? null : categoryId;
+        rollupRepository.applyDelta(conn,
+                rs.getTimestamp("payment_date").toLocalDateTime().toLocalDate(),
+                PaymentType.valueOf(rs.getString("payment_type")),
+                status,
+                category,
+                rs.getString("currency"),
+                sign,
+                sign < 0 ? amount.negate() : amount);
+    }
 
-        // Safely handle user - may be null
-        Object createdById = rs.getObject("created_by");
-        if (createdById != null) {
-            User user = new User();
-            try {
-                user.setId(UUID.fromString(createdById.toString()));
-                user.setUsername(rs.getString("user_name"));
-                user.setEmail(rs.getString("user_email"));
-            } catch (SQLException | IllegalArgumentException e) {
-                // Handle missing columns or invalid UUID gracefully
+    private List<Payment> executeQuery(PreparedStatement stmt) throws SQLException {
+        List<Payment> payments = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            PaymentRowMapper mapper = PaymentRowMapper.forResultSet(rs);
+            while (rs.next()) {
+                payments.add(mapper.map(rs));
             }
-            payment.setCreatedBy(user);
         }
-
-        return payment;
+        return payments;
     }
-}
\ No newline at end of file
+}
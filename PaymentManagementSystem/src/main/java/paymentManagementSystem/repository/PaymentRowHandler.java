@@ -0,0 +1,12 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.entity.Payment;
+
+/**
+ * Receives payments one at a time from a streaming scan.
+ * Returning {@code false} stops the scan and releases the cursor early.
+ */
+@FunctionalInterface
+public interface PaymentRowHandler {
+    boolean handle(Payment payment);
+}
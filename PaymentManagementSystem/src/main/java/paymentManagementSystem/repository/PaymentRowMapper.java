@@ -0,0 +1,126 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps payment rows by column index. Indexes are resolved once from the
+ * {@link ResultSetMetaData} when the mapper is built for a result set, and optional
+ * columns (the user join) are simply absent (index 0) rather than probed with
+ * exceptions on every row. Categories come from {@link PaymentCategoryCache}.
+ */
+final class PaymentRowMapper {
+
+    private static final int ABSENT = 0;
+
+    private final int id;
+    private final int paymentType;
+    private final int amount;
+    private final int currency;
+    private final int description;
+    private final int referenceNumber;
+    private final int status;
+    private final int categoryId;
+    private final int createdBy;
+    private final int paymentDate;
+    private final int createdAt;
+    private final int updatedAt;
+    private final int clientVendorName;
+    private final int accountDetails;
+    private final int userName;
+    private final int userEmail;
+
+    private PaymentRowMapper(Map<String, Integer> columns) {
+        this.id = columns.getOrDefault("id", ABSENT);
+        this.paymentType = columns.getOrDefault("payment_type", ABSENT);
+        this.amount = columns.getOrDefault("amount", ABSENT);
+        this.currency = columns.getOrDefault("currency", ABSENT);
+        this.description = columns.getOrDefault("description", ABSENT);
+        this.referenceNumber = columns.getOrDefault("reference_number", ABSENT);
+        this.status = columns.getOrDefault("status", ABSENT);
+        this.categoryId = columns.getOrDefault("category_id", ABSENT);
+        this.createdBy = columns.getOrDefault("created_by", ABSENT);
+        this.paymentDate = columns.getOrDefault("payment_date", ABSENT);
+        this.createdAt = columns.getOrDefault("created_at", ABSENT);
+        this.updatedAt = columns.getOrDefault("updated_at", ABSENT);
+        this.clientVendorName = columns.getOrDefault("client_vendor_name", ABSENT);
+        this.accountDetails = columns.getOrDefault("account_details", ABSENT);
+        this.userName = columns.getOrDefault("user_name", ABSENT);
+        this.userEmail = columns.getOrDefault("user_email", ABSENT);
+    }
+
+    static PaymentRowMapper forResultSet(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            // First occurrence wins, so p.id is not shadowed by a joined table's id
+            columns.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return new PaymentRowMapper(columns);
+    }
+
+    Payment map(ResultSet rs) throws SQLException {
+        Payment payment = new Payment();
+
+        payment.setId(rs.getLong(id));
+        payment.setAmount(rs.getBigDecimal(amount));
+        payment.setCurrency(rs.getString(currency));
+        payment.setDescription(rs.getString(description));
+        payment.setReferenceNumber(rs.getString(referenceNumber));
+        payment.setClientVendorName(rs.getString(clientVendorName));
+        payment.setAccountDetails(rs.getString(accountDetails));
+
+        payment.setPaymentType(PaymentType.valueOf(rs.getString(paymentType)));
+        payment.setStatus(PaymentStatus.valueOf(rs.getString(status)));
+
+        payment.setPaymentDate(rs.getObject(paymentDate, LocalDateTime.class));
+        if (createdAt != ABSENT) {
+            payment.setCreatedAt(rs.getObject(createdAt, LocalDateTime.class));
+        }
+        if (updatedAt != ABSENT) {
+            payment.setUpdatedAt(rs.getObject(updatedAt, LocalDateTime.class));
+        }
+
+        if (categoryId != ABSENT) {
+            long category = rs.getLong(categoryId);
+            if (!rs.wasNull()) {
+                PaymentCategory shared = PaymentCategoryCache.getInstance().resolve(category);
+                payment.setCategory(shared);
+                payment.setCategoryName(shared.getName());
+            }
+        }
+
+        if (createdBy != ABSENT) {
+            UUID userId = rs.getObject(createdBy, UUID.class);
+            if (userId != null) {
+                payment.setCreatedBy(mapUser(rs, userId));
+            }
+        }
+
+        return payment;
+    }
+
+    private User mapUser(ResultSet rs, UUID id) throws SQLException {
+        User user = new User();
+        user.setId(id);
+        if (userName != ABSENT) {
+            user.setUsername(rs.getString(userName));
+        }
+        if (userEmail != ABSENT) {
+            user.setEmail(rs.getString(userEmail));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,207 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.dto.response.SketchSummary;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.CentsAccumulator;
+import paymentManagementSystem.util.HyperLogLog;
+import paymentManagementSystem.util.QuantileSketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mergeable approximate analytics for a set of payments: distinct vendors (outgoing
+ * counterparties), clients (incoming counterparties) and creators as {@link HyperLogLog}s,
+ * and amount quantiles per payment type and category as {@link QuantileSketch}es. One is
+ * kept per day and days are merged for any range, so the result is the same as sketching
+ * the whole range at once.
+ * <p>
+ * Each sketch also carries the exact count and amount per type of the payments it saw, so
+ * a stored day can be checked against the daily rollups and rebuilt once it has changed.
+ * Not thread-safe.
+ */
+public class PaymentSketch {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final HyperLogLog vendors = new HyperLogLog();
+    private final HyperLogLog clients = new HyperLogLog();
+    private final HyperLogLog creators = new HyperLogLog();
+    private final Map<PaymentType, Map<Long, QuantileSketch>> amounts = new EnumMap<>(PaymentType.class);
+    private final CentsAccumulator[] typeTotals = new CentsAccumulator[PaymentType.values().length];
+
+    public PaymentSketch() {
+        for (PaymentType type : PaymentType.values()) {
+            amounts.put(type, new HashMap<>());
+            typeTotals[type.ordinal()] = new CentsAccumulator();
+        }
+    }
+
+    public void add(Payment payment) {
+        if (payment.getClientVendorName() != null) {
+            (payment.getPaymentType() == PaymentType.OUTGOING ? vendors : clients).add(payment.getClientVendorName());
+        }
+        if (payment.getCreatedBy() != null && payment.getCreatedBy().getId() != null) {
+            creators.add(payment.getCreatedBy().getId().toString());
+        }
+        long categoryId = payment.getCategory() != null ? payment.getCategory().getId() : DailyRollupRepository.NO_CATEGORY;
+        amounts.get(payment.getPaymentType())
+                .computeIfAbsent(categoryId, id -> new QuantileSketch())
+                .add(payment.getAmount().doubleValue());
+        typeTotals[payment.getPaymentType().ordinal()].add(payment.getAmount());
+    }
+
+    public void merge(PaymentSketch other) {
+        vendors.merge(other.vendors);
+        clients.merge(other.clients);
+        creators.merge(other.creators);
+        for (PaymentType type : PaymentType.values()) {
+            Map<Long, QuantileSketch> categories = amounts.get(type);
+            other.amounts.get(type).forEach((categoryId, sketch) ->
+                    categories.computeIfAbsent(categoryId, id -> new QuantileSketch()).merge(sketch));
+            typeTotals[type.ordinal()].merge(other.typeTotals[type.ordinal()]);
+        }
+    }
+
+    /**
+     * Whether this sketch saw exactly the counts and amounts in {@code totals}.
+     */
+    public boolean matches(PaymentTotals totals) {
+        CentsAccumulator incoming = typeTotals[PaymentType.INCOMING.ordinal()];
+        CentsAccumulator outgoing = typeTotals[PaymentType.OUTGOING.ordinal()];
+        return incoming.getCount() == totals.getIncomingCount()
+                && outgoing.getCount() == totals.getOutgoingCount()
+                && incoming.toBigDecimal().compareTo(totals.getTotalIncoming()) == 0
+                && outgoing.toBigDecimal().compareTo(totals.getTotalOutgoing()) == 0;
+    }
+
+    public long getPaymentCount() {
+        long count = 0;
+        for (CentsAccumulator totals : typeTotals) {
+            count += totals.getCount();
+        }
+        return count;
+    }
+
+    /**
+     * Amount rows are per type: an "All categories" row when there is more than one
+     * category, then each category by number of payments, most first.
+     */
+    public SketchSummary toSummary(int daysReused, int daysScanned) {
+        List<SketchSummary.AmountPercentiles> rows = new ArrayList<>();
+        for (PaymentType type : PaymentType.values()) {
+            Map<Long, QuantileSketch> categories = amounts.get(type);
+            if (categories.isEmpty()) {
+                continue;
+            }
+            if (categories.size() > 1) {
+                QuantileSketch all = new QuantileSketch();
+                categories.values().forEach(all::merge);
+                rows.add(toPercentiles(type, "All categories", all));
+            }
+
+            List<Map.Entry<Long, QuantileSketch>> entries = new ArrayList<>(categories.entrySet());
+            entries.sort(Comparator.comparingLong((Map.Entry<Long, QuantileSketch> entry) -> entry.getValue().getCount())
+                    .reversed()
+                    .thenComparing(Map.Entry::getKey));
+            for (Map.Entry<Long, QuantileSketch> entry : entries) {
+                rows.add(toPercentiles(type, ReportAccumulator.categoryName(entry.getKey()), entry.getValue()));
+            }
+        }
+        return SketchSummary.builder()
+                .distinctVendors(vendors.estimate())
+                .distinctClients(clients.estimate())
+                .distinctCreators(creators.estimate())
+                .amountPercentiles(rows)
+                .daysReused(daysReused)
+                .daysScanned(daysScanned)
+                .build();
+    }
+
+    /**
+     * Serializes the sketch. Registers and buckets are written sparsely, so a quiet day takes
+     * a few hundred bytes and a busy one at most about 50 KiB; it is not compressed further,
+     * as hashed registers barely shrink and inflating would cost more than the read itself.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            vendors.write(out);
+            clients.write(out);
+            creators.write(out);
+            for (PaymentType type : PaymentType.values()) {
+                CentsAccumulator totals = typeTotals[type.ordinal()];
+                out.writeLong(totals.getCount());
+                out.writeUTF(totals.toBigDecimal().toPlainString());
+                Map<Long, QuantileSketch> categories = amounts.get(type);
+                out.writeInt(categories.size());
+                for (Map.Entry<Long, QuantileSketch> entry : categories.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    entry.getValue().write(out);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error serializing payment sketch", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the sketch, or {@code null} if it was written in another format and has to be rebuilt
+     */
+    public static PaymentSketch fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readUnsignedByte() != FORMAT_VERSION) {
+                return null;
+            }
+            PaymentSketch sketch = new PaymentSketch();
+            sketch.vendors.merge(HyperLogLog.read(in));
+            sketch.clients.merge(HyperLogLog.read(in));
+            sketch.creators.merge(HyperLogLog.read(in));
+            for (PaymentType type : PaymentType.values()) {
+                long count = in.readLong();
+                BigDecimal total = new BigDecimal(in.readUTF());
+                if (count != 0) {
+                    sketch.typeTotals[type.ordinal()].add(total, count);
+                }
+                Map<Long, QuantileSketch> categories = sketch.amounts.get(type);
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    categories.put(in.readLong(), QuantileSketch.read(in));
+                }
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading payment sketch", e);
+        }
+    }
+
+    private static SketchSummary.AmountPercentiles toPercentiles(PaymentType type, String category, QuantileSketch sketch) {
+        return SketchSummary.AmountPercentiles.builder()
+                .paymentType(type)
+                .category(category)
+                .count(sketch.getCount())
+                .p50(toAmount(sketch.quantile(0.50)))
+                .p90(toAmount(sketch.quantile(0.90)))
+                .p99(toAmount(sketch.quantile(0.99)))
+                .max(toAmount(sketch.getMax()))
+                .build();
+    }
+
+    private static BigDecimal toAmount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,29 @@
+package paymentManagementSystem.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class PaymentTotals {
+    private final BigDecimal totalIncoming;
+    private final BigDecimal totalOutgoing;
+    private final long incomingCount;
+    private final long outgoingCount;
+
+    public static PaymentTotals empty() {
+        return new PaymentTotals(BigDecimal.ZERO, BigDecimal.ZERO, 0, 0);
+    }
+
+    public BigDecimal getNetAmount() {
+        return totalIncoming.subtract(totalOutgoing);
+    }
+
+    public long getPaymentCount() {
+        return incomingCount + outgoingCount;
+    }
+}
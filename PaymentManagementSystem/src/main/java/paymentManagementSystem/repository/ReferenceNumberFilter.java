@@ -0,0 +1,120 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.util.BloomFilter;
+import paymentManagementSystem.util.DatabaseConnectionManager;
+import paymentManagementSystem.util.PropertiesUtil;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over every {@code payments.reference_number}, warmed once at startup and
+ * kept current by the repositories that insert payments.
+ * <p>
+ * {@link #mightExist} returning false means the reference is definitely not in the table,
+ * so {@link PaymentRepositoryImpl#existsByReferenceNumber} can answer without a query; a
+ * true answer still goes to the database. Until {@link #warm()} has finished every
+ * reference is reported as possibly existing. Deleted payments stay in the filter, which
+ * only costs an extra query. The filter only sees writes made through this process, so it
+ * should be disabled ({@code reference.bloom.enabled=false}) when other processes insert
+ * payments into the same database.
+ * <p>
+ * The filter must never miss a reference, so every path that inserts payments calls
+ * {@link #add}: {@link PaymentRepositoryImpl} after commit, and {@link PaymentCopyImportRepository}
+ * as its merge returns rows (a rollback then only leaves false positives). {@link #warm()}
+ * must run before any of them, as Main does by warming before the repositories reach the
+ * services; rows committed earlier are read by the scan and every later one is added by its
+ * writer. Re-warming while writes run is only safe for adds made after commit, since an add
+ * to the old filter can belong to a row the new scan does not see.
+ */
+public class ReferenceNumberFilter {
+
+    private static final long EXPECTED_INSERTIONS = PropertiesUtil.getLongProperty("reference.bloom.expectedInsertions", 1000000);
+    private static final double FALSE_POSITIVE_PROBABILITY =
+            Double.parseDouble(PropertiesUtil.getProperty("reference.bloom.falsePositiveProbability", "0.01"));
+    private static final int FETCH_SIZE = PropertiesUtil.getIntProperty("db.stream.fetchSize", 1000);
+
+    private final LongAdder skippedQueries = new LongAdder();
+    private final LongAdder checkedQueries = new LongAdder();
+
+    private volatile BloomFilter filter;
+    private volatile boolean ready = false;
+
+    /**
+     * Sizes a new filter for twice the current row count (at least
+     * {@code reference.bloom.expectedInsertions}) and streams every existing reference
+     * into it with a server-side cursor. The filter is published before the scan starts, so
+     * references added during the scan go into it too; lookups report every reference as
+     * possible until the scan has finished. See the class comment for when this may run.
+     */
+    public void warm() {
+        ready = false;
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            long rowCount;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM payments")) {
+                rs.next();
+                rowCount = rs.getLong(1);
+            }
+
+            BloomFilter building = new BloomFilter(Math.max(EXPECTED_INSERTIONS, rowCount * 2), FALSE_POSITIVE_PROBABILITY);
+            filter = building;
+
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT reference_number FROM payments WHERE reference_number IS NOT NULL")) {
+                    while (rs.next()) {
+                        building.put(rs.getString(1));
+                    }
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            ready = true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error warming reference number filter", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean mightExist(String referenceNumber) {
+        if (!ready || filter.mightContain(referenceNumber)) {
+            checkedQueries.increment();
+            return true;
+        }
+        skippedQueries.increment();
+        return false;
+    }
+
+    public void add(String referenceNumber) {
+        BloomFilter current = filter;
+        if (current != null && referenceNumber != null) {
+            current.put(referenceNumber);
+        }
+    }
+
+    public long getSkippedQueries() {
+        return skippedQueries.sum();
+    }
+
+    public long getCheckedQueries() {
+        return checkedQueries.sum();
+    }
+
+    @Override
+    public String toString() {
+        BloomFilter current = filter;
+        return String.format("ReferenceNumberFilter[ready=%s, bits=%d, hashes=%d, skipped=%d, checked=%d]",
+                ready, current != null ? current.getBitCount() : 0, current != null ? current.getHashCount() : 0,
+                getSkippedQueries(), getCheckedQueries());
+    }
+}
@@ -0,0 +1,120 @@
+package paymentManagementSystem.repository;
+
+import paymentManagementSystem.dto.response.BreakdownEntry;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.util.CentsAccumulator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Payment counts and exact amounts per type, overall, per category and per currency, for
+ * one bucket of a report. Buckets are filled independently and combined with
+ * {@link #merge}, so a report period can be built from smaller periods without reading
+ * payments again. Not thread-safe; each worker fills its own accumulator.
+ */
+public class ReportAccumulator {
+
+    private static final int TYPE_COUNT = PaymentType.values().length;
+
+    private final CentsAccumulator[] totals = newTypeSums();
+    private final Map<Long, CentsAccumulator[]> categories = new HashMap<>();
+    private final Map<String, CentsAccumulator[]> currencies = new HashMap<>();
+
+    public void add(Payment payment) {
+        int type = payment.getPaymentType().ordinal();
+        long categoryId = payment.getCategory() != null ? payment.getCategory().getId() : DailyRollupRepository.NO_CATEGORY;
+        BigDecimal amount = payment.getAmount();
+        totals[type].add(amount);
+        categories.computeIfAbsent(categoryId, id -> newTypeSums())[type].add(amount);
+        currencies.computeIfAbsent(payment.getCurrency(), code -> newTypeSums())[type].add(amount);
+    }
+
+    /**
+     * Adds {@code count} payments whose amounts sum to {@code cents} (plus {@code carry}
+     * wraps of 2^64 cents), as produced by a primitive scan.
+     */
+    void add(int type, long categoryId, String currency, long cents, long carry, long count) {
+        totals[type].merge(cents, carry, count);
+        categories.computeIfAbsent(categoryId, id -> newTypeSums())[type].merge(cents, carry, count);
+        currencies.computeIfAbsent(currency, code -> newTypeSums())[type].merge(cents, carry, count);
+    }
+
+    public ReportAccumulator merge(ReportAccumulator other) {
+        mergeSums(totals, other.totals);
+        other.categories.forEach((categoryId, sums) ->
+                mergeSums(categories.computeIfAbsent(categoryId, id -> newTypeSums()), sums));
+        other.currencies.forEach((currency, sums) ->
+                mergeSums(currencies.computeIfAbsent(currency, code -> newTypeSums()), sums));
+        return this;
+    }
+
+    public PaymentTotals toTotals() {
+        CentsAccumulator incoming = totals[PaymentType.INCOMING.ordinal()];
+        CentsAccumulator outgoing = totals[PaymentType.OUTGOING.ordinal()];
+        return new PaymentTotals(incoming.toBigDecimal(), outgoing.toBigDecimal(), incoming.getCount(), outgoing.getCount());
+    }
+
+    /**
+     * Categories ordered by gross amount (incoming plus outgoing), largest first.
+     */
+    public List<BreakdownEntry> toCategoryBreakdown() {
+        return breakdown(categories, ReportAccumulator::categoryName);
+    }
+
+    /**
+     * Currencies ordered by gross amount, largest first. Report totals add amounts across
+     * currencies as they are stored; this shows how much of them each currency makes up.
+     */
+    public List<BreakdownEntry> toCurrencyBreakdown() {
+        return breakdown(currencies, currency -> currency != null ? currency : "(none)");
+    }
+
+    static <K> List<BreakdownEntry> breakdown(Map<K, CentsAccumulator[]> buckets, Function<K, String> namer) {
+        List<BreakdownEntry> entries = new ArrayList<>(buckets.size());
+        buckets.forEach((key, sums) -> entries.add(toEntry(namer.apply(key), sums)));
+        entries.sort(Comparator.comparing((BreakdownEntry entry) -> entry.getTotalIncoming().add(entry.getTotalOutgoing())).reversed());
+        return entries;
+    }
+
+    static BreakdownEntry toEntry(String name, CentsAccumulator[] sums) {
+        CentsAccumulator incoming = sums[PaymentType.INCOMING.ordinal()];
+        CentsAccumulator outgoing = sums[PaymentType.OUTGOING.ordinal()];
+        return BreakdownEntry.builder()
+                .name(name)
+                .incomingCount(incoming.getCount())
+                .outgoingCount(outgoing.getCount())
+                .totalIncoming(incoming.toBigDecimal())
+                .totalOutgoing(outgoing.toBigDecimal())
+                .build();
+    }
+
+    static String categoryName(long categoryId) {
+        if (categoryId == DailyRollupRepository.NO_CATEGORY) {
+            return "Uncategorized";
+        }
+        PaymentCategory category = PaymentCategoryCache.getInstance().resolve(categoryId);
+        return category.getName() != null ? category.getName() : "Category " + categoryId;
+    }
+
+    private static CentsAccumulator[] newTypeSums() {
+        CentsAccumulator[] sums = new CentsAccumulator[TYPE_COUNT];
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            sums[type] = new CentsAccumulator();
+        }
+        return sums;
+    }
+
+    private static void mergeSums(CentsAccumulator[] into, CentsAccumulator[] from) {
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            into[type].merge(from[type]);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package paymentManagementSystem.service;
+
+import paymentManagementSystem.dto.response.ImportResult;
+
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+public interface PaymentImportService {
+    ImportResult importPaymentsFromCsv(Path csvFile, String userId, LongConsumer progressListener);
+}
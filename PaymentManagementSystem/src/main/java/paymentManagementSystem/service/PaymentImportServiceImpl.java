@@ -0,0 +1,50 @@
+package paymentManagementSystem.service;
+
+import paymentManagementSystem.dto.response.ImportResult;
+import paymentManagementSystem.repository.PaymentCopyImportRepository;
+import paymentManagementSystem.util.AuditLogger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+public class PaymentImportServiceImpl implements PaymentImportService {
+
+    private final PaymentCopyImportRepository importRepository;
+    private final AuditLogger auditLogger;
+    private final PaymentService paymentService;
+
+    public PaymentImportServiceImpl(PaymentCopyImportRepository importRepository, AuditLogger auditLogger) {
+        this(importRepository, auditLogger, null);
+    }
+
+    /**
+     * @param paymentService service whose cached reports are dropped after rows are imported,
+     *                       since COPY goes around it; may be {@code null}
+     */
+    public PaymentImportServiceImpl(PaymentCopyImportRepository importRepository, AuditLogger auditLogger,
+                                    PaymentService paymentService) {
+        this.importRepository = importRepository;
+        this.auditLogger = auditLogger;
+        this.paymentService = paymentService;
+    }
+
+    @Override
+    public ImportResult importPaymentsFromCsv(Path csvFile, String userId, LongConsumer progressListener) {
+        if (csvFile == null || !Files.isRegularFile(csvFile) || !Files.isReadable(csvFile)) {
+            throw new IllegalArgumentException("CSV file not found or not readable: " + csvFile);
+        }
+
+        ImportResult result = importRepository.importCsv(csvFile, UUID.fromString(userId), progressListener);
+        if (paymentService != null && result.getRowsImported() > 0) {
+            paymentService.forgetCachedReports();
+        }
+
+        auditLogger.logAction(userId, "PAYMENTS_IMPORTED", csvFile.getFileName().toString(), null,
+                result.getRowsImported() + " imported, " + result.getDuplicatesSkipped() + " duplicates skipped, "
+                        + result.getRowsRejected() + " rejected");
+
+        return result;
+    }
+}
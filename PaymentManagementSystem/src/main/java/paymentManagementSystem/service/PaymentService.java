@@ -1,23 +1,45 @@
 package paymentManagementSystem.service;
 
 import paymentManagementSystem.dto.request.CreatePaymentRequest;
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
 import paymentManagementSystem.dto.request.UpdatePaymentStatusRequest;
 import paymentManagementSystem.dto.request.GenerateReportRequest;
+import paymentManagementSystem.dto.response.CounterpartyReportDTO;
+import paymentManagementSystem.dto.response.PageResponse;
 import paymentManagementSystem.dto.response.PaymentResponse;
+import paymentManagementSystem.dto.response.ReportCube;
 import paymentManagementSystem.dto.response.ReportDTO;
 import paymentManagementSystem.enums.PaymentStatus;
 import paymentManagementSystem.enums.PaymentType;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PaymentService {
     PaymentResponse createPayment(CreatePaymentRequest request, String userId);
+    List<PaymentResponse> createPayments(List<CreatePaymentRequest> requests, String userId);
     PaymentResponse updatePaymentStatus(UpdatePaymentStatusRequest request, String userId);
     List<PaymentResponse> getAllPayments();
     List<PaymentResponse> getPaymentsByType(PaymentType paymentType);
     List<PaymentResponse> getPaymentsByStatus(PaymentStatus status);
+    List<PaymentResponse> findPayments(PaymentQuery query);
+    PageResponse<PaymentResponse> findPaymentsPage(PaymentQuery query, PageRequest pageRequest);
+    PageResponse<PaymentResponse> getPaymentsPage(PageRequest pageRequest);
+    PageResponse<PaymentResponse> getPaymentsPageByType(PaymentType paymentType, PageRequest pageRequest);
+    PageResponse<PaymentResponse> getPaymentsPageByStatus(PaymentStatus status, PageRequest pageRequest);
     Optional<PaymentResponse> getPaymentById(Long id);
     ReportDTO generateReport(GenerateReportRequest request);
+    List<ReportDTO> generateReports(List<GenerateReportRequest> requests);
+    ReportCube buildReportCube(LocalDate startDate, LocalDate endDate);
+    CounterpartyReportDTO getTopCounterparties(LocalDate startDate, LocalDate endDate, int limit);
+    long rebuildDailyRollups(LocalDate startDate, LocalDate endDate);
+    List<String> checkDailyRollups(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Drops cached report results, for writes that bypass this service such as a bulk import.
+     */
+    void forgetCachedReports();
 }
\ No newline at end of file
@@ -2,39 +2,104 @@ package paymentManagementSystem.service;
 
 import paymentManagementSystem.dto.request.CreatePaymentRequest;
 import paymentManagementSystem.dto.request.GenerateReportRequest;
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
 import paymentManagementSystem.dto.request.UpdatePaymentStatusRequest;
+import paymentManagementSystem.dto.response.BreakdownEntry;
+import paymentManagementSystem.dto.response.CounterpartyReportDTO;
+import paymentManagementSystem.dto.response.PageResponse;
 import paymentManagementSystem.dto.response.PaymentResponse;
+import paymentManagementSystem.dto.response.ReportCube;
 import paymentManagementSystem.dto.response.ReportDTO;
+import paymentManagementSystem.dto.response.SketchSummary;
 import paymentManagementSystem.entity.Payment;
 import paymentManagementSystem.entity.PaymentCategory;
 import paymentManagementSystem.entity.User;
 import paymentManagementSystem.enums.PaymentStatus;
 import paymentManagementSystem.enums.PaymentType;
+import paymentManagementSystem.enums.ReportType;
+import paymentManagementSystem.repository.CounterpartyRanking;
+import paymentManagementSystem.repository.DailySketchRepository;
+import paymentManagementSystem.repository.InMemoryDailySketchRepository;
+import paymentManagementSystem.repository.PaymentAggregate;
+import paymentManagementSystem.repository.PaymentCategoryCache;
+import paymentManagementSystem.repository.PaymentColumnarSnapshot;
 import paymentManagementSystem.repository.PaymentRepository;
+import paymentManagementSystem.repository.PaymentSketch;
+import paymentManagementSystem.repository.PaymentTotals;
+import paymentManagementSystem.repository.ReportAccumulator;
 import paymentManagementSystem.util.AuditLogger;
+import paymentManagementSystem.util.LruTtlCache;
+import paymentManagementSystem.util.PropertiesUtil;
+import paymentManagementSystem.util.ReferenceNumberGenerator;
 import java.util.Optional;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public class PaymentServiceImpl implements PaymentService {
 
+    private static final boolean USE_DAILY_ROLLUPS = PropertiesUtil.getBooleanProperty("report.useDailyRollups", true);
+    private static final int VENDOR_BREAKDOWN_LIMIT = PropertiesUtil.getIntProperty("report.vendorBreakdownLimit", 20);
+    private static final int REPORT_PARALLELISM = PropertiesUtil.getIntProperty("report.parallelism", 4);
+    private static final long COUNTERPARTY_CACHE_TTL_MILLIS =
+            PropertiesUtil.getIntProperty("report.topCounterparties.cacheTtlMinutes", 60) * 60_000L;
+
     private final PaymentRepository paymentRepository;
     private final AuditLogger auditLogger;
+    private final PaymentCategoryCache categoryCache;
+    private final PaymentColumnarSnapshot snapshot;
+    private final DailySketchRepository sketchRepository;
+    // Only periods that have ended are cached; payments dated in them are rare enough to just clear it
+    private final LruTtlCache<List<Object>, CounterpartyReportDTO> counterpartyReports =
+            new LruTtlCache<>(100, COUNTERPARTY_CACHE_TTL_MILLIS);
 
     public PaymentServiceImpl(PaymentRepository paymentRepository, AuditLogger auditLogger) {
+        this(paymentRepository, auditLogger, PaymentCategoryCache.getInstance());
+    }
+
+    public PaymentServiceImpl(PaymentRepository paymentRepository, AuditLogger auditLogger, PaymentCategoryCache categoryCache) {
+        this(paymentRepository, auditLogger, categoryCache, null);
+    }
+
+    /**
+     * @param snapshot columnar snapshot that report totals and breakdowns are computed from,
+     *                 or {@code null} to read totals from the daily rollups and skip breakdowns
+     */
+    public PaymentServiceImpl(PaymentRepository paymentRepository, AuditLogger auditLogger,
+                              PaymentCategoryCache categoryCache, PaymentColumnarSnapshot snapshot) {
+        this(paymentRepository, auditLogger, categoryCache, snapshot, new InMemoryDailySketchRepository());
+    }
+
+    /**
+     * @param sketchRepository where per-day sketches for {@link GenerateReportRequest#isIncludeSketches()} are kept
+     */
+    public PaymentServiceImpl(PaymentRepository paymentRepository, AuditLogger auditLogger, PaymentCategoryCache categoryCache,
+                              PaymentColumnarSnapshot snapshot, DailySketchRepository sketchRepository) {
         this.paymentRepository = paymentRepository;
         this.auditLogger = auditLogger;
+        this.categoryCache = categoryCache;
+        this.snapshot = snapshot;
+        this.sketchRepository = sketchRepository;
     }
 
     @Override
     public PaymentResponse createPayment(CreatePaymentRequest request, String userId) {
         // Validate input
-        if (request.getCategoryId() <= 0) {
-            throw new IllegalArgumentException("Invalid category ID: " + request.getCategoryId());
-        }
+        PaymentCategory category = resolveCategory(request.getCategoryId(), "Invalid category ID: ");
 
         // Create Payment entity
         Payment payment = Payment.builder()
@@ -42,7 +107,8 @@ public class PaymentServiceImpl implements PaymentService {
                 .paymentType(request.getPaymentType())
                 .amount(request.getAmount())
                 .currency(request.getCurrency())
-                .categoryName(request.getCategoryName())
+                .categoryName(category.getName())
+                .category(category)
                 .description(request.getDescription())
                 .referenceNumber(generateReferenceNumber())
                 .status(PaymentStatus.PENDING)
@@ -51,11 +117,6 @@ public class PaymentServiceImpl implements PaymentService {
                 .accountDetails(request.getAccountDetails())
                 .build();
 
-        // Set category
-        PaymentCategory category = new PaymentCategory();
-        category.setId(request.getCategoryId());
-        payment.setCategory(category);
-
         // Set created by user
         User user = new User();
         user.setId(UUID.fromString(userId));
@@ -75,6 +136,7 @@ public class PaymentServiceImpl implements PaymentService {
 //        System.out.println("clientVendorName: " + payment.getClientVendorName().getClass().getSimpleName());
 //        System.out.println("accountDetails: " + payment.getAccountDetails().getClass().getSimpleName());
         Payment savedPayment = paymentRepository.save(payment);
+        forgetClosedPeriodReports(savedPayment.getPaymentDate());
 
         // Log audit
         auditLogger.logAction(userId, "PAYMENT_CREATED", savedPayment.getId().toString(),
@@ -83,10 +145,66 @@ public class PaymentServiceImpl implements PaymentService {
         return convertToResponse(savedPayment);
     }
 
+    @Override
+    public List<PaymentResponse> createPayments(List<CreatePaymentRequest> requests, String userId) {
+        if (requests == null || requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        User user = new User();
+        user.setId(UUID.fromString(userId));
+
+        List<Payment> payments = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CreatePaymentRequest request = requests.get(i);
+            PaymentCategory category = resolveCategory(request.getCategoryId(), "Invalid category ID at row " + (i + 1) + ": ");
+
+            Payment payment = Payment.builder()
+                    .paymentType(request.getPaymentType())
+                    .amount(request.getAmount())
+                    .currency(request.getCurrency())
+                    .categoryName(category.getName())
+                    .category(category)
+                    .description(request.getDescription())
+                    .referenceNumber(generateReferenceNumber())
+                    .status(PaymentStatus.PENDING)
+                    .paymentDate(request.getPaymentDate())
+                    .clientVendorName(request.getClientVendorName())
+                    .accountDetails(request.getAccountDetails())
+                    .createdBy(user)
+                    .build();
+
+            payments.add(payment);
+        }
+
+        List<Payment> savedPayments = paymentRepository.saveAll(payments);
+        savedPayments.forEach(saved -> forgetClosedPeriodReports(saved.getPaymentDate()));
+
+        // One audit entry for the whole batch rather than one per payment
+        auditLogger.logAction(userId, "PAYMENTS_CREATED",
+                savedPayments.get(0).getId() + ".." + savedPayments.get(savedPayments.size() - 1).getId(),
+                null, savedPayments.size() + " payments created");
+
+        return savedPayments.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public PaymentResponse updatePaymentStatus(UpdatePaymentStatusRequest request, String userId) {
-        // Implementation here
-        return PaymentResponse.builder().build();
+        if (request.getPaymentId() == null || request.getNewStatus() == null) {
+            throw new IllegalArgumentException("Payment ID and new status are required");
+        }
+
+        Payment existing = paymentRepository.findById(request.getPaymentId())
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + request.getPaymentId()));
+
+        Payment updatedPayment = paymentRepository.updateStatus(request.getPaymentId(), request.getNewStatus());
+
+        auditLogger.logAction(userId, "PAYMENT_STATUS_UPDATED", updatedPayment.getId().toString(),
+                existing.getStatus(), request.getNewStatus());
+
+        return convertToResponse(updatedPayment);
     }
 
     @Override
@@ -98,16 +216,21 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public List<PaymentResponse> getPaymentsByType(PaymentType paymentType) {
-        // First, add findByType method to PaymentRepository interface
-        // Then implement it in PaymentRepositoryImpl similar to findByStatus
+        return findPayments(PaymentQuery.builder().paymentType(paymentType).build());
+    }
 
-        // For now, let's filter from all payments as a workaround
-        return paymentRepository.findAll().stream()
-                .filter(payment -> payment.getPaymentType() == paymentType)
+    @Override
+    public List<PaymentResponse> findPayments(PaymentQuery query) {
+        return paymentRepository.find(query).stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public PageResponse<PaymentResponse> findPaymentsPage(PaymentQuery query, PageRequest pageRequest) {
+        return paymentRepository.findPage(query, pageRequest).map(this::convertToResponse);
+    }
+
     @Override
     public List<PaymentResponse> getPaymentsByStatus(PaymentStatus status) {
         return paymentRepository.findByStatus(status).stream()
@@ -115,6 +238,21 @@ public class PaymentServiceImpl implements PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public PageResponse<PaymentResponse> getPaymentsPage(PageRequest pageRequest) {
+        return paymentRepository.findPage(pageRequest).map(this::convertToResponse);
+    }
+
+    @Override
+    public PageResponse<PaymentResponse> getPaymentsPageByType(PaymentType paymentType, PageRequest pageRequest) {
+        return paymentRepository.findPageByType(paymentType, pageRequest).map(this::convertToResponse);
+    }
+
+    @Override
+    public PageResponse<PaymentResponse> getPaymentsPageByStatus(PaymentStatus status, PageRequest pageRequest) {
+        return paymentRepository.findPageByStatus(status, pageRequest).map(this::convertToResponse);
+    }
+
     @Override
     public Optional<PaymentResponse> getPaymentById(Long id) {
         return paymentRepository.findById(id)
@@ -124,56 +262,350 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public ReportDTO generateReport(GenerateReportRequest request) {
-        if (request.getStartDate() == null || request.getEndDate() == null) {
-            throw new IllegalArgumentException("Start and end dates are required");
-        }
-
-        if (request.getStartDate().isAfter(request.getEndDate())) {
-            throw new IllegalArgumentException("Start date cannot be after end date");
-        }
+        validateReportRequest(request);
 
-        // Convert LocalDate to LocalDateTime
+        // Whole days: payment_date >= start of the first day and < start of the day after the last
         LocalDateTime startDateTime = request.getStartDate().atStartOfDay();
-        LocalDateTime endDateTime = request.getEndDate().atTime(23, 59, 59);
-
-        // Get all payments within the date range
-        List<Payment> payments = paymentRepository.findAll().stream()
-                .filter(payment ->
-                        !payment.getPaymentDate().isBefore(startDateTime) &&
-                                !payment.getPaymentDate().isAfter(endDateTime))
-                .collect(Collectors.toList());
+        LocalDateTime endDateTime = request.getEndDate().plusDays(1).atStartOfDay();
 
-        List<PaymentResponse> paymentResponses = payments.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
-        BigDecimal totalIncoming = payments.stream()
-                .filter(payment -> payment.getPaymentType() == PaymentType.INCOMING)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Summary and detailed reports carry the full cube so callers can slice it further, and
+        // take their totals and breakdowns from it in the same pass. Other reports get totals from
+        // the columnar snapshot when there is one, otherwise from the daily rollups (or a single
+        // grouped query); the payment list is only read when requested
+        PaymentTotals totals;
+        ReportCube cube = null;
+        List<BreakdownEntry> categoryBreakdown = null;
+        List<BreakdownEntry> vendorBreakdown = null;
+        List<BreakdownEntry> currencyBreakdown = null;
+        if (request.getReportType() == ReportType.SUMMARY || request.getReportType() == ReportType.DETAILED) {
+            cube = paymentRepository.buildReportCube(startDateTime, endDateTime);
+            totals = totalsOf(cube);
+            categoryBreakdown = cube.breakdown(ReportCube.Dimension.CATEGORY);
+            currencyBreakdown = cube.breakdown(ReportCube.Dimension.CURRENCY);
+        } else if (snapshot != null) {
+            snapshot.refreshIfStale();
+            PaymentAggregate aggregate = snapshot.aggregate(request.getStartDate(), request.getEndDate(), VENDOR_BREAKDOWN_LIMIT);
+            totals = aggregate.getTotals();
+            categoryBreakdown = aggregate.getCategoryBreakdown();
+            vendorBreakdown = aggregate.getVendorBreakdown();
+            currencyBreakdown = aggregate.getCurrencyBreakdown();
+        } else if (USE_DAILY_ROLLUPS) {
+            totals = paymentRepository.sumByTypeFromDailyRollups(request.getStartDate(), request.getEndDate());
+        } else {
+            totals = paymentRepository.sumByTypeInDateRange(startDateTime, endDateTime);
+        }
 
-        BigDecimal totalOutgoing = payments.stream()
-                .filter(payment -> payment.getPaymentType() == PaymentType.OUTGOING)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        SketchSummary sketches = request.isIncludeSketches()
+                ? summarizeSketches(request.getStartDate(), request.getEndDate())
+                : null;
 
-        BigDecimal netAmount = totalIncoming.subtract(totalOutgoing);
+        List<PaymentResponse> paymentResponses = new ArrayList<>();
+        if (request.isIncludePayments()) {
+            paymentRepository.forEachInDateRange(startDateTime, endDateTime, payment -> {
+                paymentResponses.add(convertToResponse(payment));
+                return true;
+            });
+        }
 
         String timestamp = LocalDateTime.now().format(java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME);
 
         return ReportDTO.builder()
                 .reportType(request.getReportType())
+                .periodType(request.getPeriodType())
                 .startDate(request.getStartDate())
                 .endDate(request.getEndDate())
-                .totalIncoming(totalIncoming)
-                .totalOutgoing(totalOutgoing)
-                .netAmount(netAmount)
+                .totalIncoming(totals.getTotalIncoming())
+                .totalOutgoing(totals.getTotalOutgoing())
+                .netAmount(totals.getNetAmount())
+                .paymentCount(totals.getPaymentCount())
                 .payments(paymentResponses)
+                .categoryBreakdown(categoryBreakdown)
+                .vendorBreakdown(vendorBreakdown)
+                .currencyBreakdown(currencyBreakdown)
+                .cube(cube)
+                .sketches(sketches)
                 .generatedBy("System") // optionally pass actual user info
                 .generatedAt(timestamp)
                 .build();
     }
 
+    private static PaymentTotals totalsOf(ReportCube cube) {
+        BigDecimal incoming = BigDecimal.ZERO;
+        BigDecimal outgoing = BigDecimal.ZERO;
+        long incomingCount = 0;
+        long outgoingCount = 0;
+        for (ReportCube.Row row : cube.groupBy(ReportCube.Dimension.TYPE)) {
+            if (PaymentType.INCOMING.name().equals(row.getLabel(0))) {
+                incoming = row.getTotal();
+                incomingCount = row.getCount();
+            } else {
+                outgoing = row.getTotal();
+                outgoingCount = row.getCount();
+            }
+        }
+        return new PaymentTotals(incoming, outgoing, incomingCount, outgoingCount);
+    }
+
+    @Override
+    public ReportCube buildReportCube(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates are required");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        return paymentRepository.buildReportCube(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Ranks clients/vendors for the period. Rankings of periods that ended before today are
+     * cached for {@code report.topCounterparties.cacheTtlMinutes}; creating a payment dated
+     * in the past or a CSV import clears the cache, and the expiry covers other changes made
+     * outside this service.
+     */
+    @Override
+    public CounterpartyReportDTO getTopCounterparties(LocalDate startDate, LocalDate endDate, int limit) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates are required");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        boolean closed = endDate.isBefore(LocalDate.now());
+        List<Object> key = List.of(startDate, endDate, limit);
+        if (closed) {
+            CounterpartyReportDTO cached = counterpartyReports.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        CounterpartyRanking ranking = paymentRepository.rankCounterparties(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), limit);
+        CounterpartyReportDTO report = CounterpartyReportDTO.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .limit(limit)
+                .counterpartyCount(ranking.getCounterpartyCount())
+                .topByIncoming(ranking.getTopByIncoming())
+                .topByOutgoing(ranking.getTopByOutgoing())
+                .topByCount(ranking.getTopByCount())
+                .generatedAt(LocalDateTime.now().format(java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .build();
+        if (closed) {
+            counterpartyReports.put(key, report);
+        }
+        return report;
+    }
+
+    /**
+     * Builds the reports for all the requested periods from one pass over the payments.
+     * The period boundaries split the covered dates into non-overlapping shards; each shard
+     * is aggregated once, in parallel, and every period is the merge of the shards it spans,
+     * so quarters and the year come from combining months rather than rescanning. Reports
+     * carry totals and category breakdowns but no payment lists or vendor breakdowns.
+     */
+    @Override
+    public List<ReportDTO> generateReports(List<GenerateReportRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        requests.forEach(this::validateReportRequest);
+
+        TreeSet<LocalDate> cuts = new TreeSet<>();
+        for (GenerateReportRequest request : requests) {
+            cuts.add(request.getStartDate());
+            cuts.add(request.getEndDate().plusDays(1));
+        }
+        List<LocalDate[]> shards = new ArrayList<>();
+        LocalDate shardStart = null;
+        for (LocalDate cut : cuts) {
+            if (shardStart != null && isCovered(shardStart, requests)) {
+                shards.add(new LocalDate[]{shardStart, cut.minusDays(1)});
+            }
+            shardStart = cut;
+        }
+
+        ReportAccumulator[] shardTotals = snapshot != null
+                ? aggregateShardsFromSnapshot(shards)
+                : aggregateShardsFromScans(shards);
+
+        String timestamp = LocalDateTime.now().format(java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        List<ReportDTO> reports = new ArrayList<>(requests.size());
+        for (GenerateReportRequest request : requests) {
+            ReportAccumulator period = new ReportAccumulator();
+            for (int i = 0; i < shards.size(); i++) {
+                LocalDate[] shard = shards.get(i);
+                if (!shard[0].isBefore(request.getStartDate()) && !shard[1].isAfter(request.getEndDate())) {
+                    period.merge(shardTotals[i]);
+                }
+            }
+            PaymentTotals totals = period.toTotals();
+            reports.add(ReportDTO.builder()
+                    .reportType(request.getReportType())
+                    .periodType(request.getPeriodType())
+                    .startDate(request.getStartDate())
+                    .endDate(request.getEndDate())
+                    .totalIncoming(totals.getTotalIncoming())
+                    .totalOutgoing(totals.getTotalOutgoing())
+                    .netAmount(totals.getNetAmount())
+                    .paymentCount(totals.getPaymentCount())
+                    .payments(new ArrayList<>())
+                    .categoryBreakdown(period.toCategoryBreakdown())
+                    .currencyBreakdown(period.toCurrencyBreakdown())
+                    .generatedBy("System")
+                    .generatedAt(timestamp)
+                    .build());
+        }
+        return reports;
+    }
+
+    @Override
+    public long rebuildDailyRollups(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("A valid date range is required");
+        }
+        return paymentRepository.rebuildDailyRollups(startDate, endDate);
+    }
+
+    @Override
+    public List<String> checkDailyRollups(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("A valid date range is required");
+        }
+        return paymentRepository.checkDailyRollups(startDate, endDate);
+    }
+
+    /**
+     * Merges one sketch per day that has payments. Stored days are reused while their counts
+     * and amounts still match the daily rollups; the rest are rebuilt by scanning runs of
+     * consecutive days, and those before today are stored for next time.
+     */
+    private SketchSummary summarizeSketches(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, PaymentTotals> dayTotals = paymentRepository.sumByDayFromDailyRollups(startDate, endDate);
+        Map<LocalDate, PaymentSketch> stored = sketchRepository.findByDayRange(startDate, endDate);
+
+        PaymentSketch merged = new PaymentSketch();
+        NavigableMap<LocalDate, PaymentSketch> rebuilt = new TreeMap<>();
+        List<LocalDate[]> runs = new ArrayList<>();
+        LocalDate[] run = null;
+        int daysReused = 0;
+        for (Map.Entry<LocalDate, PaymentTotals> entry : dayTotals.entrySet()) {
+            if (entry.getValue().getPaymentCount() == 0) {
+                continue;
+            }
+            PaymentSketch sketch = stored.get(entry.getKey());
+            if (sketch != null && sketch.matches(entry.getValue())) {
+                merged.merge(sketch);
+                daysReused++;
+                run = null;
+            } else {
+                rebuilt.put(entry.getKey(), new PaymentSketch());
+                if (run == null) {
+                    run = new LocalDate[]{entry.getKey(), entry.getKey()};
+                    runs.add(run);
+                } else {
+                    run[1] = entry.getKey();
+                }
+            }
+        }
+
+        for (LocalDate[] days : runs) {
+            paymentRepository.forEachInDateRange(days[0].atStartOfDay(), days[1].plusDays(1).atStartOfDay(), payment -> {
+                PaymentSketch sketch = rebuilt.get(payment.getPaymentDate().toLocalDate());
+                if (sketch != null) {
+                    sketch.add(payment);
+                }
+                return true;
+            });
+        }
+        Map<LocalDate, PaymentSketch> closedDays = rebuilt.headMap(LocalDate.now(), false);
+        if (!closedDays.isEmpty()) {
+            sketchRepository.saveAll(closedDays);
+        }
+        rebuilt.values().forEach(merged::merge);
+        return merged.toSummary(daysReused, rebuilt.size());
+    }
+
+    @Override
+    public void forgetCachedReports() {
+        counterpartyReports.invalidateAll();
+    }
+
+    private void forgetClosedPeriodReports(LocalDateTime paymentDate) {
+        if (paymentDate != null && paymentDate.toLocalDate().isBefore(LocalDate.now())) {
+            counterpartyReports.invalidateAll();
+        }
+    }
+
+    private void validateReportRequest(GenerateReportRequest request) {
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("Start and end dates are required");
+        }
+
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+    }
+
+    private static boolean isCovered(LocalDate day, List<GenerateReportRequest> requests) {
+        for (GenerateReportRequest request : requests) {
+            if (!day.isBefore(request.getStartDate()) && !day.isAfter(request.getEndDate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ReportAccumulator[] aggregateShardsFromSnapshot(List<LocalDate[]> shards) {
+        snapshot.refreshIfStale();
+        LocalDate first = shards.get(0)[0];
+        int firstDay = (int) first.toEpochDay();
+        int[] dayBuckets = new int[(int) (shards.get(shards.size() - 1)[1].toEpochDay() - firstDay + 1)];
+        Arrays.fill(dayBuckets, -1);
+        for (int i = 0; i < shards.size(); i++) {
+            for (long day = shards.get(i)[0].toEpochDay(); day <= shards.get(i)[1].toEpochDay(); day++) {
+                dayBuckets[(int) (day - firstDay)] = i;
+            }
+        }
+        return snapshot.aggregateBuckets(firstDay, dayBuckets, shards.size());
+    }
+
+    /**
+     * Streams each shard's payments on its own pooled connection, shards running in parallel.
+     */
+    private ReportAccumulator[] aggregateShardsFromScans(List<LocalDate[]> shards) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(REPORT_PARALLELISM, shards.size())));
+        try {
+            List<Future<ReportAccumulator>> results = new ArrayList<>();
+            for (LocalDate[] shard : shards) {
+                results.add(executor.submit(() -> {
+                    ReportAccumulator accumulator = new ReportAccumulator();
+                    paymentRepository.forEachInDateRange(shard[0].atStartOfDay(), shard[1].plusDays(1).atStartOfDay(), payment -> {
+                        accumulator.add(payment);
+                        return true;
+                    });
+                    return accumulator;
+                }));
+            }
+
+            ReportAccumulator[] shardTotals = new ReportAccumulator[shards.size()];
+            for (int i = 0; i < shardTotals.length; i++) {
+                shardTotals[i] = results.get(i).get();
+            }
+            return shardTotals;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating reports", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error generating reports", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
 
     private PaymentResponse convertToResponse(Payment payment) {
         return PaymentResponse.builder()
@@ -183,13 +615,26 @@ public class PaymentServiceImpl implements PaymentService {
                 .currency(payment.getCurrency())
                 .description(payment.getDescription())
                 .status(payment.getStatus())
+                .categoryName(payment.getCategory() != null ? payment.getCategory().getName() : payment.getCategoryName())
                 .clientVendorName(payment.getClientVendorName())
                 .paymentDate(payment.getPaymentDate())
                 .createdAt(payment.getCreatedAt())
                 .build();
     }
 
+    private PaymentCategory resolveCategory(Long categoryId, String errorPrefix) {
+        if (categoryId == null || categoryId <= 0) {
+            throw new IllegalArgumentException(errorPrefix + categoryId);
+        }
+        PaymentCategory category = categoryCache.get(categoryId)
+                .orElseThrow(() -> new IllegalArgumentException(errorPrefix + categoryId));
+        if (Boolean.FALSE.equals(category.getActive())) {
+            throw new IllegalArgumentException("Category is inactive: " + category.getName());
+        }
+        return category;
+    }
+
     private String generateReferenceNumber() {
-        return "PAY-" + System.currentTimeMillis();
+        return ReferenceNumberGenerator.getInstance().nextReference("PAY-");
     }
 }
\ No newline at end of file
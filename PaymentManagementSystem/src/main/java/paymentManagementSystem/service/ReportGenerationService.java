@@ -6,4 +6,5 @@ public interface ReportGenerationService {
     String generatePdfReport(ReportDTO report);
     String generateExcelReport(ReportDTO report);
     String generateCsvReport(ReportDTO report);
-}
\ No newline at end of file
+    String generateCsvReport(ReportDTO report, boolean gzip);
+}
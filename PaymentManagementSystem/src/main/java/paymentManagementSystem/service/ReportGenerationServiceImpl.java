@@ -1,44 +1,451 @@
 package paymentManagementSystem.service;
 
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.SplitCharacter;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import paymentManagementSystem.dto.response.BreakdownEntry;
 import paymentManagementSystem.dto.response.ReportDTO;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.enums.ReportType;
+import paymentManagementSystem.repository.PaymentRepository;
+import paymentManagementSystem.repository.PaymentRowHandler;
 import paymentManagementSystem.service.ReportGenerationService;
+import paymentManagementSystem.util.CsvWriter;
+import paymentManagementSystem.util.PropertiesUtil;
+import paymentManagementSystem.util.XlsxWriter;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
 
 public class ReportGenerationServiceImpl implements ReportGenerationService {
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final boolean CSV_GZIP = PropertiesUtil.getBooleanProperty("report.csv.gzip", false);
+
+    private static final String[] XLSX_COLUMNS = {
+            "ID", "Reference", "Payment date", "Type", "Status", "Amount", "Currency",
+            "Category", "Client / Vendor", "Description", "Created by", "Created at"
+    };
+
+    private static final String[] CSV_COLUMNS = {
+            "id", "reference_number", "payment_date", "payment_type", "status", "amount", "currency",
+            "category", "client_vendor_name", "description", "created_by", "created_at"
+    };
+
+    private static final int PDF_FLUSH_ROWS = 200;
+    private static final String[] PDF_COLUMNS = {
+            "Date", "Reference", "Type", "Status", "Category", "Client / Vendor", "Currency", "Amount"
+    };
+    private static final float[] PDF_COLUMN_WIDTHS = {2.2f, 3.2f, 1.6f, 1.6f, 2.4f, 4f, 1.2f, 2f};
+    private static final DateTimeFormatter PDF_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
+    private static final Font HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+    private static final Font BODY_FONT = new Font(Font.FontFamily.HELVETICA, 9);
+    private static final Font TABLE_FONT = new Font(Font.FontFamily.HELVETICA, 7.5f);
+    private static final SplitCharacter WHITESPACE_SPLIT = (start, current, end, chars, chunks) -> chars[current] <= ' ';
+
+    private final PaymentRepository paymentRepository;
+
+    public ReportGenerationServiceImpl(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    /**
+     * Renders the report as a PDF: a summary page with the totals and breakdowns, then, for
+     * every report type except {@link ReportType#SUMMARY}, a table of all payments in the
+     * period. Table rows are streamed from a cursor and the table is added to the document
+     * every {@value #PDF_FLUSH_ROWS} rows, so finished pages are written out and the heap
+     * holds at most one chunk of rows whatever the size of the period.
+     */
     @Override
     public String generatePdfReport(ReportDTO report) {
         String fileName = "report_" + report.getReportType().toString().toLowerCase() + "_"
                 + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf";
+        Path path = Paths.get(fileName);
 
-        // For now, create a simple text file (you can integrate a PDF library later)
-        try (FileWriter writer = new FileWriter(fileName.replace(".pdf", ".txt"))) {
-            writer.write("=== " + report.getReportType() + " REPORT ===\n");
-            writer.write("Period: " + report.getStartDate() + " to " + report.getEndDate() + "\n");
-            writer.write("Total Incoming: $" + report.getTotalIncoming() + "\n");
-            writer.write("Total Outgoing: $" + report.getTotalOutgoing() + "\n");
-            writer.write("Net Amount: $" + report.getNetAmount() + "\n");
-            writer.write("\nGenerated: " + LocalDateTime.now() + "\n");
-
-            return fileName.replace(".pdf", ".txt");
-        } catch (IOException e) {
+        Document document = new Document(PageSize.A4.rotate(), 30, 30, 30, 30);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), EXPORT_BUFFER_SIZE)) {
+            PdfWriter.getInstance(document, out);
+            document.open();
+            writePdfSummary(document, report);
+            if (report.getReportType() != ReportType.SUMMARY) {
+                document.newPage();
+                writePdfPaymentTable(document, report);
+            }
+            document.close();
+            return fileName;
+        } catch (IOException | DocumentException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
             throw new RuntimeException("Error generating PDF report", e);
         }
     }
 
+    private static void writePdfSummary(Document document, ReportDTO report) throws DocumentException {
+        document.add(new Paragraph(report.getReportType() + " REPORT", TITLE_FONT));
+        document.add(new Paragraph("Period: " + report.getStartDate() + " to " + report.getEndDate()
+                + (report.getPeriodType() != null ? " (" + report.getPeriodType() + ")" : ""), BODY_FONT));
+        document.add(new Paragraph("Generated: " + LocalDateTime.now().format(PDF_DATE_FORMAT)
+                + (report.getGeneratedBy() != null ? " by " + report.getGeneratedBy() : ""), BODY_FONT));
+
+        PdfPTable totals = new PdfPTable(2);
+        totals.setWidthPercentage(40);
+        totals.setHorizontalAlignment(Element.ALIGN_LEFT);
+        totals.setSpacingBefore(12);
+        addTotalRow(totals, "Total Incoming", report.getTotalIncoming().toPlainString());
+        addTotalRow(totals, "Total Outgoing", report.getTotalOutgoing().toPlainString());
+        addTotalRow(totals, "Net Amount", report.getNetAmount().toPlainString());
+        addTotalRow(totals, "Payments", Long.toString(report.getPaymentCount()));
+        document.add(totals);
+
+        addPdfBreakdown(document, "By category", report.getCategoryBreakdown());
+        if (report.getCurrencyBreakdown() != null && report.getCurrencyBreakdown().size() > 1) {
+            addPdfBreakdown(document, "By currency", report.getCurrencyBreakdown());
+        }
+        addPdfBreakdown(document, "Top vendors / clients", report.getVendorBreakdown());
+    }
+
+    private static void addTotalRow(PdfPTable table, String label, String value) {
+        table.addCell(new Phrase(label, HEADER_FONT));
+        table.addCell(cell(value, Element.ALIGN_RIGHT, BODY_FONT));
+    }
+
+    private static void addPdfBreakdown(Document document, String title, List<BreakdownEntry> entries) throws DocumentException {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        Paragraph heading = new Paragraph(title, HEADER_FONT);
+        heading.setSpacingBefore(12);
+        document.add(heading);
+
+        PdfPTable table = new PdfPTable(new float[]{4, 1, 2, 1, 2, 2});
+        table.setWidthPercentage(80);
+        table.setHorizontalAlignment(Element.ALIGN_LEFT);
+        table.setSpacingBefore(4);
+        table.setHeaderRows(1);
+        for (String column : new String[]{"Name", "In", "Incoming", "Out", "Outgoing", "Net"}) {
+            table.addCell(new Phrase(column, HEADER_FONT));
+        }
+        for (BreakdownEntry entry : entries) {
+            table.addCell(new Phrase(entry.getName(), BODY_FONT));
+            table.addCell(cell(Long.toString(entry.getIncomingCount()), Element.ALIGN_RIGHT, BODY_FONT));
+            table.addCell(cell(entry.getTotalIncoming().toPlainString(), Element.ALIGN_RIGHT, BODY_FONT));
+            table.addCell(cell(Long.toString(entry.getOutgoingCount()), Element.ALIGN_RIGHT, BODY_FONT));
+            table.addCell(cell(entry.getTotalOutgoing().toPlainString(), Element.ALIGN_RIGHT, BODY_FONT));
+            table.addCell(cell(entry.getNetAmount().toPlainString(), Element.ALIGN_RIGHT, BODY_FONT));
+        }
+        document.add(table);
+    }
+
+    private void writePdfPaymentTable(Document document, ReportDTO report) throws DocumentException {
+        document.add(new Paragraph("Payments", HEADER_FONT));
+
+        PdfPTable table = new PdfPTable(PDF_COLUMN_WIDTHS);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(4);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        for (String column : PDF_COLUMNS) {
+            table.addCell(new Phrase(column, HEADER_FONT));
+        }
+
+        long[] pendingRows = {0};
+        try {
+            paymentRepository.forEachInDateRange(report.getStartDate().atStartOfDay(), report.getEndDate().plusDays(1).atStartOfDay(),
+                    payment -> {
+                        addPdfPaymentRow(table, payment);
+                        if (++pendingRows[0] == PDF_FLUSH_ROWS) {
+                            // Lays out the rows added so far and releases them; the header row is kept
+                            addToDocument(document, table);
+                            pendingRows[0] = 0;
+                        }
+                        return true;
+                    });
+        } catch (DocumentRuntimeException e) {
+            throw e.getCause();
+        }
+
+        table.setComplete(true);
+        document.add(table);
+    }
+
+    private static void addPdfPaymentRow(PdfPTable table, Payment payment) {
+        table.addCell(tableText(payment.getPaymentDate() != null ? payment.getPaymentDate().format(PDF_DATE_FORMAT) : null));
+        table.addCell(tableText(payment.getReferenceNumber()));
+        table.addCell(tableText(Objects.toString(payment.getPaymentType(), null)));
+        table.addCell(tableText(Objects.toString(payment.getStatus(), null)));
+        table.addCell(tableText(payment.getCategory() != null ? payment.getCategory().getName() : payment.getCategoryName()));
+        table.addCell(tableText(payment.getClientVendorName()));
+        table.addCell(tableText(payment.getCurrency()));
+        PdfPCell amount = new PdfPCell(tableText(payment.getAmount() != null ? payment.getAmount().toPlainString() : null));
+        amount.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        table.addCell(amount);
+    }
+
+    /**
+     * iText's default split rule runs a date regex at every '-' while laying out a line,
+     * which dominates rendering time for dates and reference numbers; table cells only
+     * break at whitespace.
+     */
+    private static Phrase tableText(String text) {
+        Chunk chunk = new Chunk(text != null ? text : "", TABLE_FONT);
+        chunk.setSplitCharacter(WHITESPACE_SPLIT);
+        return new Phrase(chunk);
+    }
+
+    private static void addToDocument(Document document, PdfPTable table) {
+        try {
+            document.add(table);
+        } catch (DocumentException e) {
+            throw new DocumentRuntimeException(e);
+        }
+    }
+
+    private static PdfPCell cell(String text, int alignment, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, font));
+        cell.setHorizontalAlignment(alignment);
+        return cell;
+    }
+
+    /**
+     * Carries a {@link DocumentException} out of a {@link PaymentRowHandler}.
+     */
+    private static class DocumentRuntimeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        DocumentRuntimeException(DocumentException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized DocumentException getCause() {
+            return (DocumentException) super.getCause();
+        }
+    }
+
+    /**
+     * Writes the report as an XLSX workbook: a Summary sheet with the totals and breakdowns,
+     * then the payments of the period streamed from a cursor into a Payments sheet, which
+     * continues on further sheets past Excel's row limit. Type, status, category and
+     * currency use the shared strings table; amounts and dates are numeric cells.
+     */
     @Override
     public String generateExcelReport(ReportDTO report) {
-        // Placeholder implementation
-        return "excel_report_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
+        String fileName = "report_" + report.getReportType().toString().toLowerCase() + "_"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
+        Path path = Paths.get(fileName);
+
+        try (XlsxWriter xlsx = new XlsxWriter(Files.newOutputStream(path))) {
+            writeXlsxSummary(xlsx, report);
+            int[] sheets = {1};
+            xlsx.startSheet("Payments", true);
+            xlsx.headerRow(XLSX_COLUMNS);
+            paymentRepository.forEachInDateRange(report.getStartDate().atStartOfDay(), report.getEndDate().plusDays(1).atStartOfDay(),
+                    payment -> {
+                        try {
+                            if (xlsx.getRowNumber() == XlsxWriter.MAX_ROWS_PER_SHEET) {
+                                xlsx.startSheet("Payments (" + ++sheets[0] + ")", true);
+                                xlsx.headerRow(XLSX_COLUMNS);
+                            }
+                            writeXlsxRow(xlsx, payment);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return true;
+                    });
+            return fileName;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new RuntimeException("Error generating Excel report", e);
+        }
+    }
+
+    private static void writeXlsxSummary(XlsxWriter xlsx, ReportDTO report) throws IOException {
+        xlsx.startSheet("Summary", false);
+        xlsx.headerRow(report.getReportType() + " REPORT");
+        addXlsxLabel(xlsx, "Period start", report.getStartDate().toString());
+        addXlsxLabel(xlsx, "Period end", report.getEndDate().toString());
+        if (report.getPeriodType() != null) {
+            addXlsxLabel(xlsx, "Period type", report.getPeriodType().toString());
+        }
+        addXlsxAmount(xlsx, "Total Incoming", report.getTotalIncoming());
+        addXlsxAmount(xlsx, "Total Outgoing", report.getTotalOutgoing());
+        addXlsxAmount(xlsx, "Net Amount", report.getNetAmount());
+        xlsx.startRow();
+        xlsx.inlineString("Payments");
+        xlsx.number(report.getPaymentCount());
+        xlsx.endRow();
+        xlsx.startRow();
+        xlsx.inlineString("Generated");
+        xlsx.dateTime(LocalDateTime.now());
+        xlsx.endRow();
+
+        addXlsxBreakdown(xlsx, "Category", report.getCategoryBreakdown());
+        if (report.getCurrencyBreakdown() != null && report.getCurrencyBreakdown().size() > 1) {
+            addXlsxBreakdown(xlsx, "Currency", report.getCurrencyBreakdown());
+        }
+        addXlsxBreakdown(xlsx, "Vendor / Client", report.getVendorBreakdown());
+    }
+
+    private static void addXlsxLabel(XlsxWriter xlsx, String label, String value) throws IOException {
+        xlsx.startRow();
+        xlsx.inlineString(label);
+        xlsx.inlineString(value);
+        xlsx.endRow();
+    }
+
+    private static void addXlsxAmount(XlsxWriter xlsx, String label, BigDecimal value) throws IOException {
+        xlsx.startRow();
+        xlsx.inlineString(label);
+        xlsx.amount(value);
+        xlsx.endRow();
+    }
+
+    private static void addXlsxBreakdown(XlsxWriter xlsx, String title, List<BreakdownEntry> entries) throws IOException {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        xlsx.startRow();
+        xlsx.endRow();
+        xlsx.headerRow(title, "Incoming payments", "Total incoming", "Outgoing payments", "Total outgoing", "Net");
+        for (BreakdownEntry entry : entries) {
+            xlsx.startRow();
+            xlsx.inlineString(entry.getName());
+            xlsx.number(entry.getIncomingCount());
+            xlsx.amount(entry.getTotalIncoming());
+            xlsx.number(entry.getOutgoingCount());
+            xlsx.amount(entry.getTotalOutgoing());
+            xlsx.amount(entry.getNetAmount());
+            xlsx.endRow();
+        }
+    }
+
+    private static void writeXlsxRow(XlsxWriter xlsx, Payment payment) throws IOException {
+        xlsx.startRow();
+        xlsx.number(payment.getId());
+        xlsx.inlineString(payment.getReferenceNumber());
+        xlsx.dateTime(payment.getPaymentDate());
+        xlsx.sharedString(Objects.toString(payment.getPaymentType(), null));
+        xlsx.sharedString(Objects.toString(payment.getStatus(), null));
+        xlsx.amount(payment.getAmount());
+        xlsx.sharedString(payment.getCurrency());
+        xlsx.sharedString(payment.getCategory() != null ? payment.getCategory().getName() : payment.getCategoryName());
+        xlsx.inlineString(payment.getClientVendorName());
+        xlsx.inlineString(payment.getDescription());
+        xlsx.inlineString(payment.getCreatedBy() != null ? payment.getCreatedBy().getUsername() : null);
+        xlsx.dateTime(payment.getCreatedAt());
+        xlsx.endRow();
     }
 
     @Override
     public String generateCsvReport(ReportDTO report) {
-        // Placeholder implementation
-        return "csv_report_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv";
+        return generateCsvReport(report, CSV_GZIP);
+    }
+
+    /**
+     * Writes every payment in the report period to a CSV file, streamed from a cursor so
+     * memory use does not grow with the number of rows. The file starts with {@code #}
+     * comment lines holding the period and its totals, followed by the column header and
+     * one record per payment, oldest first. A partly written file is deleted on failure.
+     */
+    @Override
+    public String generateCsvReport(ReportDTO report, boolean gzip) {
+        String fileName = "report_" + report.getReportType().toString().toLowerCase() + "_"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + (gzip ? ".csv.gz" : ".csv");
+        Path path = Paths.get(fileName);
+
+        try (CsvWriter csv = new CsvWriter(openExportWriter(path, gzip))) {
+            writeCsvSummary(csv, report);
+            csv.writeRecord(CSV_COLUMNS);
+            paymentRepository.forEachInDateRange(report.getStartDate().atStartOfDay(), report.getEndDate().plusDays(1).atStartOfDay(),
+                    payment -> {
+                        try {
+                            writeCsvRecord(csv, payment);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return true;
+                    });
+            return fileName;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new RuntimeException("Error generating CSV report", e);
+        }
+    }
+
+    private static Writer openExportWriter(Path path, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        if (gzip) {
+            out = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+    }
+
+    private static void writeCsvSummary(CsvWriter csv, ReportDTO report) throws IOException {
+        csv.writeLine("# " + report.getReportType() + " report"
+                + (report.getPeriodType() != null ? " (" + report.getPeriodType() + ")" : ""));
+        csv.writeLine("# Period: " + report.getStartDate() + " to " + report.getEndDate());
+        csv.writeLine("# Total Incoming: " + report.getTotalIncoming().toPlainString());
+        csv.writeLine("# Total Outgoing: " + report.getTotalOutgoing().toPlainString());
+        csv.writeLine("# Net Amount: " + report.getNetAmount().toPlainString());
+        csv.writeLine("# Payments: " + report.getPaymentCount());
+        if (report.getCurrencyBreakdown() != null && report.getCurrencyBreakdown().size() > 1) {
+            for (BreakdownEntry entry : report.getCurrencyBreakdown()) {
+                csv.writeLine("# " + entry.getName() + ": incoming " + entry.getTotalIncoming().toPlainString()
+                        + ", outgoing " + entry.getTotalOutgoing().toPlainString());
+            }
+        }
+        csv.writeLine("# Generated: " + LocalDateTime.now());
+    }
+
+    private static void writeCsvRecord(CsvWriter csv, Payment payment) throws IOException {
+        csv.field(payment.getId())
+                .field(payment.getReferenceNumber())
+                .field(payment.getPaymentDate())
+                .field(payment.getPaymentType())
+                .field(payment.getStatus())
+                .field(payment.getAmount() != null ? payment.getAmount().toPlainString() : null)
+                .field(payment.getCurrency())
+                .field(payment.getCategory() != null ? payment.getCategory().getName() : payment.getCategoryName())
+                .field(payment.getClientVendorName())
+                .field(payment.getDescription())
+                .field(payment.getCreatedBy() != null ? payment.getCreatedBy().getUsername() : null)
+                .field(payment.getCreatedAt());
+        csv.endRecord();
     }
 }
\ No newline at end of file
@@ -0,0 +1,444 @@
+package paymentManagementSystem.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Background group-commit writer for {@code audit_logs}.
+ * <p>
+ * Callers enqueue onto a lock-free {@link ConcurrentLinkedQueue}; capacity is bounded by a
+ * {@link Semaphore} whose non-blocking {@code tryAcquire} is a CAS on the fast path. A
+ * single daemon thread drains the queue and inserts each batch with one JDBC batch and one
+ * commit, flushing when {@code batchSize} entries are waiting or {@code flushIntervalMillis}
+ * has passed. When the queue is full the {@link OverflowPolicy} decides whether callers
+ * block, the entry is dropped, or it is spilled to a local file that the writer replays
+ * once the queue has drained. Replays back off while inserts keep failing.
+ * <p>
+ * Submitters share the read side of a lock that {@link #shutdown} takes exclusively to stop
+ * the queue, so no entry can be enqueued after the writer's final drain.
+ */
+public class AsyncAuditWriter {
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP,
+        SPILL
+    }
+
+    private static final long MAX_REPLAY_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_logs (user_id, action, entity_id, old_value, new_value, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillFile;
+    private final Path replayFile;
+    private final Path rejectFile;
+
+    private final ConcurrentLinkedQueue<AuditEntry> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore freeSlots;
+    private final Object spillLock = new Object();
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Thread writerThread;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    // Writer thread only
+    private long replayBackoffNanos;
+    private long nextReplayNanos = System.nanoTime();
+
+    public AsyncAuditWriter(int capacity, int batchSize, long flushIntervalMillis,
+                            OverflowPolicy overflowPolicy, Path spillFile) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Audit queue capacity and batch size must be positive");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = spillFile;
+        this.replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        this.rejectFile = spillFile.resolveSibling(spillFile.getFileName() + ".rejected");
+        this.freeSlots = new Semaphore(capacity);
+
+        this.writerThread = new Thread(this::runWriter, "audit-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public static AsyncAuditWriter fromProperties() {
+        return new AsyncAuditWriter(
+                PropertiesUtil.getIntProperty("audit.async.queueCapacity", 10000),
+                PropertiesUtil.getIntProperty("audit.async.batchSize", 500),
+                PropertiesUtil.getLongProperty("audit.async.flushIntervalMillis", 200),
+                OverflowPolicy.valueOf(PropertiesUtil.getProperty("audit.async.overflowPolicy", "BLOCK").trim().toUpperCase()),
+                Paths.get(PropertiesUtil.getProperty("audit.async.spillFile", "audit-spill.jsonl")));
+    }
+
+    public void submit(String userId, String action, String entityId, String oldValue, String newValue) {
+        AuditEntry entry = new AuditEntry(userId, action, entityId, oldValue, newValue, LocalDateTime.now());
+
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                handleOverflow(entry);
+                return;
+            }
+
+            if (freeSlots.tryAcquire()) {
+                enqueue(entry);
+                return;
+            }
+
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                // The writer keeps draining until running is cleared, which waits for this lock
+                LockSupport.unpark(writerThread);
+                try {
+                    freeSlots.acquire();
+                    enqueue(entry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+                return;
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+
+        handleOverflow(entry);
+    }
+
+    /**
+     * Stops accepting new entries into the queue, flushes everything already queued and
+     * waits up to {@code timeoutMillis} for the writer thread to finish. Entries submitted
+     * from then on go through the overflow policy. If the writer has finished, anything
+     * still queued is written on the calling thread.
+     */
+    public void shutdown(long timeoutMillis) {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!writerThread.isAlive()) {
+            List<AuditEntry> batch = new ArrayList<>(batchSize);
+            do {
+                batch.clear();
+                drainTo(batch);
+                writeBatch(batch);
+            } while (!batch.isEmpty());
+        }
+    }
+
+    public int getQueuedCount() {
+        return capacity - freeSlots.availablePermits();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncAuditWriter[queued=%d/%d, enqueued=%d, written=%d, batches=%d, dropped=%d, spilled=%d, failed=%d, policy=%s]",
+                getQueuedCount(), capacity, getEnqueuedCount(), getWrittenCount(), getBatchCount(),
+                getDroppedCount(), getSpilledCount(), getFailedCount(), overflowPolicy);
+    }
+
+    private void enqueue(AuditEntry entry) {
+        queue.offer(entry);
+        enqueued.incrementAndGet();
+        if (capacity - freeSlots.availablePermits() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void handleOverflow(AuditEntry entry) {
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            spill(List.of(entry));
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void runWriter() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+
+        while (true) {
+            boolean stopping = !running;
+            int queuedNow = capacity - freeSlots.availablePermits();
+            boolean due = System.nanoTime() - lastFlush >= flushIntervalNanos;
+
+            if (queuedNow >= batchSize || (due && queuedNow > 0) || (stopping && queuedNow > 0)) {
+                drainTo(batch);
+                writeBatch(batch);
+                batch.clear();
+                lastFlush = System.nanoTime();
+                continue;
+            }
+
+            if (queuedNow == 0) {
+                if (stopping || System.nanoTime() - nextReplayNanos >= 0) {
+                    replaySpill();
+                }
+                if (stopping) {
+                    return;
+                }
+            }
+
+            if (due) {
+                lastFlush = System.nanoTime();
+            }
+            LockSupport.parkNanos(this, flushIntervalNanos);
+        }
+    }
+
+    private void drainTo(List<AuditEntry> batch) {
+        AuditEntry entry;
+        while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+            batch.add(entry);
+        }
+        freeSlots.release(batch.size());
+    }
+
+    /**
+     * @return whether the batch was inserted; a failed batch is spilled or counted as failed
+     */
+    private boolean writeBatch(List<AuditEntry> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (AuditEntry entry : batch) {
+                    stmt.setString(1, entry.userId);
+                    stmt.setString(2, entry.action);
+                    stmt.setString(3, entry.entityId);
+                    stmt.setString(4, entry.oldValue);
+                    stmt.setString(5, entry.newValue);
+                    stmt.setTimestamp(6, Timestamp.valueOf(entry.timestamp));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                failed.addAndGet(batch.size());
+            }
+            return false;
+        }
+    }
+
+    private void spill(List<AuditEntry> entries) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditEntry entry : entries) {
+                    writer.write(objectMapper.writeValueAsString(entry.toMap()));
+                    writer.newLine();
+                }
+                spilled.addAndGet(entries.size());
+            } catch (IOException e) {
+                dropped.addAndGet(entries.size());
+            }
+        }
+    }
+
+    /**
+     * Moves the spill file aside under the spill lock, then loads it back through the
+     * normal batch path. A replay file left by a crash is replayed first rather than
+     * replaced. Lines that cannot be parsed are moved to the {@code .rejected} file. When a
+     * batch fails, it is re-spilled by {@link #writeBatch}, the unread rest of the file is
+     * appended back to the spill file, and the next replay waits twice as long as the
+     * last, up to a minute.
+     */
+    private void replaySpill() {
+        synchronized (spillLock) {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                try {
+                    Files.move(spillFile, replayFile);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        boolean succeeded = true;
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String line;
+            while (succeeded && (line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(AuditEntry.fromMap(objectMapper.readValue(line, new TypeReference<Map<String, String>>() {})));
+                } catch (IOException | RuntimeException e) {
+                    reject(line);
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    succeeded = writeBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (succeeded) {
+                succeeded = writeBatch(batch);
+            } else {
+                respillRemaining(reader);
+            }
+            Files.delete(replayFile);
+        } catch (IOException e) {
+            succeeded = false;
+            System.err.println("Error replaying audit spill file: " + e.getMessage());
+        }
+
+        if (succeeded) {
+            replayBackoffNanos = 0;
+        } else {
+            replayBackoffNanos = Math.min(MAX_REPLAY_BACKOFF_NANOS,
+                    Math.max(flushIntervalNanos, replayBackoffNanos * 2));
+        }
+        nextReplayNanos = System.nanoTime() + replayBackoffNanos;
+    }
+
+    private void respillRemaining(BufferedReader reader) throws IOException {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    private void reject(String line) {
+        failed.incrementAndGet();
+        try (BufferedWriter writer = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            System.err.println("Error writing rejected audit entry: " + e.getMessage());
+        }
+    }
+
+    private static final class AuditEntry {
+        private final String userId;
+        private final String action;
+        private final String entityId;
+        private final String oldValue;
+        private final String newValue;
+        private final LocalDateTime timestamp;
+
+        private AuditEntry(String userId, String action, String entityId, String oldValue,
+                           String newValue, LocalDateTime timestamp) {
+            this.userId = userId;
+            this.action = action;
+            this.entityId = entityId;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.timestamp = timestamp;
+        }
+
+        private Map<String, String> toMap() {
+            Map<String, String> map = new LinkedHashMap<>();
+            map.put("userId", userId);
+            map.put("action", action);
+            map.put("entityId", entityId);
+            map.put("oldValue", oldValue);
+            map.put("newValue", newValue);
+            map.put("timestamp", timestamp.toString());
+            return map;
+        }
+
+        private static AuditEntry fromMap(Map<String, String> map) {
+            return new AuditEntry(map.get("userId"), map.get("action"), map.get("entityId"),
+                    map.get("oldValue"), map.get("newValue"), LocalDateTime.parse(map.get("timestamp")));
+        }
+    }
+}
@@ -5,10 +5,45 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AuditLogger {
 
+    private final AsyncAuditWriter asyncWriter;
+    private final boolean enabled;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+
+    public AuditLogger() {
+        this(PropertiesUtil.getBooleanProperty("audit.async.enabled", false) ? AsyncAuditWriter.fromProperties() : null);
+    }
+
+    public AuditLogger(AsyncAuditWriter asyncWriter) {
+        this(asyncWriter, true);
+    }
+
+    private AuditLogger(AsyncAuditWriter asyncWriter, boolean enabled) {
+        this.asyncWriter = asyncWriter;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Logger that discards every entry, for running without a database.
+     */
+    public static AuditLogger disabled() {
+        return new AuditLogger(null, false);
+    }
+
     public void logAction(String userId, String action, String entityId, Object oldValue, Object newValue) {
+        if (!enabled) {
+            return;
+        }
+        if (asyncWriter != null) {
+            asyncWriter.submit(userId, action, entityId,
+                    oldValue != null ? oldValue.toString() : null,
+                    newValue != null ? newValue.toString() : null);
+            return;
+        }
+
         String sql = "INSERT INTO audit_logs (user_id, action, entity_id, old_value, new_value, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnectionManager.getConnection();
@@ -47,4 +82,21 @@ public class AuditLogger {
     public void logUserDeletion(String userId, String details) {
         logUserAction(userId, "USER_DELETED", details);
     }
+
+    public String getStats() {
+        if (!enabled) {
+            return "AuditLogger[disabled]";
+        }
+        return asyncWriter != null ? asyncWriter.toString() : "AuditLogger[synchronous]";
+    }
+
+    /**
+     * Flushes any queued audit entries. Must run before the connection pool is closed; calls
+     * after the first do nothing, so both the exit menu and the shutdown hook can call it.
+     */
+    public void shutdown() {
+        if (asyncWriter != null && shutDown.compareAndSet(false, true)) {
+            asyncWriter.shutdown(PropertiesUtil.getLongProperty("audit.async.shutdownTimeoutMillis", 10000));
+        }
+    }
 }
\ No newline at end of file
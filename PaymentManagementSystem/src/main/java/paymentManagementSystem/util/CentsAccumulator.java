@@ -0,0 +1,118 @@
+package paymentManagementSystem.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Exact running total of money amounts, kept as a {@code long} count of cents.
+ * <p>
+ * {@code payments.amount} is {@code DECIMAL(15,2)}, so every amount is a whole number of
+ * cents and adding them is a single primitive add. If the sum wraps past the range of a
+ * {@code long}, the wrap is counted in {@code carry} and the exact value is rebuilt as
+ * {@code carry * 2^64 + cents} when read; amounts with more than two decimal places are
+ * kept aside as a {@link BigDecimal} remainder. Neither path costs anything in the common
+ * case. The static {@link #addCents(long[], long[], int, long)} applies the same rule to
+ * flat arrays for loops that keep one sum per slot.
+ * <p>
+ * Not thread-safe; parallel aggregations fill one accumulator per worker and
+ * {@link #merge} them.
+ */
+public final class CentsAccumulator {
+
+    private static final BigInteger TWO_POW_64 = BigInteger.ONE.shiftLeft(64);
+
+    private long cents;
+    private long carry;
+    private long count;
+    private BigDecimal remainder;
+
+    public void addCents(long amountCents) {
+        long sum = cents + amountCents;
+        if (((cents ^ sum) & (amountCents ^ sum)) < 0) {
+            carry += amountCents > 0 ? 1 : -1;
+        }
+        cents = sum;
+        count++;
+    }
+
+    public void add(BigDecimal amount) {
+        add(amount, 1);
+    }
+
+    /**
+     * Adds an amount that is already the sum of {@code amountCount} payments.
+     */
+    public void add(BigDecimal amount, long amountCount) {
+        if (amount.scale() <= 2 && amount.precision() - amount.scale() <= 16) {
+            // At most 16 digits before the point, so the value in cents fits in a long
+            merge(amount.movePointRight(2).longValue(), 0, amountCount);
+            return;
+        }
+        remainder = remainder == null ? amount : remainder.add(amount);
+        count += amountCount;
+    }
+
+    /**
+     * Adds {@code amountCents} to {@code sums[index]}, recording a wrap in {@code carries[index]}.
+     */
+    public static void addCents(long[] sums, long[] carries, int index, long amountCents) {
+        long current = sums[index];
+        long sum = current + amountCents;
+        if (((current ^ sum) & (amountCents ^ sum)) < 0) {
+            carries[index] += amountCents > 0 ? 1 : -1;
+        }
+        sums[index] = sum;
+    }
+
+    public static BigDecimal toAmount(long cents, long carry) {
+        if (carry == 0) {
+            return BigDecimal.valueOf(cents, 2);
+        }
+        return new BigDecimal(BigInteger.valueOf(carry).multiply(TWO_POW_64).add(BigInteger.valueOf(cents)), 2);
+    }
+
+    public void merge(CentsAccumulator other) {
+        merge(other.cents, other.carry, other.count);
+        if (other.remainder != null) {
+            remainder = remainder == null ? other.remainder : remainder.add(other.remainder);
+        }
+    }
+
+    /**
+     * Adds a sum that was accumulated elsewhere, e.g. one slot of a flat array.
+     */
+    public void merge(long otherCents, long otherCarry, long otherCount) {
+        long sum = cents + otherCents;
+        if (((cents ^ sum) & (otherCents ^ sum)) < 0) {
+            carry += otherCents > 0 ? 1 : -1;
+        }
+        cents = sum;
+        carry += otherCarry;
+        count += otherCount;
+    }
+
+    public BigDecimal toBigDecimal() {
+        BigDecimal total = toAmount(cents, carry);
+        return remainder == null ? total : total.add(remainder);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * True once the total has needed more than the {@code long} cents fast path.
+     */
+    public boolean hasOverflowed() {
+        return carry != 0 || remainder != null;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " (" + count + ")";
+    }
+}
@@ -0,0 +1,104 @@
+package paymentManagementSystem.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes RFC 4180 CSV one field at a time: records end with CRLF, and a field is quoted only
+ * when it contains a comma, double quote, CR or LF, with embedded quotes doubled. Null fields
+ * are written empty. Buffering is left to the underlying {@link Writer}.
+ */
+public class CsvWriter implements Closeable {
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separate();
+        if (value != null) {
+            writeEscaped(value);
+        }
+        return this;
+    }
+
+    public CsvWriter field(Object value) throws IOException {
+        return field(value != null ? value.toString() : null);
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public void endRecord() throws IOException {
+        out.write("\r\n");
+        firstField = true;
+    }
+
+    public void writeRecord(String... values) throws IOException {
+        for (String value : values) {
+            field(value);
+        }
+        endRecord();
+    }
+
+    /**
+     * Writes a line that is not a record, such as a {@code #}-prefixed comment. The text is
+     * written as is, so it must not contain line breaks.
+     */
+    public void writeLine(String line) throws IOException {
+        out.write(line);
+        endRecord();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separate() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            out.write(',');
+        }
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        if (!needsQuoting(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,7 +1,6 @@
 package paymentManagementSystem.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnectionManager {
@@ -10,27 +9,55 @@ public class DatabaseConnectionManager {
     private static final String PASSWORD = PropertiesUtil.getProperty("db.password");
     private static final String DRIVER = PropertiesUtil.getProperty("db.driver");
 
-    private static Connection connection;
+    private static final int POOL_MAX_SIZE = PropertiesUtil.getIntProperty("db.pool.maxSize", 10);
+    private static final int POOL_MIN_IDLE = PropertiesUtil.getIntProperty("db.pool.minIdle", 2);
+    private static final long POOL_MAX_WAIT_MILLIS = PropertiesUtil.getLongProperty("db.pool.maxWaitMillis", 5000);
+    private static final long POOL_IDLE_TIMEOUT_MILLIS = PropertiesUtil.getLongProperty("db.pool.idleTimeoutMillis", 300000);
+    private static final long POOL_EVICTION_INTERVAL_MILLIS = PropertiesUtil.getLongProperty("db.pool.evictionIntervalMillis", 60000);
+    private static final int POOL_VALIDATION_TIMEOUT_SECONDS = PropertiesUtil.getIntProperty("db.pool.validationTimeoutSeconds", 2);
 
+    private static volatile ConnectionPool pool;
+
+    /**
+     * Leases a connection from the shared pool. Closing the returned connection
+     * gives it back to the pool rather than closing the physical connection.
+     */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Class.forName(DRIVER);
-                connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("PostgreSQL JDBC Driver not found", e);
+        return getPool().borrow();
+    }
+
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnectionManager.class) {
+                current = pool;
+                if (current == null) {
+                    try {
+                        Class.forName(DRIVER);
+                    } catch (ClassNotFoundException e) {
+                        throw new SQLException("PostgreSQL JDBC Driver not found", e);
+                    }
+                    current = new ConnectionPool(URL, USERNAME, PASSWORD, POOL_MAX_SIZE, POOL_MIN_IDLE,
+                            POOL_MAX_WAIT_MILLIS, POOL_IDLE_TIMEOUT_MILLIS, POOL_EVICTION_INTERVAL_MILLIS,
+                            POOL_VALIDATION_TIMEOUT_SECONDS);
+                    pool = current;
+                }
             }
         }
-        return connection;
+        return current;
+    }
+
+    public static String getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.toString() : "ConnectionPool[not initialized]";
     }
 
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
+        synchronized (DatabaseConnectionManager.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,58 @@
 package paymentManagementSystem.util;
 
+import paymentManagementSystem.repository.PaymentCategoryCache;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public class DatabaseInitializer {
 
+    /**
+     * Name and description of the categories seeded into an empty database, in id order.
+     */
+    public static final String[][] DEFAULT_CATEGORIES = {
+            {"Office Supplies", "General office supplies and equipment"},
+            {"Travel & Entertainment", "Business travel and client entertainment expenses"},
+            {"Utilities", "Office utilities like electricity, internet, phone"},
+            {"Professional Services", "Consulting, legal, accounting services"},
+            {"Marketing & Advertising", "Marketing campaigns and advertising expenses"},
+            {"Software & Subscriptions", "Software licenses and subscription services"},
+            {"Maintenance & Repairs", "Equipment and facility maintenance"},
+            {"Employee Benefits", "Health insurance, bonuses, and other benefits"},
+            {"Client Payments", "Payments received from clients"},
+            {"Vendor Payments", "Payments made to vendors and suppliers"}
+    };
+
+    private static final boolean PARTITION_PAYMENTS = PropertiesUtil.getBooleanProperty("db.payments.partitioned", false);
+    private static final boolean LISTEN_FOR_CATEGORY_CHANGES = PropertiesUtil.getBooleanProperty("category.cache.listen", true);
+
     public static void createTables() {
         try (Connection conn = DatabaseConnectionManager.getConnection()) {
             createUsersTable(conn);
             createPaymentCategoriesTable(conn);
             createPaymentsTable(conn);
+            createPaymentsIndexes(conn);
+            createPaymentDeletionsTable(conn);
+            createPaymentDailyRollupsTable(conn);
+            createPaymentDailySketchesTable(conn);
             createAuditLogsTable(conn);
             insertDefaultCategories(conn);
             System.out.println("All database tables created successfully!");
         } catch (SQLException e) {
             throw new RuntimeException("Failed to create database tables", e);
         }
+
+        if (PARTITION_PAYMENTS) {
+            PaymentPartitionManager.ensurePartitions();
+            PaymentPartitionManager.startMaintenance();
+        }
+
+        PaymentCategoryCache.getInstance().reload();
+        if (LISTEN_FOR_CATEGORY_CHANGES) {
+            PaymentCategoryCache.getInstance().startListening();
+        }
     }
 
     private static void createUsersTable(Connection conn) throws SQLException {
@@ -51,13 +87,44 @@ public class DatabaseInitializer {
             )
             """;
 
+        // Lets PaymentCategoryCache reload as soon as categories change
+        String notifyFunctionSql = """
+            CREATE OR REPLACE FUNCTION payment_categories_notify() RETURNS TRIGGER AS $$
+            BEGIN
+                PERFORM pg_notify('payment_categories_changed', TG_OP);
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql
+            """;
+
         try (Statement stmt = conn.createStatement()) {
             stmt.execute(sql);
+            stmt.execute(notifyFunctionSql);
+            stmt.execute("DROP TRIGGER IF EXISTS payment_categories_notify ON payment_categories");
+            stmt.execute("CREATE TRIGGER payment_categories_notify AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE "
+                    + "ON payment_categories FOR EACH STATEMENT EXECUTE FUNCTION payment_categories_notify()");
             System.out.println("Payment categories table created/verified.");
         }
     }
 
     private static void createPaymentsTable(Connection conn) throws SQLException {
+        boolean exists;
+        try (Statement stmt = conn.createStatement();
+             var rs = stmt.executeQuery("SELECT to_regclass('payments') IS NOT NULL")) {
+            exists = rs.next() && rs.getBoolean(1);
+        }
+
+        if (PARTITION_PAYMENTS && !exists) {
+            createPartitionedPaymentsTable(conn);
+        } else {
+            createPlainPaymentsTable(conn);
+            if (PARTITION_PAYMENTS && !PaymentPartitionManager.isPartitioned(conn)) {
+                System.out.println("Payments table already exists unpartitioned; db.payments.partitioned only applies to a new table.");
+            }
+        }
+    }
+
+    private static void createPlainPaymentsTable(Connection conn) throws SQLException {
         String sql = """
     CREATE TABLE IF NOT EXISTS payments (
         id BIGSERIAL PRIMARY KEY,
@@ -83,6 +150,173 @@ public class DatabaseInitializer {
         }
     }
 
+    /**
+     * Range-partitioned variant of the payments table. The primary key has to include the
+     * partition key, and a partitioned table cannot enforce a UNIQUE constraint on
+     * reference_number alone, so global uniqueness is kept in payment_reference_numbers,
+     * maintained by a row trigger.
+     */
+    private static void createPartitionedPaymentsTable(Connection conn) throws SQLException {
+        String sql = """
+    CREATE TABLE IF NOT EXISTS payments (
+        id BIGSERIAL,
+        payment_type VARCHAR(20) NOT NULL CHECK (payment_type IN ('INCOMING', 'OUTGOING')),
+        amount DECIMAL(15, 2) NOT NULL,
+        currency VARCHAR(10) NOT NULL DEFAULT 'USD',
+        description TEXT,
+        reference_number VARCHAR(100),
+        status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+        category_id INTEGER REFERENCES payment_categories(id),
+        created_by UUID REFERENCES users(id),
+        payment_date TIMESTAMP NOT NULL,
+        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+        client_vendor_name VARCHAR(255),
+        account_details TEXT,
+        PRIMARY KEY (id, payment_date)
+    ) PARTITION BY RANGE (payment_date)
+    """;
+
+        String referencesSql = """
+    CREATE TABLE IF NOT EXISTS payment_reference_numbers (
+        reference_number VARCHAR(100) PRIMARY KEY
+    )
+    """;
+
+        String triggerFunctionSql = """
+    CREATE OR REPLACE FUNCTION payment_reference_numbers_sync() RETURNS TRIGGER AS $$
+    BEGIN
+        IF TG_OP = 'INSERT' THEN
+            IF NEW.reference_number IS NOT NULL THEN
+                INSERT INTO payment_reference_numbers (reference_number) VALUES (NEW.reference_number);
+            END IF;
+            RETURN NEW;
+        END IF;
+        DELETE FROM payment_reference_numbers WHERE reference_number = OLD.reference_number;
+        RETURN OLD;
+    END;
+    $$ LANGUAGE plpgsql
+    """;
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+            stmt.execute("CREATE TABLE IF NOT EXISTS payments_default PARTITION OF payments DEFAULT");
+            stmt.execute(referencesSql);
+            stmt.execute(triggerFunctionSql);
+            stmt.execute("DROP TRIGGER IF EXISTS payments_reference_numbers_sync ON payments");
+            stmt.execute("CREATE TRIGGER payments_reference_numbers_sync AFTER INSERT OR DELETE ON payments "
+                    + "FOR EACH ROW EXECUTE FUNCTION payment_reference_numbers_sync()");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_payments_reference_number ON payments (reference_number)");
+            System.out.println("Partitioned payments table created/verified.");
+        }
+    }
+
+    private static void createPaymentsIndexes(Connection conn) throws SQLException {
+        String[] indexes = {
+                "CREATE INDEX IF NOT EXISTS idx_payments_created_at_id ON payments (created_at DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_payments_status_created_at_id ON payments (status, created_at DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_payments_type_created_at_id ON payments (payment_type, created_at DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_payments_date_type_amount ON payments (payment_date, payment_type) INCLUDE (amount)",
+                "CREATE INDEX IF NOT EXISTS idx_payments_date_id ON payments (payment_date, id)",
+                "CREATE INDEX IF NOT EXISTS idx_payments_category_created_at_id ON payments (category_id, created_at DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_payments_created_by_created_at_id ON payments (created_by, created_at DESC, id DESC)",
+                // Incremental loads of the report snapshot (updated_at >= watermark)
+                "CREATE INDEX IF NOT EXISTS idx_payments_updated_at ON payments (updated_at)",
+                // Case-insensitive vendor/client name prefix search (LOWER(...) LIKE 'abc%')
+                "CREATE INDEX IF NOT EXISTS idx_payments_vendor_name_prefix ON payments (LOWER(client_vendor_name) text_pattern_ops)"
+        };
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String index : indexes) {
+                stmt.execute(index);
+            }
+            System.out.println("Payments indexes created/verified.");
+        }
+    }
+
+    /**
+     * Log of deleted payment ids, filled by a row trigger, so that incremental loads of the
+     * report snapshot can drop deleted rows the way they pick up changed ones by updated_at.
+     */
+    private static void createPaymentDeletionsTable(Connection conn) throws SQLException {
+        String sql = """
+    CREATE TABLE IF NOT EXISTS payment_deletions (
+        payment_id BIGINT NOT NULL,
+        deleted_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+    )
+    """;
+
+        String triggerFunctionSql = """
+    CREATE OR REPLACE FUNCTION payment_deletions_log() RETURNS TRIGGER AS $$
+    BEGIN
+        INSERT INTO payment_deletions (payment_id) VALUES (OLD.id);
+        RETURN OLD;
+    END;
+    $$ LANGUAGE plpgsql
+    """;
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_payment_deletions_deleted_at ON payment_deletions (deleted_at)");
+            stmt.execute(triggerFunctionSql);
+            stmt.execute("DROP TRIGGER IF EXISTS payments_deletions_log ON payments");
+            stmt.execute("CREATE TRIGGER payments_deletions_log AFTER DELETE ON payments "
+                    + "FOR EACH ROW EXECUTE FUNCTION payment_deletions_log()");
+            System.out.println("Payment deletions table created/verified.");
+        }
+    }
+
+    private static void createPaymentDailyRollupsTable(Connection conn) throws SQLException {
+        String sql = """
+    CREATE TABLE IF NOT EXISTS payment_daily_rollups (
+        day DATE NOT NULL,
+        payment_type VARCHAR(20) NOT NULL,
+        status VARCHAR(20) NOT NULL,
+        category_id INTEGER NOT NULL DEFAULT 0,
+        currency VARCHAR(10) NOT NULL,
+        payment_count BIGINT NOT NULL DEFAULT 0,
+        total_amount DECIMAL(20, 2) NOT NULL DEFAULT 0,
+        PRIMARY KEY (day, payment_type, status, category_id, currency)
+    )
+    """;
+
+        // Rollups are only maintained from the moment the table exists, so backfill
+        // once if it starts out empty while payments are already present.
+        String backfillSql = """
+    INSERT INTO payment_daily_rollups (day, payment_type, status, category_id, currency, payment_count, total_amount)
+    SELECT CAST(payment_date AS DATE), payment_type, status, COALESCE(category_id, 0), currency, COUNT(*), SUM(amount)
+    FROM payments
+    WHERE NOT EXISTS (SELECT 1 FROM payment_daily_rollups)
+    GROUP BY 1, 2, 3, 4, 5
+    """;
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+            int backfilled = stmt.executeUpdate(backfillSql);
+            if (backfilled > 0) {
+                System.out.println("Payment daily rollups backfilled: " + backfilled + " rows.");
+            }
+            System.out.println("Payment daily rollups table created/verified.");
+        }
+    }
+
+    private static void createPaymentDailySketchesTable(Connection conn) throws SQLException {
+        // Rebuilt on demand by reports, so there is nothing to backfill
+        String sql = """
+    CREATE TABLE IF NOT EXISTS payment_daily_sketches (
+        day DATE PRIMARY KEY,
+        payment_count BIGINT NOT NULL,
+        sketch BYTEA NOT NULL,
+        built_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    )
+    """;
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+            System.out.println("Payment daily sketches table created/verified.");
+        }
+    }
+
     // In DatabaseInitializer.java, update the createAuditLogsTable method:
     private static void createAuditLogsTable(Connection conn) throws SQLException {
         String sql = """
@@ -107,24 +341,19 @@ public class DatabaseInitializer {
 
     private static void insertDefaultCategories(Connection conn) throws SQLException {
         String checkSql = "SELECT COUNT(*) FROM payment_categories";
-        String insertSql = """
-            INSERT INTO payment_categories (name, description) VALUES 
-            ('Office Supplies', 'General office supplies and equipment'),
-            ('Travel & Entertainment', 'Business travel and client entertainment expenses'),
-            ('Utilities', 'Office utilities like electricity, internet, phone'),
-            ('Professional Services', 'Consulting, legal, accounting services'),
-            ('Marketing & Advertising', 'Marketing campaigns and advertising expenses'),
-            ('Software & Subscriptions', 'Software licenses and subscription services'),
-            ('Maintenance & Repairs', 'Equipment and facility maintenance'),
-            ('Employee Benefits', 'Health insurance, bonuses, and other benefits'),
-            ('Client Payments', 'Payments received from clients'),
-            ('Vendor Payments', 'Payments made to vendors and suppliers')
-            """;
+        String insertSql = "INSERT INTO payment_categories (name, description) VALUES (?, ?)";
 
         try (Statement stmt = conn.createStatement()) {
             var rs = stmt.executeQuery(checkSql);
             if (rs.next() && rs.getInt(1) == 0) {
-                stmt.execute(insertSql);
+                try (PreparedStatement insert = conn.prepareStatement(insertSql)) {
+                    for (String[] category : DEFAULT_CATEGORIES) {
+                        insert.setString(1, category[0]);
+                        insert.setString(2, category[1]);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
                 System.out.println("Default payment categories inserted.");
             } else {
                 System.out.println("Payment categories already exist.");
@@ -134,13 +363,16 @@ public class DatabaseInitializer {
 
     public static void dropAllTables() {
         try (Connection conn = DatabaseConnectionManager.getConnection()) {
-            String[] tables = {"audit_logs", "payments", "payment_categories", "users"};
+            String[] tables = {"audit_logs", "payment_daily_rollups", "payment_daily_sketches", "payment_reference_numbers", "payment_deletions", "payments", "payment_categories", "users"};
 
             try (Statement stmt = conn.createStatement()) {
                 for (String table : tables) {
                     stmt.execute("DROP TABLE IF EXISTS " + table + " CASCADE");
                     System.out.println("Dropped table: " + table);
                 }
+                stmt.execute("DROP FUNCTION IF EXISTS payment_reference_numbers_sync()");
+                stmt.execute("DROP FUNCTION IF EXISTS payment_deletions_log()");
+                stmt.execute("DROP FUNCTION IF EXISTS payment_categories_notify()");
             }
             System.out.println("All tables dropped successfully!");
         } catch (SQLException e) {
@@ -0,0 +1,92 @@
+package paymentManagementSystem.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Approximate distinct count of strings in 2^14 one-byte registers (16 KiB), with a
+ * standard error of about 0.8% and exact small counts via linear counting. Two sketches
+ * merge by taking the larger register, so per-day sketches combine into any range.
+ * Serialized sparsely while most registers are empty. Not thread-safe.
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 14;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    public void add(String value) {
+        long hash = BloomFilter.hash64(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Leading zeros of the remaining bits, plus one; the guard bit caps it
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        int used = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                used++;
+            }
+        }
+        // Sparse entries take 3 bytes each, so they pay off below a third of the registers
+        if (used < REGISTERS / 3) {
+            out.writeInt(used);
+            for (int i = 0; i < REGISTERS; i++) {
+                if (registers[i] != 0) {
+                    out.writeShort(i);
+                    out.writeByte(registers[i]);
+                }
+            }
+        } else {
+            out.writeInt(-1);
+            out.write(registers);
+        }
+    }
+
+    public static HyperLogLog read(DataInput in) throws IOException {
+        HyperLogLog sketch = new HyperLogLog();
+        int used = in.readInt();
+        if (used < 0) {
+            in.readFully(sketch.registers);
+        } else {
+            // One bulk read; entries are a big-endian short index and a byte rank
+            byte[] entries = new byte[used * 3];
+            in.readFully(entries);
+            for (int i = 0; i < entries.length; i += 3) {
+                sketch.registers[((entries[i] & 0xFF) << 8) | (entries[i + 1] & 0xFF)] = entries[i + 2];
+            }
+        }
+        return sketch;
+    }
+}
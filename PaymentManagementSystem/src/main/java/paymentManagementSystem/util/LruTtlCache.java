@@ -0,0 +1,162 @@
+package paymentManagementSystem.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded concurrent cache with per-entry expiry and least-recently-used eviction.
+ * <p>
+ * Reads are a {@link ConcurrentHashMap} lookup plus a volatile write of the access time,
+ * so they never lock. When a put takes the cache over {@code maxSize}, the writer that
+ * wins the eviction lock removes the least recently used entries in one pass, down to
+ * 90% of {@code maxSize}, so the sorting cost is amortized over many puts. Eviction sorts a
+ * snapshot of the access times, since reads keep changing them. Expired entries are
+ * removed lazily when read and during eviction.
+ */
+public class LruTtlCache<K, V> {
+
+    private final ConcurrentHashMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final int maxSize;
+    private final long defaultTtlNanos;
+
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public LruTtlCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache max size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.defaultTtlNanos = ttlMillis * 1_000_000L;
+    }
+
+    /**
+     * Returns the cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - node.expiresAtNanos >= 0) {
+            if (entries.remove(key, node)) {
+                expirations.incrementAndGet();
+            }
+            return null;
+        }
+        node.lastAccessNanos = now;
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos / 1_000_000L);
+    }
+
+    public void put(K key, V value, long ttlMillis) {
+        long now = System.nanoTime();
+        entries.put(key, new Node<>(value, now, now + ttlMillis * 1_000_000L));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes the entry only if it still holds {@code value} (compared by identity), so a
+     * value put by someone else in the meantime is kept.
+     */
+    public void invalidate(K key, V value) {
+        entries.computeIfPresent(key, (k, node) -> node.value == value ? null : node);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getExpirationCount() {
+        return expirations.get();
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (entries.size() <= maxSize) {
+                return;
+            }
+            long now = System.nanoTime();
+            List<Map.Entry<K, Node<V>>> live = new ArrayList<>(entries.size());
+            long[] idleNanos = new long[entries.size()];
+            for (Map.Entry<K, Node<V>> entry : entries.entrySet()) {
+                if (now - entry.getValue().expiresAtNanos >= 0) {
+                    if (entries.remove(entry.getKey(), entry.getValue())) {
+                        expirations.incrementAndGet();
+                    }
+                } else {
+                    if (live.size() == idleNanos.length) {
+                        idleNanos = Arrays.copyOf(idleNanos, idleNanos.length * 2 + 1);
+                    }
+                    idleNanos[live.size()] = now - entry.getValue().lastAccessNanos;
+                    live.add(entry);
+                }
+            }
+
+            int target = Math.max(1, maxSize - maxSize / 10);
+            int excess = live.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+            // Evict the entries idle longest: at least as idle as the excess-th longest
+            long[] sorted = Arrays.copyOf(idleNanos, live.size());
+            Arrays.sort(sorted);
+            long cutoff = sorted[live.size() - excess];
+            int tiesToEvict = 0;
+            for (int i = live.size() - excess; i < live.size() && sorted[i] == cutoff; i++) {
+                tiesToEvict++;
+            }
+            for (int i = 0; i < live.size(); i++) {
+                if (idleNanos[i] < cutoff || (idleNanos[i] == cutoff && tiesToEvict-- <= 0)) {
+                    continue;
+                }
+                Map.Entry<K, Node<V>> entry = live.get(i);
+                // Conditional remove, so an entry replaced since the snapshot is kept
+                if (entries.remove(entry.getKey(), entry.getValue())) {
+                    evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Node<V> {
+        private final V value;
+        private final long expiresAtNanos;
+        private volatile long lastAccessNanos;
+
+        private Node(V value, long lastAccessNanos, long expiresAtNanos) {
+            this.value = value;
+            this.lastAccessNanos = lastAccessNanos;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package paymentManagementSystem.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates monthly range partitions of {@code payments} on {@code payment_date}.
+ * <p>
+ * Rows for months without a partition land in {@code payments_default}. A month's
+ * partition is created as a standalone table, any rows for that month are moved out of
+ * the default partition, and the table is then attached, so partitions can be added for
+ * past months as well as future ones. Does nothing when {@code payments} is a regular table.
+ */
+public class PaymentPartitionManager {
+
+    private static final int MONTHS_AHEAD = PropertiesUtil.getIntProperty("db.payments.partitionMonthsAhead", 3);
+    private static final long MAINTENANCE_INTERVAL_HOURS = PropertiesUtil.getLongProperty("db.payments.partitionMaintenanceHours", 24);
+
+    private static ScheduledExecutorService scheduler;
+
+    public static boolean isPartitioned(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT relkind FROM pg_class WHERE oid = to_regclass('payments')")) {
+            return rs.next() && "p".equals(rs.getString(1));
+        }
+    }
+
+    /**
+     * Ensures partitions exist from the current month through {@code db.payments.partitionMonthsAhead}
+     * months ahead, and for every month that currently has rows in the default partition.
+     */
+    public static void ensurePartitions() {
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            if (!isPartitioned(conn)) {
+                return;
+            }
+
+            List<YearMonth> months = new ArrayList<>();
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= MONTHS_AHEAD; i++) {
+                months.add(current.plusMonths(i));
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                         "SELECT DISTINCT CAST(date_trunc('month', payment_date) AS DATE) FROM payments_default")) {
+                while (rs.next()) {
+                    YearMonth month = YearMonth.from(rs.getDate(1).toLocalDate());
+                    if (!months.contains(month)) {
+                        months.add(month);
+                    }
+                }
+            }
+
+            for (YearMonth month : months) {
+                createPartition(conn, month);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create payment partitions", e);
+        }
+    }
+
+    /**
+     * Runs {@link #ensurePartitions()} periodically on a daemon thread so the months ahead
+     * always have partitions while the application stays up.
+     */
+    public static synchronized void startMaintenance() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "payment-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                ensurePartitions();
+            } catch (RuntimeException e) {
+                System.err.println("Payment partition maintenance failed: " + e.getMessage());
+            }
+        }, MAINTENANCE_INTERVAL_HOURS, MAINTENANCE_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    public static synchronized void stopMaintenance() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static void createPartition(Connection conn, YearMonth month) throws SQLException {
+        String partition = String.format("payments_y%04dm%02d", month.getYear(), month.getMonthValue());
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT to_regclass('" + partition + "') IS NOT NULL")) {
+            if (rs.next() && rs.getBoolean(1)) {
+                return;
+            }
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE " + partition + " (LIKE payments INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            stmt.execute("WITH moved AS (DELETE FROM payments_default WHERE payment_date >= '" + from
+                    + "' AND payment_date < '" + to + "' RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+            stmt.execute("ALTER TABLE payments ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            // Deleting from the default partition fired the reference-number delete trigger
+            stmt.execute("INSERT INTO payment_reference_numbers (reference_number) SELECT reference_number FROM "
+                    + partition + " WHERE reference_number IS NOT NULL ON CONFLICT DO NOTHING");
+            conn.commit();
+            System.out.println("Created payments partition " + partition + ".");
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
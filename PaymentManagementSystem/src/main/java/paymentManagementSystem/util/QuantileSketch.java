@@ -0,0 +1,149 @@
+package paymentManagementSystem.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Approximate quantiles of positive values with 1% relative error, in the style of
+ * DDSketch: each value is counted in the logarithmic bucket {@code ceil(log_gamma(v))},
+ * so any quantile is within 1% of a value of that rank whatever the distribution. Buckets
+ * are plain counts, so sketches merge exactly by adding them; amounts from a cent to
+ * trillions span under 2,000 buckets. Values of zero or less share one bucket. Min and
+ * max are kept exactly. Not thread-safe.
+ */
+public class QuantileSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (value <= 0) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        ensureCapacity(index, index);
+        counts[index - offset]++;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * The value at quantile {@code q} (0 to 1), or NaN when the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double rank = q * (count - 1);
+        long seen = zeroCount;
+        if (rank < seen) {
+            return min;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double estimate = 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(zeroCount);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        int used = 0;
+        for (long bucket : counts) {
+            if (bucket != 0) {
+                used++;
+            }
+        }
+        out.writeInt(used);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                out.writeInt(offset + i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    public static QuantileSketch read(DataInput in) throws IOException {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.count = in.readLong();
+        sketch.zeroCount = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        int used = in.readInt();
+        for (int i = 0; i < used; i++) {
+            int index = in.readInt();
+            sketch.ensureCapacity(index, index);
+            sketch.counts[index - sketch.offset] = in.readLong();
+        }
+        return sketch;
+    }
+
+    private void ensureCapacity(int lowIndex, int highIndex) {
+        if (counts.length == 0) {
+            // Leave room on both sides; most values of a day fall within a few dozen buckets
+            offset = lowIndex - 32;
+            counts = new long[highIndex - lowIndex + 65];
+            return;
+        }
+        if (lowIndex >= offset && highIndex < offset + counts.length) {
+            return;
+        }
+        int newLow = Math.min(offset, lowIndex);
+        int newHigh = Math.max(offset + counts.length - 1, highIndex);
+        int length = Math.max(newHigh - newLow + 1, counts.length * 2);
+        if (lowIndex < offset) {
+            // Grow towards the side that overflowed
+            newLow = newHigh - length + 1;
+        }
+        long[] grown = new long[length];
+        System.arraycopy(counts, 0, grown, offset - newLow, counts.length);
+        counts = grown;
+        offset = newLow;
+    }
+}
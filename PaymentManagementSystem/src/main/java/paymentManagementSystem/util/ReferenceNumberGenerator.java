@@ -0,0 +1,62 @@
+package paymentManagementSystem.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style unique id generator for payment reference numbers.
+ * <p>
+ * Each id packs 41 bits of milliseconds since {@link #EPOCH_MILLIS}, a 10-bit node id and a
+ * 12-bit per-millisecond sequence into a positive 64-bit long. The last issued
+ * (timestamp, sequence) pair lives in a single {@link AtomicLong} and is advanced with CAS,
+ * so generation is lock-free. Ids are strictly increasing per node: if the wall clock goes
+ * backwards, or more than 4096 ids are needed within one millisecond, the generator keeps
+ * counting forward from the last issued timestamp instead of repeating or waiting.
+ * Uniqueness across processes requires a distinct {@code app.nodeId} per running instance.
+ */
+public class ReferenceNumberGenerator {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final ReferenceNumberGenerator INSTANCE =
+            new ReferenceNumberGenerator(PropertiesUtil.getIntProperty("app.nodeId", 0));
+
+    private final long nodeBits;
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    public ReferenceNumberGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public static ReferenceNumberGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            // Same or earlier millisecond (or sequence exhausted): take the next slot after
+            // the last one, which rolls into the following millisecond when needed.
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+            }
+        }
+    }
+
+    public String nextReference(String prefix) {
+        return prefix + nextId();
+    }
+}
@@ -0,0 +1,338 @@
+package paymentManagementSystem.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes an XLSX workbook straight into a zip stream, one cell at a time, so a sheet of a
+ * million rows needs no more memory than a sheet of ten.
+ * <p>
+ * Each sheet's XML is written as its rows arrive; the parts that describe the whole
+ * workbook (sheet list, shared strings, styles, content types) are written on
+ * {@link #close}. Strings are written inline unless they go through
+ * {@link #sharedString}, which keeps one table entry per distinct value and is meant for
+ * low-cardinality columns such as status or currency. Amounts and timestamps are numeric
+ * cells with a number or date format, so Excel can sum and sort them.
+ * Not thread-safe.
+ */
+public class XlsxWriter implements Closeable {
+
+    /** Rows per sheet supported by Excel, header included. */
+    public static final int MAX_ROWS_PER_SHEET = 1_048_576;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    /** Days from Excel's day zero (1899-12-30) to 1970-01-01. */
+    private static final long EXCEL_EPOCH_OFFSET_DAYS = 25569;
+
+    private static final int STYLE_AMOUNT = 1;
+    private static final int STYLE_DATE_TIME = 2;
+    private static final int STYLE_HEADER = 3;
+
+    private final ZipOutputStream zip;
+    private final Writer out;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final Map<String, Integer> sharedStrings = new HashMap<>();
+    private final List<String> sharedStringValues = new ArrayList<>();
+    private long sharedStringCount;
+
+    private boolean inSheet;
+    private int rowNumber;
+
+    public XlsxWriter(OutputStream target) {
+        this.zip = new ZipOutputStream(new BufferedOutputStream(target, BUFFER_SIZE));
+        // Sheet XML is repetitive enough that the fastest level still compresses it well, at about half the CPU
+        zip.setLevel(Deflater.BEST_SPEED);
+        this.out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Starts a new sheet, ending the current one. With {@code freezeHeader} the first row
+     * stays visible while scrolling.
+     */
+    public void startSheet(String name, boolean freezeHeader) throws IOException {
+        endSheet();
+        sheetNames.add(name);
+        beginEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml");
+        out.write(XML_DECLARATION);
+        out.write("<worksheet xmlns=\"" + MAIN_NS + "\">");
+        if (freezeHeader) {
+            out.write("<sheetViews><sheetView workbookViewId=\"0\">"
+                    + "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>"
+                    + "</sheetView></sheetViews>");
+        }
+        out.write("<sheetData>");
+        inSheet = true;
+        rowNumber = 0;
+    }
+
+    /**
+     * Rows written to the current sheet so far, including the one in progress.
+     */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public void startRow() throws IOException {
+        rowNumber++;
+        out.write("<row r=\"");
+        out.write(Integer.toString(rowNumber));
+        out.write("\">");
+    }
+
+    public void endRow() throws IOException {
+        out.write("</row>");
+    }
+
+    public void headerRow(String... titles) throws IOException {
+        startRow();
+        for (String title : titles) {
+            out.write("<c s=\"" + STYLE_HEADER + "\" t=\"inlineStr\"><is>");
+            writeText(title);
+            out.write("</is></c>");
+        }
+        endRow();
+    }
+
+    public void inlineString(String value) throws IOException {
+        if (value == null) {
+            emptyCell();
+            return;
+        }
+        out.write("<c t=\"inlineStr\"><is>");
+        writeText(value);
+        out.write("</is></c>");
+    }
+
+    public void sharedString(String value) throws IOException {
+        if (value == null) {
+            emptyCell();
+            return;
+        }
+        Integer index = sharedStrings.get(value);
+        if (index == null) {
+            index = sharedStringValues.size();
+            sharedStrings.put(value, index);
+            sharedStringValues.add(value);
+        }
+        sharedStringCount++;
+        out.write("<c t=\"s\"><v>");
+        out.write(Integer.toString(index));
+        out.write("</v></c>");
+    }
+
+    public void number(long value) throws IOException {
+        out.write("<c><v>");
+        out.write(Long.toString(value));
+        out.write("</v></c>");
+    }
+
+    public void number(Long value) throws IOException {
+        if (value == null) {
+            emptyCell();
+        } else {
+            number(value.longValue());
+        }
+    }
+
+    public void amount(BigDecimal value) throws IOException {
+        if (value == null) {
+            emptyCell();
+            return;
+        }
+        out.write("<c s=\"" + STYLE_AMOUNT + "\"><v>");
+        out.write(value.toPlainString());
+        out.write("</v></c>");
+    }
+
+    public void dateTime(LocalDateTime value) throws IOException {
+        if (value == null) {
+            emptyCell();
+            return;
+        }
+        double serial = value.toLocalDate().toEpochDay() + EXCEL_EPOCH_OFFSET_DAYS
+                + value.toLocalTime().toSecondOfDay() / 86400.0;
+        out.write("<c s=\"" + STYLE_DATE_TIME + "\"><v>");
+        out.write(Double.toString(serial));
+        out.write("</v></c>");
+    }
+
+    public void emptyCell() throws IOException {
+        out.write("<c/>");
+    }
+
+    /**
+     * Ends the current sheet and writes the workbook-level parts.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            endSheet();
+            writeSharedStrings();
+            writeStyles();
+            writeWorkbook();
+            writeContentTypes();
+            out.flush();
+            zip.finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void endSheet() throws IOException {
+        if (!inSheet) {
+            return;
+        }
+        out.write("</sheetData></worksheet>");
+        endEntry();
+        inSheet = false;
+    }
+
+    private void writeSharedStrings() throws IOException {
+        beginEntry("xl/sharedStrings.xml");
+        out.write(XML_DECLARATION);
+        out.write("<sst xmlns=\"" + MAIN_NS + "\" count=\"" + sharedStringCount
+                + "\" uniqueCount=\"" + sharedStringValues.size() + "\">");
+        for (String value : sharedStringValues) {
+            out.write("<si>");
+            writeText(value);
+            out.write("</si>");
+        }
+        out.write("</sst>");
+        endEntry();
+    }
+
+    private void writeStyles() throws IOException {
+        beginEntry("xl/styles.xml");
+        out.write(XML_DECLARATION);
+        out.write("<styleSheet xmlns=\"" + MAIN_NS + "\">"
+                + "<numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"yyyy-mm-dd hh:mm\"/></numFmts>"
+                + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+                + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+                + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"4\">"
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"4\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>"
+                + "</cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>");
+        endEntry();
+    }
+
+    private void writeWorkbook() throws IOException {
+        beginEntry("xl/workbook.xml");
+        out.write(XML_DECLARATION);
+        out.write("<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\"><sheets>");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            out.write("<sheet name=\"");
+            writeEscaped(sheetNames.get(i), true);
+            out.write("\" sheetId=\"" + (i + 1) + "\" r:id=\"rId" + (i + 1) + "\"/>");
+        }
+        out.write("</sheets></workbook>");
+        endEntry();
+
+        beginEntry("xl/_rels/workbook.xml.rels");
+        out.write(XML_DECLARATION);
+        out.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            out.write("<Relationship Id=\"rId" + (i + 1) + "\" Type=\"" + REL_NS + "/worksheet\" Target=\"worksheets/sheet" + (i + 1) + ".xml\"/>");
+        }
+        int next = sheetNames.size() + 1;
+        out.write("<Relationship Id=\"rId" + next + "\" Type=\"" + REL_NS + "/styles\" Target=\"styles.xml\"/>");
+        out.write("<Relationship Id=\"rId" + (next + 1) + "\" Type=\"" + REL_NS + "/sharedStrings\" Target=\"sharedStrings.xml\"/>");
+        out.write("</Relationships>");
+        endEntry();
+
+        beginEntry("_rels/.rels");
+        out.write(XML_DECLARATION);
+        out.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        endEntry();
+    }
+
+    private void writeContentTypes() throws IOException {
+        String sheetType = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+        beginEntry("[Content_Types].xml");
+        out.write(XML_DECLARATION);
+        out.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"" + sheetType + "sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/styles.xml\" ContentType=\"" + sheetType + "styles+xml\"/>"
+                + "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"" + sheetType + "sharedStrings+xml\"/>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            out.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\" ContentType=\"" + sheetType + "worksheet+xml\"/>");
+        }
+        out.write("</Types>");
+        endEntry();
+    }
+
+    private void beginEntry(String name) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+    }
+
+    private void endEntry() throws IOException {
+        out.flush();
+        zip.closeEntry();
+    }
+
+    private void writeText(String value) throws IOException {
+        boolean preserve = !value.isEmpty()
+                && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+        out.write(preserve ? "<t xml:space=\"preserve\">" : "<t>");
+        writeEscaped(value, false);
+        out.write("</t>");
+    }
+
+    /**
+     * Escapes markup characters and drops the control characters and U+FFFE/U+FFFF that
+     * XML 1.0 cannot carry.
+     */
+    private void writeEscaped(String value, boolean attribute) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if (c == '"' && attribute) {
+                replacement = "&quot;";
+            } else if ((c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == '\uFFFE' || c == '\uFFFF') {
+                replacement = "";
+            } else {
+                continue;
+            }
+            out.write(value, start, i - start);
+            out.write(replacement);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+    }
+}
@@ -0,0 +1,164 @@
+package paymentManagementSystem.dao;
+
+import org.junit.Before;
+import org.junit.Test;
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.enums.UserRole;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CachingUserDAOTest {
+
+    private CountingUserDAO delegate;
+    private CachingUserDAO cache;
+
+    @Before
+    public void setUp() {
+        delegate = new CountingUserDAO();
+        cache = new CachingUserDAO(delegate, 100, 60_000, 60_000);
+    }
+
+    @Test
+    public void repeatedLookupsAreServedFromCache() {
+        User user = cache.save(user("alice", "alice@example.com"));
+
+        assertEquals("alice", cache.findById(user.getId()).get().getUsername());
+        assertEquals("alice", cache.findById(user.getId()).get().getUsername());
+        assertEquals("alice", cache.findByEmail("alice@example.com").get().getUsername());
+        assertTrue(cache.existsByEmail("alice@example.com"));
+
+        assertEquals(1, delegate.findByIdCalls.get());
+        assertEquals(0, delegate.findByEmailCalls.get());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void callersGetCopies() {
+        User user = cache.save(user("alice", "alice@example.com"));
+        cache.findById(user.getId()).get().setEmail("changed@example.com");
+
+        assertEquals("alice@example.com", cache.findById(user.getId()).get().getEmail());
+    }
+
+    @Test
+    public void updateInvalidatesUserAndOldEmail() {
+        User user = cache.save(user("alice", "alice@example.com"));
+        cache.findByEmail("alice@example.com");
+
+        User changed = cache.findById(user.getId()).get();
+        changed.setEmail("alice@work.example.com");
+        cache.update(changed);
+
+        assertEquals("alice@work.example.com", cache.findById(user.getId()).get().getEmail());
+        assertFalse(cache.findByEmail("alice@example.com").isPresent());
+        assertEquals(user.getId(), cache.findByEmail("alice@work.example.com").get().getId());
+    }
+
+    @Test
+    public void absentEmailIsCachedUntilSaved() {
+        assertFalse(cache.findByEmail("bob@example.com").isPresent());
+        assertFalse(cache.existsByEmail("bob@example.com"));
+        assertEquals(1, delegate.findByEmailCalls.get());
+
+        cache.save(user("bob", "bob@example.com"));
+        assertTrue(cache.existsByEmail("bob@example.com"));
+        assertEquals("bob", cache.findByEmail("bob@example.com").get().getUsername());
+    }
+
+    @Test
+    public void deleteInvalidatesUser() {
+        User user = cache.save(user("alice", "alice@example.com"));
+        cache.findById(user.getId());
+
+        cache.delete(user.getId());
+        assertFalse(cache.findById(user.getId()).isPresent());
+        assertFalse(cache.findByEmail("alice@example.com").isPresent());
+    }
+
+    @Test
+    public void readOverlappingWriteIsNotCached() throws InterruptedException {
+        User user = cache.save(user("alice", "alice@example.com"));
+        delegate.pauseNextFindById();
+
+        AtomicReference<Optional<User>> staleRead = new AtomicReference<>();
+        Thread reader = new Thread(() -> staleRead.set(cache.findById(user.getId())));
+        reader.start();
+        delegate.readDone.await();
+
+        // The write commits while the slow read still holds the old row
+        User changed = cache.findById(user.getId()).get();
+        changed.setEmail("alice@work.example.com");
+        cache.update(changed);
+        delegate.proceed.countDown();
+        reader.join();
+
+        assertEquals("alice@example.com", staleRead.get().get().getEmail());
+        assertEquals("alice@work.example.com", cache.findById(user.getId()).get().getEmail());
+    }
+
+    @Test
+    public void nullEmailFindsNothing() {
+        cache.save(user("alice", "alice@example.com"));
+        assertFalse(cache.findByEmail(null).isPresent());
+        assertFalse(cache.existsByEmail(null));
+    }
+
+    @Test
+    public void invalidateAllForcesReload() {
+        User user = cache.save(user("alice", "alice@example.com"));
+        cache.findById(user.getId());
+        cache.invalidateAll();
+        cache.findById(user.getId());
+        assertEquals(2, delegate.findByIdCalls.get());
+    }
+
+    private static User user(String username, String email) {
+        return new User(null, username, "hash", email, UserRole.VIEWER, "1 Main St", "555-0100", "Springfield");
+    }
+
+    /**
+     * In-memory DAO that counts reads and can hold one findById after it has read the row.
+     */
+    private static final class CountingUserDAO extends InMemoryUserDAO {
+        final AtomicInteger findByIdCalls = new AtomicInteger();
+        final AtomicInteger findByEmailCalls = new AtomicInteger();
+        final CountDownLatch readDone = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        private volatile boolean pauseNext = false;
+
+        void pauseNextFindById() {
+            pauseNext = true;
+        }
+
+        @Override
+        public Optional<User> findById(UUID id) {
+            findByIdCalls.incrementAndGet();
+            Optional<User> user = super.findById(id);
+            if (pauseNext) {
+                pauseNext = false;
+                readDone.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return user;
+        }
+
+        @Override
+        public Optional<User> findByEmail(String email) {
+            findByEmailCalls.incrementAndGet();
+            return super.findByEmail(email);
+        }
+    }
+}
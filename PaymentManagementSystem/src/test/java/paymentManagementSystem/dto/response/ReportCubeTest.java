@@ -0,0 +1,195 @@
+package paymentManagementSystem.dto.response;
+
+import org.junit.Test;
+import paymentManagementSystem.dto.response.ReportCube.Dimension;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReportCubeTest {
+
+    private static final String[] TYPES = {"INCOMING", "OUTGOING"};
+    private static final String[] STATUSES = {"PENDING", "COMPLETED", "FAILED"};
+    private static final String[] CATEGORIES = {"Salary", "Rent", "Utilities", null};
+    private static final String[] CURRENCIES = {"USD", "EUR"};
+
+    @Test
+    public void rollUpsMatchDirectAggregation() {
+        List<Object[]> payments = payments(20_000);
+        ReportCube cube = cubeOf(payments);
+
+        Dimension[][] groupings = {
+                {},
+                {Dimension.TYPE},
+                {Dimension.CATEGORY, Dimension.STATUS},
+                {Dimension.MONTH, Dimension.CURRENCY},
+                Dimension.values()
+        };
+        for (Dimension[] grouping : groupings) {
+            Map<List<String>, Object[]> direct = aggregate(payments, grouping);
+            List<ReportCube.Row> rows = cube.groupBy(grouping);
+            assertEquals(direct.size(), rows.size());
+            for (ReportCube.Row row : rows) {
+                Object[] measures = direct.get(row.getLabels());
+                assertEquals(row.getLabels().toString(), (long) measures[0], row.getCount());
+                assertAmount((BigDecimal) measures[1], row.getTotal());
+                assertAmount((BigDecimal) measures[2], row.getMin());
+                assertAmount((BigDecimal) measures[3], row.getMax());
+            }
+        }
+        assertEquals(20_000, cube.total().getCount());
+        // Never more cells than coordinate combinations
+        assertTrue(cube.getCellCount() <= TYPES.length * STATUSES.length * CATEGORIES.length * CURRENCIES.length * 12);
+    }
+
+    @Test
+    public void rowsFollowLabelOrderAndMonthsCalendarOrder() {
+        ReportCube cube = ReportCube.builder()
+                .add("OUTGOING", "COMPLETED", "Rent", "USD", YearMonth.of(2024, 11), new BigDecimal("5.00"))
+                .add("INCOMING", "COMPLETED", "Salary", "USD", YearMonth.of(2024, 2), new BigDecimal("7.00"))
+                .add("OUTGOING", "PENDING", null, "USD", YearMonth.of(2023, 12), new BigDecimal("1.00"))
+                .build();
+
+        assertEquals(List.of("Rent", "Salary", "(none)"), cube.getLabels(Dimension.CATEGORY));
+        assertEquals(List.of(List.of("OUTGOING"), List.of("INCOMING")),
+                cube.groupBy(Dimension.TYPE).stream().map(ReportCube.Row::getLabels).toList());
+        assertEquals(List.of("2023-12", "2024-02", "2024-11"),
+                cube.groupBy(Dimension.MONTH).stream().map(row -> row.getLabel(0)).toList());
+    }
+
+    @Test
+    public void whereKeepsOnlyMatchingCells() {
+        List<Object[]> payments = payments(5000);
+        ReportCube cube = cubeOf(payments);
+
+        ReportCube completedRent = cube.where(Dimension.STATUS, "COMPLETED").where(Dimension.CATEGORY, "Rent", "Unknown");
+        long expectedCount = payments.stream().filter(p -> "COMPLETED".equals(p[1]) && "Rent".equals(p[2])).count();
+        assertEquals(expectedCount, completedRent.total().getCount());
+        assertEquals(List.of(List.of("Rent")),
+                completedRent.groupBy(Dimension.CATEGORY).stream().map(ReportCube.Row::getLabels).toList());
+
+        ReportCube none = cube.where(Dimension.CURRENCY, "GBP");
+        assertTrue(none.isEmpty());
+        assertNull(none.total());
+        assertTrue(none.groupBy(Dimension.TYPE).isEmpty());
+    }
+
+    @Test
+    public void preAggregatedGroupsMergeWithPayments() {
+        YearMonth month = YearMonth.of(2024, 5);
+        ReportCube cube = ReportCube.builder()
+                .add("OUTGOING", "COMPLETED", "Rent", "USD", month, 3, new BigDecimal("30.00"), new BigDecimal("5.00"), new BigDecimal("15.00"))
+                .add("OUTGOING", "COMPLETED", "Rent", "USD", month, new BigDecimal("2.50"))
+                .add("OUTGOING", "COMPLETED", "Rent", "USD", month, new BigDecimal("20.00"))
+                .build();
+
+        ReportCube.Row total = cube.total();
+        assertEquals(1, cube.getCellCount());
+        assertEquals(5, total.getCount());
+        assertAmount(new BigDecimal("52.50"), total.getTotal());
+        assertAmount(new BigDecimal("2.50"), total.getMin());
+        assertAmount(new BigDecimal("20.00"), total.getMax());
+    }
+
+    @Test
+    public void breakdownSplitsTypesAndSortsByGrossAmount() {
+        YearMonth march = YearMonth.of(2024, 3);
+        YearMonth january = YearMonth.of(2024, 1);
+        ReportCube cube = ReportCube.builder()
+                .add("INCOMING", "COMPLETED", "Salary", "USD", march, new BigDecimal("100.00"))
+                .add("OUTGOING", "COMPLETED", "Rent", "USD", january, new BigDecimal("400.00"))
+                .add("INCOMING", "COMPLETED", "Rent", "USD", january, new BigDecimal("50.00"))
+                .add("OUTGOING", "FAILED", "Salary", "USD", march, new BigDecimal("10.00"))
+                .build();
+
+        List<BreakdownEntry> byCategory = cube.breakdown(Dimension.CATEGORY);
+        assertEquals("Rent", byCategory.get(0).getName());
+        assertEquals(1, byCategory.get(0).getIncomingCount());
+        assertEquals(1, byCategory.get(0).getOutgoingCount());
+        assertAmount(new BigDecimal("-350.00"), byCategory.get(0).getNetAmount());
+        assertEquals("Salary", byCategory.get(1).getName());
+        assertAmount(new BigDecimal("90.00"), byCategory.get(1).getNetAmount());
+
+        // Months stay in calendar order whatever their amounts
+        List<BreakdownEntry> byMonth = cube.breakdown(Dimension.MONTH);
+        assertEquals(List.of("2024-01", "2024-03"), byMonth.stream().map(BreakdownEntry::getName).toList());
+
+        // A side with no payments reports zero
+        BreakdownEntry failed = cube.breakdown(Dimension.STATUS).stream()
+                .filter(entry -> entry.getName().equals("FAILED")).findFirst().get();
+        assertAmount(BigDecimal.ZERO, failed.getTotalIncoming());
+    }
+
+    @Test
+    public void tooManyLabelsForOneDimensionAreRejected() {
+        ReportCube.Builder builder = ReportCube.builder();
+        YearMonth month = YearMonth.of(2024, 1);
+        for (int i = 0; i < 4096; i++) {
+            builder.add("INCOMING", "COMPLETED", "Category " + i, "USD", month, BigDecimal.ONE);
+        }
+        try {
+            builder.add("INCOMING", "COMPLETED", "One too many", "USD", month, BigDecimal.ONE);
+            fail("a label code overflowed into the next dimension");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(4096, builder.build().getCellCount());
+    }
+
+    private static ReportCube cubeOf(List<Object[]> payments) {
+        ReportCube.Builder builder = ReportCube.builder();
+        for (Object[] p : payments) {
+            builder.add((String) p[0], (String) p[1], (String) p[2], (String) p[3], (YearMonth) p[4], (BigDecimal) p[5]);
+        }
+        return builder.build();
+    }
+
+    // count, total, min, max per group of the given dimensions
+    private static Map<List<String>, Object[]> aggregate(List<Object[]> payments, Dimension[] grouping) {
+        Map<List<String>, Object[]> groups = new TreeMap<>((a, b) -> a.toString().compareTo(b.toString()));
+        for (Object[] p : payments) {
+            List<String> key = new ArrayList<>();
+            for (Dimension dimension : grouping) {
+                Object value = p[dimension.ordinal()];
+                key.add(value == null ? "(none)" : value.toString());
+            }
+            BigDecimal amount = (BigDecimal) p[5];
+            Object[] measures = groups.computeIfAbsent(key, k -> new Object[]{0L, BigDecimal.ZERO, amount, amount});
+            measures[0] = (long) measures[0] + 1;
+            measures[1] = ((BigDecimal) measures[1]).add(amount);
+            measures[2] = ((BigDecimal) measures[2]).min(amount);
+            measures[3] = ((BigDecimal) measures[3]).max(amount);
+        }
+        return groups;
+    }
+
+    // type, status, category, currency, month, amount
+    private static List<Object[]> payments(int count) {
+        Random random = new Random(21);
+        List<Object[]> payments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payments.add(new Object[]{
+                    TYPES[random.nextInt(TYPES.length)],
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    CURRENCIES[random.nextInt(CURRENCIES.length)],
+                    YearMonth.of(2024, 1 + random.nextInt(12)),
+                    BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2)
+            });
+        }
+        return payments;
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual) {
+        assertEquals(expected + " vs " + actual, 0, expected.compareTo(actual));
+    }
+}
@@ -0,0 +1,291 @@
+package paymentManagementSystem.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
+import paymentManagementSystem.dto.response.PageResponse;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InMemoryPaymentRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final UUID[] CREATORS = {new UUID(0, 1), new UUID(0, 2), new UUID(0, 3)};
+    private static final String[] VENDORS = {"Acme Corp", "acme labs", "Globex", "Initech", null};
+
+    private InMemoryPaymentRepository repository;
+    // What the repository should hold, kept up to date by the tests
+    private List<Payment> expected;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryPaymentRepository();
+        expected = new ArrayList<>();
+        Random random = new Random(17);
+        List<Payment> batch = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            batch.add(randomPayment(random, i));
+        }
+        repository.saveAll(batch.subList(0, 1000));
+        for (Payment payment : batch.subList(1000, 2000)) {
+            repository.save(payment);
+        }
+        expected.addAll(batch);
+    }
+
+    @Test
+    public void criteriaMatchBruteForceInEverySortOrder() {
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            PaymentQuery query = randomQuery(random);
+            assertEquals(query.toString(), ids(bruteForce(query)), ids(repository.find(query)));
+        }
+    }
+
+    @Test
+    public void keysetPagesCoverEveryMatchOnce() {
+        PaymentQuery query = PaymentQuery.builder()
+                .statuses(EnumSet.of(PaymentStatus.PENDING, PaymentStatus.COMPLETED))
+                .paymentType(PaymentType.OUTGOING)
+                .build();
+        List<Long> paged = new ArrayList<>();
+        PageResponse<Payment> page = repository.findPage(query, PageRequest.firstPage(37));
+        paged.addAll(ids(page.getItems()));
+        while (page.isHasMore()) {
+            page = repository.findPage(query, page.nextPage(37));
+            assertTrue(page.getItems().size() <= 37);
+            paged.addAll(ids(page.getItems()));
+        }
+        assertEquals(ids(bruteForce(query)), paged);
+    }
+
+    @Test
+    public void pagingRequiresNewestFirstSort() {
+        try {
+            repository.findPage(PaymentQuery.builder().sort(PaymentQuery.Sort.AMOUNT_ASC).build(), PageRequest.firstPage(10));
+            fail("keyset paging accepted another sort");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void statusChangeMovesPaymentBetweenIndexes() {
+        Payment payment = expected.get(10);
+        PaymentStatus newStatus = payment.getStatus() == PaymentStatus.FAILED ? PaymentStatus.COMPLETED : PaymentStatus.FAILED;
+
+        Payment updated = repository.updateStatus(payment.getId(), newStatus);
+        payment.setStatus(newStatus);
+
+        assertEquals(newStatus, updated.getStatus());
+        assertEquals(newStatus, repository.findById(payment.getId()).get().getStatus());
+        for (PaymentStatus status : PaymentStatus.values()) {
+            PaymentQuery query = PaymentQuery.builder().statuses(Set.of(status)).build();
+            assertEquals(ids(bruteForce(query)), ids(repository.find(query)));
+        }
+        // The date index holds the new copy as well
+        PaymentQuery byDate = PaymentQuery.builder().statuses(Set.of(newStatus)).sort(PaymentQuery.Sort.PAYMENT_DATE_ASC).build();
+        assertEquals(ids(bruteForce(byDate)), ids(repository.find(byDate)));
+    }
+
+    @Test
+    public void deletedPaymentLeavesEveryIndex() {
+        Payment payment = expected.remove(25);
+        repository.deleteById(payment.getId());
+
+        assertFalse(repository.findById(payment.getId()).isPresent());
+        assertFalse(repository.existsByReferenceNumber(payment.getReferenceNumber()));
+        assertEquals(expected.size(), repository.size());
+        Random random = new Random(9);
+        for (int i = 0; i < 50; i++) {
+            PaymentQuery query = randomQuery(random);
+            assertEquals(ids(bruteForce(query)), ids(repository.find(query)));
+        }
+        try {
+            repository.deleteById(payment.getId());
+            fail("deleted twice");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void duplicateReferenceRejectsWholeBatch() {
+        Payment fresh = randomPayment(new Random(1), 5000);
+        Payment duplicate = randomPayment(new Random(2), 5001);
+        duplicate.setReferenceNumber(expected.get(0).getReferenceNumber());
+        try {
+            repository.saveAll(List.of(fresh, duplicate));
+            fail("duplicate reference accepted");
+        } catch (RuntimeException expected) {
+        }
+        assertEquals(expected.size(), repository.size());
+        assertFalse(repository.existsByReferenceNumber(fresh.getReferenceNumber()));
+    }
+
+    @Test
+    public void dateRangeScansUseExclusiveEnd() {
+        LocalDateTime from = START.plusDays(3);
+        LocalDateTime to = START.plusDays(10);
+        Predicate<Payment> inRange = p -> !p.getPaymentDate().isBefore(from) && p.getPaymentDate().isBefore(to);
+
+        PaymentTotals totals = repository.sumByTypeInDateRange(from, to);
+        assertEquals(expected.stream().filter(inRange).count(), totals.getPaymentCount());
+        assertEquals(sum(expected.stream().filter(inRange.and(p -> p.getPaymentType() == PaymentType.INCOMING))
+                .collect(Collectors.toList())), totals.getTotalIncoming());
+
+        List<Long> scanned = new ArrayList<>();
+        repository.forEachInDateRange(from, to, payment -> scanned.add(payment.getId()));
+        assertEquals(expected.stream().filter(inRange).sorted(Comparator.comparing(Payment::getPaymentDate)
+                .thenComparing(Payment::getId)).map(Payment::getId).collect(Collectors.toList()), scanned);
+        assertEquals(0, repository.sumByTypeInDateRange(to, from).getPaymentCount());
+    }
+
+    @Test
+    public void dailyRollupsFollowWrites() {
+        repository.updateStatus(expected.get(0).getId(), PaymentStatus.CANCELLED);
+        expected.get(0).setStatus(PaymentStatus.CANCELLED);
+        repository.deleteById(expected.get(1).getId());
+        expected.remove(1);
+
+        LocalDate from = START.toLocalDate().plusDays(1);
+        LocalDate to = START.toLocalDate().plusDays(20);
+        Predicate<Payment> inRange = p -> !p.getPaymentDate().toLocalDate().isBefore(from)
+                && !p.getPaymentDate().toLocalDate().isAfter(to);
+
+        PaymentTotals rollups = repository.sumByTypeFromDailyRollups(from, to);
+        assertEquals(expected.stream().filter(inRange).count(), rollups.getPaymentCount());
+        assertEquals(sum(expected.stream().filter(inRange.and(p -> p.getPaymentType() == PaymentType.OUTGOING))
+                .collect(Collectors.toList())), rollups.getTotalOutgoing());
+        assertTrue(repository.checkDailyRollups(START.toLocalDate(), START.toLocalDate().plusDays(60)).isEmpty());
+    }
+
+    @Test
+    public void callersCannotChangeStoredPayments() {
+        Payment found = repository.findById(expected.get(3).getId()).get();
+        found.setAmount(new BigDecimal("0.01"));
+        found.setStatus(PaymentStatus.CANCELLED);
+
+        Payment stored = repository.findById(found.getId()).get();
+        assertEquals(expected.get(3).getAmount(), stored.getAmount());
+        assertEquals(expected.get(3).getStatus(), stored.getStatus());
+    }
+
+    private List<Payment> bruteForce(PaymentQuery query) {
+        Comparator<Payment> byId = Comparator.comparing(Payment::getId);
+        Comparator<Payment> order = switch (query.getSort()) {
+            case NEWEST_FIRST -> Comparator.comparing(Payment::getCreatedAt).thenComparing(byId).reversed();
+            case OLDEST_FIRST -> Comparator.comparing(Payment::getCreatedAt).thenComparing(byId);
+            case PAYMENT_DATE_DESC -> Comparator.comparing(Payment::getPaymentDate).thenComparing(byId).reversed();
+            case PAYMENT_DATE_ASC -> Comparator.comparing(Payment::getPaymentDate).thenComparing(byId);
+            case AMOUNT_DESC -> Comparator.comparing(Payment::getAmount).thenComparing(byId).reversed();
+            case AMOUNT_ASC -> Comparator.comparing(Payment::getAmount).thenComparing(byId);
+        };
+        return expected.stream()
+                .filter(p -> query.getPaymentType() == null || p.getPaymentType() == query.getPaymentType())
+                .filter(p -> query.getStatuses() == null || query.getStatuses().isEmpty() || query.getStatuses().contains(p.getStatus()))
+                .filter(p -> query.getCategoryIds() == null || query.getCategoryIds().isEmpty()
+                        || query.getCategoryIds().contains(p.getCategory() != null ? p.getCategory().getId() : DailyRollupRepository.NO_CATEGORY))
+                .filter(p -> query.getMinAmount() == null || p.getAmount().compareTo(query.getMinAmount()) >= 0)
+                .filter(p -> query.getMaxAmount() == null || p.getAmount().compareTo(query.getMaxAmount()) <= 0)
+                .filter(p -> query.getPaymentDateFrom() == null || !p.getPaymentDate().isBefore(query.getPaymentDateFrom()))
+                .filter(p -> query.getPaymentDateTo() == null || !p.getPaymentDate().isAfter(query.getPaymentDateTo()))
+                .filter(p -> query.getCreatedBy() == null || query.getCreatedBy().equals(p.getCreatedBy().getId()))
+                .filter(p -> query.getVendorNamePrefix() == null || (p.getClientVendorName() != null
+                        && p.getClientVendorName().toLowerCase(Locale.ROOT).startsWith(query.getVendorNamePrefix().toLowerCase(Locale.ROOT))))
+                .sorted(order)
+                .limit(query.getLimit() != null ? query.getLimit() : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    private static PaymentQuery randomQuery(Random random) {
+        PaymentQuery.PaymentQueryBuilder query = PaymentQuery.builder()
+                .sort(PaymentQuery.Sort.values()[random.nextInt(PaymentQuery.Sort.values().length)]);
+        if (random.nextBoolean()) {
+            query.paymentType(PaymentType.values()[random.nextInt(PaymentType.values().length)]);
+        }
+        if (random.nextBoolean()) {
+            Set<PaymentStatus> statuses = EnumSet.noneOf(PaymentStatus.class);
+            for (int i = random.nextInt(3); i >= 0; i--) {
+                statuses.add(PaymentStatus.values()[random.nextInt(PaymentStatus.values().length)]);
+            }
+            query.statuses(statuses);
+        }
+        if (random.nextInt(3) == 0) {
+            // Category 9 has no payments
+            query.categoryIds(Set.of(1L + random.nextInt(3), 9L));
+        }
+        if (random.nextInt(3) == 0) {
+            BigDecimal min = BigDecimal.valueOf(random.nextInt(500_000), 2);
+            query.minAmount(min);
+            if (random.nextBoolean()) {
+                query.maxAmount(min.add(BigDecimal.valueOf(random.nextInt(300_000), 2)));
+            }
+        }
+        if (random.nextInt(3) == 0) {
+            LocalDateTime from = START.plusHours(random.nextInt(60 * 24));
+            query.paymentDateFrom(from);
+            if (random.nextBoolean()) {
+                query.paymentDateTo(from.plusHours(random.nextInt(20 * 24)));
+            }
+        } else if (random.nextInt(5) == 0) {
+            query.paymentDateTo(START.plusHours(random.nextInt(60 * 24)));
+        }
+        if (random.nextInt(4) == 0) {
+            query.createdBy(random.nextInt(5) == 0 ? UUID.randomUUID() : CREATORS[random.nextInt(CREATORS.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            query.vendorNamePrefix(random.nextBoolean() ? "ACME" : "glo");
+        }
+        if (random.nextBoolean()) {
+            query.limit(1 + random.nextInt(100));
+        }
+        return query.build();
+    }
+
+    private static Payment randomPayment(Random random, int index) {
+        User creator = new User();
+        creator.setId(CREATORS[random.nextInt(CREATORS.length)]);
+        int category = random.nextInt(4);
+        return Payment.builder()
+                .paymentType(random.nextInt(3) == 0 ? PaymentType.INCOMING : PaymentType.OUTGOING)
+                .amount(BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2))
+                .currency("USD")
+                .referenceNumber("PAY-" + index)
+                .status(PaymentStatus.values()[random.nextInt(PaymentStatus.values().length)])
+                .category(category == 0 ? null : PaymentCategory.builder().id((long) category).build())
+                .createdBy(creator)
+                .paymentDate(START.plusMinutes(random.nextInt(60 * 24 * 60)))
+                .clientVendorName(VENDORS[random.nextInt(VENDORS.length)])
+                .build();
+    }
+
+    private static BigDecimal sum(List<Payment> payments) {
+        return payments.stream().map(Payment::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static List<Long> ids(List<Payment> payments) {
+        return payments.stream().map(Payment::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,260 @@
+package paymentManagementSystem.repository;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PaymentJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsBackAppendedRecordsInOrder() throws IOException {
+        Path dir = folder.newFolder("journal").toPath();
+        try (PaymentJournal journal = open(dir)) {
+            journal.appendCreate(payment(1));
+            journal.appendStatusChange(1, PaymentStatus.COMPLETED);
+            journal.appendDelete(1);
+        }
+
+        List<JournalRecord> records = readAll(dir);
+        assertEquals(3, records.size());
+        assertEquals(JournalRecord.Operation.CREATE, records.get(0).getOperation());
+        assertEquals(new BigDecimal("101.25"), records.get(0).getPayment().getAmount());
+        assertEquals("REF-1", records.get(0).getPayment().getReferenceNumber());
+        assertEquals(PaymentStatus.COMPLETED, records.get(1).getNewStatus());
+        assertEquals(JournalRecord.Operation.DELETE, records.get(2).getOperation());
+        assertSequential(records, 0);
+    }
+
+    @Test
+    public void rollsToNewSegmentWhenFull() throws IOException {
+        Path dir = folder.newFolder("journal").toPath();
+        try (PaymentJournal journal = open(dir)) {
+            for (int i = 1; i <= 200; i++) {
+                journal.appendCreate(payment(i));
+            }
+        }
+
+        assertTrue(segments(dir).size() > 1);
+        List<JournalRecord> records = readAll(dir);
+        assertEquals(200, records.size());
+        assertSequential(records, 0);
+        assertEquals(200L, records.get(199).getPaymentId());
+    }
+
+    @Test
+    public void discardsTornTailAndResumesAfterLastIntactRecord() throws IOException {
+        Path dir = folder.newFolder("journal").toPath();
+        try (PaymentJournal journal = open(dir)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.appendCreate(payment(i));
+            }
+        }
+        Path segment = segments(dir).get(0);
+        int third = recordOffset(segment, 2);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Cut the third record in the middle of its payload
+            channel.truncate(third + 20);
+        }
+
+        assertEquals(2, readAll(dir).size());
+
+        try (PaymentJournal journal = open(dir)) {
+            journal.appendCreate(payment(4));
+        }
+        List<JournalRecord> records = readAll(dir);
+        assertEquals(3, records.size());
+        assertEquals(4L, records.get(2).getPaymentId());
+        assertSequential(records, 0);
+    }
+
+    @Test
+    public void rejectsRecordWithBadChecksum() throws IOException {
+        Path dir = folder.newFolder("journal").toPath();
+        try (PaymentJournal journal = open(dir)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.appendCreate(payment(i));
+            }
+        }
+        Path segment = segments(dir).get(0);
+        int second = recordOffset(segment, 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer crc = ByteBuffer.allocate(4);
+            channel.read(crc, second + 4);
+            crc.flip();
+            int corrupted = crc.getInt() ^ 1;
+            channel.write((ByteBuffer) ByteBuffer.allocate(4).putInt(corrupted).flip(), second + 4);
+        }
+
+        List<JournalRecord> records = readAll(dir);
+        assertEquals(1, records.size());
+        assertEquals(1L, records.get(0).getPaymentId());
+    }
+
+    @Test
+    public void checkpointReplacesSegmentsWithLiveState() throws IOException {
+        Path dir = folder.newFolder("journal").toPath();
+        try (PaymentJournal journal = open(dir)) {
+            for (int i = 1; i <= 200; i++) {
+                journal.appendCreate(payment(i));
+            }
+            journal.appendDelete(1);
+        }
+        int segmentsBefore = segments(dir).size();
+
+        List<Payment> live = new ArrayList<>();
+        for (int i = 2; i <= 200; i++) {
+            live.add(payment(i));
+        }
+        live.get(0).setStatus(PaymentStatus.COMPLETED);
+        assertEquals(segmentsBefore, PaymentJournal.checkpoint(dir, live));
+        assertTrue(segments(dir).isEmpty());
+
+        try (PaymentJournal journal = open(dir)) {
+            journal.appendStatusChange(2, PaymentStatus.FAILED);
+        }
+        List<JournalRecord> records = readAll(dir);
+        assertEquals(200, records.size());
+        assertEquals(2L, records.get(0).getPaymentId());
+        assertEquals(PaymentStatus.COMPLETED, records.get(0).getPayment().getStatus());
+        assertEquals(JournalRecord.Operation.STATUS_CHANGE, records.get(199).getOperation());
+        // The new segment is numbered after the checkpoint and continues its sequence
+        assertSequential(records, records.get(0).getSequence());
+        assertFalse(segments(dir).get(0).getFileName().toString().endsWith("00000001.journal"));
+
+        InMemoryPaymentRepository restored = new InMemoryPaymentRepository();
+        PaymentJournalReplayer.Result result = PaymentJournalReplayer.replay(dir, restored);
+        assertEquals(199, result.getCreated());
+        assertEquals(199, restored.size());
+        assertEquals(1, result.getStatusChanges());
+    }
+
+    @Test
+    public void replayKeepsJournaledCreationTimestamps() throws IOException {
+        Path dir = folder.newFolder("journal").toPath();
+        try (PaymentJournal journal = open(dir)) {
+            for (int i = 1; i <= 50; i++) {
+                journal.appendCreate(payment(i));
+            }
+        }
+
+        InMemoryPaymentRepository restored = new InMemoryPaymentRepository();
+        PaymentJournalReplayer.replay(dir, restored);
+        assertCreatedAtKept(restored, 50);
+
+        // A checkpoint of the restored state must carry the same timestamps into the next start
+        PaymentJournal.checkpoint(dir, restored.findAll());
+        InMemoryPaymentRepository restarted = new InMemoryPaymentRepository();
+        PaymentJournalReplayer.replay(dir, restarted);
+        assertCreatedAtKept(restarted, 50);
+        assertEquals(restored.findAll().stream().map(Payment::getReferenceNumber).collect(Collectors.toList()),
+                restarted.findAll().stream().map(Payment::getReferenceNumber).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void failedAppendKeepsCommittedWriteAndMarksCheckpointNeeded() throws IOException {
+        Path dir = folder.newFolder("journal").toPath();
+        InMemoryPaymentRepository store = new InMemoryPaymentRepository();
+        PaymentJournal journal = open(dir);
+        PaymentRepository repository = new JournalingPaymentRepository(store, journal);
+        repository.save(payment(1));
+        assertFalse(PaymentJournal.isCheckpointNeeded(dir));
+
+        // Appends fail once the journal is closed, but the store has already committed
+        journal.close();
+        Payment saved = repository.save(payment(2));
+        repository.updateStatus(saved.getId(), PaymentStatus.COMPLETED);
+        assertEquals(2, store.size());
+        assertEquals(PaymentStatus.COMPLETED, store.findById(saved.getId()).orElseThrow().getStatus());
+        assertTrue(PaymentJournal.isCheckpointNeeded(dir));
+
+        PaymentJournal.checkpoint(dir, store.findAll());
+        assertFalse(PaymentJournal.isCheckpointNeeded(dir));
+        InMemoryPaymentRepository restored = new InMemoryPaymentRepository();
+        PaymentJournalReplayer.replay(dir, restored);
+        assertEquals(PaymentStatus.COMPLETED, restored.findByReferenceNumber("REF-2").orElseThrow().getStatus());
+    }
+
+    private static void assertCreatedAtKept(PaymentRepository repository, int count) {
+        for (int i = 1; i <= count; i++) {
+            Payment payment = repository.findByReferenceNumber("REF-" + i).orElseThrow();
+            assertEquals(payment(i).getCreatedAt(), payment.getCreatedAt());
+            assertEquals(payment(i).getCreatedAt(), payment.getUpdatedAt());
+        }
+    }
+
+    private static PaymentJournal open(Path dir) {
+        return new PaymentJournal(dir, SEGMENT_SIZE, PaymentJournal.FsyncPolicy.NONE, 0);
+    }
+
+    private static List<JournalRecord> readAll(Path dir) {
+        List<JournalRecord> records = new ArrayList<>();
+        PaymentJournal.read(dir, records::add);
+        return records;
+    }
+
+    private static void assertSequential(List<JournalRecord> records, long first) {
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(first + i, records.get(i).getSequence());
+        }
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("payments-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Offset of the index-th record, following the length headers.
+     */
+    private static int recordOffset(Path segment, int index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int offset = 0;
+        for (int i = 0; i < index; i++) {
+            offset += 8 + buffer.getInt(offset);
+        }
+        return offset;
+    }
+
+    private static Payment payment(long id) {
+        return Payment.builder()
+                .id(id)
+                .paymentType(id % 2 == 0 ? PaymentType.INCOMING : PaymentType.OUTGOING)
+                .status(PaymentStatus.PENDING)
+                .amount(new BigDecimal("100.25").add(BigDecimal.valueOf(id)))
+                .currency("USD")
+                .description("Journal test payment " + id)
+                .referenceNumber("REF-" + id)
+                .paymentDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(id))
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id))
+                .clientVendorName("Vendor " + id)
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package paymentManagementSystem.repository;
+
+import org.junit.Test;
+import paymentManagementSystem.dto.request.PageRequest;
+import paymentManagementSystem.dto.request.PaymentQuery;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PaymentQueryCompilerTest {
+
+    private static final String SELECT = """
+        SELECT p.*, u.username as user_name, u.email as user_email
+        FROM payments p
+        LEFT JOIN users u ON p.created_by = u.id
+        WHERE TRUE
+        """;
+
+    private final PaymentQueryCompiler compiler = new PaymentQueryCompiler();
+    private final RecordingConnection conn = new RecordingConnection();
+
+    @Test
+    public void emptyQueryHasNoCriteriaOrParameters() throws SQLException {
+        compiler.prepare(conn.proxy(), PaymentQuery.all(), null, 0);
+
+        assertEquals(SELECT + " ORDER BY p.created_at DESC, p.id DESC", conn.sql);
+        assertTrue(conn.parameters.isEmpty());
+    }
+
+    @Test
+    public void everyCriterionAddsOneBoundClauseInOrder() throws SQLException {
+        UUID creator = UUID.randomUUID();
+        PaymentQuery query = PaymentQuery.builder()
+                .paymentType(PaymentType.OUTGOING)
+                .statuses(new LinkedHashSet<>(List.of(PaymentStatus.PENDING, PaymentStatus.COMPLETED)))
+                .categoryIds(new LinkedHashSet<>(List.of(3L, 5L)))
+                .minAmount(new BigDecimal("10.00"))
+                .maxAmount(new BigDecimal("99.99"))
+                .paymentDateFrom(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .paymentDateTo(LocalDateTime.of(2024, 1, 31, 23, 59))
+                .createdBy(creator)
+                .vendorNamePrefix("ACME_50%\\")
+                .sort(PaymentQuery.Sort.AMOUNT_DESC)
+                .limit(25)
+                .build();
+
+        compiler.prepare(conn.proxy(), query, null, 0);
+
+        assertEquals(SELECT
+                + " AND p.payment_type = ?"
+                + " AND p.status = ANY(?)"
+                + " AND p.category_id = ANY(?)"
+                + " AND p.amount >= ?"
+                + " AND p.amount <= ?"
+                + " AND p.payment_date >= ?"
+                + " AND p.payment_date <= ?"
+                + " AND p.created_by = ?"
+                + " AND LOWER(p.client_vendor_name) LIKE ? ESCAPE '\\'"
+                + " ORDER BY p.amount DESC, p.id DESC LIMIT ?", conn.sql);
+        assertEquals(List.of(
+                "OUTGOING",
+                List.of("PENDING", "COMPLETED"),
+                List.of(3L, 5L),
+                new BigDecimal("10.00"),
+                new BigDecimal("99.99"),
+                Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0)),
+                Timestamp.valueOf(LocalDateTime.of(2024, 1, 31, 23, 59)),
+                creator,
+                // LIKE wildcards and the escape character in the prefix match literally
+                "acme\\_50\\%\\\\%",
+                25), conn.parameters);
+    }
+
+    @Test
+    public void sqlIsCachedPerShape() throws SQLException {
+        compiler.prepare(conn.proxy(), PaymentQuery.builder()
+                .statuses(EnumSet.of(PaymentStatus.PENDING)).minAmount(BigDecimal.ONE).build(), null, 0);
+        String first = conn.sql;
+        compiler.prepare(conn.proxy(), PaymentQuery.builder()
+                .statuses(EnumSet.allOf(PaymentStatus.class)).minAmount(BigDecimal.TEN).build(), null, 0);
+
+        // Set size and values do not change the statement
+        assertEquals(first, conn.sql);
+        assertEquals(1, compiler.getCachedShapeCount());
+
+        // Empty sets filter nothing, so they share the shape of an unset criterion
+        compiler.prepare(conn.proxy(), PaymentQuery.builder().statuses(Set.of()).minAmount(BigDecimal.ONE).build(), null, 0);
+        compiler.prepare(conn.proxy(), PaymentQuery.builder().minAmount(BigDecimal.ONE).build(), null, 0);
+        assertEquals(2, compiler.getCachedShapeCount());
+        compiler.prepare(conn.proxy(), PaymentQuery.builder().minAmount(BigDecimal.ONE).limit(5).build(), null, 0);
+        assertEquals(3, compiler.getCachedShapeCount());
+    }
+
+    @Test
+    public void pageRequestAddsKeysetCursorAndLimit() throws SQLException {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 9, 30);
+        PageRequest page = PageRequest.builder().afterCreatedAt(createdAt).afterId(42L).limit(20).build();
+
+        compiler.prepare(conn.proxy(), PaymentQuery.builder().paymentType(PaymentType.INCOMING).limit(500).build(), page, 21);
+
+        assertEquals(SELECT + " AND p.payment_type = ? AND (p.created_at, p.id) < (?, ?)"
+                + " ORDER BY p.created_at DESC, p.id DESC LIMIT ?", conn.sql);
+        // The override replaces the query's own limit
+        assertEquals(List.of("INCOMING", Timestamp.valueOf(createdAt), 42L, 21), conn.parameters);
+
+        compiler.prepare(conn.proxy(), PaymentQuery.all(), PageRequest.firstPage(20), 21);
+        assertEquals(SELECT + " ORDER BY p.created_at DESC, p.id DESC LIMIT ?", conn.sql);
+    }
+
+    @Test
+    public void pagingRequiresNewestFirstSort() throws SQLException {
+        PaymentQuery query = PaymentQuery.builder().sort(PaymentQuery.Sort.AMOUNT_ASC).build();
+        try {
+            compiler.prepare(conn.proxy(), query, PageRequest.firstPage(20), 21);
+            fail("keyset paging accepted another sort");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void statementIsClosedWhenBindingFails() {
+        conn.failArrays = true;
+        try {
+            compiler.prepare(conn.proxy(), PaymentQuery.builder().categoryIds(Set.of(1L)).build(), null, 0);
+            fail("bind failure was swallowed");
+        } catch (SQLException expected) {
+            assertTrue(conn.statementClosed);
+        }
+    }
+
+    /**
+     * Connection double that records the prepared SQL and the bound parameters in order.
+     */
+    private static final class RecordingConnection {
+        String sql;
+        List<Object> parameters;
+        boolean statementClosed;
+        boolean failArrays;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement" -> {
+                            sql = (String) args[0];
+                            parameters = new ArrayList<>();
+                            statementClosed = false;
+                            yield statement();
+                        }
+                        case "createArrayOf" -> {
+                            if (failArrays) {
+                                throw new SQLException("arrays not supported");
+                            }
+                            yield array(Arrays.asList((Object[]) args[1]));
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close")) {
+                            statementClosed = true;
+                        } else if (method.getName().startsWith("set")) {
+                            assertEquals("parameters bound out of order", parameters.size() + 1, args[0]);
+                            Object value = args[1];
+                            parameters.add(value instanceof Array array ? array.getArray() : value);
+                        } else {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return null;
+                    });
+        }
+
+        private static Array array(List<Object> elements) {
+            return (Array) Proxy.newProxyInstance(RecordingConnection.class.getClassLoader(), new Class<?>[]{Array.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("getArray")) {
+                            return elements;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package paymentManagementSystem.repository;
+
+import org.junit.Test;
+import paymentManagementSystem.dto.response.SketchSummary;
+import paymentManagementSystem.entity.Payment;
+import paymentManagementSystem.entity.PaymentCategory;
+import paymentManagementSystem.entity.User;
+import paymentManagementSystem.enums.PaymentStatus;
+import paymentManagementSystem.enums.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PaymentSketchTest {
+
+    private static final int VENDORS = 3000;
+    private static final int CLIENTS = 800;
+    private static final int CREATORS = 25;
+
+    @Test
+    public void mergedDaysEqualSketchOfWholeRange() {
+        List<Payment> payments = payments(20_000);
+        PaymentSketch whole = new PaymentSketch();
+        payments.forEach(whole::add);
+
+        PaymentSketch merged = new PaymentSketch();
+        for (int day = 0; day < 10; day++) {
+            PaymentSketch daySketch = new PaymentSketch();
+            payments.subList(day * 2000, (day + 1) * 2000).forEach(daySketch::add);
+            merged.merge(daySketch);
+        }
+
+        assertEquals(whole.toSummary(0, 10), merged.toSummary(0, 10));
+        assertEquals(20_000, merged.getPaymentCount());
+    }
+
+    @Test
+    public void distinctCountsWithinErrorBound() {
+        PaymentSketch sketch = new PaymentSketch();
+        payments(50_000).forEach(sketch::add);
+        SketchSummary summary = sketch.toSummary(0, 1);
+
+        assertWithin(VENDORS, summary.getDistinctVendors(), 0.03);
+        assertWithin(CLIENTS, summary.getDistinctClients(), 0.03);
+        assertWithin(CREATORS, summary.getDistinctCreators(), 0.03);
+    }
+
+    @Test
+    public void summaryHasAllCategoriesRowOnlyForSeveralCategories() {
+        PaymentSketch sketch = new PaymentSketch();
+        payments(1000).forEach(sketch::add);
+        sketch.add(payment(1, PaymentType.OUTGOING, "10.00", null));
+
+        List<SketchSummary.AmountPercentiles> rows = sketch.toSummary(0, 1).getAmountPercentiles();
+        assertEquals("All categories", rows.get(0).getCategory());
+        assertEquals(PaymentType.INCOMING, rows.get(0).getPaymentType());
+        long incoming = rows.stream()
+                .filter(row -> row.getPaymentType() == PaymentType.INCOMING && !"All categories".equals(row.getCategory()))
+                .mapToLong(SketchSummary.AmountPercentiles::getCount)
+                .sum();
+        assertEquals(rows.get(0).getCount(), incoming);
+
+        PaymentSketch single = new PaymentSketch();
+        single.add(payment(1, PaymentType.INCOMING, "10.00", 1L));
+        single.add(payment(2, PaymentType.INCOMING, "20.00", 1L));
+        List<SketchSummary.AmountPercentiles> singleRows = single.toSummary(0, 1).getAmountPercentiles();
+        assertEquals(1, singleRows.size());
+        assertEquals(new BigDecimal("20.00"), singleRows.get(0).getMax());
+    }
+
+    @Test
+    public void serializationRoundTrips() {
+        PaymentSketch sketch = new PaymentSketch();
+        payments(5000).forEach(sketch::add);
+
+        PaymentSketch read = PaymentSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.toSummary(2, 3), read.toSummary(2, 3));
+        assertEquals(sketch.getPaymentCount(), read.getPaymentCount());
+        assertTrue(read.matches(totals(payments(5000))));
+    }
+
+    @Test
+    public void emptySketchRoundTrips() {
+        PaymentSketch read = PaymentSketch.fromBytes(new PaymentSketch().toBytes());
+        assertEquals(0, read.getPaymentCount());
+        assertTrue(read.matches(PaymentTotals.empty()));
+        assertTrue(read.toSummary(0, 0).getAmountPercentiles().isEmpty());
+    }
+
+    @Test
+    public void otherFormatVersionIsRejected() {
+        byte[] data = new PaymentSketch().toBytes();
+        data[0]++;
+        assertNull(PaymentSketch.fromBytes(data));
+    }
+
+    @Test
+    public void matchesExactTotalsOnly() {
+        List<Payment> payments = payments(1000);
+        PaymentSketch sketch = new PaymentSketch();
+        payments.forEach(sketch::add);
+        PaymentTotals totals = totals(payments);
+
+        assertTrue(sketch.matches(totals));
+        assertFalse(sketch.matches(new PaymentTotals(totals.getTotalIncoming().add(new BigDecimal("0.01")),
+                totals.getTotalOutgoing(), totals.getIncomingCount(), totals.getOutgoingCount())));
+        assertFalse(sketch.matches(new PaymentTotals(totals.getTotalIncoming(), totals.getTotalOutgoing(),
+                totals.getIncomingCount(), totals.getOutgoingCount() + 1)));
+    }
+
+    private static PaymentTotals totals(List<Payment> payments) {
+        BigDecimal incoming = BigDecimal.ZERO;
+        BigDecimal outgoing = BigDecimal.ZERO;
+        long incomingCount = 0;
+        long outgoingCount = 0;
+        for (Payment payment : payments) {
+            if (payment.getPaymentType() == PaymentType.INCOMING) {
+                incoming = incoming.add(payment.getAmount());
+                incomingCount++;
+            } else {
+                outgoing = outgoing.add(payment.getAmount());
+                outgoingCount++;
+            }
+        }
+        return new PaymentTotals(incoming, outgoing, incomingCount, outgoingCount);
+    }
+
+    private static void assertWithin(long expected, long actual, double relativeError) {
+        assertTrue("estimate " + actual + " for " + expected, Math.abs(actual - expected) <= expected * relativeError);
+    }
+
+    private static List<Payment> payments(int count) {
+        Random random = new Random(3);
+        List<Payment> payments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean outgoing = random.nextInt(3) > 0;
+            Payment payment = payment(i, outgoing ? PaymentType.OUTGOING : PaymentType.INCOMING,
+                    BigDecimal.valueOf(1 + random.nextInt(5_000_000), 2).toPlainString(),
+                    random.nextInt(10) == 0 ? null : 1L + random.nextInt(4));
+            payment.setClientVendorName(outgoing ? "Vendor " + random.nextInt(VENDORS) : "Client " + random.nextInt(CLIENTS));
+            User creator = new User();
+            creator.setId(new UUID(0, random.nextInt(CREATORS)));
+            payment.setCreatedBy(creator);
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    private static Payment payment(long id, PaymentType type, String amount, Long categoryId) {
+        return Payment.builder()
+                .id(id)
+                .paymentType(type)
+                .status(PaymentStatus.COMPLETED)
+                .amount(new BigDecimal(amount))
+                .currency("USD")
+                .category(categoryId != null ? PaymentCategory.builder().id(categoryId).build() : null)
+                .paymentDate(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+    }
+}
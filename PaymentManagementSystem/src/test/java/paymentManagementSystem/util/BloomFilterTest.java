@@ -0,0 +1,91 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void everyPutValueIsFound() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("PAY-" + i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue("false negative for PAY-" + i, filter.mightContain("PAY-" + i));
+        }
+    }
+
+    @Test
+    public void overfilledFilterStillHasNoFalseNegatives() {
+        // Ten times the expected insertions: false positives rise, misses must not appear
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("REF" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("REF" + i));
+        }
+    }
+
+    @Test
+    public void falsePositiveRateNearConfiguredProbability() {
+        BloomFilter filter = new BloomFilter(50_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.put("present-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue("false positive rate " + rate, rate < 0.02);
+    }
+
+    @Test
+    public void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        assertFalse(filter.mightContain("PAY-1"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    public void sizedFromExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+        // About 9.6 bits and 7 hashes per element at 1%
+        assertEquals(9_585_088, filter.getBitCount(), 64);
+        assertEquals(7, filter.getHashCount());
+        assertTrue(new BloomFilter(0, 0.01).getBitCount() >= 64);
+    }
+
+    @Test
+    public void concurrentPutsLoseNoBits() throws InterruptedException {
+        BloomFilter filter = new BloomFilter(200_000, 0.01);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            // Threads interleave values, so they keep setting bits in the same words
+            threads.add(new Thread(() -> {
+                for (int i = offset; i < 200_000; i += 4) {
+                    filter.put("PAY-" + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < 200_000; i++) {
+            assertTrue("false negative for PAY-" + i, filter.mightContain("PAY-" + i));
+        }
+    }
+}
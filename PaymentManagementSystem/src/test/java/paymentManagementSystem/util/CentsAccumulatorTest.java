@@ -0,0 +1,116 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CentsAccumulatorTest {
+
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    @Test
+    public void sumsWholeCentsExactly() {
+        CentsAccumulator total = new CentsAccumulator();
+        total.add(new BigDecimal("0.10"));
+        total.add(new BigDecimal("0.20"));
+        total.add(new BigDecimal("-5.5"));
+        total.add(new BigDecimal("12"));
+
+        assertEquals(new BigDecimal("6.80"), total.toBigDecimal());
+        assertEquals(4, total.getCount());
+        assertFalse(total.hasOverflowed());
+    }
+
+    @Test
+    public void sumAcrossLongMaxValueCarries() {
+        CentsAccumulator total = new CentsAccumulator();
+        total.addCents(Long.MAX_VALUE);
+        total.addCents(Long.MAX_VALUE);
+        total.addCents(5);
+
+        BigDecimal expected = MAX_CENTS.multiply(BigDecimal.valueOf(2)).add(new BigDecimal("0.05"));
+        assertEquals(expected, total.toBigDecimal());
+        assertTrue(total.hasOverflowed());
+    }
+
+    @Test
+    public void negativeSumsCarryBelowLongMinValue() {
+        CentsAccumulator total = new CentsAccumulator();
+        total.addCents(Long.MIN_VALUE);
+        total.addCents(-1);
+
+        assertEquals(new BigDecimal(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE), 2),
+                total.toBigDecimal());
+        // Coming back into range cancels the carry
+        total.addCents(1);
+        assertEquals(BigDecimal.valueOf(Long.MIN_VALUE, 2), total.toBigDecimal());
+    }
+
+    @Test
+    public void mergeCombinesCentsCarriesAndCounts() {
+        CentsAccumulator left = new CentsAccumulator();
+        left.addCents(Long.MAX_VALUE);
+        left.addCents(Long.MAX_VALUE);
+        CentsAccumulator right = new CentsAccumulator();
+        right.addCents(Long.MAX_VALUE);
+        right.addCents(Long.MAX_VALUE);
+        right.addCents(Long.MAX_VALUE);
+
+        left.merge(right);
+
+        assertEquals(MAX_CENTS.multiply(BigDecimal.valueOf(5)), left.toBigDecimal());
+        assertEquals(5, left.getCount());
+    }
+
+    @Test
+    public void flatArraySlotsMatchAccumulator() {
+        long[] sums = new long[2];
+        long[] carries = new long[2];
+        CentsAccumulator reference = new CentsAccumulator();
+        for (int i = 0; i < 3; i++) {
+            CentsAccumulator.addCents(sums, carries, 1, Long.MAX_VALUE - i);
+            reference.addCents(Long.MAX_VALUE - i);
+        }
+
+        assertEquals(reference.toBigDecimal(), CentsAccumulator.toAmount(sums[1], carries[1]));
+        assertEquals(BigDecimal.valueOf(0, 2), CentsAccumulator.toAmount(sums[0], carries[0]));
+
+        CentsAccumulator merged = new CentsAccumulator();
+        merged.addCents(Long.MAX_VALUE);
+        merged.merge(sums[1], carries[1], 3);
+        assertEquals(reference.toBigDecimal().add(MAX_CENTS), merged.toBigDecimal());
+        assertEquals(4, merged.getCount());
+    }
+
+    @Test
+    public void moreThanTwoDecimalsGoToRemainder() {
+        CentsAccumulator total = new CentsAccumulator();
+        total.add(new BigDecimal("1.005"));
+        total.add(new BigDecimal("2.50"));
+        total.add(new BigDecimal("0.0001"), 3);
+
+        assertEquals(new BigDecimal("3.5051"), total.toBigDecimal());
+        assertEquals(5, total.getCount());
+        assertTrue(total.hasOverflowed());
+
+        CentsAccumulator other = new CentsAccumulator();
+        other.add(new BigDecimal("0.001"));
+        total.merge(other);
+        assertEquals(new BigDecimal("3.5061"), total.toBigDecimal());
+    }
+
+    @Test
+    public void amountsTooLargeForLongCentsGoToRemainder() {
+        BigDecimal huge = new BigDecimal("123456789012345678.90");
+        CentsAccumulator total = new CentsAccumulator();
+        total.add(huge);
+        total.add(huge);
+
+        assertEquals(huge.add(huge), total.toBigDecimal());
+    }
+}
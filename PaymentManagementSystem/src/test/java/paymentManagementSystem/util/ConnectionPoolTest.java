@@ -0,0 +1,280 @@
+package paymentManagementSystem.util;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:pooltest:db";
+    private static final FakeDriver DRIVER = new FakeDriver();
+
+    private ConnectionPool pool;
+
+    @BeforeClass
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(DRIVER);
+    }
+
+    @AfterClass
+    public static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(DRIVER);
+    }
+
+    @After
+    public void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        DRIVER.opened.clear();
+    }
+
+    @Test
+    public void closedLeaseIsReusedByNextBorrow() throws SQLException {
+        pool = pool(2, 0, 100, 60_000);
+
+        Connection first = pool.borrow();
+        assertEquals(1, pool.getActiveCount());
+        first.close();
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        Connection second = pool.borrow();
+        assertNotSame(first, second);
+        assertEquals(1, DRIVER.opened.size());
+        assertEquals(1, pool.getTotalCount());
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+        second.close();
+    }
+
+    @Test
+    public void leaseIsReturnedOnceAndUnusableAfterClose() throws SQLException {
+        pool = pool(1, 0, 100, 60_000);
+
+        Connection lease = pool.borrow();
+        lease.close();
+        lease.close();
+        assertEquals(1, pool.getIdleCount());
+
+        try {
+            lease.createStatement();
+            fail("a returned lease must not reach the physical connection");
+        } catch (SQLException expected) {
+        }
+
+        // A second release would have handed out a second permit
+        Connection again = pool.borrow();
+        assertTimesOut();
+        again.close();
+    }
+
+    @Test
+    public void borrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        pool = pool(2, 0, 50, 60_000);
+
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        assertTimesOut();
+        assertEquals(1, pool.getTimeoutCount());
+        assertEquals(2, pool.getTotalCount());
+
+        a.close();
+        pool.borrow().close();
+        b.close();
+        assertEquals(3, pool.getBorrowCount());
+    }
+
+    @Test
+    public void openTransactionIsRolledBackOnReturn() throws SQLException {
+        pool = pool(1, 0, 100, 60_000);
+
+        Connection lease = pool.borrow();
+        lease.setAutoCommit(false);
+        lease.close();
+
+        FakeConnection physical = DRIVER.opened.get(0);
+        assertEquals(1, physical.rollbacks);
+        assertTrue(physical.autoCommit);
+        Connection next = pool.borrow();
+        assertTrue(next.getAutoCommit());
+        next.close();
+    }
+
+    @Test
+    public void brokenConnectionsAreReplaced() throws SQLException {
+        pool = pool(2, 0, 100, 60_000);
+
+        pool.borrow().close();
+        DRIVER.opened.get(0).valid = false;
+        Connection lease = pool.borrow();
+        assertEquals(2, DRIVER.opened.size());
+        assertTrue(DRIVER.opened.get(0).closed);
+        assertEquals(1, pool.getTotalCount());
+        lease.close();
+
+        // Closed underneath the lease: destroyed on return instead of pooled
+        Connection closedUnderneath = pool.borrow();
+        DRIVER.opened.get(1).closed = true;
+        closedUnderneath.close();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getTotalCount());
+    }
+
+    @Test
+    public void idleConnectionsAreEvictedDownToMinIdle() throws Exception {
+        pool = pool(3, 1, 100, 20);
+
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        Connection c = pool.borrow();
+        a.close();
+        b.close();
+        c.close();
+        assertEquals(3, pool.getIdleCount());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getTotalCount());
+        // The most recently returned connection is the one kept
+        assertFalse(DRIVER.opened.get(2).closed);
+        assertTrue(DRIVER.opened.get(0).closed);
+        assertTrue(DRIVER.opened.get(1).closed);
+    }
+
+    @Test
+    public void shutdownClosesIdleConnectionsAndRefusesBorrows() throws SQLException {
+        pool = pool(2, 0, 100, 60_000);
+
+        Connection active = pool.borrow();
+        pool.borrow().close();
+        pool.shutdown();
+        assertEquals(0, pool.getIdleCount());
+
+        active.close();
+        assertEquals(2, DRIVER.opened.stream().filter(connection -> connection.closed).count());
+        assertEquals(0, pool.getTotalCount());
+        try {
+            pool.borrow();
+            fail("a shut down pool must not lend connections");
+        } catch (SQLException expected) {
+        }
+    }
+
+    private void assertTimesOut() {
+        try {
+            pool.borrow();
+            fail("borrow should time out");
+        } catch (SQLException expected) {
+            assertTrue(expected.getMessage().startsWith("Timed out"));
+        }
+    }
+
+    private static ConnectionPool pool(int maxSize, int minIdle, long maxWaitMillis, long idleTimeoutMillis) {
+        long evictionInterval = Math.min(idleTimeoutMillis, 60_000);
+        return new ConnectionPool(URL, "user", "secret", maxSize, minIdle, maxWaitMillis,
+                idleTimeoutMillis, evictionInterval, 1);
+    }
+
+    /**
+     * Physical connection double that records what the pool does to it.
+     */
+    private static final class FakeConnection {
+        volatile boolean closed = false;
+        volatile boolean valid = true;
+        volatile boolean autoCommit = true;
+        volatile int rollbacks = 0;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPoolTest.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                closed = true;
+                                return null;
+                            case "isClosed":
+                                return closed;
+                            case "isValid":
+                                return valid && !closed;
+                            case "getAutoCommit":
+                                return autoCommit;
+                            case "setAutoCommit":
+                                autoCommit = (Boolean) args[0];
+                                return null;
+                            case "rollback":
+                                rollbacks++;
+                                return null;
+                            case "clearWarnings":
+                                return null;
+                            default:
+                                throw new SQLException("Not supported by the test connection: " + method.getName());
+                        }
+                    });
+        }
+    }
+
+    private static final class FakeDriver implements Driver {
+        final List<FakeConnection> opened = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            FakeConnection connection = new FakeConnection();
+            opened.add(connection);
+            return connection.proxy();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:pooltest:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvWriterTest {
+
+    @Test
+    public void plainFieldsAreNotQuoted() throws IOException {
+        assertEquals("abc,12.50,-7\r\n", write(csv -> {
+            csv.field("abc").field((Object) "12.50").field(-7L);
+            csv.endRecord();
+        }));
+    }
+
+    @Test
+    public void quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        assertEquals("\"a,b\",\"say \"\"hi\"\"\",\"two\r\nlines\",\"cr\rhere\",\"lf\nhere\"\r\n",
+                write(csv -> csv.writeRecord("a,b", "say \"hi\"", "two\r\nlines", "cr\rhere", "lf\nhere")));
+    }
+
+    @Test
+    public void doublesEveryQuoteIncludingLeadingAndTrailing() throws IOException {
+        assertEquals("\"\"\"\"\"\"\r\n\"\"\"x\"\"\"\r\n", write(csv -> {
+            csv.writeRecord("\"\"");
+            csv.writeRecord("\"x\"");
+        }));
+    }
+
+    @Test
+    public void nullAndEmptyFieldsAreWrittenEmpty() throws IOException {
+        assertEquals(",,x,\r\n", write(csv -> csv.writeRecord(null, "", "x", null)));
+        assertEquals(",\r\n", write(csv -> {
+            csv.field((Object) null).field("");
+            csv.endRecord();
+        }));
+    }
+
+    @Test
+    public void otherCharactersPassThroughUnquoted() throws IOException {
+        assertEquals("tab\there;semi 'single' ü€\r\n", write(csv -> csv.writeRecord("tab\there;semi 'single' ü€")));
+    }
+
+    @Test
+    public void linesAreWrittenAsIsAndResetTheRecord() throws IOException {
+        assertEquals("# comment, with comma\r\na,b\r\n", write(csv -> {
+            csv.writeLine("# comment, with comma");
+            csv.writeRecord("a", "b");
+        }));
+    }
+
+    private interface CsvBody {
+        void write(CsvWriter csv) throws IOException;
+    }
+
+    private static String write(CsvBody body) throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(out)) {
+            body.write(csv);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    public void smallCountsAreNearlyExact() {
+        for (int distinct : new int[]{1, 10, 100, 1000}) {
+            HyperLogLog sketch = sketchOf(0, distinct);
+            assertWithin(distinct, sketch.estimate(), 0.01);
+        }
+    }
+
+    @Test
+    public void largeCountsStayWithinErrorBound() {
+        // Standard error is about 0.8%; 3% is close to four standard errors
+        for (int distinct : new int[]{50_000, 200_000, 1_000_000}) {
+            assertWithin(distinct, sketchOf(0, distinct).estimate(), 0.03);
+        }
+    }
+
+    @Test
+    public void duplicatesDoNotCount() {
+        HyperLogLog sketch = sketchOf(0, 5000);
+        long estimate = sketch.estimate();
+        for (int i = 0; i < 5000; i++) {
+            sketch.add("vendor-" + i);
+        }
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    public void mergeEqualsSketchOfWholeRange() throws IOException {
+        HyperLogLog whole = sketchOf(0, 300_000);
+        HyperLogLog merged = sketchOf(0, 100_000);
+        merged.merge(sketchOf(100_000, 200_000));
+        // Overlapping ranges only count once
+        merged.merge(sketchOf(150_000, 300_000));
+
+        assertEquals(whole.estimate(), merged.estimate());
+        assertArrayEquals(bytes(whole), bytes(merged));
+    }
+
+    @Test
+    public void sparseSerializationRoundTrips() throws IOException {
+        HyperLogLog sketch = sketchOf(0, 200);
+        byte[] serialized = bytes(sketch);
+        // Sparse: count plus 3 bytes per used register, far below the 16 KiB of registers
+        assertTrue(serialized.length < 1000);
+
+        HyperLogLog read = read(serialized);
+        assertEquals(sketch.estimate(), read.estimate());
+        assertArrayEquals(serialized, bytes(read));
+    }
+
+    @Test
+    public void denseSerializationRoundTrips() throws IOException {
+        HyperLogLog sketch = sketchOf(0, 100_000);
+        byte[] serialized = bytes(sketch);
+        assertEquals(4 + (1 << 14), serialized.length);
+
+        HyperLogLog read = read(serialized);
+        assertEquals(sketch.estimate(), read.estimate());
+        assertArrayEquals(serialized, bytes(read));
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("vendor-" + i);
+        }
+        return sketch;
+    }
+
+    private static void assertWithin(long expected, long actual, double relativeError) {
+        assertTrue("estimate " + actual + " for " + expected,
+                Math.abs(actual - expected) <= Math.max(1, expected * relativeError));
+    }
+
+    private static byte[] bytes(HyperLogLog sketch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            sketch.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static HyperLogLog read(byte[] serialized) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            return HyperLogLog.read(in);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LruTtlCacheTest {
+
+    @Test
+    public void returnsValueUntilItExpires() throws InterruptedException {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2", 1);
+        assertEquals("1", cache.get("a"));
+
+        Thread.sleep(5);
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(1, cache.size());
+        assertNull(cache.get("missing"));
+    }
+
+    @Test
+    public void overflowEvictsLeastRecentlyUsed() throws InterruptedException {
+        LruTtlCache<Integer, Integer> cache = new LruTtlCache<>(10, 60_000);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+            Thread.sleep(1);
+        }
+        // Reading the older half makes 5 and 6 the least recently used
+        for (int i = 0; i < 5; i++) {
+            cache.get(i);
+            Thread.sleep(1);
+        }
+        cache.put(10, 10);
+
+        // Evicted down to 90% of the maximum in one pass
+        assertEquals(9, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+        assertNull(cache.get(5));
+        assertNull(cache.get(6));
+        for (int i : new int[]{0, 1, 2, 3, 4, 7, 8, 9, 10}) {
+            assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+    }
+
+    @Test
+    public void evictionDropsExpiredEntriesFirst() throws InterruptedException {
+        LruTtlCache<Integer, Integer> cache = new LruTtlCache<>(4, 60_000);
+        cache.put(0, 0, 1);
+        cache.put(1, 1, 1);
+        Thread.sleep(5);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.put(4, 4);
+
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.getExpirationCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void conditionalInvalidateKeepsReplacedValue() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        String stale = new String("v1");
+        cache.put("key", stale);
+        cache.put("key", "v2");
+
+        cache.invalidate("key", stale);
+        assertEquals("v2", cache.get("key"));
+
+        cache.invalidate("key", cache.get("key"));
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void invalidateAllEmptiesCache() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveMaxSize() {
+        new LruTtlCache<String, String>(0, 1000);
+    }
+}
@@ -0,0 +1,132 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 1.0};
+
+    @Test
+    public void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertEquals(0, sketch.getCount());
+    }
+
+    @Test
+    public void uniformQuantilesWithinRelativeError() {
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i + 1) / 100.0;
+        }
+        assertQuantilesWithinOnePercent(values);
+    }
+
+    @Test
+    public void skewedQuantilesWithinRelativeError() {
+        // Log-normal amounts from cents to millions, like real payments
+        Random random = new Random(7);
+        double[] values = new double[200_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.max(0.01, Math.round(Math.exp(5 + 2.5 * random.nextGaussian()) * 100) / 100.0);
+        }
+        assertQuantilesWithinOnePercent(values);
+    }
+
+    @Test
+    public void minAndMaxAreExact() {
+        QuantileSketch sketch = sketchOf(new double[]{12.34, 0.01, 99999.99, 500});
+        assertEquals(0.01, sketch.getMin(), 0);
+        assertEquals(99999.99, sketch.getMax(), 0);
+        // Estimates are clamped to the exact range
+        assertEquals(0.01, sketch.quantile(0), 0);
+        assertTrue(sketch.quantile(1) <= 99999.99);
+        assertWithinOnePercent(99999.99, sketch.quantile(1));
+    }
+
+    @Test
+    public void zeroAndNegativeValuesRankBelowPositives() {
+        QuantileSketch sketch = sketchOf(new double[]{-5, 0, 10, 20, 30});
+        assertEquals(5, sketch.getCount());
+        // Values of zero or less share one bucket, reported as the minimum
+        assertEquals(-5, sketch.quantile(0.25), 0);
+        assertWithinOnePercent(10, sketch.quantile(0.5));
+        assertWithinOnePercent(20, sketch.quantile(0.75));
+    }
+
+    @Test
+    public void mergeEqualsSketchOfWholeRange() {
+        Random random = new Random(11);
+        double[] values = new double[30_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 0.01 + random.nextDouble() * (i < 10_000 ? 10 : i < 20_000 ? 1000 : 1_000_000);
+        }
+        QuantileSketch whole = sketchOf(values);
+        QuantileSketch merged = new QuantileSketch();
+        // Ranges far apart exercise growing the buckets in both directions
+        merged.merge(sketchOf(Arrays.copyOfRange(values, 20_000, 30_000)));
+        merged.merge(sketchOf(Arrays.copyOfRange(values, 0, 10_000)));
+        merged.merge(sketchOf(Arrays.copyOfRange(values, 10_000, 20_000)));
+        merged.merge(new QuantileSketch());
+
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getMin(), merged.getMin(), 0);
+        assertEquals(whole.getMax(), merged.getMax(), 0);
+        for (double q : QUANTILES) {
+            assertEquals(whole.quantile(q), merged.quantile(q), 0);
+        }
+    }
+
+    @Test
+    public void serializationRoundTrips() throws IOException {
+        QuantileSketch sketch = sketchOf(new double[]{0, 0.5, 3, 3, 40, 1_000_000});
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            sketch.write(out);
+        }
+        QuantileSketch read;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = QuantileSketch.read(in);
+        }
+
+        assertEquals(sketch.getCount(), read.getCount());
+        assertEquals(sketch.getMin(), read.getMin(), 0);
+        assertEquals(sketch.getMax(), read.getMax(), 0);
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), read.quantile(q), 0);
+        }
+    }
+
+    private static void assertQuantilesWithinOnePercent(double[] values) {
+        QuantileSketch sketch = sketchOf(values);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            assertWithinOnePercent(exact, sketch.quantile(q));
+        }
+    }
+
+    private static void assertWithinOnePercent(double expected, double actual) {
+        assertTrue("estimate " + actual + " for " + expected, Math.abs(actual - expected) <= expected * 0.01 + 1e-9);
+    }
+
+    private static QuantileSketch sketchOf(double[] values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,107 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReferenceNumberGeneratorTest {
+
+    private static final long SEQUENCE_MASK = (1L << 12) - 1;
+
+    @Test
+    public void idsCarryNodeIdAndCurrentTime() {
+        long before = System.currentTimeMillis() - ReferenceNumberGenerator.EPOCH_MILLIS;
+        long id = new ReferenceNumberGenerator(513).nextId();
+
+        assertTrue(id > 0);
+        assertEquals(513, (id >>> 12) & ReferenceNumberGenerator.MAX_NODE_ID);
+        assertTrue(timestamp(id) >= before);
+        assertTrue(timestamp(id) <= System.currentTimeMillis() - ReferenceNumberGenerator.EPOCH_MILLIS);
+    }
+
+    @Test
+    public void exhaustedSequenceRollsIntoNextMillisecond() {
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(1);
+        // Far more than 4096 ids per millisecond, so sequences overflow
+        long previous = generator.nextId();
+        int overflows = 0;
+        for (int i = 0; i < 300_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertEquals(1, (id >>> 12) & ReferenceNumberGenerator.MAX_NODE_ID);
+            if (timestamp(id) == timestamp(previous)) {
+                assertEquals(sequence(previous) + 1, sequence(id));
+            } else if (sequence(previous) == SEQUENCE_MASK) {
+                assertEquals(timestamp(previous) + 1, timestamp(id));
+                assertEquals(0, sequence(id));
+                overflows++;
+            }
+            previous = id;
+        }
+        assertTrue("no sequence overflow happened", overflows > 0);
+    }
+
+    @Test
+    public void concurrentCallersGetDistinctIds() throws InterruptedException {
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(7);
+        int threadCount = 8;
+        int perThread = 50_000;
+        long[][] ids = new long[threadCount][perThread];
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            long[] out = ids[t];
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    out[i] = generator.nextId();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<Long> distinct = new HashSet<>();
+        for (long[] out : ids) {
+            for (int i = 0; i < perThread; i++) {
+                assertTrue(distinct.add(out[i]));
+                // Each caller sees its own ids strictly increasing
+                assertTrue(i == 0 || out[i] > out[i - 1]);
+            }
+        }
+        assertEquals(threadCount * perThread, distinct.size());
+    }
+
+    @Test
+    public void referenceIsPrefixedId() {
+        String reference = new ReferenceNumberGenerator(0).nextReference("PAY");
+        assertTrue(reference.startsWith("PAY"));
+        assertTrue(Long.parseLong(reference.substring(3)) > 0);
+    }
+
+    @Test
+    public void nodeIdOutOfRangeIsRejected() {
+        for (int nodeId : new int[]{-1, ReferenceNumberGenerator.MAX_NODE_ID + 1}) {
+            try {
+                new ReferenceNumberGenerator(nodeId);
+                fail("node id " + nodeId + " accepted");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    private static long timestamp(long id) {
+        return id >>> 22;
+    }
+
+    private static long sequence(long id) {
+        return id & SEQUENCE_MASK;
+    }
+}
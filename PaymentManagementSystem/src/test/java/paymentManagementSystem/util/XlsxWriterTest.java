@@ -0,0 +1,142 @@
+package paymentManagementSystem.util;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class XlsxWriterTest {
+
+    @Test
+    public void escapesMarkupInCellText() throws Exception {
+        Map<String, String> parts = write("Payments", xlsx -> {
+            xlsx.startRow();
+            xlsx.inlineString("a < b & c > d \"quoted\"");
+            xlsx.endRow();
+        });
+
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<t>a &lt; b &amp; c &gt; d \"quoted\"</t>"));
+        assertEquals("a < b & c > d \"quoted\"", texts(sheet, "t")[0]);
+    }
+
+    @Test
+    public void dropsControlCharactersXmlCannotCarry() throws Exception {
+        Map<String, String> parts = write("Payments", xlsx -> {
+            xlsx.startRow();
+            xlsx.inlineString("bell\u0007 null\u0000 esc\u001B end\uFFFF\uFFFE");
+            xlsx.inlineString("tab\tnew\nline");
+            xlsx.endRow();
+        });
+
+        String[] cells = texts(parts.get("xl/worksheets/sheet1.xml"), "t");
+        assertEquals("bell null esc end", cells[0]);
+        assertEquals("tab\tnew\nline", cells[1]);
+    }
+
+    @Test
+    public void preservesLeadingAndTrailingWhitespace() throws Exception {
+        Map<String, String> parts = write("Payments", xlsx -> {
+            xlsx.startRow();
+            xlsx.inlineString(" padded ");
+            xlsx.inlineString("inner space");
+            xlsx.endRow();
+        });
+
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<t xml:space=\"preserve\"> padded </t>"));
+        assertTrue(sheet.contains("<t>inner space</t>"));
+    }
+
+    @Test
+    public void escapesSheetNamesAndSharedStrings() throws Exception {
+        Map<String, String> parts = write("Q1 \"R&D\" <draft>", xlsx -> {
+            xlsx.startRow();
+            xlsx.sharedString("EUR & USD");
+            xlsx.sharedString("EUR & USD");
+            xlsx.sharedString("<none>");
+            xlsx.endRow();
+        });
+
+        String workbook = parts.get("xl/workbook.xml");
+        assertTrue(workbook.contains("name=\"Q1 &quot;R&amp;D&quot; &lt;draft&gt;\""));
+        Document parsed = parse(workbook);
+        assertEquals("Q1 \"R&D\" <draft>",
+                parsed.getElementsByTagName("sheet").item(0).getAttributes().getNamedItem("name").getNodeValue());
+
+        String sharedStrings = parts.get("xl/sharedStrings.xml");
+        assertTrue(sharedStrings.contains("count=\"3\" uniqueCount=\"2\""));
+        String[] values = texts(sharedStrings, "t");
+        assertEquals("EUR & USD", values[0]);
+        assertEquals("<none>", values[1]);
+    }
+
+    @Test
+    public void writesNumbersAmountsAndDatesAsNumericCells() throws Exception {
+        Map<String, String> parts = write("Payments", xlsx -> {
+            xlsx.headerRow("Id", "Amount", "Date", "Missing");
+            xlsx.startRow();
+            xlsx.number(42L);
+            xlsx.amount(new BigDecimal("1234.50"));
+            xlsx.dateTime(LocalDateTime.of(1970, 1, 2, 12, 0));
+            xlsx.number((Long) null);
+            xlsx.endRow();
+        });
+
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<row r=\"2\"><c><v>42</v></c><c s=\"1\"><v>1234.50</v></c>"
+                + "<c s=\"2\"><v>25570.5</v></c><c/></row>"));
+        // Every part must be well-formed
+        for (Map.Entry<String, String> part : parts.entrySet()) {
+            parse(part.getValue());
+        }
+    }
+
+    private interface SheetBody {
+        void write(XlsxWriter xlsx) throws IOException;
+    }
+
+    private static Map<String, String> write(String sheetName, SheetBody body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (XlsxWriter xlsx = new XlsxWriter(bytes)) {
+            xlsx.startSheet(sheetName, true);
+            body.write(xlsx);
+        }
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                parts.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return parts;
+    }
+
+    private static Document parse(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String[] texts(String xml, String tag) throws Exception {
+        NodeList nodes = parse(xml).getElementsByTagName(tag);
+        String[] texts = new String[nodes.getLength()];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = nodes.item(i).getTextContent();
+        }
+        return texts;
+    }
+}